@@ -26,6 +26,7 @@ import com.zhengshuyun.oktool.core.emqx.model.EmqxClientConfig;
 import com.zhengshuyun.oktool.core.emqx.model.ClientInfo;
 import com.zhengshuyun.oktool.core.emqx.model.ListClientInfoReuqest;
 import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.core.util.HttpClientUtil;
 import com.zhengshuyun.oktool.core.util.JacksonUtil;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -42,6 +43,11 @@ import java.util.Optional;
  */
 public class EmqxClient {
 
+    /**
+     * http客户端名称, 通过 {@link HttpClientUtil#registerEngine} 注册后使用独立连接池
+     */
+    public static final String HTTP_ENGINE = "emqx";
+
     private EmqxClientConfig config;
 
     public EmqxClient(EmqxClientConfig config) {
@@ -103,7 +109,7 @@ public class EmqxClient {
             request.body(body);
         }
 
-        try (Response response = request.send()) {
+        try (Response response = HttpClientUtil.clientEngine(HTTP_ENGINE).send(request)) {
             Assert.isTrue(response.isOk(), "http response status: " + response.getStatus());
             String bodyStr = response.bodyStr();
             Assert.notBlank(bodyStr, "http response body is blank");
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.core.model;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * http客户端配置
+ *
+ * <p>每个下游使用独立的连接池与调度器, 某个下游变慢或流量激增时不会占满其他下游的连接</p>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class HttpEngineConfig {
+    /**
+     * 连接超时时间, null表示使用全局超时时间
+     */
+    private Duration connectTimeout;
+
+    /**
+     * 读取超时时间, null表示使用全局超时时间
+     */
+    private Duration readTimeout;
+
+    /**
+     * 连接池最大空闲连接数
+     */
+    private int maxIdleConnections = 5;
+
+    /**
+     * 空闲连接保活时间
+     */
+    private Duration keepAlive = Duration.ofMinutes(5);
+
+    /**
+     * 异步请求最大并发数
+     */
+    private int maxRequests = 64;
+
+    /**
+     * 异步请求单个主机最大并发数
+     */
+    private int maxRequestsPerHost = 5;
+
+    /**
+     * 是否启用HTTP/2 (仅https, 通过ALPN协商, 服务端不支持时自动降级为HTTP/1.1)
+     * <p>
+     * HTTP/2下同一主机的请求复用一个连接
+     */
+    private boolean http2 = true;
+
+    /**
+     * DNS缓存时间, null或小于等于0表示不缓存(使用JVM自身的DNS缓存)
+     */
+    private Duration dnsCacheTtl = Duration.ofMinutes(1);
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    public void setMaxIdleConnections(int maxIdleConnections) {
+        this.maxIdleConnections = maxIdleConnections;
+    }
+
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(Duration keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    public void setMaxRequests(int maxRequests) {
+        this.maxRequests = maxRequests;
+    }
+
+    public int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    public void setMaxRequestsPerHost(int maxRequestsPerHost) {
+        this.maxRequestsPerHost = maxRequestsPerHost;
+    }
+
+    public boolean isHttp2() {
+        return http2;
+    }
+
+    public void setHttp2(boolean http2) {
+        this.http2 = http2;
+    }
+
+    public Duration getDnsCacheTtl() {
+        return dnsCacheTtl;
+    }
+
+    public void setDnsCacheTtl(Duration dnsCacheTtl) {
+        this.dnsCacheTtl = dnsCacheTtl;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        HttpEngineConfig that = (HttpEngineConfig) o;
+        return maxIdleConnections == that.maxIdleConnections && maxRequests == that.maxRequests && maxRequestsPerHost == that.maxRequestsPerHost && http2 == that.http2 && Objects.equals(connectTimeout, that.connectTimeout) && Objects.equals(readTimeout, that.readTimeout) && Objects.equals(keepAlive, that.keepAlive) && Objects.equals(dnsCacheTtl, that.dnsCacheTtl);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(connectTimeout, readTimeout, maxIdleConnections, keepAlive, maxRequests, maxRequestsPerHost, http2, dnsCacheTtl);
+    }
+
+    @Override
+    public String toString() {
+        return "HttpEngineConfig{" +
+                "connectTimeout=" + connectTimeout +
+                ", readTimeout=" + readTimeout +
+                ", maxIdleConnections=" + maxIdleConnections +
+                ", keepAlive=" + keepAlive +
+                ", maxRequests=" + maxRequests +
+                ", maxRequestsPerHost=" + maxRequestsPerHost +
+                ", http2=" + http2 +
+                ", dnsCacheTtl=" + dnsCacheTtl +
+                '}';
+    }
+}
@@ -16,12 +16,23 @@
 
 package com.zhengshuyun.oktool.core.model;
 
+import com.zhengshuyun.oktool.core.util.RetryBudget;
+
 import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
 
 /**
  * 重试策略
  *
+ * <p>默认固定间隔重试, 可通过 with 方法生成带指数退避/抖动/总时长上限/重试预算的新策略:</p>
+ * <pre>{@code
+ * RetryPolicy policy = new RetryPolicy(5, Duration.ofMillis(100), IOException.class)
+ *         .withBackoff(2, Duration.ofSeconds(5), RetryPolicy.Jitter.FULL)
+ *         .withDeadline(Duration.ofSeconds(10))
+ *         .withRetryBudget(RetryBudget.of("bdocr"));
+ * }</pre>
+ *
  * @author Toint
  * @since 2025/5/31
  */
@@ -33,6 +44,8 @@ public class RetryPolicy {
 
     /**
      * 间隔时间 (null 或 小于等于0, 表示立刻重试不会等待)
+     * <p>
+     * 指数退避时为首次重试的间隔
      */
     private final Duration intervalTime;
 
@@ -46,6 +59,41 @@ public class RetryPolicy {
      */
     private final boolean printStackTrace;
 
+    /**
+     * 退避倍数 (小于等于1表示固定间隔)
+     */
+    private final double multiplier;
+
+    /**
+     * 最大间隔时间 (null 表示不限制)
+     */
+    private final Duration maxIntervalTime;
+
+    /**
+     * 间隔抖动, 避免多个实例同时重试 (默认 {@link Jitter#NONE})
+     */
+    private final Jitter jitter;
+
+    /**
+     * 总时长上限, 从首次执行开始计算, 下次重试会超过上限时不再重试 (null 表示不限制)
+     */
+    private final Duration deadline;
+
+    /**
+     * 重试预算, 通常按下游共享 (null 表示不限制)
+     */
+    private final RetryBudget retryBudget;
+
+    /**
+     * 非幂等调用是否重试 (默认 false 不重试)
+     */
+    private final boolean retryNonIdempotent;
+
+    /**
+     * 不重试的异常类型, 异常或其原因链中任意一个匹配时不重试, 优先于 {@link #exceptionClass} (默认空)
+     */
+    private final List<Class<? extends Throwable>> abortOn;
+
     /**
      * @param retrySize      重试次数 (不包含首次执行, 小于1表示不重试, 但无论如何方法会执行1次)
      * @param intervalTime   间隔时间 (null 或 小于等于0, 表示立刻重试不会等待)
@@ -54,10 +102,7 @@ public class RetryPolicy {
     public RetryPolicy(int retrySize,
                        Duration intervalTime,
                        Class<? extends Throwable> exceptionClass) {
-        this.retrySize = retrySize;
-        this.intervalTime = intervalTime;
-        this.exceptionClass = exceptionClass;
-        this.printStackTrace = false;
+        this(retrySize, intervalTime, exceptionClass, false);
     }
 
     /**
@@ -70,10 +115,114 @@ public class RetryPolicy {
                        Duration intervalTime,
                        Class<? extends Throwable> exceptionClass,
                        boolean printStackTrace) {
+        this(retrySize, intervalTime, exceptionClass, printStackTrace,
+                1, null, Jitter.NONE, null, null, false, List.of());
+    }
+
+    private RetryPolicy(int retrySize,
+                        Duration intervalTime,
+                        Class<? extends Throwable> exceptionClass,
+                        boolean printStackTrace,
+                        double multiplier,
+                        Duration maxIntervalTime,
+                        Jitter jitter,
+                        Duration deadline,
+                        RetryBudget retryBudget,
+                        boolean retryNonIdempotent,
+                        List<Class<? extends Throwable>> abortOn) {
         this.retrySize = retrySize;
         this.intervalTime = intervalTime;
         this.exceptionClass = exceptionClass;
         this.printStackTrace = printStackTrace;
+        this.multiplier = multiplier;
+        this.maxIntervalTime = maxIntervalTime;
+        this.jitter = jitter == null ? Jitter.NONE : jitter;
+        this.deadline = deadline;
+        this.retryBudget = retryBudget;
+        this.retryNonIdempotent = retryNonIdempotent;
+        this.abortOn = abortOn;
+    }
+
+    /**
+     * 指数退避 + 完全抖动
+     *
+     * @param retrySize       重试次数
+     * @param intervalTime    首次重试的间隔时间
+     * @param maxIntervalTime 最大间隔时间
+     * @param exceptionClass  匹配异常类型
+     */
+    public static RetryPolicy exponential(int retrySize,
+                                          Duration intervalTime,
+                                          Duration maxIntervalTime,
+                                          Class<? extends Throwable> exceptionClass) {
+        return new RetryPolicy(retrySize, intervalTime, exceptionClass)
+                .withBackoff(2, maxIntervalTime, Jitter.FULL);
+    }
+
+    /**
+     * 指数退避
+     *
+     * @param multiplier      退避倍数 (小于等于1表示固定间隔)
+     * @param maxIntervalTime 最大间隔时间 (null 表示不限制)
+     * @param jitter          间隔抖动 (null 表示不抖动)
+     * @return 新的重试策略
+     */
+    public RetryPolicy withBackoff(double multiplier, Duration maxIntervalTime, Jitter jitter) {
+        return new RetryPolicy(retrySize, intervalTime, exceptionClass, printStackTrace,
+                multiplier, maxIntervalTime, jitter, deadline, retryBudget, retryNonIdempotent, abortOn);
+    }
+
+    /**
+     * @param deadline 总时长上限 (null 表示不限制)
+     * @return 新的重试策略
+     */
+    public RetryPolicy withDeadline(Duration deadline) {
+        return new RetryPolicy(retrySize, intervalTime, exceptionClass, printStackTrace,
+                multiplier, maxIntervalTime, jitter, deadline, retryBudget, retryNonIdempotent, abortOn);
+    }
+
+    /**
+     * @param retryBudget 重试预算 (null 表示不限制)
+     * @return 新的重试策略
+     */
+    public RetryPolicy withRetryBudget(RetryBudget retryBudget) {
+        return new RetryPolicy(retrySize, intervalTime, exceptionClass, printStackTrace,
+                multiplier, maxIntervalTime, jitter, deadline, retryBudget, retryNonIdempotent, abortOn);
+    }
+
+    /**
+     * @param retryNonIdempotent 非幂等调用是否重试
+     * @return 新的重试策略
+     */
+    public RetryPolicy withRetryNonIdempotent(boolean retryNonIdempotent) {
+        return new RetryPolicy(retrySize, intervalTime, exceptionClass, printStackTrace,
+                multiplier, maxIntervalTime, jitter, deadline, retryBudget, retryNonIdempotent, abortOn);
+    }
+
+    /**
+     * @param abortOn 不重试的异常类型, 用于排除 {@link #exceptionClass} 中不应重试的子类型, 如参数校验失败
+     * @return 新的重试策略
+     */
+    @SafeVarargs
+    public final RetryPolicy withAbortOn(Class<? extends Throwable>... abortOn) {
+        return new RetryPolicy(retrySize, intervalTime, exceptionClass, printStackTrace,
+                multiplier, maxIntervalTime, jitter, deadline, retryBudget, retryNonIdempotent,
+                abortOn == null ? List.of() : List.of(abortOn));
+    }
+
+    /**
+     * 异常或其原因链中是否有不重试的异常类型
+     *
+     * @param e 本次执行的异常
+     * @return true 不重试
+     */
+    public boolean isAbortOn(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            for (Class<? extends Throwable> item : abortOn) {
+                if (item.isInstance(cause)) return true;
+            }
+        }
+        return false;
     }
 
     public int getRetrySize() {
@@ -94,16 +243,44 @@ public class RetryPolicy {
         return printStackTrace;
     }
 
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public Duration getMaxIntervalTime() {
+        return maxIntervalTime;
+    }
+
+    public Jitter getJitter() {
+        return jitter;
+    }
+
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+
+    public boolean isRetryNonIdempotent() {
+        return retryNonIdempotent;
+    }
+
+    public List<Class<? extends Throwable>> getAbortOn() {
+        return abortOn;
+    }
+
     @Override
     public boolean equals(Object object) {
         if (object == null || getClass() != object.getClass()) return false;
         RetryPolicy that = (RetryPolicy) object;
-        return retrySize == that.retrySize && printStackTrace == that.printStackTrace && Objects.equals(intervalTime, that.intervalTime) && Objects.equals(exceptionClass, that.exceptionClass);
+        return retrySize == that.retrySize && printStackTrace == that.printStackTrace && Double.compare(multiplier, that.multiplier) == 0 && retryNonIdempotent == that.retryNonIdempotent && Objects.equals(intervalTime, that.intervalTime) && Objects.equals(exceptionClass, that.exceptionClass) && Objects.equals(maxIntervalTime, that.maxIntervalTime) && jitter == that.jitter && Objects.equals(deadline, that.deadline) && Objects.equals(retryBudget, that.retryBudget) && Objects.equals(abortOn, that.abortOn);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(retrySize, intervalTime, exceptionClass, printStackTrace);
+        return Objects.hash(retrySize, intervalTime, exceptionClass, printStackTrace, multiplier, maxIntervalTime, jitter, deadline, retryBudget, retryNonIdempotent, abortOn);
     }
 
     @Override
@@ -113,6 +290,33 @@ public class RetryPolicy {
                 ", intervalTime=" + intervalTime +
                 ", exceptionClass=" + exceptionClass +
                 ", printStackTrace=" + printStackTrace +
+                ", multiplier=" + multiplier +
+                ", maxIntervalTime=" + maxIntervalTime +
+                ", jitter=" + jitter +
+                ", deadline=" + deadline +
+                ", retryBudget=" + retryBudget +
+                ", retryNonIdempotent=" + retryNonIdempotent +
+                ", abortOn=" + abortOn +
                 '}';
     }
+
+    /**
+     * 间隔抖动
+     */
+    public enum Jitter {
+        /**
+         * 不抖动
+         */
+        NONE,
+
+        /**
+         * 完全抖动: random(0, 退避间隔)
+         */
+        FULL,
+
+        /**
+         * 去相关抖动: min(最大间隔, random(间隔时间, 上次间隔 * 3))
+         */
+        DECORRELATED
+    }
 }
@@ -16,7 +16,9 @@
 
 package com.zhengshuyun.oktool.core.mqtt;
 
+import com.zhengshuyun.oktool.core.model.RetryPolicy;
 import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.core.util.RetryUtil;
 import com.hivemq.client.mqtt.MqttClient;
 import com.hivemq.client.mqtt.mqtt5.Mqtt5AsyncClient;
 import com.hivemq.client.mqtt.mqtt5.message.publish.Mqtt5Publish;
@@ -26,10 +28,14 @@ import com.hivemq.client.mqtt.mqtt5.message.subscribe.suback.Mqtt5SubAck;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * {@link MqttClient}封装
@@ -76,6 +82,29 @@ public class MqttTemplate implements AutoCloseable {
         return client.publish(publish);
     }
 
+    /**
+     * 发布消息, 失败时按重试策略异步重试, 重试等待期间不占用线程
+     * <p>
+     * 发布消息是非幂等调用, 只按 {@link RetryPolicy#isRetryNonIdempotent()} 的策略重试;
+     * 重试可能导致消息重复, 订阅方需要幂等处理
+     * <p>
+     * <b>注意:</b> {@code new RetryPolicy(3, Duration.ofSeconds(1), RuntimeException.class)} 这类普通策略不会重试,
+     * 需要重试时使用 {@code policy.withRetryNonIdempotent(true)}
+     *
+     * @param publish       消息
+     * @param retryPolicies 重试策略, 发布结果中的错误同样会触发重试
+     * @see RetryUtil#executeAsync(Supplier, boolean, Duration, Collection)
+     */
+    public CompletableFuture<Mqtt5PublishResult> publish(Mqtt5Publish publish, Collection<RetryPolicy> retryPolicies) {
+        Assert.notNullParam(publish, "publish");
+        return RetryUtil.executeAsync(() -> client.publish(publish).thenApply(result -> {
+            result.getError().ifPresent(e -> {
+                throw new CompletionException(e);
+            });
+            return result;
+        }), false, null, retryPolicies);
+    }
+
     /**
      * 订阅主题
      *
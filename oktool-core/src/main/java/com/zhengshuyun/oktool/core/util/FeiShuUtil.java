@@ -37,6 +37,11 @@ import java.util.Map;
  */
 public class FeiShuUtil {
 
+    /**
+     * http客户端名称, 通过 {@link HttpClientUtil#registerEngine} 注册后使用独立连接池
+     */
+    public static final String HTTP_ENGINE = "feishu";
+
     /**
      * 生成 webhook 签名
      *
@@ -88,9 +93,8 @@ public class FeiShuUtil {
         body.put("msg_type", "text");
         body.put("content", Map.of("text", text));
 
-        try (Response response = HttpUtil.createPost(url)
-                .body(JacksonUtil.writeValueAsString(body))
-                .send()) {
+        try (Response response = HttpClientUtil.clientEngine(HTTP_ENGINE).send(HttpUtil.createPost(url)
+                .body(JacksonUtil.writeValueAsString(body)))) {
             final String bodyStr = response.bodyStr();
 
             Assert.isTrue(response.isOk() && StringUtils.isBlank(bodyStr),
@@ -19,12 +19,26 @@ package com.zhengshuyun.oktool.core.util;
 import cn.hutool.v7.core.lang.Singleton;
 import cn.hutool.v7.http.HttpGlobalConfig;
 import cn.hutool.v7.http.client.ClientConfig;
+import cn.hutool.v7.http.client.Request;
+import cn.hutool.v7.http.client.Response;
 import cn.hutool.v7.http.client.engine.ClientEngine;
 import cn.hutool.v7.http.client.engine.ClientEngineFactory;
 import cn.hutool.v7.http.client.engine.jdk.JdkClientEngine;
 import cn.hutool.v7.http.client.engine.okhttp.OkHttpEngine;
+import com.zhengshuyun.oktool.core.model.HttpEngineConfig;
+import org.slf4j.MDC;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
 
 /**
  * @author Toint
@@ -35,6 +49,21 @@ public class HttpClientUtil {
     private static final Duration DEFAULT_GLOBAL_TIMEOUT = Duration.ofSeconds(30);
     private static final Class<? extends ClientEngine> DEFAULT_CLIENT_ENGINE = OkHttpEngine.class;
 
+    /**
+     * 命名客户端, key: 客户端名称(通常为下游名称)
+     */
+    private static final Map<String, ClientEngine> NAMED_ENGINES = new ConcurrentHashMap<>();
+
+    /**
+     * 虚拟线程执行器, 用于恢复上下文后完成异步请求, 以及执行不支持异步的客户端的请求
+     */
+    private static final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * 不支持异步的客户端(非 {@link PooledOkHttpEngine})同时进行中的异步请求上限
+     */
+    private static final Semaphore ASYNC_PERMITS = new Semaphore(64);
+
     /**
      * 创建 http 客户端
      *
@@ -44,28 +73,51 @@ public class HttpClientUtil {
      */
     @SuppressWarnings("resource")
     public static ClientEngine clientEngine(Class<? extends ClientEngine> clientEngineClass, ClientConfig clientConfig) {
-        // 全局超时时间
-        if (HttpGlobalConfig.getTimeout() <= 0) {
-            HttpGlobalConfig.setTimeout((int) DEFAULT_GLOBAL_TIMEOUT.toMillis());
+        if (clientEngineClass == null) {
+            clientEngineClass = DEFAULT_CLIENT_ENGINE;
         }
 
-        if (clientConfig == null) {
-            clientConfig = ClientConfig.of();
-        }
+        return ClientEngineFactory.createEngine(clientEngineClass.getName()).init(clientConfig(clientConfig));
+    }
 
-        if (clientConfig.getConnectionTimeout() <= 0) {
-            clientConfig.setConnectionTimeout(HttpGlobalConfig.getTimeout());
-        }
+    /**
+     * 注册命名 http 客户端, 同名客户端会被替换并关闭
+     * <p>
+     * 每个命名客户端使用独立的连接池与调度器, 用于隔离不同下游, 例如ocr大文件上传不会占满其他下游的连接
+     *
+     * @param name         客户端名称
+     * @param engineConfig 连接池配置, 超时时间为null时使用全局超时时间
+     * @return 命名 http 客户端
+     */
+    public static ClientEngine registerEngine(String name, HttpEngineConfig engineConfig) {
+        Assert.notBlankParam(name, "name");
+        Assert.notNullParam(engineConfig, "engineConfig");
 
-        if (clientConfig.getReadTimeout() <= 0) {
-            clientConfig.setReadTimeout(HttpGlobalConfig.getTimeout());
-        }
+        ClientEngine clientEngine = new PooledOkHttpEngine(engineConfig).init(clientConfig(null));
+        closeQuietly(NAMED_ENGINES.put(name, clientEngine));
+        return clientEngine;
+    }
 
-        if (clientEngineClass == null) {
-            clientEngineClass = DEFAULT_CLIENT_ENGINE;
-        }
+    /**
+     * 移除并关闭命名 http 客户端
+     *
+     * @param name 客户端名称
+     */
+    public static void removeEngine(String name) {
+        Assert.notBlankParam(name, "name");
+        closeQuietly(NAMED_ENGINES.remove(name));
+    }
 
-        return ClientEngineFactory.createEngine(clientEngineClass.getName()).init(clientConfig);
+    /**
+     * 获取命名 http 客户端
+     *
+     * @param name 客户端名称
+     * @return 命名 http 客户端, 未注册时返回单例 http 客户端 {@link #clientEngine()}
+     */
+    public static ClientEngine clientEngine(String name) {
+        Assert.notBlankParam(name, "name");
+        ClientEngine clientEngine = NAMED_ENGINES.get(name);
+        return clientEngine != null ? clientEngine : clientEngine();
     }
 
     /**
@@ -77,6 +129,108 @@ public class HttpClientUtil {
         return Singleton.get(ClientEngine.class.getName(), () -> HttpClientUtil.clientEngine(null, null));
     }
 
+    /**
+     * 使用单例 http 客户端异步发送请求, 传播当前线程的 MDC
+     *
+     * @see #sendAsync(String, Request, Map)
+     */
+    public static CompletableFuture<Response> sendAsync(Request request) {
+        return sendAsync(clientEngine(), request, null);
+    }
+
+    /**
+     * 使用命名 http 客户端异步发送请求, 传播当前线程的 MDC
+     *
+     * @see #sendAsync(String, Request, Map)
+     */
+    public static CompletableFuture<Response> sendAsync(String name, Request request) {
+        return sendAsync(name, request, null);
+    }
+
+    /**
+     * 使用命名 http 客户端异步发送请求
+     * <p>
+     * <h2>注意事项:</h2>
+     * <li>{@link PooledOkHttpEngine} 由OkHttp调度器执行, 并发受该客户端的 maxRequests/maxRequestsPerHost 限制</li>
+     * <li>其他客户端在虚拟线程中同步发送, 同时进行中的请求不超过 {@link #ASYNC_PERMITS}</li>
+     * <li>Future 在恢复了 MDC 与 ScopedValue 的虚拟线程中完成, 后续的非async阶段可以读取调用方的上下文</li>
+     * <li>响应使用后需要关闭, 取消 Future 会取消请求并关闭迟到的响应</li>
+     * </p>
+     *
+     * @param name           客户端名称, 未注册时使用单例 http 客户端
+     * @param request        请求
+     * @param scopedValueMap 需要传播的 ScopedValue(可选), 如 {@code OkContext.captureContext()}
+     * @return 响应
+     */
+    public static CompletableFuture<Response> sendAsync(String name, Request request, Map<ScopedValue<?>, Object> scopedValueMap) {
+        return sendAsync(clientEngine(name), request, scopedValueMap);
+    }
+
+    /**
+     * 使用命名 http 客户端批量异步发送请求, 同时进行中的请求不超过 maxConcurrency
+     * <p>
+     * 每个响应交给 handler 处理后立即关闭, 任一请求失败时整体失败, 不再发送剩余请求
+     *
+     * @param name           客户端名称, 未注册时使用单例 http 客户端
+     * @param requests       请求列表
+     * @param maxConcurrency 最大并发数
+     * @param handler        响应处理, 在恢复了调用方上下文的虚拟线程中执行
+     * @return 处理结果, 顺序与请求列表一致
+     */
+    public static <R> CompletableFuture<List<R>> sendAll(String name, List<Request> requests, int maxConcurrency, Function<Response, R> handler) {
+        Assert.notNullParam(handler, "handler");
+        ClientEngine clientEngine = clientEngine(name);
+        return fanOut(requests, maxConcurrency, request -> {
+            CompletableFuture<Response> sent = sendAsync(clientEngine, request, null);
+            CompletableFuture<R> handled = new CompletableFuture<>();
+            // 整体失败时取消的是处理结果, 需要同时取消底层请求, 否则请求继续占用连接
+            handled.whenComplete((value, e) -> {
+                if (handled.isCancelled()) sent.cancel(true);
+            });
+            sent.whenComplete((response, e) -> {
+                if (e != null) {
+                    handled.completeExceptionally(e);
+                    return;
+                }
+                // 已被取消时不再处理, 直接关闭迟到的响应
+                if (handled.isDone()) {
+                    closeQuietly(response);
+                    return;
+                }
+                try {
+                    handled.complete(handler.apply(response));
+                } catch (Throwable t) {
+                    handled.completeExceptionally(t);
+                } finally {
+                    closeQuietly(response);
+                }
+            });
+            return handled;
+        });
+    }
+
+    /**
+     * 批量执行异步任务, 同时进行中的任务不超过 maxConcurrency
+     * <p>
+     * 前一个任务完成后才启动下一个任务; 任一任务失败(或返回的 Future 被取消)时整体失败,
+     * 不再启动剩余任务并取消进行中的任务
+     *
+     * @param items          任务参数
+     * @param maxConcurrency 最大并发数
+     * @param task           异步任务
+     * @return 任务结果, 顺序与任务参数一致
+     */
+    public static <T, R> CompletableFuture<List<R>> fanOut(List<T> items, int maxConcurrency, Function<T, CompletableFuture<R>> task) {
+        Assert.notNullParam(items, "items");
+        Assert.notNullParam(task, "task");
+        Assert.isTrue(maxConcurrency > 0, "maxConcurrency必须大于0");
+        if (items.isEmpty()) return CompletableFuture.completedFuture(Collections.emptyList());
+
+        FanOut<T, R> fanOut = new FanOut<>(items, task);
+        fanOut.start(Math.min(maxConcurrency, items.size()));
+        return fanOut.result;
+    }
+
     /**
      * 初始化全局配置
      *
@@ -113,4 +267,159 @@ public class HttpClientUtil {
         ClientEngine clientEngine = HttpClientUtil.clientEngine(clientEngineClass, clientConfig);
         Singleton.put(ClientEngine.class.getName(), clientEngine);
     }
-}
\ No newline at end of file
+
+    private static CompletableFuture<Response> sendAsync(ClientEngine clientEngine, Request request, Map<ScopedValue<?>, Object> scopedValueMap) {
+        Assert.notNullParam(request, "request");
+        Executor executor = contextExecutor(scopedValueMap);
+
+        if (clientEngine instanceof PooledOkHttpEngine pooledEngine) {
+            return pooledEngine.sendAsync(request, executor);
+        }
+
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (future.isDone()) return;
+            try {
+                ASYNC_PERMITS.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+                return;
+            }
+
+            try {
+                if (future.isDone()) return;
+                Response response = clientEngine.send(request);
+                if (!future.complete(response)) closeQuietly(response);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                ASYNC_PERMITS.release();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 补全客户端配置中的超时时间
+     *
+     * @param clientConfig 客户端配置(可选), 默认超时时间: {@link HttpGlobalConfig#getTimeout()}
+     */
+    private static ClientConfig clientConfig(ClientConfig clientConfig) {
+        // 全局超时时间
+        if (HttpGlobalConfig.getTimeout() <= 0) {
+            HttpGlobalConfig.setTimeout((int) DEFAULT_GLOBAL_TIMEOUT.toMillis());
+        }
+
+        if (clientConfig == null) {
+            clientConfig = ClientConfig.of();
+        }
+
+        if (clientConfig.getConnectionTimeout() <= 0) {
+            clientConfig.setConnectionTimeout(HttpGlobalConfig.getTimeout());
+        }
+
+        if (clientConfig.getReadTimeout() <= 0) {
+            clientConfig.setReadTimeout(HttpGlobalConfig.getTimeout());
+        }
+        return clientConfig;
+    }
+
+    /**
+     * 捕获当前线程的 MDC, 返回的执行器在虚拟线程中恢复 MDC 与 ScopedValue 后执行任务
+     */
+    private static Executor contextExecutor(Map<ScopedValue<?>, Object> scopedValueMap) {
+        Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+        ScopedValue.Carrier carrier = ScopedValueUtil.buildCarrier(scopedValueMap);
+        return task -> executorService.execute(() -> {
+            if (mdcContext != null && !mdcContext.isEmpty()) {
+                MDC.setContextMap(mdcContext);
+            }
+            try {
+                if (carrier == null) {
+                    task.run();
+                } else {
+                    carrier.run(task);
+                }
+            } finally {
+                // 清理 MDC，避免线程池中的线程污染
+                MDC.clear();
+            }
+        });
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) return;
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * 并发受限的批量异步任务, 按下标保存结果, 任一任务失败时整体失败并取消进行中的任务
+     */
+    private static class FanOut<T, R> {
+        private final List<T> items;
+        private final Function<T, CompletableFuture<R>> task;
+        private final AtomicReferenceArray<R> results;
+        private final Map<Integer, CompletableFuture<R>> running = new ConcurrentHashMap<>();
+        private final CompletableFuture<List<R>> result = new CompletableFuture<>();
+        private final AtomicInteger nextIndex = new AtomicInteger();
+        private final AtomicInteger remaining;
+
+        /**
+         * 待启动的任务数, 同一时刻只有一个线程负责启动, 避免同步完成的任务递归启动导致栈溢出
+         */
+        private final AtomicInteger pendingStarts = new AtomicInteger();
+
+        private FanOut(List<T> items, Function<T, CompletableFuture<R>> task) {
+            this.items = items;
+            this.task = task;
+            this.results = new AtomicReferenceArray<>(items.size());
+            this.remaining = new AtomicInteger(items.size());
+            result.whenComplete((values, e) -> {
+                if (e != null) running.values().forEach(future -> future.cancel(true));
+            });
+        }
+
+        private void start(int count) {
+            if (pendingStarts.getAndAdd(count) != 0) return;
+            do {
+                startNext();
+            } while (pendingStarts.decrementAndGet() != 0);
+        }
+
+        private void startNext() {
+            int index = nextIndex.getAndIncrement();
+            if (index >= items.size() || result.isDone()) return;
+
+            CompletableFuture<R> future;
+            try {
+                future = Assert.notNull(task.apply(items.get(index)), "task返回的Future不能为空");
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+                return;
+            }
+
+            running.put(index, future);
+            future.whenComplete((value, e) -> {
+                running.remove(index);
+                if (e != null) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+                results.set(index, value);
+                if (remaining.decrementAndGet() == 0) {
+                    List<R> values = new ArrayList<>(results.length());
+                    for (int i = 0; i < results.length(); i++) {
+                        values.add(results.get(i));
+                    }
+                    result.complete(values);
+                } else {
+                    start(1);
+                }
+            });
+        }
+    }
+}
@@ -41,6 +41,8 @@ import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import jakarta.annotation.Nullable;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.time.LocalDateTime;
@@ -104,6 +106,16 @@ public class JacksonUtil {
         }
     }
 
+    /**
+     * 从流中增量解析, 不会先把内容读成字符串
+     */
+    public static <T> T readValue(final InputStream content, final Class<T> valueType) {
+        try {
+            return JacksonUtil.getObjectMapper().readValue(content, valueType);
+        } catch (IOException e) {
+            throw new JsonException(e.getMessage(), e);
+        }
+    }
 
     public static <T> T tryReadValue(final String content, final Class<T> valueType) {
         if (StrUtil.isBlank(content)) {
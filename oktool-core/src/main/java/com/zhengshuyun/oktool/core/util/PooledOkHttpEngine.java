@@ -0,0 +1,275 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.core.util;
+
+import cn.hutool.v7.http.HttpException;
+import cn.hutool.v7.http.client.ClientConfig;
+import cn.hutool.v7.http.client.Request;
+import cn.hutool.v7.http.client.Response;
+import cn.hutool.v7.http.client.body.HttpBody;
+import cn.hutool.v7.http.client.engine.ClientEngine;
+import cn.hutool.v7.http.client.engine.okhttp.OkHttpResponse;
+import com.zhengshuyun.oktool.core.model.HttpEngineConfig;
+import okhttp3.*;
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 独立连接池的OkHttp客户端
+ *
+ * <p>与hutool的 {@code OkHttpEngine} 相同的请求/响应转换, 区别是底层 {@link OkHttpClient} 按 {@link HttpEngineConfig} 构建:</p>
+ * <li>独立的连接池(最大空闲连接数, 保活时间)</li>
+ * <li>独立的异步调度器(最大并发数, 单主机最大并发数)</li>
+ * <li>HTTP/2多路复用</li>
+ * <li>DNS缓存</li>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class PooledOkHttpEngine implements ClientEngine {
+
+    private final HttpEngineConfig engineConfig;
+    private volatile OkHttpClient client;
+
+    public PooledOkHttpEngine(HttpEngineConfig engineConfig) {
+        Assert.notNullParam(engineConfig, "engineConfig");
+        Assert.isTrue(engineConfig.getMaxIdleConnections() >= 0, "maxIdleConnections不能小于0");
+        Assert.isTrue(engineConfig.getKeepAlive() != null && engineConfig.getKeepAlive().isPositive(), "keepAlive必须大于0");
+        Assert.isTrue(engineConfig.getMaxRequests() > 0, "maxRequests必须大于0");
+        Assert.isTrue(engineConfig.getMaxRequestsPerHost() > 0, "maxRequestsPerHost必须大于0");
+        this.engineConfig = engineConfig;
+    }
+
+    /**
+     * 按超时配置重建客户端, 旧客户端的连接池与调度器随之关闭
+     *
+     * @param config 客户端配置, 仅使用其中的超时时间
+     */
+    @Override
+    public PooledOkHttpEngine init(ClientConfig config) {
+        Assert.notNullParam(config, "config");
+        OkHttpClient old = this.client;
+        this.client = buildClient(config);
+        if (old != null) shutdown(old);
+        return this;
+    }
+
+    @Override
+    public Response send(Request message) {
+        try {
+            return new OkHttpResponse(newCall(message).execute(), message);
+        } catch (IOException e) {
+            throw new HttpException(e);
+        }
+    }
+
+    /**
+     * 异步发送, 由OkHttp调度器执行, 并发数受 {@link HttpEngineConfig#getMaxRequests()} 与
+     * {@link HttpEngineConfig#getMaxRequestsPerHost()} 限制, 超出的请求在调度器中排队
+     * <p>
+     * 取消返回的 Future 会取消底层调用, 取消后才到达的响应会被关闭
+     *
+     * @param message          hutool请求
+     * @param callbackExecutor 完成 Future 的执行器, Future 的后续阶段默认在该执行器中执行
+     * @return 响应, 使用后需要关闭
+     */
+    public CompletableFuture<Response> sendAsync(Request message, Executor callbackExecutor) {
+        Assert.notNullParam(callbackExecutor, "callbackExecutor");
+
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        Call call = newCall(message);
+        future.whenComplete((response, e) -> {
+            if (future.isCancelled()) call.cancel();
+        });
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, okhttp3.Response rawResponse) {
+                Response response = new OkHttpResponse(rawResponse, message);
+                callbackExecutor.execute(() -> {
+                    if (!future.complete(response)) rawResponse.close();
+                });
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                callbackExecutor.execute(() -> future.completeExceptionally(new HttpException(e)));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 创建OkHttp调用, 供异步发送使用
+     *
+     * @param message hutool请求
+     * @return 未执行的调用
+     */
+    public Call newCall(Request message) {
+        Assert.notNullParam(message, "message");
+        OkHttpClient client = this.client;
+        Assert.notNull(client, "客户端未初始化");
+        return client.newCall(buildRequest(message));
+    }
+
+    @Override
+    public OkHttpClient getRawEngine() {
+        return client;
+    }
+
+    @Override
+    public void close() {
+        OkHttpClient old = this.client;
+        this.client = null;
+        if (old != null) shutdown(old);
+    }
+
+    private OkHttpClient buildClient(ClientConfig config) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(engineConfig.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(engineConfig.getMaxRequestsPerHost());
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectTimeout(timeout(engineConfig.getConnectTimeout(), config.getConnectionTimeout()), TimeUnit.MILLISECONDS)
+                .readTimeout(timeout(engineConfig.getReadTimeout(), config.getReadTimeout()), TimeUnit.MILLISECONDS)
+                .writeTimeout(timeout(engineConfig.getReadTimeout(), config.getReadTimeout()), TimeUnit.MILLISECONDS)
+                .connectionPool(new ConnectionPool(engineConfig.getMaxIdleConnections(),
+                        engineConfig.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .protocols(engineConfig.isHttp2()
+                        ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : List.of(Protocol.HTTP_1_1));
+
+        Duration dnsCacheTtl = engineConfig.getDnsCacheTtl();
+        if (dnsCacheTtl != null && dnsCacheTtl.isPositive()) {
+            builder.dns(new CachingDns(dnsCacheTtl));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 与hutool的 {@code OkHttpEngine} 保持一致: 仅允许携带请求体的方法发送请求体
+     */
+    private static okhttp3.Request buildRequest(Request message) {
+        okhttp3.Request.Builder builder = new okhttp3.Request.Builder()
+                .url(message.url().toURL());
+
+        String method = message.method().name();
+        HttpBody body = message.body();
+        if (body != null && permitsRequestBody(method)) {
+            builder.method(method, new HttpBodyRequestBody(body));
+        } else if (requiresRequestBody(method)) {
+            builder.method(method, RequestBody.create(new byte[0]));
+        } else {
+            builder.method(method, null);
+        }
+
+        message.headers().forEach((name, values) -> values.forEach(value -> builder.addHeader(name, value)));
+        return builder.build();
+    }
+
+    /**
+     * 与OkHttp内部的 {@code HttpMethod} 一致: GET/HEAD 不能携带请求体
+     */
+    private static boolean permitsRequestBody(String method) {
+        return !"GET".equals(method) && !"HEAD".equals(method);
+    }
+
+    /**
+     * 与OkHttp内部的 {@code HttpMethod} 一致: 这些方法必须携带请求体, 没有时发送空请求体
+     */
+    private static boolean requiresRequestBody(String method) {
+        return switch (method) {
+            case "POST", "PUT", "PATCH", "PROPPATCH", "REPORT" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * 连接池中的空闲连接立即关闭, 进行中的请求不受影响
+     */
+    private static void shutdown(OkHttpClient client) {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    private static long timeout(Duration timeout, int defaultMillis) {
+        return timeout != null ? timeout.toMillis() : Math.max(defaultMillis, 0);
+    }
+
+    /**
+     * hutool请求体, 写入时直接输出到socket
+     */
+    private static class HttpBodyRequestBody extends RequestBody {
+        private final HttpBody body;
+
+        private HttpBodyRequestBody(HttpBody body) {
+            this.body = body;
+        }
+
+        @Override
+        public MediaType contentType() {
+            String contentType = body.contentType();
+            return contentType == null ? null : MediaType.parse(contentType);
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            body.write(sink.outputStream());
+        }
+    }
+
+    /**
+     * DNS缓存
+     * <p>
+     * 解析结果在ttl内复用, 避免每次新建连接都查询DNS; 解析失败不缓存
+     */
+    private static class CachingDns implements Dns {
+        private final long ttlNanos;
+        private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+        private CachingDns(Duration ttl) {
+            this.ttlNanos = ttl.toNanos();
+        }
+
+        @Override
+        public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+            long now = System.nanoTime();
+            Entry entry = cache.get(hostname);
+            if (entry != null && now - entry.expireAt() < 0) {
+                return entry.addresses();
+            }
+
+            List<InetAddress> addresses = Dns.SYSTEM.lookup(hostname);
+            cache.put(hostname, new Entry(addresses, now + ttlNanos));
+            return addresses;
+        }
+
+        private record Entry(List<InetAddress> addresses, long expireAt) {
+        }
+    }
+}
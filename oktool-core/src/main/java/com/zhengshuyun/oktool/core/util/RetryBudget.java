@@ -0,0 +1,174 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.core.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 重试预算(令牌桶)
+ *
+ * <p>同一下游共用一个预算, 限制重试量不超过正常请求量的一定比例, 避免下游恢复时被重试流量再次压垮</p>
+ * <li>每次首次调用存入 ratio 个令牌, 每次重试取出1个令牌, 令牌不足时不重试</li>
+ * <li>令牌最多累积 maxTokens 个, 避免长时间正常后积攒大量重试</li>
+ * <li>另外每秒补充 minRetriesPerSecond 个令牌(上限同为 minRetriesPerSecond), 保证低流量时仍可以重试</li>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class RetryBudget {
+
+    /**
+     * 默认重试比例: 重试量不超过正常请求量的10%
+     */
+    public static final double DEFAULT_RATIO = 0.1;
+
+    /**
+     * 默认每秒保底重试次数
+     */
+    public static final int DEFAULT_MIN_RETRIES_PER_SECOND = 10;
+
+    /**
+     * 默认最大累积令牌数
+     */
+    public static final int DEFAULT_MAX_TOKENS = 100;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /**
+     * 按下游名称共享的预算
+     */
+    private static final Map<String, RetryBudget> BUDGETS = new ConcurrentHashMap<>();
+
+    private final double ratio;
+    private final int minRetriesPerSecond;
+    private final int maxTokens;
+
+    /**
+     * 按请求量累积的令牌
+     */
+    private double tokens;
+
+    /**
+     * 按时间补充的保底令牌
+     */
+    private double reserve;
+    private long reserveRefillAt = System.nanoTime();
+
+    /**
+     * @param ratio               重试比例, 每次首次调用存入的令牌数, 0~1000
+     * @param minRetriesPerSecond 每秒保底重试次数, 大于等于0
+     * @param maxTokens           最大累积令牌数, 大于0
+     */
+    public RetryBudget(double ratio, int minRetriesPerSecond, int maxTokens) {
+        Assert.isTrue(ratio >= 0 && ratio <= 1000, "ratio必须在0~1000之间");
+        Assert.isTrue(minRetriesPerSecond >= 0, "minRetriesPerSecond不能小于0");
+        Assert.isTrue(maxTokens > 0, "maxTokens必须大于0");
+        this.ratio = ratio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.maxTokens = maxTokens;
+        this.reserve = minRetriesPerSecond;
+    }
+
+    /**
+     * 获取下游共享的预算, 不存在时按默认参数创建
+     *
+     * @param name 下游名称
+     * @return 预算
+     */
+    public static RetryBudget of(String name) {
+        Assert.notBlankParam(name, "name");
+        return BUDGETS.computeIfAbsent(name, key -> new RetryBudget(DEFAULT_RATIO, DEFAULT_MIN_RETRIES_PER_SECOND, DEFAULT_MAX_TOKENS));
+    }
+
+    /**
+     * 注册下游共享的预算, 覆盖同名预算
+     *
+     * @param name   下游名称
+     * @param budget 预算
+     * @return 预算
+     */
+    public static RetryBudget register(String name, RetryBudget budget) {
+        Assert.notBlankParam(name, "name");
+        Assert.notNullParam(budget, "budget");
+        BUDGETS.put(name, budget);
+        return budget;
+    }
+
+    /**
+     * 首次调用时存入令牌
+     */
+    public synchronized void deposit() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+     * 重试前取出1个令牌, 优先使用按请求量累积的令牌
+     *
+     * @return false=预算不足, 不应重试
+     */
+    public synchronized boolean tryWithdraw() {
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+
+        refillReserve();
+        if (reserve >= 1) {
+            reserve -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return 当前可用于重试的令牌数(向下取整)
+     */
+    public synchronized int available() {
+        refillReserve();
+        return (int) (Math.floor(tokens) + Math.floor(reserve));
+    }
+
+    private void refillReserve() {
+        long now = System.nanoTime();
+        long elapsed = now - reserveRefillAt;
+        if (elapsed <= 0) return;
+        reserve = Math.min(minRetriesPerSecond, reserve + (double) elapsed * minRetriesPerSecond / NANOS_PER_SECOND);
+        reserveRefillAt = now;
+    }
+
+    public double getRatio() {
+        return ratio;
+    }
+
+    public int getMinRetriesPerSecond() {
+        return minRetriesPerSecond;
+    }
+
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryBudget{" +
+                "ratio=" + ratio +
+                ", minRetriesPerSecond=" + minRetriesPerSecond +
+                ", maxTokens=" + maxTokens +
+                '}';
+    }
+}
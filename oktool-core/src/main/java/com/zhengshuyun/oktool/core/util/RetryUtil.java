@@ -21,12 +21,14 @@ import com.zhengshuyun.oktool.core.exception.RetryException;
 import com.zhengshuyun.oktool.core.model.RetryPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 
 import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.Callable;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
 /**
  * 重试工具
@@ -39,7 +41,21 @@ public class RetryUtil {
     private static final Logger log = LoggerFactory.getLogger(RetryUtil.class);
 
     /**
-     * 重试机制
+     * 异步重试的定时器, 只负责计时, 到期后把重试交给虚拟线程执行
+     */
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "oktool-retry-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 虚拟线程执行器, 用于执行异步重试
+     */
+    private static final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * 重试机制, 视为幂等调用, 非幂等调用使用 {@link #execute(Callable, boolean, Collection)}
      *
      * @param callable 执行方法
      * @param <R>      返回类型
@@ -51,7 +67,7 @@ public class RetryUtil {
     }
 
     /**
-     * 重试机制
+     * 重试机制, 视为幂等调用, 非幂等调用使用 {@link #execute(Callable, boolean, Collection)}
      *
      * @param callable       执行方法
      * @param <R>            返回类型
@@ -65,7 +81,7 @@ public class RetryUtil {
     }
 
     /**
-     * 重试机制
+     * 重试机制, 视为幂等调用, 非幂等调用使用 {@link #execute(Callable, boolean, Collection)}
      *
      * @param callable       执行方法
      * @param retrySize      重试次数 (不包含首次执行, 小于1表示不重试, 但无论如何方法会执行1次)
@@ -84,7 +100,7 @@ public class RetryUtil {
     }
 
     /**
-     * 重试机制
+     * 重试机制, 视为幂等调用, 非幂等调用使用 {@link #execute(Callable, boolean, Collection)}
      *
      * @param callable        执行方法
      * @param retrySize       重试次数 (不包含首次执行, 小于1表示不重试, 但无论如何方法会执行1次)
@@ -117,62 +133,48 @@ public class RetryUtil {
         return RetryUtil.execute(callable, retryPolicies);
     }
 
+    /**
+     * 重试机制, 视为幂等调用, 非幂等调用使用 {@link #execute(Callable, boolean, Collection)}
+     *
+     * @param callable      执行方法
+     * @param retryPolicies 重试策略
+     * @param <R>           返回类型
+     * @return 方法执行结果
+     * @throws RetryException 重试失败
+     */
+    public static <R> R execute(Callable<R> callable,
+                                Collection<RetryPolicy> retryPolicies) {
+        return RetryUtil.execute(callable, true, retryPolicies);
+    }
+
     /**
      * 重试机制
      *
      * @param callable      执行方法
+     * @param idempotent    是否幂等调用, 非幂等调用只按 {@link RetryPolicy#isRetryNonIdempotent()} 的策略重试
      * @param retryPolicies 重试策略
      * @param <R>           返回类型
      * @return 方法执行结果
      * @throws RetryException 重试失败
      */
     public static <R> R execute(Callable<R> callable,
+                                boolean idempotent,
                                 Collection<RetryPolicy> retryPolicies) {
         Assert.notNull(callable, "callable must not be null");
 
-        // 重试计数器
-        Map<RetryPolicy, AtomicInteger> retryCounters = new HashMap<>();
-
-        if (retryPolicies == null) {
-            retryPolicies = List.of();
-        } else {
-            retryPolicies = retryPolicies.stream()
-                    .filter(Objects::nonNull)
-                    // 重试次数小于1的策略不重试
-                    .filter(item -> item.getRetrySize() > 0)
-                    // 无异常类型不会重试
-                    .filter(item -> item.getExceptionClass() != null)
-                    // 初始化计数器
-                    .peek(item -> retryCounters.put(item, new AtomicInteger(item.getRetrySize())))
-                    .toList();
-        }
+        RetryState retryState = new RetryState(retryPolicies, idempotent);
 
         while (true) {
             try {
                 return callable.call();
             } catch (Exception e) {
-                // 查找匹配的重试策略, 没有匹配上抛出异常不重试
-                RetryPolicy retryPolicy = retryPolicies.stream()
-                        .filter(item -> item.getExceptionClass().isInstance(e))
-                        .findFirst()
-                        .orElseThrow(() -> new RetryException(e.getMessage(), e));
-
-                // 检查剩余重试次数
-                AtomicInteger remainSize = retryCounters.get(retryPolicy);
-                if (remainSize.decrementAndGet() < 0) {
-                    throw new RetryException(e.getMessage(), e);
-                }
-
-                // 打印日志
-                if (retryPolicy.isPrintStackTrace()) {
-                    log.warn("[{}/{}] {}", remainSize.get() + 1, retryPolicy.getRetrySize(), e.getMessage(), e);
-                }
+                // 没有匹配的重试策略/次数用尽/超过总时长/预算不足时抛出异常不重试
+                long intervalNanos = retryState.nextIntervalNanos(e);
 
                 // 睡眠等待
-                Optional.ofNullable(retryPolicy.getIntervalTime())
-                        .filter(Duration::isPositive)
-                        .map(Duration::toNanos)
-                        .ifPresent(LockSupport::parkNanos);
+                if (intervalNanos > 0) {
+                    LockSupport.parkNanos(intervalNanos);
+                }
 
                 if (Thread.interrupted()) {
                     throw new RuntimeException("线程中断", e);
@@ -180,4 +182,262 @@ public class RetryUtil {
             }
         }
     }
+
+    /**
+     * 异步重试机制, 视为幂等调用, 非幂等调用使用 {@link #executeAsync(Supplier, boolean, Duration, Collection)}
+     *
+     * @see #executeAsync(Supplier, boolean, Duration, Collection)
+     */
+    public static <R> CompletableFuture<R> executeAsync(Supplier<CompletableFuture<R>> supplier,
+                                                        Collection<RetryPolicy> retryPolicies) {
+        return RetryUtil.executeAsync(supplier, true, null, retryPolicies);
+    }
+
+    /**
+     * 异步重试机制
+     * <p>
+     * <h2>注意事项:</h2>
+     * <li>首次执行在调用线程, 重试等待期间不占用线程, 到期后在虚拟线程中重试, 并恢复调用方的 MDC</li>
+     * <li>取消返回的 Future 会取消等待中的重试以及进行中的那次执行</li>
+     * <li>超过 deadline 时以 {@link RetryException} 失败, 并取消进行中的那次执行</li>
+     * </p>
+     *
+     * @param supplier      执行方法, 每次执行(包括重试)调用一次, 返回本次执行的 Future
+     * @param idempotent    是否幂等调用, 非幂等调用只按 {@link RetryPolicy#isRetryNonIdempotent()} 的策略重试
+     * @param deadline      总时长上限, 从首次执行开始计算 (null 表示不限制)
+     * @param retryPolicies 重试策略
+     * @param <R>           返回类型
+     * @return 方法执行结果, 重试失败时以 {@link RetryException} 失败
+     */
+    public static <R> CompletableFuture<R> executeAsync(Supplier<CompletableFuture<R>> supplier,
+                                                        boolean idempotent,
+                                                        Duration deadline,
+                                                        Collection<RetryPolicy> retryPolicies) {
+        Assert.notNull(supplier, "supplier must not be null");
+        Assert.isTrue(deadline == null || deadline.isPositive(), "deadline必须大于0");
+
+        AsyncRetry<R> asyncRetry = new AsyncRetry<>(supplier, new RetryState(retryPolicies, idempotent), deadline);
+        asyncRetry.attempt();
+        return asyncRetry.result;
+    }
+
+    /**
+     * 一次异步调用(含重试)的执行过程
+     * <p>
+     * 同一时刻最多只有一次执行或一次等待, {@link RetryState} 只会被顺序访问
+     */
+    private static class AsyncRetry<R> {
+        private final Supplier<CompletableFuture<R>> supplier;
+        private final RetryState retryState;
+        private final CompletableFuture<R> result = new CompletableFuture<>();
+        private final Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+
+        /**
+         * 进行中的执行
+         */
+        private volatile CompletableFuture<R> running;
+
+        /**
+         * 等待中的重试
+         */
+        private volatile Future<?> scheduled;
+
+        private AsyncRetry(Supplier<CompletableFuture<R>> supplier, RetryState retryState, Duration deadline) {
+            this.supplier = supplier;
+            this.retryState = retryState;
+
+            Future<?> deadlineTask = deadline == null ? null : scheduler.schedule(
+                    () -> result.completeExceptionally(new RetryException("重试超过总时长上限 " + deadline, new TimeoutException())),
+                    deadline.toNanos(), TimeUnit.NANOSECONDS);
+
+            result.whenComplete((value, e) -> {
+                cancel(deadlineTask);
+                cancel(scheduled);
+                cancel(running);
+            });
+        }
+
+        private void attempt() {
+            if (result.isDone()) return;
+
+            CompletableFuture<R> future;
+            try {
+                future = Assert.notNull(supplier.get(), "supplier返回的Future不能为空");
+            } catch (Throwable e) {
+                onFailure(e);
+                return;
+            }
+
+            running = future;
+            // 执行期间已经取消或超时
+            if (result.isDone()) {
+                future.cancel(true);
+                return;
+            }
+
+            future.whenComplete((value, e) -> {
+                if (e == null) {
+                    result.complete(value);
+                } else {
+                    onFailure(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                }
+            });
+        }
+
+        private void onFailure(Throwable e) {
+            if (result.isDone()) return;
+
+            long intervalNanos;
+            try {
+                intervalNanos = retryState.nextIntervalNanos(e);
+            } catch (RetryException retryException) {
+                result.completeExceptionally(retryException);
+                return;
+            }
+
+            scheduled = scheduler.schedule(() -> executorService.execute(this::attemptWithContext),
+                    intervalNanos, TimeUnit.NANOSECONDS);
+            // 计划期间已经取消或超时
+            if (result.isDone()) cancel(scheduled);
+        }
+
+        private void attemptWithContext() {
+            if (mdcContext != null && !mdcContext.isEmpty()) {
+                MDC.setContextMap(mdcContext);
+            }
+            try {
+                attempt();
+            } finally {
+                // 清理 MDC，避免线程池中的线程污染
+                MDC.clear();
+            }
+        }
+
+        private static void cancel(Future<?> future) {
+            if (future != null) future.cancel(false);
+        }
+    }
+
+    /**
+     * 一次调用(含重试)的重试状态
+     */
+    private static class RetryState {
+        private final List<RetryPolicy> retryPolicies;
+
+        /**
+         * 剩余重试次数
+         */
+        private final Map<RetryPolicy, AtomicInteger> retryCounters = new HashMap<>();
+
+        /**
+         * 上次重试间隔, 用于去相关抖动
+         */
+        private final Map<RetryPolicy, Long> previousIntervals = new HashMap<>();
+
+        private final long startNanos = System.nanoTime();
+
+        private RetryState(Collection<RetryPolicy> retryPolicies, boolean idempotent) {
+            if (retryPolicies == null) {
+                this.retryPolicies = List.of();
+            } else {
+                this.retryPolicies = retryPolicies.stream()
+                        .filter(Objects::nonNull)
+                        // 重试次数小于1的策略不重试
+                        .filter(item -> item.getRetrySize() > 0)
+                        // 无异常类型不会重试
+                        .filter(item -> item.getExceptionClass() != null)
+                        // 非幂等调用默认不重试
+                        .filter(item -> idempotent || item.isRetryNonIdempotent())
+                        // 初始化计数器
+                        .peek(item -> retryCounters.put(item, new AtomicInteger(item.getRetrySize())))
+                        .toList();
+            }
+
+            // 首次执行存入重试预算
+            this.retryPolicies.stream()
+                    .map(RetryPolicy::getRetryBudget)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .forEach(RetryBudget::deposit);
+        }
+
+        /**
+         * 计算下次重试前的等待时间
+         *
+         * @param e 本次执行的异常
+         * @return 等待时间(ns)
+         * @throws RetryException 不能重试
+         */
+        private long nextIntervalNanos(Throwable e) {
+            // 查找匹配的重试策略, 没有匹配上抛出异常不重试
+            RetryPolicy retryPolicy = retryPolicies.stream()
+                    .filter(item -> item.getExceptionClass().isInstance(e) && !item.isAbortOn(e))
+                    .findFirst()
+                    .orElseThrow(() -> new RetryException(e.getMessage(), e));
+
+            // 检查剩余重试次数
+            AtomicInteger remainSize = retryCounters.get(retryPolicy);
+            if (remainSize.decrementAndGet() < 0) {
+                throw new RetryException(e.getMessage(), e);
+            }
+
+            long intervalNanos = intervalNanos(retryPolicy, retryPolicy.getRetrySize() - remainSize.get());
+
+            // 检查总时长, 等待后会超过上限则不再重试
+            Duration deadline = retryPolicy.getDeadline();
+            if (deadline != null && System.nanoTime() - startNanos + intervalNanos > deadline.toNanos()) {
+                throw new RetryException("重试超过总时长上限 " + deadline + ": " + e.getMessage(), e);
+            }
+
+            // 检查重试预算
+            RetryBudget retryBudget = retryPolicy.getRetryBudget();
+            if (retryBudget != null && !retryBudget.tryWithdraw()) {
+                throw new RetryException("重试预算不足: " + e.getMessage(), e);
+            }
+
+            // 打印日志
+            if (retryPolicy.isPrintStackTrace()) {
+                log.warn("[{}/{}] {}", remainSize.get() + 1, retryPolicy.getRetrySize(), e.getMessage(), e);
+            }
+            return intervalNanos;
+        }
+
+        /**
+         * @param retryPolicy 重试策略
+         * @param retryCount  第几次重试, 从1开始
+         * @return 等待时间(ns)
+         */
+        private long intervalNanos(RetryPolicy retryPolicy, int retryCount) {
+            long baseNanos = Optional.ofNullable(retryPolicy.getIntervalTime())
+                    .filter(Duration::isPositive)
+                    .map(Duration::toNanos)
+                    .orElse(0L);
+            if (baseNanos == 0) return 0;
+
+            long maxNanos = Optional.ofNullable(retryPolicy.getMaxIntervalTime())
+                    .filter(Duration::isPositive)
+                    .map(Duration::toNanos)
+                    .orElse(Long.MAX_VALUE);
+
+            long intervalNanos;
+            if (retryPolicy.getJitter() == RetryPolicy.Jitter.DECORRELATED) {
+                long previousNanos = previousIntervals.getOrDefault(retryPolicy, baseNanos);
+                long upperNanos = previousNanos > Long.MAX_VALUE / 3 ? Long.MAX_VALUE : previousNanos * 3;
+                intervalNanos = Math.min(maxNanos, random(baseNanos, upperNanos));
+            } else {
+                double backoffNanos = retryPolicy.getMultiplier() > 1
+                        ? baseNanos * Math.pow(retryPolicy.getMultiplier(), retryCount - 1)
+                        : baseNanos;
+                long cappedNanos = (long) Math.min(maxNanos, backoffNanos);
+                intervalNanos = retryPolicy.getJitter() == RetryPolicy.Jitter.FULL ? random(0, cappedNanos) : cappedNanos;
+            }
+
+            previousIntervals.put(retryPolicy, intervalNanos);
+            return intervalNanos;
+        }
+
+        private static long random(long origin, long bound) {
+            return bound > origin ? ThreadLocalRandom.current().nextLong(origin, bound) : origin;
+        }
+    }
 }
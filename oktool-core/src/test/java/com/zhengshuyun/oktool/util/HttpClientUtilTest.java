@@ -0,0 +1,202 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.util;
+
+import cn.hutool.v7.http.client.Request;
+import cn.hutool.v7.http.client.Response;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.zhengshuyun.oktool.core.model.HttpEngineConfig;
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.core.util.HttpClientUtil;
+import com.zhengshuyun.oktool.core.util.PooledOkHttpEngine;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 批量请求: 任一请求失败时取消其他请求, 不再发送剩余请求, 并关闭迟到的响应(本机http服务)
+ * <p>
+ * 请求顺序为 slow, fail, unstarted..., 并发数为2:
+ * <li>slow: 到达后等待测试放行, 之后持续输出响应体, 直到连接被客户端关闭</li>
+ * <li>fail: 等 slow 到达后返回500, 使整体失败时 slow 一定在进行中</li>
+ * <li>unstarted: 整体失败后不应再被发送</li>
+ *
+ * @author Toint
+ * @since 2026/10/18
+ */
+public class HttpClientUtilTest {
+
+    private static final String ENGINE_NAME = "http-client-util-test";
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+
+    private final CountDownLatch slowArrived = new CountDownLatch(1);
+    private final CountDownLatch slowReleased = new CountDownLatch(1);
+    private final CountDownLatch slowAborted = new CountDownLatch(1);
+    private final AtomicInteger unstarted = new AtomicInteger();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/slow", this::slow);
+        server.createContext("/fail", this::fail);
+        server.createContext("/unstarted", exchange -> {
+            unstarted.incrementAndGet();
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        slowReleased.countDown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    /**
+     * 独立连接池的客户端: 整体失败时取消进行中的调用, 服务端随后写入响应时连接已断开
+     */
+    @Test
+    void sendAllCancelsPooledCalls() throws Exception {
+        PooledOkHttpEngine engine = (PooledOkHttpEngine) HttpClientUtil.registerEngine(ENGINE_NAME, new HttpEngineConfig());
+        try {
+            CompletableFuture<List<Integer>> result = HttpClientUtil.sendAll(ENGINE_NAME, requests(), 2, HttpClientUtilTest::status);
+
+            Assertions.assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+            OkHttpClient client = engine.getRawEngine();
+            awaitTrue(() -> client.dispatcher().runningCallsCount() == 0, "进行中的调用未取消");
+            Assertions.assertEquals(0, unstarted.get());
+
+            slowReleased.countDown();
+            Assertions.assertTrue(slowAborted.await(5, TimeUnit.SECONDS), "被取消的调用仍在接收响应");
+        } finally {
+            HttpClientUtil.removeEngine(ENGINE_NAME);
+        }
+    }
+
+    /**
+     * 不支持异步的客户端: 请求在虚拟线程中同步发送, 取消后才到达的响应需要关闭
+     */
+    @Test
+    void sendAllClosesLateResponse() throws Exception {
+        CompletableFuture<List<Integer>> result = HttpClientUtil.sendAll("http-client-util-test-unregistered", requests(), 2, HttpClientUtilTest::status);
+
+        Assertions.assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, unstarted.get());
+
+        // 整体失败后 slow 才返回响应, 未关闭时服务端写满缓冲区后一直阻塞
+        slowReleased.countDown();
+        Assertions.assertTrue(slowAborted.await(5, TimeUnit.SECONDS), "迟到的响应未关闭");
+    }
+
+    @Test
+    void fanOutCancelsRunningTasks() {
+        List<CompletableFuture<Integer>> started = new CopyOnWriteArrayList<>();
+        CompletableFuture<List<Integer>> result = HttpClientUtil.fanOut(List.of(0, 1, 2, 3), 2, item -> {
+            CompletableFuture<Integer> future = new CompletableFuture<>();
+            started.add(future);
+            return future;
+        });
+
+        Assertions.assertEquals(2, started.size());
+        started.get(1).completeExceptionally(new IllegalStateException("fail"));
+
+        Assertions.assertTrue(result.isCompletedExceptionally());
+        Assertions.assertTrue(started.get(0).isCancelled());
+        // 整体失败后不再启动剩余任务
+        Assertions.assertEquals(2, started.size());
+    }
+
+    private List<Request> requests() {
+        List<Request> requests = new ArrayList<>();
+        requests.add(Request.of(baseUrl + "/slow"));
+        requests.add(Request.of(baseUrl + "/fail"));
+        for (int i = 0; i < 3; i++) {
+            requests.add(Request.of(baseUrl + "/unstarted"));
+        }
+        return requests;
+    }
+
+    private static Integer status(Response response) {
+        Assert.isTrue(response.isOk(), "状态码异常: {}", response.getStatus());
+        return response.getStatus();
+    }
+
+    private void slow(HttpExchange exchange) throws IOException {
+        slowArrived.countDown();
+        try {
+            slowReleased.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        // 分块输出, 直到客户端断开连接
+        byte[] chunk = new byte[64 * 1024];
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        try {
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream output = exchange.getResponseBody();
+            while (System.nanoTime() < deadline) {
+                output.write(chunk);
+                output.flush();
+            }
+            output.close();
+        } catch (IOException e) {
+            slowAborted.countDown();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void fail(HttpExchange exchange) throws IOException {
+        try {
+            slowArrived.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        exchange.sendResponseHeaders(500, -1);
+        exchange.close();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.nanoTime() < deadline, message);
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+}
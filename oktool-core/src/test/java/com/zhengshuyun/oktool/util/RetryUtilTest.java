@@ -0,0 +1,332 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.util;
+
+import com.zhengshuyun.oktool.core.exception.RetryException;
+import com.zhengshuyun.oktool.core.model.RetryPolicy;
+import com.zhengshuyun.oktool.core.util.RetryBudget;
+import com.zhengshuyun.oktool.core.util.RetryUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 重试测试, 间隔取几十毫秒, 通过两次执行之间的时间差观察等待时间
+ *
+ * @author Toint
+ * @since 2026/10/18
+ */
+public class RetryUtilTest {
+
+    /**
+     * 定时误差上限(ms), 只用于区分数量级不同的等待时间
+     */
+    private static final long SLACK_MILLIS = 100;
+
+    @Test
+    void exponentialBackoff() {
+        RetryPolicy policy = new RetryPolicy(3, Duration.ofMillis(20), RuntimeException.class)
+                .withBackoff(2, null, RetryPolicy.Jitter.NONE);
+
+        List<Long> gaps = gapsMillis(policy);
+
+        Assertions.assertEquals(3, gaps.size());
+        for (int i = 0; i < gaps.size(); i++) {
+            Assertions.assertTrue(gaps.get(i) >= 20L << i, "等待过短: " + gaps);
+        }
+    }
+
+    @Test
+    void maxIntervalCap() {
+        // 不封顶时为 20, 200, 2000ms
+        RetryPolicy policy = new RetryPolicy(3, Duration.ofMillis(20), RuntimeException.class)
+                .withBackoff(10, Duration.ofMillis(30), RetryPolicy.Jitter.NONE);
+
+        List<Long> gaps = gapsMillis(policy);
+
+        Assertions.assertEquals(3, gaps.size());
+        Assertions.assertTrue(gaps.get(0) >= 20, () -> "等待过短: " + gaps);
+        for (long gap : gaps.subList(1, gaps.size())) {
+            Assertions.assertTrue(gap >= 30 && gap < 30 + SLACK_MILLIS, () -> "等待未封顶: " + gaps);
+        }
+    }
+
+    @Test
+    void fullJitter() {
+        // 不抖动时总等待为 10 * 40ms, 完全抖动时每次在 [0, 40ms) 之间
+        RetryPolicy policy = new RetryPolicy(10, Duration.ofMillis(40), RuntimeException.class)
+                .withBackoff(1, null, RetryPolicy.Jitter.FULL);
+
+        List<Long> gaps = gapsMillis(policy);
+
+        Assertions.assertEquals(10, gaps.size());
+        long total = gaps.stream().mapToLong(Long::longValue).sum();
+        Assertions.assertTrue(total < 10 * 40, () -> "总等待未抖动: " + gaps);
+    }
+
+    @Test
+    void decorrelatedJitter() {
+        // 去相关抖动在 [20ms, 上次*3) 之间, 且不超过 50ms
+        RetryPolicy policy = new RetryPolicy(5, Duration.ofMillis(20), RuntimeException.class)
+                .withBackoff(1, Duration.ofMillis(50), RetryPolicy.Jitter.DECORRELATED);
+
+        List<Long> gaps = gapsMillis(policy);
+
+        Assertions.assertEquals(5, gaps.size());
+        for (long gap : gaps) {
+            Assertions.assertTrue(gap >= 20 && gap < 50 + SLACK_MILLIS, () -> "等待超出范围: " + gaps);
+        }
+    }
+
+    @Test
+    void deadlineCutoff() {
+        RetryPolicy policy = new RetryPolicy(100, Duration.ofMillis(20), RuntimeException.class)
+                .withDeadline(Duration.ofMillis(100));
+        AtomicInteger attempts = new AtomicInteger();
+
+        RetryException e = Assertions.assertThrows(RetryException.class, () -> RetryUtil.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("fail");
+        }, List.of(policy)));
+
+        Assertions.assertTrue(e.getMessage().contains("总时长"), e.getMessage());
+        Assertions.assertTrue(attempts.get() >= 2 && attempts.get() <= 6, "执行次数: " + attempts.get());
+    }
+
+    @Test
+    void retryBudgetDepositAndWithdraw() {
+        RetryBudget budget = new RetryBudget(0.5, 0, 1);
+        Assertions.assertFalse(budget.tryWithdraw());
+
+        budget.deposit();
+        Assertions.assertFalse(budget.tryWithdraw());
+        budget.deposit();
+        Assertions.assertTrue(budget.tryWithdraw());
+        Assertions.assertFalse(budget.tryWithdraw());
+
+        // 最多累积 maxTokens 个
+        for (int i = 0; i < 10; i++) {
+            budget.deposit();
+        }
+        Assertions.assertEquals(1, budget.available());
+    }
+
+    @Test
+    void retryBudgetReserveRefill() throws InterruptedException {
+        RetryBudget budget = new RetryBudget(0, 10, 1);
+        Assertions.assertEquals(10, budget.available());
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertTrue(budget.tryWithdraw());
+        }
+        Assertions.assertFalse(budget.tryWithdraw());
+
+        // 每秒补充10个, 200ms 后至少补充1个
+        TimeUnit.MILLISECONDS.sleep(200);
+        Assertions.assertTrue(budget.available() >= 1);
+        Assertions.assertTrue(budget.tryWithdraw());
+    }
+
+    @Test
+    void retryBudgetLimitsRetries() {
+        // 首次执行存入1个令牌, 只够重试1次
+        RetryPolicy policy = new RetryPolicy(5, Duration.ZERO, RuntimeException.class)
+                .withRetryBudget(new RetryBudget(1, 0, 1));
+        AtomicInteger attempts = new AtomicInteger();
+
+        RetryException e = Assertions.assertThrows(RetryException.class, () -> RetryUtil.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("fail");
+        }, List.of(policy)));
+
+        Assertions.assertTrue(e.getMessage().contains("预算"), e.getMessage());
+        Assertions.assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void abortOnCauseChain() {
+        RetryPolicy policy = new RetryPolicy(3, Duration.ZERO, RuntimeException.class)
+                .withAbortOn(IllegalArgumentException.class);
+
+        // 原因链中有 abortOn 类型, 不重试
+        AtomicInteger attempts = new AtomicInteger();
+        IllegalStateException aborted = new IllegalStateException("wrapped", new IllegalArgumentException("invalid"));
+        RetryException e = Assertions.assertThrows(RetryException.class, () -> RetryUtil.execute(() -> {
+            attempts.incrementAndGet();
+            throw aborted;
+        }, List.of(policy)));
+        Assertions.assertEquals(1, attempts.get());
+        Assertions.assertSame(aborted, e.getCause());
+
+        // 其他异常照常重试
+        attempts.set(0);
+        Assertions.assertThrows(RetryException.class, () -> RetryUtil.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("fail");
+        }, List.of(policy)));
+        Assertions.assertEquals(4, attempts.get());
+    }
+
+    @Test
+    void nonIdempotentFilter() {
+        RetryPolicy policy = new RetryPolicy(3, Duration.ZERO, RuntimeException.class);
+
+        Assertions.assertEquals(1, attempts(false, policy));
+        Assertions.assertEquals(4, attempts(true, policy));
+        Assertions.assertEquals(4, attempts(false, policy.withRetryNonIdempotent(true)));
+    }
+
+    @Test
+    void asyncRetryDoesNotBlock() throws Exception {
+        RetryPolicy policy = new RetryPolicy(2, Duration.ofMillis(100), RuntimeException.class);
+        AtomicInteger attempts = new AtomicInteger();
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+
+        long startNanos = System.nanoTime();
+        CompletableFuture<String> future = RetryUtil.executeAsync(() -> {
+            threads.add(Thread.currentThread());
+            return attempts.incrementAndGet() < 3
+                    ? CompletableFuture.failedFuture(new IllegalStateException("fail"))
+                    : CompletableFuture.completedFuture("ok");
+        }, List.of(policy));
+
+        // 首次失败后立刻返回, 不等待重试间隔
+        Assertions.assertTrue(System.nanoTime() - startNanos < TimeUnit.MILLISECONDS.toNanos(100));
+        Assertions.assertFalse(future.isDone());
+
+        Assertions.assertEquals("ok", future.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(3, attempts.get());
+        // 首次在调用线程执行, 重试在虚拟线程中执行
+        Assertions.assertSame(Thread.currentThread(), threads.get(0));
+        for (Thread thread : threads.subList(1, threads.size())) {
+            Assertions.assertTrue(thread.isVirtual(), "重试线程: " + thread);
+        }
+    }
+
+    @Test
+    void asyncCancelScheduledRetry() throws InterruptedException {
+        RetryPolicy policy = new RetryPolicy(3, Duration.ofMillis(100), RuntimeException.class);
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<String> future = RetryUtil.executeAsync(() -> {
+            attempts.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("fail"));
+        }, List.of(policy));
+        Assertions.assertTrue(future.cancel(true));
+
+        // 等待超过重试间隔, 已取消的重试不再执行
+        TimeUnit.MILLISECONDS.sleep(300);
+        Assertions.assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void asyncCancelInFlightAttempt() {
+        RetryPolicy policy = new RetryPolicy(3, Duration.ZERO, RuntimeException.class);
+        AtomicReference<CompletableFuture<String>> running = new AtomicReference<>();
+
+        CompletableFuture<String> future = RetryUtil.executeAsync(() -> {
+            running.set(new CompletableFuture<>());
+            return running.get();
+        }, List.of(policy));
+        future.cancel(true);
+
+        Assertions.assertTrue(running.get().isCancelled());
+    }
+
+    @Test
+    void asyncDeadline() {
+        RetryPolicy policy = new RetryPolicy(3, Duration.ZERO, RuntimeException.class);
+        AtomicReference<CompletableFuture<String>> running = new AtomicReference<>();
+
+        CompletableFuture<String> future = RetryUtil.executeAsync(() -> {
+            running.set(new CompletableFuture<>());
+            return running.get();
+        }, true, Duration.ofMillis(100), List.of(policy));
+
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        Assertions.assertTrue(e.getCause() instanceof RetryException, "异常: " + e.getCause());
+        Assertions.assertTrue(e.getCause().getCause() instanceof TimeoutException, "原因: " + e.getCause().getCause());
+        // 超时后取消进行中的执行
+        Assertions.assertTrue(running.get().isCancelled());
+    }
+
+    @Test
+    void asyncRetryKeepsMdc() throws Exception {
+        RetryPolicy policy = new RetryPolicy(1, Duration.ofMillis(10), RuntimeException.class);
+        AtomicInteger attempts = new AtomicInteger();
+        List<String> traceIds = new CopyOnWriteArrayList<>();
+
+        MDC.put("traceId", "retry-test");
+        CompletableFuture<String> future;
+        try {
+            future = RetryUtil.executeAsync(() -> {
+                traceIds.add(String.valueOf(MDC.get("traceId")));
+                return attempts.incrementAndGet() < 2
+                        ? CompletableFuture.failedFuture(new IllegalStateException("fail"))
+                        : CompletableFuture.completedFuture("ok");
+            }, List.of(policy));
+        } finally {
+            MDC.remove("traceId");
+        }
+
+        Assertions.assertEquals("ok", future.get(1, TimeUnit.SECONDS));
+        Assertions.assertEquals(List.of("retry-test", "retry-test"), traceIds);
+    }
+
+    /**
+     * 执行一直失败的方法直到重试结束
+     *
+     * @return 执行次数
+     */
+    private static int attempts(boolean idempotent, RetryPolicy policy) {
+        AtomicInteger attempts = new AtomicInteger();
+        Assertions.assertThrows(RetryException.class, () -> RetryUtil.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("fail");
+        }, idempotent, List.of(policy)));
+        return attempts.get();
+    }
+
+    /**
+     * 执行一直失败的方法直到重试结束
+     *
+     * @return 每两次执行之间的间隔(ms)
+     */
+    private static List<Long> gapsMillis(RetryPolicy policy) {
+        List<Long> startNanos = new ArrayList<>();
+        Assertions.assertThrows(RetryException.class, () -> RetryUtil.execute(() -> {
+            startNanos.add(System.nanoTime());
+            throw new IllegalStateException("fail");
+        }, List.of(policy)));
+
+        List<Long> gaps = new ArrayList<>();
+        for (int i = 1; i < startNanos.size(); i++) {
+            gaps.add(TimeUnit.NANOSECONDS.toMillis(startNanos.get(i) - startNanos.get(i - 1)));
+        }
+        return gaps;
+    }
+}
@@ -23,11 +23,17 @@ import cn.hutool.v7.http.client.Response;
 import cn.hutool.v7.http.client.body.HttpBody;
 import cn.hutool.v7.http.client.body.UrlEncodedFormBody;
 import cn.hutool.v7.http.meta.Method;
+import com.zhengshuyun.oktool.core.model.RetryPolicy;
 import com.zhengshuyun.oktool.spring.boot.bdocr.model.*;
 import com.zhengshuyun.oktool.spring.boot.cache.Cache;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheValue;
+import com.zhengshuyun.oktool.spring.boot.ratelimiter.Bulkhead;
+import com.zhengshuyun.oktool.spring.boot.ratelimiter.BulkheadFullException;
 import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.core.util.HttpClientUtil;
 import com.zhengshuyun.oktool.core.util.JacksonUtil;
 import com.zhengshuyun.oktool.core.util.KeyBuilder;
+import com.zhengshuyun.oktool.core.util.RetryBudget;
 import com.zhengshuyun.oktool.core.util.RetryUtil;
 import com.fasterxml.jackson.core.type.TypeReference;
 import org.apache.commons.lang3.StringUtils;
@@ -35,7 +41,9 @@ import org.apache.commons.lang3.StringUtils;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 百度ocr
@@ -45,15 +53,44 @@ import java.util.Map;
  */
 public class BdOcrClient {
 
+    /**
+     * http客户端名称, 通过 {@link HttpClientUtil#registerEngine} 注册后使用独立连接池
+     */
+    public static final String HTTP_ENGINE = "bdocr";
+
+    /**
+     * 重试策略: 指数退避 + 完全抖动, 避免多个实例同时重试; 重试量受百度ocr共享的重试预算限制;
+     * 隔离舱已满时直接失败, 不重试
+     */
+    private static final List<RetryPolicy> RETRY_POLICIES = List.of(
+            new RetryPolicy(3, Duration.ofSeconds(1), RuntimeException.class, true)
+                    .withBackoff(2, Duration.ofSeconds(8), RetryPolicy.Jitter.FULL)
+                    .withRetryBudget(RetryBudget.of(HTTP_ENGINE))
+                    .withAbortOn(BulkheadFullException.class));
+
     private final BdOcrClientConfig bdOcrClientConfig;
     private final Cache cache;
+    private final Bulkhead bulkhead;
+
+    /**
+     * 是否已注册token后台刷新
+     */
+    private final AtomicBoolean loaderRegistered = new AtomicBoolean();
 
     public BdOcrClient(BdOcrClientConfig bdOcrClientConfig, Cache cache) {
+        this(bdOcrClientConfig, cache, null);
+    }
+
+    /**
+     * @param bulkhead 隔离舱, 限制同时进行中的识别请求数, 为null时不限制
+     */
+    public BdOcrClient(BdOcrClientConfig bdOcrClientConfig, Cache cache, Bulkhead bulkhead) {
         Assert.validate(bdOcrClientConfig);
         Assert.notNull(cache, "cache must not be null");
 
         this.bdOcrClientConfig = bdOcrClientConfig;
         this.cache = cache;
+        this.bulkhead = bulkhead;
     }
 
     /**
@@ -62,11 +99,23 @@ public class BdOcrClient {
      * @return token
      */
     public String getToken() {
-        // 先查询缓存是否存在
-        String cacheToken = cache.get(buildTokenCacheKey(bdOcrClientConfig.getApiKey()));
-        if (StringUtils.isNotBlank(cacheToken)) return cacheToken;
+        String cacheKey = buildTokenCacheKey(bdOcrClientConfig.getApiKey());
+        // 并发未命中时只有一个线程请求百度, 其他线程等待结果
+        String token = cache.getOrLoad(cacheKey, this::loadToken);
 
-        // 未命中缓存, 执行请求获取token
+        // 首次使用后才注册后台刷新(token到期前刷新), 构造时不发起网络请求; 此时缓存已有值, 不会立即重复加载
+        if (!loaderRegistered.get() && loaderRegistered.compareAndSet(false, true)) {
+            cache.registerLoader(cacheKey, this::loadToken);
+        }
+        return token;
+    }
+
+    /**
+     * 从百度获取token
+     *
+     * @return token及其有效期
+     */
+    private CacheValue loadToken() {
         // 构建请求URL
         String url = UrlBuilder.ofHttp("https://aip.baidubce.com/oauth/2.0/token")
                 .addQuery("grant_type", "client_credentials")
@@ -74,9 +123,9 @@ public class BdOcrClient {
                 .addQuery("client_secret", bdOcrClientConfig.getSecretKey())
                 .build();
 
-        // 获取token
+        // 获取token, 重复获取返回同一个token, 幂等
         TokenResponse tokenResponse = RetryUtil.execute(() -> {
-            try (Response response = HttpUtil.createGet(url).send()) {
+            try (Response response = HttpClientUtil.clientEngine(HTTP_ENGINE).send(HttpUtil.createGet(url))) {
                 String bodyStr = response.bodyStr();
                 Assert.notBlank(bodyStr, "baidu error, body is null");
                 TokenResponse tokenResponseOrigin = JacksonUtil.readValue(bodyStr, TokenResponse.class);
@@ -86,15 +135,11 @@ public class BdOcrClient {
             } catch (IOException e) {
                 throw new RuntimeException(e.getMessage(), e);
             }
-        });
+        }, true, RETRY_POLICIES);
 
         // 缓存token
         // 百度的token每次请求返回的都是一样的, 所以这里不需要让token提前失效
-        cache.put(buildTokenCacheKey(bdOcrClientConfig.getApiKey()),
-                tokenResponse.getAccessToken(),
-                Duration.ofSeconds(tokenResponse.getExpires_in()));
-
-        return tokenResponse.getAccessToken();
+        return CacheValue.of(tokenResponse.getAccessToken(), Duration.ofSeconds(tokenResponse.getExpires_in()));
     }
 
     /**
@@ -102,10 +147,11 @@ public class BdOcrClient {
      *
      * @param method 请求方法
      * @param url    服务地址
-     * @param body   请求体
-     * @return 响应体
+     * @param body         请求体
+     * @param responseType 响应类型
+     * @return 响应
      */
-    private String request(Method method, String url, HttpBody body) {
+    private <T> T request(Method method, String url, HttpBody body, Class<T> responseType) {
         Assert.notNull(method, "method must not be null");
         Assert.notBlank(url, "url must not be blank");
         Assert.notNull(body, "body must not be null");
@@ -114,28 +160,39 @@ public class BdOcrClient {
                 .method(method)
                 .body(body);
 
-        return request(request);
+        return request(request, responseType);
     }
 
     /**
      * 执行请求, 内置自动获取鉴权与重试机制
      *
-     * @param request 完整的请求信息
-     * @return 响应体
+     * @param request      完整的请求信息
+     * @param responseType 响应类型
+     * @return 响应, 从响应流增量解析, 不会先读成字符串
      */
-    private String request(Request request) {
+    private <T> T request(Request request, Class<T> responseType) {
         Assert.notNull(request, "request must not be null");
 
         String token = getToken();
         request.url().addQuery("access_token", token);
 
+        // 识别接口只读取文件不产生副作用, 虽然是POST也按幂等调用重试
         return RetryUtil.execute(() -> {
-            try (Response response = request.send()) {
-                String bodyStr = response.bodyStr();
-                Assert.notBlank(bodyStr, "baidu error, body is null");
-                return bodyStr;
+            // 每次尝试单独获取隔离舱许可, 重试退避期间不占用许可, 也不计入自适应隔离舱的耗时;
+            // 已满时抛出 BulkheadFullException, 不重试直接失败
+            try (Bulkhead.Permit permit = bulkhead == null ? null : bulkhead.acquire()) {
+                try (Response response = HttpClientUtil.clientEngine(HTTP_ENGINE).send(request)) {
+                    // 429/503表示下游过载, 自适应隔离舱据此收缩并发上限
+                    if (permit != null && Bulkhead.isOverload(response.getStatus())) permit.drop();
+                    T result = JacksonUtil.readValue(response.bodyStream(), responseType);
+                    Assert.notNull(result, "baidu error, body is null");
+                    return result;
+                } catch (IOException | RuntimeException e) {
+                    if (permit != null && Bulkhead.isOverload(e)) permit.drop();
+                    throw e;
+                }
             }
-        });
+        }, true, RETRY_POLICIES);
     }
 
     /**
@@ -153,13 +210,11 @@ public class BdOcrClient {
         Assert.notNull(request, "request must not be null");
         request.checkFile();
 
-        // 识别发票
-        Map<String, Object> bodyMap = JacksonUtil.convertValue(request, new TypeReference<>() {
-        });
-        UrlEncodedFormBody urlEncodedFormBody = UrlEncodedFormBody.of(bodyMap, StandardCharsets.UTF_8);
+        // 识别发票, 文件在发送前下载并校验, 发送时流式编码
         String url = "https://aip.baidubce.com/rest/2.0/ocr/v1/multiple_invoice";
-        String responseStr = request(Method.POST, url, urlEncodedFormBody);
-        return JacksonUtil.readValue(responseStr, MultipleInvoiceResponse.class).checkStatus();
+        try (OcrFormBody body = request.toFormBody()) {
+            return request(Method.POST, url, body, MultipleInvoiceResponse.class).checkStatus();
+        }
     }
 
     /**
@@ -176,13 +231,11 @@ public class BdOcrClient {
         Assert.notNull(request, "request must not be null");
         request.checkFile();
 
-        // 识别发票
-        Map<String, Object> bodyMap = JacksonUtil.convertValue(request, new TypeReference<>() {
-        });
-        UrlEncodedFormBody urlEncodedFormBody = UrlEncodedFormBody.of(bodyMap, StandardCharsets.UTF_8);
+        // 识别发票, 文件在发送前下载并校验, 发送时流式编码
         String url = "https://aip.baidubce.com/rest/2.0/ocr/v1/vat_invoice";
-        String responseStr = request(Method.POST, url, urlEncodedFormBody);
-        return JacksonUtil.readValue(responseStr, VatInvoiceResponse.class).checkStatus();
+        try (OcrFormBody body = request.toFormBody()) {
+            return request(Method.POST, url, body, VatInvoiceResponse.class).checkStatus();
+        }
     }
 
     /**
@@ -215,8 +268,7 @@ public class BdOcrClient {
         });
         UrlEncodedFormBody urlEncodedFormBody = UrlEncodedFormBody.of(bodyMap, StandardCharsets.UTF_8);
         String url = "https://aip.baidubce.com/rest/2.0/ocr/v1/vat_invoice_verification";
-        String responseStr = request(Method.POST, url, urlEncodedFormBody);
-        return JacksonUtil.readValue(responseStr, VatInvoiceVerificationResponse.class).checkStatus();
+        return request(Method.POST, url, urlEncodedFormBody, VatInvoiceVerificationResponse.class).checkStatus();
     }
 
     private String buildTokenCacheKey(String apiKey) {
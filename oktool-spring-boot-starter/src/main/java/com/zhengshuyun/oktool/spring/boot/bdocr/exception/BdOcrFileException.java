@@ -0,0 +1,29 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.bdocr.exception;
+
+/**
+ * 待识别的文件不合法(空文件、文件过大、不支持的格式、下载失败的HTTP状态等), 重试也不会成功, 不参与重试
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class BdOcrFileException extends RuntimeException {
+    public BdOcrFileException(String message) {
+        super(message);
+    }
+}
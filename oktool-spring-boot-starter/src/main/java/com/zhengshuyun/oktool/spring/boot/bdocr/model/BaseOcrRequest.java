@@ -16,26 +16,14 @@
 
 package com.zhengshuyun.oktool.spring.boot.bdocr.model;
 
-import cn.hutool.v7.core.codec.binary.Base64;
-import cn.hutool.v7.core.io.IoUtil;
-import cn.hutool.v7.core.io.StreamProgress;
-import cn.hutool.v7.core.io.file.FileTypeUtil;
-import cn.hutool.v7.core.net.url.UrlEncoder;
-import cn.hutool.v7.http.HttpUtil;
-import cn.hutool.v7.http.client.Request;
-import cn.hutool.v7.http.client.Response;
-import cn.hutool.v7.http.meta.HeaderName;
-import cn.hutool.v7.http.meta.HttpHeaderUtil;
-import com.zhengshuyun.oktool.core.util.Assert;
-import com.zhengshuyun.oktool.core.util.FileNameUtil;
+import com.zhengshuyun.oktool.core.util.JacksonUtil;
+import com.zhengshuyun.oktool.spring.boot.bdocr.exception.BdOcrFileException;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
 import org.apache.commons.lang3.StringUtils;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.IOException;
-import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -93,6 +81,12 @@ public class BaseOcrRequest {
     @JsonProperty("ofd_file_num")
     private int ofdFileNum = 1;
 
+    /**
+     * 通过 {@link #file} 设置的文件, 发送时按文件类型写入 image/pdf_file/ofd_file 字段
+     */
+    @JsonIgnore
+    private OcrFile ocrFile;
+
     public BaseOcrRequest() {
     }
 
@@ -105,59 +99,16 @@ public class BaseOcrRequest {
     }
 
     /**
-     * @param fileUrl 文件下载链接, 会校验文件大小并加载进内存.
+     * @param fileUrl 文件下载链接, 发送识别请求前流式下载到临时文件并校验大小与类型, 不会把文件加载进内存;
+     *                每次识别下载一次, 识别请求重试时不重新下载
      */
     public BaseOcrRequest file(String fileUrl) {
-        Assert.notBlank(fileUrl, "fileUrl must not be blank");
-
-        Request request = HttpUtil.createGet(fileUrl);
-        request.setMaxRedirects(5);
-        request.header(HeaderName.CONTENT_DISPOSITION, "attachment");
-
-        try (Response response = request.send()) {
-
-            // 校验状态
-            Assert.isTrue(response.isOk(), "下载文件HTTP状态码: {}", response.getStatus());
-
-            // 校验头信息
-            // http信息可能伪造, 所以只校验最大值
-            long contentLength = response.contentLength();
-            if (contentLength > 0) checkFileSize(contentLength);
-
-            // 尝试通过响应头拿到文件类型
-            String extName = null;
-            String fileName = HttpHeaderUtil.getFileNameFromDisposition(response.headers(), null);
-            if (StringUtils.isNotBlank(fileName)) {
-                extName = FileNameUtil.getSuffix(fileName);
-            }
-
-            // 进度监听避免内存溢出
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            response.body().write(outputStream, true, new StreamProgress() {
-                @Override
-                public void start() {
-
-                }
-
-                @Override
-                public void progress(long total, long progressSize) {
-                    if (progressSize > 0) checkFileSize(progressSize);
-                }
-
-                @Override
-                public void finish() {
-
-                }
-            });
-
-            return file(outputStream.toByteArray(), extName);
-        } catch (IOException e) {
-            throw new RuntimeException(e.getMessage(), e);
-        }
+        this.ocrFile = OcrFile.of(fileUrl);
+        return this;
     }
 
     /**
-     * @param fileBytes 文件字节, 自动识别文件类型并赋值对应字段
+     * @param fileBytes 文件字节, 自动识别文件类型, 发送时写入对应字段; 不会赋值 image/pdfFile/ofdFile
      */
     public BaseOcrRequest file(byte[] fileBytes) {
         file(fileBytes, null);
@@ -165,58 +116,29 @@ public class BaseOcrRequest {
     }
 
     /**
-     * @param fileBytes 文件字节, 会校验字节大小
+     * @param fileBytes 文件字节, 会校验字节大小, 发送识别请求时才编码, 不会生成编码后的副本
      * @param extName   文件类型(后缀), 传空值则通过二进制头获取文件类型
      */
     public BaseOcrRequest file(byte[] fileBytes, String extName) {
-        Assert.notNull(fileBytes, "fileBytes must not be null");
-        checkFileSize(fileBytes.length);
-
-        // 文件类型空值, 则通过二进制头获取文件类型
-        if (StringUtils.isBlank(extName)) {
-            try (ByteArrayInputStream byteArrayInputStream = IoUtil.toStream(fileBytes)) {
-                extName = FileTypeUtil.getType(byteArrayInputStream);
-                Assert.notBlank(extName, "无法读取文件格式");
-            } catch (IOException e) {
-                throw new RuntimeException(e.getMessage(), e);
-            }
-        }
-
-        String normalizedExt = extName.trim().toLowerCase();
-        if ("pdf".equals(normalizedExt)) {
-            setPdfFile(urlEncodeAndBase64(fileBytes));
-        } else if ("ofd".equals(normalizedExt)) {
-            setOfdFile(urlEncodeAndBase64(fileBytes));
-        } else if (List.of("jpg", "jpeg", "png", "bmp").contains(normalizedExt)) {
-            setImage(urlEncodeAndBase64(fileBytes));
-        } else {
-            throw new RuntimeException("不支持的格式: " + normalizedExt);
-        }
-
+        this.ocrFile = OcrFile.of(fileBytes, extName);
         return this;
     }
 
-    private void checkFileSize(long fileSize) {
-        if (fileSize <= 0) {
-            throw new RuntimeException("空文件");
-        }
-
-        if (fileSize > 4 * 1024 * 1024) {
-            throw new RuntimeException("文件过大");
-        }
-    }
-
-    private String urlEncodeAndBase64(byte[] fileBytes) {
-        return UrlEncoder.encodeQuery(Base64.encode(fileBytes));
-    }
-
-    private static String urlEncodeAndBase64(File file) {
-        return UrlEncoder.encodeQuery(Base64.encode(file));
+    /**
+     * 转换为表单请求体, 通过 {@link #file} 设置的下载链接在这里下载并校验, 文件在写入请求体时流式编码
+     *
+     * @return 表单请求体, 使用后需要关闭以删除临时文件
+     * @throws BdOcrFileException 文件不合法
+     */
+    public OcrFormBody toFormBody() {
+        Map<String, Object> params = JacksonUtil.convertValue(this, new TypeReference<>() {
+        });
+        return new OcrFormBody(params, ocrFile == null ? null : ocrFile.prepare());
     }
 
     public void checkFile() {
-        if (StringUtils.isAllBlank(getUrl(), getImage(), getPdfFile(), getOfdFile())) {
-            throw new RuntimeException("image/url/pdf_file/ofd_file, 4选1");
+        if (ocrFile == null && StringUtils.isAllBlank(getUrl(), getImage(), getPdfFile(), getOfdFile())) {
+            throw new BdOcrFileException("image/url/pdf_file/ofd_file, 4选1");
         }
     }
 
@@ -272,12 +194,12 @@ public class BaseOcrRequest {
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
         BaseOcrRequest that = (BaseOcrRequest) o;
-        return pdfFileNum == that.pdfFileNum && ofdFileNum == that.ofdFileNum && Objects.equals(image, that.image) && Objects.equals(url, that.url) && Objects.equals(pdfFile, that.pdfFile) && Objects.equals(ofdFile, that.ofdFile);
+        return pdfFileNum == that.pdfFileNum && ofdFileNum == that.ofdFileNum && Objects.equals(image, that.image) && Objects.equals(url, that.url) && Objects.equals(pdfFile, that.pdfFile) && Objects.equals(ofdFile, that.ofdFile) && Objects.equals(ocrFile, that.ocrFile);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(image, url, pdfFile, pdfFileNum, ofdFile, ofdFileNum);
+        return Objects.hash(image, url, pdfFile, pdfFileNum, ofdFile, ofdFileNum, ocrFile);
     }
 
     @Override
@@ -289,6 +211,7 @@ public class BaseOcrRequest {
                 ", pdfFileNum=" + pdfFileNum +
                 ", ofdFile='" + ofdFile + '\'' +
                 ", ofdFileNum=" + ofdFileNum +
+                ", ocrFile=" + ocrFile +
                 '}';
     }
 }
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.bdocr.model;
+
+import cn.hutool.v7.core.io.IoUtil;
+import cn.hutool.v7.core.io.file.FileTypeUtil;
+import cn.hutool.v7.http.HttpUtil;
+import cn.hutool.v7.http.client.Request;
+import cn.hutool.v7.http.client.Response;
+import cn.hutool.v7.http.meta.HeaderName;
+import cn.hutool.v7.http.meta.HttpHeaderUtil;
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.core.util.FileNameUtil;
+import com.zhengshuyun.oktool.core.util.HttpClientUtil;
+import com.zhengshuyun.oktool.spring.boot.bdocr.exception.BdOcrFileException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 待识别的文件
+ *
+ * <p>只保存文件来源(下载链接或原始字节), 发送请求前通过 {@link #prepare()} 下载并校验,
+ * 写入请求体时只做编码, 配合 {@link OcrFormBody} 边读边编码边发送</p>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+class OcrFile {
+
+    /**
+     * 文件大小上限
+     */
+    static final long MAX_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * 识别文件类型时读取的文件头长度
+     */
+    private static final int HEAD_SIZE = 8192;
+
+    private final String url;
+    private final byte[] bytes;
+    private final String extName;
+
+    private OcrFile(String url, byte[] bytes, String extName) {
+        this.url = url;
+        this.bytes = bytes;
+        this.extName = extName;
+    }
+
+    /**
+     * @param url 文件下载链接, 每次发送请求时下载一次
+     */
+    static OcrFile of(String url) {
+        Assert.notBlank(url, "fileUrl must not be blank");
+        return new OcrFile(url, null, null);
+    }
+
+    /**
+     * @param bytes   文件字节, 不复制
+     * @param extName 文件类型(后缀), 传空值则通过二进制头获取文件类型
+     */
+    static OcrFile of(byte[] bytes, String extName) {
+        Assert.notNull(bytes, "fileBytes must not be null");
+        checkFileSize(bytes.length);
+
+        // 文件类型空值, 则通过二进制头获取文件类型
+        if (StringUtils.isBlank(extName)) {
+            extName = detectType(bytes);
+        }
+        fieldName(extName);
+        return new OcrFile(null, bytes, extName);
+    }
+
+    /**
+     * 准备待发送的文件: 字节直接使用, 下载链接流式下载到临时文件并校验大小与类型
+     * <p>在识别请求之外执行, 下载不占用百度ocr的连接池和隔离舱许可, 重试识别请求时不会重新下载;
+     * 文件不合法时抛出 {@link BdOcrFileException}, 此时还没有开始发送识别请求</p>
+     *
+     * @return 校验过的文件内容, 使用后需要关闭以删除临时文件
+     */
+    Content prepare() {
+        if (bytes != null) {
+            return new Content(fieldName(extName), bytes, null);
+        }
+
+        Path path;
+        try {
+            path = Files.createTempFile("oktool-bdocr-", null);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+
+        Request request = HttpUtil.createGet(url);
+        request.setMaxRedirects(5);
+        request.header(HeaderName.CONTENT_DISPOSITION, "attachment");
+
+        try (Response response = HttpClientUtil.clientEngine().send(request)) {
+            // 校验状态
+            if (!response.isOk()) {
+                throw new BdOcrFileException("下载文件HTTP状态码: " + response.getStatus());
+            }
+
+            // 校验头信息
+            // http信息可能伪造, 所以只校验最大值, 实际大小在读取时校验
+            long contentLength = response.contentLength();
+            if (contentLength > 0) checkFileSize(contentLength);
+
+            // 尝试通过响应头拿到文件类型
+            String type = null;
+            String fileName = HttpHeaderUtil.getFileNameFromDisposition(response.headers(), null);
+            if (StringUtils.isNotBlank(fileName)) {
+                type = FileNameUtil.getSuffix(fileName);
+            }
+
+            // 边下载边写入临时文件, 超过上限立即失败
+            try (InputStream in = new SizeLimitedInputStream(response.bodyStream());
+                 OutputStream out = Files.newOutputStream(path)) {
+                in.transferTo(out);
+            }
+
+            // 响应头没有文件类型, 读取文件头识别
+            if (StringUtils.isBlank(type)) {
+                try (InputStream in = Files.newInputStream(path)) {
+                    type = detectType(in.readNBytes(HEAD_SIZE));
+                }
+            }
+
+            return new Content(fieldName(type), null, path);
+        } catch (IOException e) {
+            deleteQuietly(path);
+            throw new RuntimeException(e.getMessage(), e);
+        } catch (RuntimeException e) {
+            deleteQuietly(path);
+            throw e;
+        }
+    }
+
+    /**
+     * 按文件类型对应请求字段
+     */
+    private static String fieldName(String extName) {
+        String normalizedExt = extName.trim().toLowerCase();
+        if ("pdf".equals(normalizedExt)) {
+            return "pdf_file";
+        } else if ("ofd".equals(normalizedExt)) {
+            return "ofd_file";
+        } else if (List.of("jpg", "jpeg", "png", "bmp").contains(normalizedExt)) {
+            return "image";
+        } else {
+            throw new BdOcrFileException("不支持的格式: " + normalizedExt);
+        }
+    }
+
+    private static String detectType(byte[] head) {
+        try (ByteArrayInputStream byteArrayInputStream = IoUtil.toStream(head)) {
+            String extName = FileTypeUtil.getType(byteArrayInputStream);
+            if (StringUtils.isBlank(extName)) {
+                throw new BdOcrFileException("无法读取文件格式");
+            }
+            return extName;
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    private static void checkFileSize(long fileSize) {
+        if (fileSize <= 0) {
+            throw new BdOcrFileException("空文件");
+        }
+
+        if (fileSize > MAX_SIZE) {
+            throw new BdOcrFileException("文件过大");
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        OcrFile that = (OcrFile) o;
+        return Objects.equals(url, that.url) && Arrays.equals(bytes, that.bytes) && Objects.equals(extName, that.extName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(url, Arrays.hashCode(bytes), extName);
+    }
+
+    @Override
+    public String toString() {
+        return "OcrFile{" +
+                "url='" + url + '\'' +
+                ", bytes=" + (bytes == null ? null : bytes.length + " bytes") +
+                ", extName='" + extName + '\'' +
+                '}';
+    }
+
+    /**
+     * 校验过的文件内容, 字节和临时文件二选一
+     *
+     * @param fieldName 请求字段: image/pdf_file/ofd_file
+     * @param bytes     文件字节
+     * @param path      下载的临时文件, 关闭时删除
+     */
+    record Content(String fieldName, byte[] bytes, Path path) implements Closeable {
+
+        /**
+         * 每次调用都打开新的文件流, 重试时可以重复读取
+         */
+        InputStream open() throws IOException {
+            return bytes != null ? IoUtil.toStream(bytes) : Files.newInputStream(path);
+        }
+
+        @Override
+        public void close() {
+            if (path != null) deleteQuietly(path);
+        }
+    }
+
+    /**
+     * 读取时校验文件大小
+     */
+    private static class SizeLimitedInputStream extends FilterInputStream {
+        private long size;
+
+        private SizeLimitedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            count(b < 0 ? -1 : 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            count(n);
+            return n;
+        }
+
+        private void count(int n) {
+            if (n < 0) {
+                checkFileSize(size);
+                return;
+            }
+            size += n;
+            if (size > MAX_SIZE) checkFileSize(size);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.bdocr.model;
+
+import cn.hutool.v7.http.client.body.HttpBody;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * 识别请求的表单请求体
+ *
+ * <p>文件在创建前已经下载并校验, 写入时只做编码: 文件流经 base64 编码与 urlencode 后直接写入连接,
+ * 不在内存中生成编码后的字符串, 单个请求的内存占用与文件大小无关</p>
+ * <p>使用后需要关闭, 删除下载的临时文件</p>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public final class OcrFormBody implements HttpBody, Closeable {
+
+    private static final String CONTENT_TYPE = "application/x-www-form-urlencoded;charset=UTF-8";
+
+    private final Map<String, Object> params;
+    private final OcrFile.Content file;
+
+    /**
+     * @param params 普通表单参数, 值为null的参数不发送
+     * @param file   校验过的文件(可选)
+     */
+    OcrFormBody(Map<String, Object> params, OcrFile.Content file) {
+        this.params = params;
+        this.file = file;
+    }
+
+    /**
+     * 每次调用都重新打开文件流, 重试时可以重复写入
+     */
+    @Override
+    public void write(OutputStream out) {
+        try {
+            // 不关闭连接的输出流, 只在结束时刷新
+            BufferedOutputStream buffer = new BufferedOutputStream(out);
+            boolean first = true;
+            for (Map.Entry<String, Object> entry : params.entrySet()) {
+                if (entry.getValue() == null) continue;
+                if (!first) buffer.write('&');
+                buffer.write(encode(entry.getKey()));
+                buffer.write('=');
+                buffer.write(encode(String.valueOf(entry.getValue())));
+                first = false;
+            }
+
+            if (file != null) {
+                try (InputStream stream = file.open()) {
+                    if (!first) buffer.write('&');
+                    buffer.write(encode(file.fieldName()));
+                    buffer.write('=');
+
+                    // base64编码器关闭时写出末尾的填充字符
+                    try (OutputStream encoder = Base64.getEncoder().wrap(new UrlEncodeOutputStream(buffer))) {
+                        stream.transferTo(encoder);
+                    }
+                }
+            }
+            buffer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    /**
+     * 删除下载的临时文件
+     */
+    @Override
+    public void close() {
+        if (file != null) file.close();
+    }
+
+    private static byte[] encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 对base64字符做urlencode, 关闭时不关闭下游输出流
+     */
+    private static class UrlEncodeOutputStream extends FilterOutputStream {
+
+        private static final byte[] PLUS = {'%', '2', 'B'};
+        private static final byte[] SLASH = {'%', '2', 'F'};
+        private static final byte[] EQUALS = {'%', '3', 'D'};
+
+        private UrlEncodeOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            switch (b) {
+                case '+' -> out.write(PLUS);
+                case '/' -> out.write(SLASH);
+                case '=' -> out.write(EQUALS);
+                default -> out.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                write(b[i]);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步缓存服务
+ *
+ * <p>与 {@link Cache} 语义一致, 调用不阻塞, 结果通过 {@link CompletableFuture} 返回</p>
+ * <p>适合在同一请求中并发发起多个缓存操作, 或避免redis抖动时阻塞调用线程</p>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public interface AsyncCache {
+    /**
+     * 设置缓存
+     *
+     * @param key     缓存键, 不能为空
+     * @param value   缓存值
+     * @param timeout 缓存时间, 不能为空
+     */
+    default CompletableFuture<Void> put(String key, String value, Duration timeout) {
+        return put(key, value, timeout.toMillis());
+    }
+
+    /**
+     * 设置缓存
+     *
+     * @param key     缓存键, 不能为空
+     * @param value   缓存值
+     * @param timeout 缓存时间(ms), 小于等于0表示不过期
+     */
+    CompletableFuture<Void> put(String key, String value, long timeout);
+
+    /**
+     * 设置缓存如果不存在
+     *
+     * @param key     缓存键, 不能为空
+     * @param value   缓存值
+     * @param timeout 缓存时间, 不能为空
+     * @return true=设置成功, false=不成功
+     */
+    default CompletableFuture<Boolean> putIfAbsent(String key, String value, Duration timeout) {
+        return putIfAbsent(key, value, timeout.toMillis());
+    }
+
+    /**
+     * 设置缓存如果不存在
+     *
+     * @param key     缓存键, 不能为空
+     * @param value   缓存值
+     * @param timeout 缓存时间(ms), 小于等于0表示不过期
+     * @return true=设置成功, false=不成功
+     */
+    CompletableFuture<Boolean> putIfAbsent(String key, String value, long timeout);
+
+    /**
+     * 获取缓存
+     *
+     * @param key 缓存键
+     * @return 缓存值, 不存在时为null
+     */
+    CompletableFuture<String> get(String key);
+
+    /**
+     * 获取缓存
+     *
+     * @param keys 缓存键
+     * @return 缓存值集合, 如果对应位置的key不存在, 则用null占位
+     */
+    CompletableFuture<List<String>> multiGet(Collection<String> keys);
+
+    /**
+     * 缓存是否存在
+     *
+     * @param key 缓存键, 不能为空
+     * @return true=存在, false=不存在
+     */
+    CompletableFuture<Boolean> containsKey(String key);
+
+    /**
+     * 删除缓存
+     *
+     * @param key 缓存键, 不能为空
+     */
+    CompletableFuture<Void> delete(String key);
+
+    /**
+     * 缓存增加（整数）
+     *
+     * @param key   缓存键, 不能为空
+     * @param delta 自增值
+     * @return 自增后的值
+     */
+    CompletableFuture<Long> add(String key, long delta);
+
+    /**
+     * 缓存增加（浮点数）
+     *
+     * @param key   缓存键, 不能为空
+     * @param delta 自增值
+     * @return 自增后的值
+     */
+    CompletableFuture<Double> add(String key, double delta);
+
+    /**
+     * 设置缓存过期时间
+     *
+     * @param key     缓存键, 不能为空
+     * @param timeout 过期时间, 不能为空
+     */
+    default CompletableFuture<Void> expire(String key, Duration timeout) {
+        return expire(key, timeout.toMillis());
+    }
+
+    /**
+     * 设置缓存过期时间
+     *
+     * @param key     缓存键, 不能为空
+     * @param timeout 过期时间(ms), 小于等于0时删除
+     */
+    CompletableFuture<Void> expire(String key, long timeout);
+}
@@ -16,10 +16,16 @@
 
 package com.zhengshuyun.oktool.spring.boot.cache;
 
+import com.zhengshuyun.oktool.core.util.Assert;
+
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * 缓存服务
@@ -48,6 +54,55 @@ public interface Cache {
      */
     void put(String key, String value, long timeout);
 
+    /**
+     * 设置二进制缓存
+     *
+     * @param key     缓存键, 不能为空
+     * @param value   缓存值, 不能为空
+     * @param timeout 缓存时间, 不能为空
+     */
+    default void putBytes(String key, byte[] value, Duration timeout) {
+        putBytes(key, value, timeout.toMillis());
+    }
+
+    /**
+     * 设置二进制缓存, 原样存储不经过字符串转换, 供 {@link TypedCache} 使用
+     * <p>
+     * 默认实现以Base64字符串调用 {@link #put(String, String, long)}, 只能通过 {@link #getBytes(String)} 读取
+     *
+     * @param key     缓存键, 不能为空
+     * @param value   缓存值, 不能为空
+     * @param timeout 缓存时间(ms), 小于等于0表示不过期
+     */
+    default void putBytes(String key, byte[] value, long timeout) {
+        Assert.notNull(value, "value不能为空");
+        put(key, Base64.getEncoder().encodeToString(value), timeout);
+    }
+
+    /**
+     * 批量设置缓存
+     *
+     * @param values  缓存键值, 不能为空
+     * @param timeout 缓存时间, 不能为空
+     */
+    default void multiPut(Map<String, String> values, Duration timeout) {
+        multiPut(values, timeout.toMillis());
+    }
+
+    /**
+     * 批量设置缓存, 整批只需一次网络往返
+     * <p>
+     * 默认实现逐个调用 {@link #put(String, String, long)}
+     *
+     * @param values  缓存键值, 不能为空
+     * @param timeout 缓存时间(ms), 小于等于0表示不过期
+     */
+    default void multiPut(Map<String, String> values, long timeout) {
+        Assert.notEmpty(values, "values不能为空");
+        values.keySet().forEach(key -> Assert.notBlank(key, "key不能为空"));
+        values.forEach((key, value) -> put(key, value, timeout));
+    }
+
     /**
      * 设置缓存如果不存在
      *
@@ -78,6 +133,96 @@ public interface Cache {
      */
     String get(String key);
 
+    /**
+     * 获取缓存, 不存在时加载并写入缓存
+     *
+     * @param key     缓存键, 不能为空
+     * @param timeout 缓存时间, 不能为空
+     * @param loader  加载函数, 返回值不能为null
+     * @return 缓存值
+     * @see #getOrLoad(String, Supplier)
+     */
+    default String getOrLoad(String key, Duration timeout, Supplier<String> loader) {
+        Assert.notNullParam(timeout, "timeout");
+        return getOrLoad(key, timeout.toMillis(), loader);
+    }
+
+    /**
+     * 获取缓存, 不存在时加载并写入缓存
+     *
+     * @param key     缓存键, 不能为空
+     * @param timeout 缓存时间(ms), 小于等于0表示不过期
+     * @param loader  加载函数, 返回值不能为null
+     * @return 缓存值
+     * @see #getOrLoad(String, Supplier)
+     */
+    default String getOrLoad(String key, long timeout, Supplier<String> loader) {
+        Assert.notNullParam(loader, "loader");
+        return getOrLoad(key, () -> CacheValue.of(loader.get(), timeout));
+    }
+
+    /**
+     * 获取缓存, 不存在时加载并写入缓存, 缓存时间由加载结果决定
+     * <li>单机合并: 同一个key并发未命中时只有一个线程执行加载, 其他线程等待其结果</li>
+     * <li>跨节点互斥: 开启 {@link CacheProperties.Load#isDistributedLock()} 后, 通过redis短时锁保证同一时间只有一个节点加载</li>
+     * <li>提前刷新: 按XFetch算法, 临近过期时以一定概率提前加载, 加载期间其他线程继续读取旧值</li>
+     *
+     * <p>
+     * 默认实现只做读取-加载-写入, 不合并并发加载, 内置实现均已覆盖
+     *
+     * @param key    缓存键, 不能为空
+     * @param loader 加载函数, 返回值不能为null
+     * @return 缓存值
+     */
+    default String getOrLoad(String key, Supplier<CacheValue> loader) {
+        Assert.notNullParam(loader, "loader");
+        String value = get(key);
+        if (value != null) return value;
+
+        CacheValue loaded = loader.get();
+        Assert.notNull(loaded, "加载结果不能为空");
+        put(key, loaded.value(), loaded.timeout());
+        return loaded.value();
+    }
+
+    /**
+     * 注册后台刷新(refresh-ahead)
+     * <p>
+     * 通过 {@link #getOrLoad(String, Supplier)} 或后台刷新写入后, 在缓存时间的
+     * {@link CacheProperties.Load#getRefreshAheadRatio()} 处由虚拟线程重新执行加载函数,
+     * 新值写入前读取方继续拿到旧值, 避免过期时同步加载带来的延迟
+     * <p>
+     * 缓存中没有值时立即在后台加载一次; 同一个key重复注册只替换加载函数
+     * <p>
+     * 默认实现不支持后台刷新, 不做任何处理
+     *
+     * @param key    缓存键, 不能为空
+     * @param loader 加载函数, 返回值不能为null
+     */
+    default void registerLoader(String key, Supplier<CacheValue> loader) {
+    }
+
+    /**
+     * 取消后台刷新, 已缓存的值不受影响
+     *
+     * @param key 缓存键, 不能为空
+     */
+    default void unregisterLoader(String key) {
+    }
+
+    /**
+     * 获取二进制缓存
+     * <p>
+     * 默认实现读取 {@link #putBytes(String, byte[], long)} 默认实现写入的Base64字符串
+     *
+     * @param key 缓存键, 不能为空
+     * @return 缓存值, 不存在时为null
+     */
+    default byte[] getBytes(String key) {
+        String value = get(key);
+        return value == null ? null : Base64.getDecoder().decode(value);
+    }
+
     /**
      * 获取缓存
      *
@@ -101,6 +246,19 @@ public interface Cache {
      */
     void delete(String key);
 
+    /**
+     * 批量删除缓存
+     * <p>
+     * 默认实现逐个调用 {@link #delete(String)}
+     *
+     * @param keys 缓存键, 不能为空
+     */
+    default void multiDelete(Collection<String> keys) {
+        Assert.notEmpty(keys, "keys不能为空");
+        keys.forEach(key -> Assert.notBlank(key, "key不能为空"));
+        keys.forEach(this::delete);
+    }
+
     /**
      * 缓存增加（整数）
      *
@@ -119,6 +277,26 @@ public interface Cache {
      */
     double add(String key, double delta);
 
+    /**
+     * 批量缓存增加（整数）, 整批只需一次网络往返
+     * <p>
+     * 默认实现逐个调用 {@link #add(String, long)}
+     *
+     * @param deltas 缓存键与自增值, 不能为空
+     * @return 缓存键与自增后的值, 顺序与入参一致
+     */
+    default Map<String, Long> multiAdd(Map<String, Long> deltas) {
+        Assert.notEmpty(deltas, "deltas不能为空");
+        deltas.forEach((key, delta) -> {
+            Assert.notBlank(key, "key不能为空");
+            Assert.notNull(delta, "自增值不能为空");
+        });
+
+        Map<String, Long> values = new LinkedHashMap<>();
+        deltas.forEach((key, delta) -> values.put(key, add(key, delta.longValue())));
+        return values;
+    }
+
     /**
      * 缓存自增（整数）
      *
@@ -201,6 +379,30 @@ public interface Cache {
      */
     void expire(String key, long timeout);
 
+    /**
+     * 批量设置缓存过期时间
+     *
+     * @param keys    缓存键, 不能为空
+     * @param timeout 过期时间, 不能为空
+     */
+    default void multiExpire(Collection<String> keys, Duration timeout) {
+        multiExpire(keys, timeout.toMillis());
+    }
+
+    /**
+     * 批量设置缓存过期时间, 整批只需一次网络往返
+     * <p>
+     * 默认实现逐个调用 {@link #expire(String, long)}
+     *
+     * @param keys    缓存键, 不能为空
+     * @param timeout 过期时间(ms), 小于等于0时删除
+     */
+    default void multiExpire(Collection<String> keys, long timeout) {
+        Assert.notEmpty(keys, "keys不能为空");
+        keys.forEach(key -> Assert.notBlank(key, "key不能为空"));
+        keys.forEach(key -> expire(key, timeout));
+    }
+
     /**
      * 设置缓存过期时间
      *
@@ -16,15 +16,19 @@
 
 package com.zhengshuyun.oktool.spring.boot.cache;
 
-import com.zhengshuyun.oktool.spring.boot.cache.impl.LocalCacheImpl;
-import com.zhengshuyun.oktool.spring.boot.cache.impl.RedisCacheImpl;
+import com.zhengshuyun.oktool.spring.boot.cache.impl.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.Resource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.util.ClassUtils;
 
 /**
@@ -39,9 +43,14 @@ public class CacheAutoConfig {
 
     private static final Logger log = LoggerFactory.getLogger(CacheAutoConfig.class);
 
+    private static final String MICROMETER_CLASS = "io.micrometer.core.instrument.MeterRegistry";
+
     @Resource
     private CacheProperties cacheProperties;
 
+    @Resource
+    private BeanFactory beanFactory;
+
     @Bean
     @ConditionalOnMissingBean
     public Cache cacheService() {
@@ -52,16 +61,124 @@ public class CacheAutoConfig {
         if (cacheType == CacheProperties.Type.AUTO &&
                 ClassUtils.isPresent("org.springframework.data.redis.core.StringRedisTemplate", null)) {
             // auto: 如果有redis依赖, 优先使用redis, 否则使用本地
-            cache = new RedisCacheImpl();
+            cache = new RedisCacheImpl(cacheProperties.getLoad());
         } else if (cacheType == CacheProperties.Type.REDIS) {
             // redis: 这里不检查依赖, 如果没有redis依赖, 让框架自己报错
-            cache = new RedisCacheImpl();
+            cache = new RedisCacheImpl(cacheProperties.getLoad());
+        } else if (cacheType == CacheProperties.Type.NEAR) {
+            // near: 本地一级缓存 + redis二级缓存, 同样依赖redis
+            cache = new NearCacheImpl(cacheProperties.getNear(), cacheProperties.getLoad());
+        } else if (cacheType == CacheProperties.Type.OFF_HEAP) {
+            // off_heap: 数据存放在堆外内存的本地缓存
+            cache = new OffHeapCacheImpl(cacheProperties.getOffHeap(), cacheProperties.getLoad());
         } else {
             // 其他情况, 使用本地缓存
-            cache = new LocalCacheImpl();
+            cache = new LocalCacheImpl(cacheProperties.getLocal(), cacheProperties.getLoad());
+        }
+
+        // 有micrometer依赖时加上监控指标
+        CacheProperties.Metrics metrics = cacheProperties.getMetrics();
+        if (metrics != null && metrics.isEnabled() && ClassUtils.isPresent(MICROMETER_CLASS, null)) {
+            cache = MetricsSupport.instrument(cache, beanFactory, metrics);
         }
 
         log.info("Cache缓存服务初始化成功, 实现类: {}", cache.getClass().getSimpleName());
         return cache;
     }
+
+    /**
+     * 异步缓存, 与 {@link Cache} 使用同一份数据
+     * <li>redis: 连接工厂支持响应式(Lettuce)时使用响应式连接, 不阻塞调用线程; 否则(如Jedis)在虚拟线程中执行</li>
+     * <li>本地(含堆外): 直接执行并返回已完成的结果</li>
+     * <li>其他(近端缓存/自定义缓存): 在虚拟线程中执行</li>
+     * <p>redis响应式实现直接访问redis, 不经过监控装饰器</p>
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public AsyncCache asyncCache(Cache cache) {
+        // 按实际实现选择异步方式, 监控装饰器本身不影响选择
+        Cache target = cache;
+        if (ClassUtils.isPresent(MICROMETER_CLASS, null) && cache instanceof MeteredCacheImpl meteredCache) {
+            target = meteredCache.getDelegate();
+        }
+
+        AsyncCache asyncCache;
+        if (target instanceof LocalCacheImpl || target instanceof OffHeapCacheImpl) {
+            asyncCache = new DelegatingAsyncCacheImpl(cache, true);
+        } else if (target.getClass() == RedisCacheImpl.class && ReactiveSupport.isReactive(beanFactory)) {
+            asyncCache = new RedisAsyncCacheImpl();
+        } else {
+            asyncCache = new DelegatingAsyncCacheImpl(cache, false);
+        }
+
+        log.info("AsyncCache异步缓存服务初始化成功, 实现类: {}", asyncCache.getClass().getSimpleName());
+        return asyncCache;
+    }
+
+    /**
+     * 分布式锁工厂, 与 {@link Cache} 使用同一个存储
+     * <li>redis/近端缓存: 锁保存在redis, 跨节点互斥</li>
+     * <li>本地缓存(含堆外)及其他: 只在当前进程内互斥</li>
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public DistributedLockFactory distributedLockFactory(Cache cache) {
+        Cache target = cache;
+        if (ClassUtils.isPresent(MICROMETER_CLASS, null) && cache instanceof MeteredCacheImpl meteredCache) {
+            target = meteredCache.getDelegate();
+        }
+
+        DistributedLockFactory lockFactory = target instanceof RedisCacheImpl
+                ? new RedisDistributedLockFactory(cacheProperties.getLock())
+                : new LocalDistributedLockFactory();
+        log.info("DistributedLockFactory分布式锁初始化成功, 实现类: {}", lockFactory.getClass().getSimpleName());
+        return lockFactory;
+    }
+
+    /**
+     * 对象缓存工厂, 编解码方式见 {@link CacheProperties#getCodec()} 与 {@link CacheProperties#getRegionCodecs()}
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public TypedCacheFactory typedCacheFactory(Cache cache) {
+        return new TypedCacheFactory(cache, cacheProperties);
+    }
+
+    /**
+     * 响应式连接判断, 单独成类, 避免无redis依赖时加载相关类
+     */
+    private static final class ReactiveSupport {
+
+        /**
+         * 按实际使用的连接工厂判断, 类路径上有Lettuce但配置为Jedis时不支持响应式
+         */
+        static boolean isReactive(BeanFactory beanFactory) {
+            StringRedisTemplate stringRedisTemplate = beanFactory.getBeanProvider(StringRedisTemplate.class).getIfAvailable();
+            return stringRedisTemplate != null
+                    && stringRedisTemplate.getConnectionFactory() instanceof ReactiveRedisConnectionFactory;
+        }
+    }
+
+    /**
+     * 监控指标装配, 单独成类, 避免无micrometer依赖时加载相关类
+     */
+    private static final class MetricsSupport {
+
+        /**
+         * 被装饰的缓存在容器中的名称, 仅用于生命周期回调
+         */
+        private static final String DELEGATE_BEAN_NAME = "cacheService.delegate";
+
+        static Cache instrument(Cache cache, BeanFactory beanFactory, CacheProperties.Metrics metrics) {
+            MeterRegistry meterRegistry = beanFactory.getBeanProvider(MeterRegistry.class).getIfAvailable();
+            if (meterRegistry == null || !(beanFactory instanceof DefaultListableBeanFactory factory)) return cache;
+
+            // 容器只管理装饰器, 被装饰的实现需要手动完成注入(@Resource)、初始化(@PostConstruct)并登记销毁(@PreDestroy)
+            factory.autowireBean(cache);
+            Cache delegate = (Cache) factory.initializeBean(cache, DELEGATE_BEAN_NAME);
+            factory.registerDisposableBean(DELEGATE_BEAN_NAME, () -> factory.destroyBean(delegate));
+
+            return new MeteredCacheImpl(delegate, meterRegistry, metrics);
+        }
+    }
 }
@@ -17,7 +17,11 @@
 package com.zhengshuyun.oktool.spring.boot.cache;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -31,6 +35,46 @@ public class CacheProperties {
      */
     private Type type = Type.AUTO;
 
+    /**
+     * 本地缓存配置, {@link Type#LOCAL} 或 {@link Type#AUTO} 无redis依赖时生效
+     */
+    private Local local = new Local();
+
+    /**
+     * 近端缓存配置, 仅 {@link Type#NEAR} 生效
+     */
+    private Near near = new Near();
+
+    /**
+     * 堆外缓存配置, 仅 {@link Type#OFF_HEAP} 生效
+     */
+    private OffHeap offHeap = new OffHeap();
+
+    /**
+     * 加载配置, 见 {@link Cache#getOrLoad(String, java.util.function.Supplier)}
+     */
+    private Load load = new Load();
+
+    /**
+     * 分布式锁配置, 见 {@link DistributedLockFactory}
+     */
+    private Lock lock = new Lock();
+
+    /**
+     * 监控指标配置, 需要micrometer依赖
+     */
+    private Metrics metrics = new Metrics();
+
+    /**
+     * 对象缓存({@link TypedCache})默认编解码配置
+     */
+    private Codec codec = new Codec();
+
+    /**
+     * 按区域覆盖的编解码配置, key为区域名(即 {@link TypedCache} 的key前缀)
+     */
+    private Map<String, Codec> regionCodecs = new LinkedHashMap<>();
+
     public Type getType() {
         return type;
     }
@@ -39,27 +83,667 @@ public class CacheProperties {
         this.type = type;
     }
 
+    public Local getLocal() {
+        return local;
+    }
+
+    public void setLocal(Local local) {
+        this.local = local;
+    }
+
+    public Near getNear() {
+        return near;
+    }
+
+    public void setNear(Near near) {
+        this.near = near;
+    }
+
+    public OffHeap getOffHeap() {
+        return offHeap;
+    }
+
+    public void setOffHeap(OffHeap offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    public Load getLoad() {
+        return load;
+    }
+
+    public void setLoad(Load load) {
+        this.load = load;
+    }
+
+    public Lock getLock() {
+        return lock;
+    }
+
+    public void setLock(Lock lock) {
+        this.lock = lock;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Codec getCodec() {
+        return codec;
+    }
+
+    public void setCodec(Codec codec) {
+        this.codec = codec;
+    }
+
+    public Map<String, Codec> getRegionCodecs() {
+        return regionCodecs;
+    }
+
+    public void setRegionCodecs(Map<String, Codec> regionCodecs) {
+        this.regionCodecs = regionCodecs;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
         CacheProperties that = (CacheProperties) o;
-        return type == that.type;
+        return type == that.type && Objects.equals(local, that.local) && Objects.equals(near, that.near)
+                && Objects.equals(offHeap, that.offHeap)
+                && Objects.equals(load, that.load) && Objects.equals(lock, that.lock) && Objects.equals(metrics, that.metrics)
+                && Objects.equals(codec, that.codec) && Objects.equals(regionCodecs, that.regionCodecs);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(type);
+        return Objects.hash(type, local, near, offHeap, load, lock, metrics, codec, regionCodecs);
     }
 
     @Override
     public String toString() {
         return "CacheProperties{" +
                 "type=" + type +
+                ", local=" + local +
+                ", near=" + near +
+                ", offHeap=" + offHeap +
+                ", load=" + load +
+                ", lock=" + lock +
+                ", metrics=" + metrics +
+                ", codec=" + codec +
+                ", regionCodecs=" + regionCodecs +
                 '}';
     }
 
     public enum Type {
-        AUTO, LOCAL, REDIS
+        /**
+         * 有redis依赖时使用redis, 否则使用本地缓存
+         */
+        AUTO,
+        /**
+         * 本地缓存
+         */
+        LOCAL,
+        /**
+         * redis缓存
+         */
+        REDIS,
+        /**
+         * 近端缓存: 本地一级缓存 + redis二级缓存, 通过redis发布订阅同步失效
+         */
+        NEAR,
+        /**
+         * 堆外本地缓存: 数据存放在堆外内存, 适合大量数据, 不增加GC压力
+         */
+        OFF_HEAP
+    }
+
+    /**
+     * 本地缓存配置
+     */
+    public static class Local {
+        /**
+         * 最大条目数, 超出后按W-TinyLFU淘汰
+         */
+        private long maxSize = 100000;
+
+        /**
+         * 最大占用内存(key与value的估算字节数), null表示不限制
+         */
+        private DataSize maxWeight;
+
+        /**
+         * 持久化配置, 启用后重启时从磁盘恢复缓存
+         */
+        private Persistence persistence = new Persistence();
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public DataSize getMaxWeight() {
+            return maxWeight;
+        }
+
+        public void setMaxWeight(DataSize maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        public Persistence getPersistence() {
+            return persistence;
+        }
+
+        public void setPersistence(Persistence persistence) {
+            this.persistence = persistence;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == null || getClass() != o.getClass()) return false;
+            Local that = (Local) o;
+            return maxSize == that.maxSize && Objects.equals(maxWeight, that.maxWeight) && Objects.equals(persistence, that.persistence);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(maxSize, maxWeight, persistence);
+        }
+
+        @Override
+        public String toString() {
+            return "Local{" +
+                    "maxSize=" + maxSize +
+                    ", maxWeight=" + maxWeight +
+                    ", persistence=" + persistence +
+                    '}';
+        }
+
+        /**
+         * 本地缓存持久化配置
+         * <p>
+         * 定期写入内存映射快照, 两次快照之间的变更追加写入日志, 启动时加载快照并重放日志
+         */
+        public static class Persistence {
+            /**
+             * 是否启用
+             */
+            private boolean enabled = false;
+
+            /**
+             * 持久化目录, 每个缓存实例需使用独立目录(启动时加排他文件锁); 相对路径基于进程工作目录
+             */
+            private String path = "oktool-cache";
+
+            /**
+             * 快照间隔
+             */
+            private Duration snapshotInterval = Duration.ofMinutes(5);
+
+            /**
+             * 变更写入日志的间隔, 进程崩溃时最多丢失该时间段内的变更
+             */
+            private Duration flushInterval = Duration.ofSeconds(1);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getPath() {
+                return path;
+            }
+
+            public void setPath(String path) {
+                this.path = path;
+            }
+
+            public Duration getSnapshotInterval() {
+                return snapshotInterval;
+            }
+
+            public void setSnapshotInterval(Duration snapshotInterval) {
+                this.snapshotInterval = snapshotInterval;
+            }
+
+            public Duration getFlushInterval() {
+                return flushInterval;
+            }
+
+            public void setFlushInterval(Duration flushInterval) {
+                this.flushInterval = flushInterval;
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                if (o == null || getClass() != o.getClass()) return false;
+                Persistence that = (Persistence) o;
+                return enabled == that.enabled && Objects.equals(path, that.path)
+                        && Objects.equals(snapshotInterval, that.snapshotInterval)
+                        && Objects.equals(flushInterval, that.flushInterval);
+            }
+
+            @Override
+            public int hashCode() {
+                return Objects.hash(enabled, path, snapshotInterval, flushInterval);
+            }
+
+            @Override
+            public String toString() {
+                return "Persistence{" +
+                        "enabled=" + enabled +
+                        ", path='" + path + '\'' +
+                        ", snapshotInterval=" + snapshotInterval +
+                        ", flushInterval=" + flushInterval +
+                        '}';
+            }
+        }
+    }
+
+    /**
+     * 近端缓存配置
+     */
+    public static class Near {
+        /**
+         * 本地一级缓存最大条目数, 超出后按LRU淘汰
+         */
+        private int maxSize = 10000;
+
+        /**
+         * 本地一级缓存最长存活时间, 兜底失效通知丢失的情况
+         */
+        private Duration timeout = Duration.ofSeconds(60);
+
+        /**
+         * 失效通知的redis频道
+         */
+        private String channel = "oktool:cache:near-invalidate";
+
+        /**
+         * 计数和过期时间变更的失效通知合并间隔, 间隔内同一key只通知一次, 0表示立即通知
+         */
+        private Duration coalesceDelay = Duration.ofMillis(50);
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+
+        public Duration getCoalesceDelay() {
+            return coalesceDelay;
+        }
+
+        public void setCoalesceDelay(Duration coalesceDelay) {
+            this.coalesceDelay = coalesceDelay;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == null || getClass() != o.getClass()) return false;
+            Near that = (Near) o;
+            return maxSize == that.maxSize && Objects.equals(timeout, that.timeout) && Objects.equals(channel, that.channel)
+                    && Objects.equals(coalesceDelay, that.coalesceDelay);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(maxSize, timeout, channel, coalesceDelay);
+        }
+
+        @Override
+        public String toString() {
+            return "Near{" +
+                    "maxSize=" + maxSize +
+                    ", timeout=" + timeout +
+                    ", channel='" + channel + '\'' +
+                    ", coalesceDelay=" + coalesceDelay +
+                    '}';
+        }
+    }
+
+    /**
+     * 分布式锁配置
+     */
+    public static class Lock {
+        /**
+         * 默认租约时间, 未指定租约时由看门狗每 1/3 租约时间续期一次, 持有者宕机后最多占用这么久
+         */
+        private Duration leaseTime = Duration.ofSeconds(30);
+
+        /**
+         * 锁释放通知的redis频道前缀, 实际频道为 前缀:锁名称
+         */
+        private String channel = "oktool:cache:lock-release";
+
+        public Duration getLeaseTime() {
+            return leaseTime;
+        }
+
+        public void setLeaseTime(Duration leaseTime) {
+            this.leaseTime = leaseTime;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == null || getClass() != o.getClass()) return false;
+            Lock that = (Lock) o;
+            return Objects.equals(leaseTime, that.leaseTime) && Objects.equals(channel, that.channel);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(leaseTime, channel);
+        }
+
+        @Override
+        public String toString() {
+            return "Lock{" +
+                    "leaseTime=" + leaseTime +
+                    ", channel='" + channel + '\'' +
+                    '}';
+        }
+    }
+
+    /**
+     * 堆外缓存配置
+     */
+    public static class OffHeap {
+        /**
+         * 最大占用堆外内存, 超出后按CLOCK淘汰
+         * <p>
+         * 堆外内存不受 -Xmx 限制, 部署时需要为其预留系统内存
+         */
+        private DataSize maxMemory = DataSize.ofMegabytes(256);
+
+        /**
+         * 内存页大小, 单个缓存项(key + value + 24字节头)不能超过该值
+         */
+        private DataSize pageSize = DataSize.ofMegabytes(1);
+
+        /**
+         * 分段数, 必须是2的幂, 越大并发越高, 每段至少占用一个内存页
+         */
+        private int segments = 16;
+
+        public DataSize getMaxMemory() {
+            return maxMemory;
+        }
+
+        public void setMaxMemory(DataSize maxMemory) {
+            this.maxMemory = maxMemory;
+        }
+
+        public DataSize getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(DataSize pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public int getSegments() {
+            return segments;
+        }
+
+        public void setSegments(int segments) {
+            this.segments = segments;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == null || getClass() != o.getClass()) return false;
+            OffHeap that = (OffHeap) o;
+            return segments == that.segments && Objects.equals(maxMemory, that.maxMemory) && Objects.equals(pageSize, that.pageSize);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(maxMemory, pageSize, segments);
+        }
+
+        @Override
+        public String toString() {
+            return "OffHeap{" +
+                    "maxMemory=" + maxMemory +
+                    ", pageSize=" + pageSize +
+                    ", segments=" + segments +
+                    '}';
+        }
+    }
+
+    /**
+     * 加载配置
+     */
+    public static class Load {
+        /**
+         * 是否开启跨节点加载互斥, 仅redis与近端缓存生效
+         * <p>
+         * 开启后同一个key同一时间只有一个节点执行加载, 其他节点等待其写入缓存
+         */
+        private boolean distributedLock = false;
+
+        /**
+         * 跨节点加载锁的持有时间, 同时是其他节点的最长等待时间, 超时后自行加载
+         */
+        private Duration lockTimeout = Duration.ofSeconds(10);
+
+        /**
+         * XFetch提前刷新系数, 越大越早刷新, 小于等于0表示关闭
+         * <p>
+         * 剩余时间小于 加载耗时 * beta * -ln(random) 时提前刷新
+         */
+        private double earlyRefreshBeta = 1.0;
+
+        /**
+         * 后台刷新时机, 占缓存时间的比例, 取值(0, 1)
+         * <p>
+         * 仅对 {@link Cache#registerLoader(String, java.util.function.Supplier)} 注册过的key生效
+         */
+        private double refreshAheadRatio = 0.8;
+
+        public boolean isDistributedLock() {
+            return distributedLock;
+        }
+
+        public void setDistributedLock(boolean distributedLock) {
+            this.distributedLock = distributedLock;
+        }
+
+        public Duration getLockTimeout() {
+            return lockTimeout;
+        }
+
+        public void setLockTimeout(Duration lockTimeout) {
+            this.lockTimeout = lockTimeout;
+        }
+
+        public double getEarlyRefreshBeta() {
+            return earlyRefreshBeta;
+        }
+
+        public void setEarlyRefreshBeta(double earlyRefreshBeta) {
+            this.earlyRefreshBeta = earlyRefreshBeta;
+        }
+
+        public double getRefreshAheadRatio() {
+            return refreshAheadRatio;
+        }
+
+        public void setRefreshAheadRatio(double refreshAheadRatio) {
+            this.refreshAheadRatio = refreshAheadRatio;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == null || getClass() != o.getClass()) return false;
+            Load that = (Load) o;
+            return distributedLock == that.distributedLock && Double.compare(earlyRefreshBeta, that.earlyRefreshBeta) == 0
+                    && Double.compare(refreshAheadRatio, that.refreshAheadRatio) == 0
+                    && Objects.equals(lockTimeout, that.lockTimeout);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(distributedLock, lockTimeout, earlyRefreshBeta, refreshAheadRatio);
+        }
+
+        @Override
+        public String toString() {
+            return "Load{" +
+                    "distributedLock=" + distributedLock +
+                    ", lockTimeout=" + lockTimeout +
+                    ", earlyRefreshBeta=" + earlyRefreshBeta +
+                    ", refreshAheadRatio=" + refreshAheadRatio +
+                    '}';
+        }
+    }
+
+    /**
+     * 监控指标配置
+     */
+    public static class Metrics {
+        /**
+         * 是否开启, 有micrometer依赖且容器中存在MeterRegistry时生效
+         */
+        private boolean enabled = true;
+
+        /**
+         * 命中率按key前缀(第一段)统计的最大前缀数量, 超出后归入other, 防止标签数量膨胀
+         */
+        private int maxPrefixes = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxPrefixes() {
+            return maxPrefixes;
+        }
+
+        public void setMaxPrefixes(int maxPrefixes) {
+            this.maxPrefixes = maxPrefixes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == null || getClass() != o.getClass()) return false;
+            Metrics that = (Metrics) o;
+            return enabled == that.enabled && maxPrefixes == that.maxPrefixes;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(enabled, maxPrefixes);
+        }
+
+        @Override
+        public String toString() {
+            return "Metrics{" +
+                    "enabled=" + enabled +
+                    ", maxPrefixes=" + maxPrefixes +
+                    '}';
+        }
+    }
+
+    /**
+     * 对象缓存编解码配置
+     */
+    public static class Codec {
+        /**
+         * 序列化格式
+         */
+        private Format format = Format.JSON;
+
+        /**
+         * 序列化后超过该大小时压缩, null表示不压缩
+         */
+        private DataSize compressThreshold;
+
+        public Format getFormat() {
+            return format;
+        }
+
+        public void setFormat(Format format) {
+            this.format = format;
+        }
+
+        public DataSize getCompressThreshold() {
+            return compressThreshold;
+        }
+
+        public void setCompressThreshold(DataSize compressThreshold) {
+            this.compressThreshold = compressThreshold;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == null || getClass() != o.getClass()) return false;
+            Codec that = (Codec) o;
+            return format == that.format && Objects.equals(compressThreshold, that.compressThreshold);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(format, compressThreshold);
+        }
+
+        @Override
+        public String toString() {
+            return "Codec{" +
+                    "format=" + format +
+                    ", compressThreshold=" + compressThreshold +
+                    '}';
+        }
+
+        public enum Format {
+            /**
+             * JSON, 可读性好, 未开启压缩时可直接通过 {@link Cache#get(String)} 读出
+             */
+            JSON,
+            /**
+             * Smile二进制JSON, 体积更小、编解码更快, 需要jackson-dataformat-smile依赖
+             */
+            SMILE
+        }
     }
 
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zhengshuyun.oktool.spring.boot.cache;
+
+/**
+ * 本地缓存统计, 由在本进程内持有数据的缓存实现, 用于容量评估与监控
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public interface CacheStats {
+    /**
+     * @return 当前条目数(估算值, 可能包含尚未回收的过期数据)
+     */
+    long estimatedSize();
+
+    /**
+     * @return 当前占用内存的估算字节数
+     */
+    long weightedSize();
+
+    /**
+     * @return 因容量超限被淘汰的累计条数
+     */
+    long evictionCount();
+
+    /**
+     * @return 因过期被回收的累计条数
+     */
+    long expirationCount();
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zhengshuyun.oktool.spring.boot.cache;
+
+import com.zhengshuyun.oktool.core.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * 加载结果, 用于缓存时间取决于加载结果的场景(如令牌的有效期)
+ *
+ * @param value   缓存值, 不能为null
+ * @param timeout 缓存时间(ms), 小于等于0表示不过期
+ * @author Toint
+ * @since 2026/10/17
+ */
+public record CacheValue(String value, long timeout) {
+
+    public CacheValue {
+        Assert.notNull(value, "value不能为空");
+    }
+
+    public static CacheValue of(String value, long timeout) {
+        return new CacheValue(value, timeout);
+    }
+
+    public static CacheValue of(String value, Duration timeout) {
+        Assert.notNullParam(timeout, "timeout");
+        return new CacheValue(value, timeout.toMillis());
+    }
+}
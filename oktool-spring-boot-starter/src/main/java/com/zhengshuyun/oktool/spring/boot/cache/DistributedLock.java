@@ -0,0 +1,131 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * 分布式锁
+ * <li>可重入: 同一线程重复加锁只增加持有次数, 解锁同样次数后才真正释放</li>
+ * <li>公平: 等待者按到达顺序获取锁</li>
+ * <li>安全释放: 每次加锁生成唯一的持有者令牌, 只有令牌一致才会删除, 租约过期后不会误删其他节点的锁</li>
+ * <li>租约: 未指定租约时间时, 后台看门狗在持有期间自动续期; 持有者宕机后锁在租约到期时自动释放</li>
+ * <pre>{@code
+ * DistributedLock lock = lockFactory.getLock("job:daily-report");
+ * if (lock.tryLock()) {
+ *     try {
+ *         // 只有一个节点执行
+ *     } finally {
+ *         lock.unlock();
+ *     }
+ * }
+ * }</pre>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public interface DistributedLock {
+
+    /**
+     * @return 锁名称
+     */
+    String getName();
+
+    /**
+     * 立即尝试加锁, 不等待, 看门狗自动续期
+     *
+     * @return 是否加锁成功
+     */
+    default boolean tryLock() {
+        return tryLock(Duration.ZERO);
+    }
+
+    /**
+     * 在等待时间内加锁, 看门狗自动续期
+     *
+     * @param waitTime 最长等待时间, 0表示不等待
+     * @return 是否加锁成功
+     */
+    boolean tryLock(Duration waitTime);
+
+    /**
+     * 在等待时间内加锁, 到达租约时间后自动释放, 不续期
+     *
+     * @param waitTime  最长等待时间, 0表示不等待
+     * @param leaseTime 租约时间
+     * @return 是否加锁成功
+     */
+    boolean tryLock(Duration waitTime, Duration leaseTime);
+
+    /**
+     * 加锁, 一直等待直到成功, 看门狗自动续期
+     */
+    void lock();
+
+    /**
+     * 解锁, 重入时只减少持有次数
+     *
+     * @throws IllegalMonitorStateException 当前线程未持有锁
+     */
+    void unlock();
+
+    /**
+     * @return 当前线程是否持有锁
+     */
+    boolean isHeldByCurrentThread();
+
+    /**
+     * @return 当前线程的持有次数, 未持有时为0
+     */
+    int getHoldCount();
+
+    /**
+     * 在等待时间内加锁并执行, 执行完解锁
+     *
+     * @param waitTime 最长等待时间
+     * @param supplier 加锁后执行的操作
+     * @return 操作结果
+     * @throws IllegalStateException 等待超时
+     */
+    default <T> T execute(Duration waitTime, Supplier<T> supplier) {
+        if (!tryLock(waitTime)) {
+            throw new IllegalStateException("获取分布式锁超时: " + getName());
+        }
+        try {
+            return supplier.get();
+        } finally {
+            unlock();
+        }
+    }
+
+    /**
+     * 立即尝试加锁, 成功时执行并解锁, 失败时跳过, 适用于多节点只需一个节点执行的定时任务
+     *
+     * @param runnable 加锁后执行的操作
+     * @return 是否执行
+     */
+    default boolean tryRun(Runnable runnable) {
+        if (!tryLock()) return false;
+        try {
+            runnable.run();
+            return true;
+        } finally {
+            unlock();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache;
+
+/**
+ * 分布式锁工厂
+ * <li>redis: 锁保存在redis, 等待者通过发布订阅得到释放通知, 不轮询</li>
+ * <li>本地: 只在当前进程内互斥, 用于无redis的本地缓存</li>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public interface DistributedLockFactory {
+
+    /**
+     * 获取锁, 同名的锁互斥; 返回的对象只是句柄, 可以重复获取, 不需要缓存
+     *
+     * @param name 锁名称
+     * @return 锁
+     */
+    DistributedLock getLock(String name);
+}
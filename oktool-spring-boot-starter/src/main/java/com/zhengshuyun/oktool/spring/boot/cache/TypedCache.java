@@ -0,0 +1,135 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zhengshuyun.oktool.spring.boot.cache;
+
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.core.util.KeyBuilder;
+import com.zhengshuyun.oktool.spring.boot.cache.codec.CacheCodec;
+
+import java.time.Duration;
+
+/**
+ * 对象缓存
+ *
+ * <p>在 {@link Cache} 之上按区域存取对象, 值经 {@link CacheCodec} 编码为二进制后原样存储, 不经过字符串转换</p>
+ * <p>实际缓存key为: {@code 区域:key}, 通过 {@link TypedCacheFactory#create(String, Class)} 创建</p>
+ *
+ * @param <V> 值类型
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class TypedCache<V> {
+
+    private final Cache cache;
+    private final String region;
+    private final Class<V> type;
+    private final CacheCodec codec;
+
+    /**
+     * @param cache  缓存服务
+     * @param region 区域, 作为key前缀
+     * @param type   值类型
+     * @param codec  编解码器
+     */
+    public TypedCache(Cache cache, String region, Class<V> type, CacheCodec codec) {
+        Assert.notNullParam(cache, "cache");
+        Assert.notBlankParam(region, "region");
+        Assert.notNullParam(type, "type");
+        Assert.notNullParam(codec, "codec");
+        this.cache = cache;
+        this.region = region;
+        this.type = type;
+        this.codec = codec;
+    }
+
+    /**
+     * 设置缓存
+     *
+     * @param key     缓存键, 不能为空
+     * @param value   缓存值, 不能为空
+     * @param timeout 缓存时间, 不能为空
+     */
+    public void put(String key, V value, Duration timeout) {
+        Assert.notNullParam(timeout, "timeout");
+        put(key, value, timeout.toMillis());
+    }
+
+    /**
+     * 设置缓存
+     *
+     * @param key     缓存键, 不能为空
+     * @param value   缓存值, 不能为空
+     * @param timeout 缓存时间(ms), 小于等于0表示不过期
+     */
+    public void put(String key, V value, long timeout) {
+        Assert.notNullParam(value, "value");
+        cache.putBytes(buildKey(key), codec.encode(value), timeout);
+    }
+
+    /**
+     * 获取缓存
+     *
+     * @param key 缓存键, 不能为空
+     * @return 缓存值, 不存在时为null
+     */
+    public V get(String key) {
+        byte[] bytes = cache.getBytes(buildKey(key));
+        return bytes == null ? null : codec.decode(bytes, type);
+    }
+
+    /**
+     * 缓存是否存在
+     *
+     * @param key 缓存键, 不能为空
+     * @return true=存在, false=不存在
+     */
+    public boolean containsKey(String key) {
+        return cache.containsKey(buildKey(key));
+    }
+
+    /**
+     * 删除缓存
+     *
+     * @param key 缓存键, 不能为空
+     */
+    public void delete(String key) {
+        cache.delete(buildKey(key));
+    }
+
+    /**
+     * 设置缓存过期时间
+     *
+     * @param key     缓存键, 不能为空
+     * @param timeout 过期时间, 不能为空
+     */
+    public void expire(String key, Duration timeout) {
+        Assert.notNullParam(timeout, "timeout");
+        cache.expire(buildKey(key), timeout.toMillis());
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public Class<V> getType() {
+        return type;
+    }
+
+    private String buildKey(String key) {
+        Assert.notBlank(key, "key不能为空");
+        return KeyBuilder.of(region).add(key).build();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zhengshuyun.oktool.spring.boot.cache;
+
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.spring.boot.cache.codec.CacheCodec;
+import com.zhengshuyun.oktool.spring.boot.cache.codec.CompressedCacheCodec;
+import com.zhengshuyun.oktool.spring.boot.cache.codec.JacksonCacheCodec;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 对象缓存工厂
+ *
+ * <p>按区域解析编解码配置: 优先 {@link CacheProperties#getRegionCodecs()}, 否则 {@link CacheProperties#getCodec()}</p>
+ * <p>同一区域的编解码器只创建一次</p>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class TypedCacheFactory {
+
+    private final Cache cache;
+    private final CacheProperties cacheProperties;
+    private final Map<String, CacheCodec> codecs = new ConcurrentHashMap<>();
+
+    public TypedCacheFactory(Cache cache, CacheProperties cacheProperties) {
+        Assert.notNullParam(cache, "cache");
+        Assert.notNullParam(cacheProperties, "cacheProperties");
+        this.cache = cache;
+        this.cacheProperties = cacheProperties;
+    }
+
+    /**
+     * 创建对象缓存
+     *
+     * @param region 区域, 作为key前缀, 同时用于匹配编解码配置
+     * @param type   值类型
+     */
+    public <V> TypedCache<V> create(String region, Class<V> type) {
+        Assert.notBlankParam(region, "region");
+        return new TypedCache<>(cache, region, type, codecs.computeIfAbsent(region, this::resolveCodec));
+    }
+
+    /**
+     * 使用指定编解码器创建对象缓存
+     *
+     * @param region 区域, 作为key前缀
+     * @param type   值类型
+     * @param codec  编解码器
+     */
+    public <V> TypedCache<V> create(String region, Class<V> type, CacheCodec codec) {
+        return new TypedCache<>(cache, region, type, codec);
+    }
+
+    private CacheCodec resolveCodec(String region) {
+        CacheProperties.Codec config = null;
+        if (cacheProperties.getRegionCodecs() != null) {
+            config = cacheProperties.getRegionCodecs().get(region);
+        }
+        if (config == null) {
+            config = cacheProperties.getCodec();
+        }
+        if (config == null) {
+            return JacksonCacheCodec.json();
+        }
+
+        CacheCodec codec = config.getFormat() == CacheProperties.Codec.Format.SMILE
+                ? JacksonCacheCodec.smile()
+                : JacksonCacheCodec.json();
+        if (config.getCompressThreshold() != null) {
+            long threshold = config.getCompressThreshold().toBytes();
+            Assert.isTrue(threshold >= 0 && threshold <= Integer.MAX_VALUE, "压缩阈值超出范围: {}", config.getCompressThreshold());
+            codec = new CompressedCacheCodec(codec, (int) threshold);
+        }
+        return codec;
+    }
+}
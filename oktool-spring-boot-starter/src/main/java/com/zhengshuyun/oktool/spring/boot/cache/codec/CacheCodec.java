@@ -0,0 +1,59 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache.codec;
+
+import java.util.Arrays;
+
+/**
+ * 缓存值编解码器
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public interface CacheCodec {
+    /**
+     * 编码
+     *
+     * @param value 缓存值, 不能为空
+     * @return 字节
+     */
+    byte[] encode(Object value);
+
+    /**
+     * 解码
+     *
+     * @param bytes 字节, 不能为空
+     * @param type  值类型
+     * @param <V>   值类型
+     * @return 缓存值
+     */
+    <V> V decode(byte[] bytes, Class<V> type);
+
+    /**
+     * 解码数组中的一段, 默认复制后调用 {@link #decode(byte[], Class)}, 实现类可覆盖以避免复制
+     *
+     * @param bytes  字节, 不能为空
+     * @param offset 起始位置
+     * @param length 长度
+     * @param type   值类型
+     * @param <V>    值类型
+     * @return 缓存值
+     */
+    default <V> V decode(byte[] bytes, int offset, int length, Class<V> type) {
+        return decode(Arrays.copyOfRange(bytes, offset, offset + length), type);
+    }
+}
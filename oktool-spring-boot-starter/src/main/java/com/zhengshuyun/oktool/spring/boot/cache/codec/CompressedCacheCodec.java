@@ -0,0 +1,118 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache.codec;
+
+import com.zhengshuyun.oktool.core.util.Assert;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 压缩编解码器, 编码结果超过阈值时使用Deflate压缩
+ *
+ * <p>首字节为格式标记: 0=未压缩, 1=Deflate压缩, 解码时自动识别, 调整阈值不影响已写入的数据</p>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class CompressedCacheCodec implements CacheCodec {
+
+    private static final byte RAW = 0;
+    private static final byte DEFLATE = 1;
+
+    private final CacheCodec delegate;
+    private final int threshold;
+
+    /**
+     * @param delegate  实际的编解码器
+     * @param threshold 压缩阈值(字节), 编码结果大于等于该值时压缩
+     */
+    public CompressedCacheCodec(CacheCodec delegate, int threshold) {
+        Assert.notNullParam(delegate, "delegate");
+        Assert.isTrue(threshold >= 0, "压缩阈值不能小于0");
+        this.delegate = delegate;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        byte[] bytes = delegate.encode(value);
+        if (bytes.length < threshold) {
+            return withFlag(RAW, bytes, bytes.length);
+        }
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            byte[] buffer = new byte[bytes.length + 1];
+            buffer[0] = DEFLATE;
+            int length = 1;
+            while (!deflater.finished() && length < buffer.length) {
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+
+            // 压缩后没有变小, 保存原始数据
+            if (!deflater.finished()) {
+                return withFlag(RAW, bytes, bytes.length);
+            }
+            return Arrays.copyOf(buffer, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public <V> V decode(byte[] bytes, Class<V> type) {
+        Assert.isTrue(bytes != null && bytes.length > 0, "缓存数据为空");
+
+        byte flag = bytes[0];
+        if (flag == RAW) {
+            return delegate.decode(bytes, 1, bytes.length - 1, type);
+        }
+        Assert.isTrue(flag == DEFLATE, "未知的缓存数据格式: {}", flag);
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, 1, bytes.length - 1);
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int length = inflater.inflate(buffer);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("缓存数据不完整");
+                }
+                outputStream.write(buffer, 0, length);
+            }
+            return delegate.decode(outputStream.toByteArray(), type);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("缓存数据解压失败: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] withFlag(byte flag, byte[] bytes, int length) {
+        byte[] result = new byte[length + 1];
+        result[0] = flag;
+        System.arraycopy(bytes, 0, result, 1, length);
+        return result;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.zhengshuyun.oktool.core.exception.JsonException;
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.core.util.JacksonUtil;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+
+/**
+ * 基于jackson的编解码器
+ *
+ * <li>{@link #json()}: JSON文本, 与 {@link JacksonUtil} 配置一致, 可读性好</li>
+ * <li>{@link #smile()}: Smile二进制格式, 体积更小、解析更快, 需要 jackson-dataformat-smile 依赖</li>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class JacksonCacheCodec implements CacheCodec {
+
+    private static final String SMILE_CLASS = "com.fasterxml.jackson.dataformat.smile.SmileFactory";
+
+    private final ObjectMapper objectMapper;
+
+    public JacksonCacheCodec(ObjectMapper objectMapper) {
+        Assert.notNullParam(objectMapper, "objectMapper");
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * JSON编解码器, 使用 {@link JacksonUtil#getObjectMapper()}
+     */
+    public static JacksonCacheCodec json() {
+        return new JacksonCacheCodec(JacksonUtil.getObjectMapper());
+    }
+
+    /**
+     * Smile二进制编解码器, 复制 {@link JacksonUtil#getObjectMapper()} 的模块与特性配置
+     */
+    public static JacksonCacheCodec smile() {
+        if (!ClassUtils.isPresent(SMILE_CLASS, null)) {
+            throw new IllegalStateException("Smile编解码需要 com.fasterxml.jackson.dataformat:jackson-dataformat-smile 依赖");
+        }
+        return new JacksonCacheCodec(SmileSupport.objectMapper());
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        Assert.notNullParam(value, "value");
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new JsonException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public <V> V decode(byte[] bytes, Class<V> type) {
+        Assert.notNullParam(bytes, "bytes");
+        Assert.notNullParam(type, "type");
+        try {
+            return objectMapper.readValue(bytes, type);
+        } catch (IOException e) {
+            throw new JsonException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public <V> V decode(byte[] bytes, int offset, int length, Class<V> type) {
+        Assert.notNullParam(bytes, "bytes");
+        Assert.notNullParam(type, "type");
+        try {
+            return objectMapper.readValue(bytes, offset, length, type);
+        } catch (IOException e) {
+            throw new JsonException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Smile装配, 单独成类, 避免无smile依赖时加载相关类
+     */
+    private static final class SmileSupport {
+
+        static ObjectMapper objectMapper() {
+            return JacksonUtil.getObjectMapper().copyWith(new SmileFactory());
+        }
+    }
+}
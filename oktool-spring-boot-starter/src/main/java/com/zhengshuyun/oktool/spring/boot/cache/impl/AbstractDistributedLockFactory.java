@@ -0,0 +1,228 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache.impl;
+
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.spring.boot.cache.DistributedLock;
+import com.zhengshuyun.oktool.spring.boot.cache.DistributedLockFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 分布式锁工厂基类, 负责进程内的部分
+ * <li>每个锁名称对应一个公平的 {@link ReentrantLock}, 提供重入和进程内FIFO; 同一进程只有持有本地锁的线程去竞争远端锁</li>
+ * <li>本地锁按引用计数管理, 没有持有者和等待者后移除</li>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+abstract class AbstractDistributedLockFactory implements DistributedLockFactory {
+
+    /**
+     * 锁名称 -> 本地状态
+     */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public DistributedLock getLock(String name) {
+        Assert.notBlankParam(name, "name");
+        return new LockHandle(name);
+    }
+
+    /**
+     * 获取远端锁, 调用时当前线程已持有本地锁且不是重入
+     *
+     * @param entry     本地状态
+     * @param deadline  截止时间(System.nanoTime), Long.MAX_VALUE表示不限
+     * @param leaseTime 租约时间, null表示使用默认租约并由看门狗续期
+     * @return 是否获取成功
+     */
+    protected abstract boolean acquire(Entry entry, long deadline, Duration leaseTime) throws InterruptedException;
+
+    /**
+     * 释放远端锁, 调用时当前线程仍持有本地锁且是最后一次解锁
+     *
+     * @param entry 本地状态
+     */
+    protected abstract void release(Entry entry);
+
+    /**
+     * 当前进程内等待该锁的本地状态, 没有时为null
+     */
+    protected Entry getEntry(String name) {
+        return entries.get(name);
+    }
+
+    private Entry retain(String name) {
+        return entries.compute(name, (key, entry) -> {
+            if (entry == null) entry = new Entry(name);
+            entry.users++;
+            return entry;
+        });
+    }
+
+    private void unretain(Entry entry) {
+        entries.computeIfPresent(entry.name, (key, current) -> --current.users == 0 ? null : current);
+    }
+
+    /**
+     * 单个锁名称在当前进程内的状态
+     */
+    protected static final class Entry {
+        final String name;
+        final ReentrantLock localLock = new ReentrantLock(true);
+
+        /**
+         * 收到释放通知时放入一个许可, 唤醒竞争远端锁的线程
+         */
+        final Semaphore released = new Semaphore(0);
+
+        /**
+         * 持有者令牌, 由持有本地锁的线程读写
+         */
+        String token;
+
+        /**
+         * 续期线程, 由持有本地锁的线程读写
+         */
+        Thread watchdog;
+
+        /**
+         * 引用计数, 只在 {@link ConcurrentHashMap#compute} 中修改
+         */
+        private int users;
+
+        private Entry(String name) {
+            this.name = name;
+        }
+
+        /**
+         * 通知等待者锁已释放, 多次通知只保留一个许可
+         */
+        void signal() {
+            if (released.availablePermits() == 0) released.release();
+        }
+    }
+
+    private final class LockHandle implements DistributedLock {
+        private final String name;
+
+        private LockHandle(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean tryLock(Duration waitTime) {
+            Assert.notNull(waitTime, "等待时间不能为空");
+            return tryLock(System.nanoTime() + Math.max(0, waitTime.toNanos()), null);
+        }
+
+        @Override
+        public boolean tryLock(Duration waitTime, Duration leaseTime) {
+            Assert.notNull(waitTime, "等待时间不能为空");
+            Assert.isTrue(leaseTime != null && leaseTime.isPositive(), "租约时间必须大于0");
+            return tryLock(System.nanoTime() + Math.max(0, waitTime.toNanos()), leaseTime);
+        }
+
+        @Override
+        public void lock() {
+            if (!tryLock(Long.MAX_VALUE, null)) {
+                throw new RuntimeException("线程中断");
+            }
+        }
+
+        @Override
+        public void unlock() {
+            Entry entry = entries.get(name);
+            if (entry == null || !entry.localLock.isHeldByCurrentThread()) {
+                throw new IllegalMonitorStateException("当前线程未持有锁: " + name);
+            }
+
+            try {
+                if (entry.localLock.getHoldCount() == 1) {
+                    release(entry);
+                }
+            } finally {
+                entry.localLock.unlock();
+                unretain(entry);
+            }
+        }
+
+        @Override
+        public boolean isHeldByCurrentThread() {
+            Entry entry = entries.get(name);
+            return entry != null && entry.localLock.isHeldByCurrentThread();
+        }
+
+        @Override
+        public int getHoldCount() {
+            Entry entry = entries.get(name);
+            return entry == null ? 0 : entry.localLock.getHoldCount();
+        }
+
+        /**
+         * @param deadline  截止时间(System.nanoTime), Long.MAX_VALUE表示不限
+         * @param leaseTime 租约时间, null表示看门狗续期
+         */
+        private boolean tryLock(long deadline, Duration leaseTime) {
+            Entry entry = retain(name);
+            boolean locked = false;
+            try {
+                // 重入: 远端锁已持有, 只增加本地持有次数
+                if (entry.localLock.isHeldByCurrentThread()) {
+                    entry.localLock.lock();
+                    locked = true;
+                    return true;
+                }
+
+                // 带超时的tryLock遵守公平性, 按到达顺序排队
+                if (deadline == Long.MAX_VALUE) {
+                    entry.localLock.lockInterruptibly();
+                } else if (!entry.localLock.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+
+                try {
+                    locked = acquire(entry, deadline, leaseTime);
+                } finally {
+                    if (!locked) entry.localLock.unlock();
+                }
+                return locked;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                if (!locked) unretain(entry);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "DistributedLock{name='" + name + "'}";
+        }
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zhengshuyun.oktool.spring.boot.cache.impl;
+
+import cn.hutool.v7.core.cache.impl.LRUCache;
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.spring.boot.cache.Cache;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheProperties;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link Cache#getOrLoad(String, Supplier)} 的通用实现
+ * <li>单机合并: 同一个key只有一个线程加载, 其他线程等待同一个 {@link CompletableFuture}</li>
+ * <li>跨节点互斥: 通过 {@link LoadLock} 保证同一时间只有一个节点加载, 其他节点轮询缓存</li>
+ * <li>提前刷新(XFetch): 剩余时间 &lt; 加载耗时 * beta * -ln(random) 时提前加载, 越接近过期概率越大</li>
+ * <li>后台刷新(refresh-ahead): 注册过加载函数的key, 在缓存时间的 {@link CacheProperties.Load#getRefreshAheadRatio()} 处由虚拟线程重新加载,
+ * 刷新期间读取方继续拿到旧值</li>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+final class CacheLoadSupport {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheLoadSupport.class);
+
+    /**
+     * 跨节点加载锁的key后缀
+     */
+    private static final String LOCK_SUFFIX = ":loading";
+
+    /**
+     * 等待其他节点加载时的轮询间隔
+     */
+    private static final long LOCK_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * 记录加载耗时的最大key数量
+     */
+    private static final int MAX_DELTA_SIZE = 10000;
+
+    /**
+     * 后台刷新未能写入新值(加载失败或其他节点正在加载)时的重试间隔
+     */
+    private static final long REFRESH_RETRY_MILLIS = 5000;
+
+    private final Cache cache;
+    private final Function<String, Entry> entryReader;
+    private final LoadLock loadLock;
+    private final long lockTimeout;
+    private final double beta;
+    private final double refreshAheadRatio;
+
+    /**
+     * 正在加载的key
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<String>> loadings = new ConcurrentHashMap<>();
+
+    /**
+     * 最近一次加载耗时(ms), 用于XFetch计算
+     */
+    private final LRUCache<String, Long> deltas = new LRUCache<>(MAX_DELTA_SIZE);
+
+    /**
+     * 已注册后台刷新的key
+     */
+    private final ConcurrentHashMap<String, Registration> registrations = new ConcurrentHashMap<>();
+
+    /**
+     * 后台刷新定时器与执行器, 首次注册时创建
+     */
+    private volatile ScheduledExecutorService refreshScheduler;
+    private volatile ExecutorService refreshExecutor;
+
+    /**
+     * @param cache       写入加载结果的缓存
+     * @param entryReader 读取缓存值与剩余时间
+     * @param loadLock    跨节点加载锁, null表示不做跨节点互斥
+     * @param load        加载配置
+     */
+    CacheLoadSupport(Cache cache, Function<String, Entry> entryReader, LoadLock loadLock, CacheProperties.Load load) {
+        Assert.notNullParam(cache, "cache");
+        Assert.notNullParam(entryReader, "entryReader");
+        Assert.notNullParam(load, "load");
+        Assert.isTrue(loadLock == null || (load.getLockTimeout() != null && load.getLockTimeout().isPositive()),
+                "加载锁lockTimeout必须大于0");
+        Assert.isTrue(load.getRefreshAheadRatio() > 0 && load.getRefreshAheadRatio() < 1,
+                "refreshAheadRatio必须在0到1之间(不含), 当前: {}", load.getRefreshAheadRatio());
+
+        this.cache = cache;
+        this.entryReader = entryReader;
+        this.loadLock = loadLock;
+        this.lockTimeout = loadLock == null ? 0 : load.getLockTimeout().toMillis();
+        this.beta = load.getEarlyRefreshBeta();
+        this.refreshAheadRatio = load.getRefreshAheadRatio();
+    }
+
+    String getOrLoad(String key, Supplier<CacheValue> loader) {
+        Assert.notBlank(key, "key不能为空");
+        Assert.notNullParam(loader, "loader");
+
+        Entry entry = entryReader.apply(key);
+        String staleValue = entry == null ? null : entry.value();
+        if (staleValue != null && !shouldRefreshEarly(key, entry.ttl())) {
+            return staleValue;
+        }
+
+        return loadOnce(key, loader, staleValue);
+    }
+
+    /**
+     * 注册后台刷新
+     * <li>缓存中已有值: 在剩余时间的 refreshAheadRatio 处刷新</li>
+     * <li>缓存中没有值: 立即在后台加载一次</li>
+     * <li>重复注册只替换加载函数, 不影响已有的刷新计划</li>
+     */
+    void registerLoader(String key, Supplier<CacheValue> loader) {
+        Assert.notBlank(key, "key不能为空");
+        Assert.notNullParam(loader, "loader");
+
+        Registration registration = new Registration(loader);
+        Registration existing = registrations.putIfAbsent(key, registration);
+        if (existing != null) {
+            existing.loader = loader;
+            return;
+        }
+
+        Entry entry = entryReader.apply(key);
+        if (entry == null || entry.value() == null) {
+            scheduleRefresh(key, registration, 0);
+        } else if (entry.ttl() > 0) {
+            // 不知道原始缓存时间, 以剩余时间近似
+            registration.timeout = entry.ttl();
+            scheduleRefresh(key, registration, (long) (entry.ttl() * refreshAheadRatio));
+        }
+    }
+
+    /**
+     * 取消后台刷新, 已缓存的值不受影响
+     */
+    void unregisterLoader(String key) {
+        Assert.notBlank(key, "key不能为空");
+        Registration registration = registrations.remove(key);
+        if (registration != null && registration.future != null) {
+            registration.future.cancel(false);
+        }
+    }
+
+    /**
+     * 停止后台刷新
+     */
+    void shutdown() {
+        registrations.clear();
+        if (refreshScheduler != null) refreshScheduler.shutdownNow();
+        if (refreshExecutor != null) refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 单机合并加载
+     *
+     * @param staleValue 提前刷新时的旧值, 未命中时为null
+     */
+    private String loadOnce(String key, Supplier<CacheValue> loader, String staleValue) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        CompletableFuture<String> loading = loadings.putIfAbsent(key, future);
+        if (loading != null) {
+            // 已有线程在加载: 提前刷新时直接返回旧值, 未命中时等待加载结果
+            return staleValue != null ? staleValue : join(loading);
+        }
+
+        try {
+            String value = loadLock == null ? load(key, loader) : loadWithLock(key, loader, staleValue);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            if (staleValue == null) throw e;
+
+            // 提前刷新失败, 旧值仍未过期, 继续使用
+            log.warn("缓存提前刷新失败, 继续使用旧值, key: {}, 原因: {}", key, e.getMessage());
+            return staleValue;
+        } finally {
+            loadings.remove(key, future);
+        }
+    }
+
+    /**
+     * 后台刷新, 在虚拟线程中执行
+     */
+    private void refresh(String key, Registration registration) {
+        if (registrations.get(key) != registration) return;
+
+        long loadCount = registration.loadCount;
+        try {
+            Entry entry = entryReader.apply(key);
+
+            // 其他节点已经刷新过, 按新的剩余时间重新排期
+            long refreshWindow = (long) (registration.timeout * (1 - refreshAheadRatio));
+            if (entry != null && entry.value() != null && registration.timeout > 0 && entry.ttl() > refreshWindow) {
+                scheduleRefresh(key, registration, entry.ttl() - refreshWindow);
+                return;
+            }
+
+            loadOnce(key, registration.loader, entry == null ? null : entry.value());
+        } catch (RuntimeException e) {
+            log.warn("缓存后台刷新失败, key: {}, 原因: {}", key, e.getMessage());
+        }
+
+        // 没有写入新值(加载失败或其他节点正在加载), 稍后重试; 缓存中没有值时同样重试, 否则该key的后台刷新就此停止
+        if (registration.loadCount == loadCount) {
+            scheduleRefresh(key, registration, REFRESH_RETRY_MILLIS);
+        }
+    }
+
+    private void scheduleRefresh(String key, Registration registration, long delay) {
+        if (registrations.get(key) != registration) return;
+
+        ScheduledExecutorService scheduler = refreshScheduler();
+        synchronized (registration) {
+            ScheduledFuture<?> previous = registration.future;
+            if (previous != null) previous.cancel(false);
+            registration.future = scheduler.schedule(
+                    () -> refreshExecutor.execute(() -> refresh(key, registration)),
+                    Math.max(delay, 0), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private ScheduledExecutorService refreshScheduler() {
+        if (refreshScheduler == null) {
+            synchronized (this) {
+                if (refreshScheduler == null) {
+                    refreshExecutor = Executors.newThreadPerTaskExecutor(
+                            Thread.ofVirtual().name("oktool-cache-refresh-", 0).factory());
+                    // 定时器只负责派发, 加载在独立的虚拟线程中执行, 互不阻塞
+                    refreshScheduler = Executors.newSingleThreadScheduledExecutor(
+                            Thread.ofVirtual().name("oktool-cache-refresh-scheduler").factory());
+                }
+            }
+        }
+        return refreshScheduler;
+    }
+
+    /**
+     * 跨节点互斥加载
+     *
+     * @param staleValue 提前刷新时的旧值, 未命中时为null
+     */
+    private String loadWithLock(String key, Supplier<CacheValue> loader, String staleValue) {
+        String lockKey = key + LOCK_SUFFIX;
+        String token = UUID.randomUUID().toString();
+        long deadline = System.currentTimeMillis() + lockTimeout;
+        while (true) {
+            if (loadLock.tryLock(lockKey, token, lockTimeout)) {
+                try {
+                    // 拿到锁前其他节点可能已经写入
+                    if (staleValue == null) {
+                        Entry entry = entryReader.apply(key);
+                        if (entry != null && entry.value() != null) return entry.value();
+                    }
+                    return load(key, loader);
+                } finally {
+                    loadLock.unlock(lockKey, token);
+                }
+            }
+
+            // 其他节点正在刷新, 旧值仍然可用
+            if (staleValue != null) return staleValue;
+
+            LockSupport.parkNanos(LOCK_POLL_NANOS);
+            Entry entry = entryReader.apply(key);
+            if (entry != null && entry.value() != null) return entry.value();
+
+            // 持有锁的节点迟迟没有写入(可能已宕机), 自行加载
+            if (System.currentTimeMillis() >= deadline) {
+                log.warn("等待其他节点加载缓存超时, 自行加载, key: {}", key);
+                return load(key, loader);
+            }
+        }
+    }
+
+    private String load(String key, Supplier<CacheValue> loader) {
+        long start = System.nanoTime();
+        CacheValue cacheValue = loader.get();
+        Assert.notNull(cacheValue, "加载结果不能为空, key: {}", key);
+        deltas.put(key, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        cache.put(key, cacheValue.value(), cacheValue.timeout());
+
+        // 已注册后台刷新的key, 按本次缓存时间排期下一次刷新
+        Registration registration = registrations.get(key);
+        if (registration != null) {
+            registration.loadCount++;
+            registration.timeout = cacheValue.timeout();
+            if (cacheValue.timeout() > 0) {
+                scheduleRefresh(key, registration, (long) (cacheValue.timeout() * refreshAheadRatio));
+            }
+        }
+        return cacheValue.value();
+    }
+
+    /**
+     * XFetch: 剩余时间 &lt; 加载耗时 * beta * -ln(random) 时提前刷新
+     *
+     * @param ttl 剩余时间(ms), 小于0表示不过期
+     */
+    private boolean shouldRefreshEarly(String key, long ttl) {
+        if (beta <= 0 || ttl < 0) return false;
+
+        // 本节点没有加载过, 不知道加载耗时
+        Long delta = deltas.get(key, false);
+        if (delta == null) return false;
+
+        // 1 - random 取值 (0, 1], 避免 ln(0)
+        double random = 1 - ThreadLocalRandom.current().nextDouble();
+        return Math.max(delta, 1) * beta * -Math.log(random) >= ttl;
+    }
+
+    private static String join(CompletableFuture<String> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * 缓存值与剩余时间
+     *
+     * @param value 缓存值, 不存在时为null
+     * @param ttl   剩余时间(ms), 小于0表示不过期
+     */
+    record Entry(String value, long ttl) {
+    }
+
+    /**
+     * 后台刷新注册信息
+     */
+    private static final class Registration {
+        volatile Supplier<CacheValue> loader;
+
+        /**
+         * 最近一次加载的缓存时间(ms)
+         */
+        volatile long timeout;
+
+        /**
+         * 本节点写入次数, 用于判断后台刷新是否写入了新值
+         */
+        volatile long loadCount;
+
+        volatile ScheduledFuture<?> future;
+
+        Registration(Supplier<CacheValue> loader) {
+            this.loader = loader;
+        }
+    }
+
+    /**
+     * 跨节点加载锁
+     */
+    interface LoadLock {
+        /**
+         * @param lockKey 锁key
+         * @param token   持有者标识, 释放时校验
+         * @param timeout 锁自动释放时间(ms)
+         * @return true=加锁成功
+         */
+        boolean tryLock(String lockKey, String token, long timeout);
+
+        /**
+         * 释放锁, 只有持有者才能释放
+         */
+        void unlock(String lockKey, String token);
+    }
+}
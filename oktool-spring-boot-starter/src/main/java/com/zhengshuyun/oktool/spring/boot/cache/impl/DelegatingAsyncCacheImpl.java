@@ -0,0 +1,124 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache.impl;
+
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.spring.boot.cache.AsyncCache;
+import com.zhengshuyun.oktool.spring.boot.cache.Cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * 基于同步缓存的异步缓存
+ *
+ * <li>inline=true: 在调用线程直接执行并返回已完成的结果, 适用于 {@link LocalCacheImpl} 等纯内存实现</li>
+ * <li>inline=false: 在虚拟线程中执行, 适用于没有原生异步实现的缓存(如 {@link NearCacheImpl})</li>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class DelegatingAsyncCacheImpl implements AsyncCache {
+
+    /**
+     * 虚拟线程执行器
+     */
+    private static final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Cache cache;
+    private final boolean inline;
+
+    /**
+     * @param cache  同步缓存
+     * @param inline true=调用线程直接执行, false=虚拟线程执行
+     */
+    public DelegatingAsyncCacheImpl(Cache cache, boolean inline) {
+        Assert.notNullParam(cache, "cache");
+        this.cache = cache;
+        this.inline = inline;
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String key, String value, long timeout) {
+        return run(() -> {
+            cache.put(key, value, timeout);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> putIfAbsent(String key, String value, long timeout) {
+        return run(() -> cache.putIfAbsent(key, value, timeout));
+    }
+
+    @Override
+    public CompletableFuture<String> get(String key) {
+        return run(() -> cache.get(key));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> multiGet(Collection<String> keys) {
+        return run(() -> cache.multiGet(keys));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> containsKey(String key) {
+        return run(() -> cache.containsKey(key));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String key) {
+        return run(() -> {
+            cache.delete(key);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> add(String key, long delta) {
+        return run(() -> cache.add(key, delta));
+    }
+
+    @Override
+    public CompletableFuture<Double> add(String key, double delta) {
+        return run(() -> cache.add(key, delta));
+    }
+
+    @Override
+    public CompletableFuture<Void> expire(String key, long timeout) {
+        return run(() -> {
+            cache.expire(key, timeout);
+            return null;
+        });
+    }
+
+    private <R> CompletableFuture<R> run(Supplier<R> supplier) {
+        if (!inline) {
+            return CompletableFuture.supplyAsync(supplier, executorService);
+        }
+
+        try {
+            return CompletableFuture.completedFuture(supplier.get());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
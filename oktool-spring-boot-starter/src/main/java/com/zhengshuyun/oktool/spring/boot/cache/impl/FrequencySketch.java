@@ -0,0 +1,112 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache.impl;
+
+/**
+ * 访问频率估算(Count-Min Sketch, 4位计数器)
+ *
+ * <p>用于TinyLFU准入判断, 每个long存放16个4位计数器, 每个key映射到4个计数器并取最小值</p>
+ * <p>累计次数达到样本上限后所有计数器减半, 让历史热点逐渐老化</p>
+ * <p>非线程安全, 由调用方加锁</p>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    /**
+     * 计数器减半时, 清除从高位计数器移入的位
+     */
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final long sampleSize;
+    private long size;
+
+    /**
+     * @param maximum 缓存最大条目数, 决定计数器数量
+     */
+    FrequencySketch(long maximum) {
+        int capped = (int) Math.min(Math.max(maximum, 16), 1 << 30);
+        int length = 1 << (32 - Integer.numberOfLeadingZeros(capped - 1));
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = 10L * capped;
+    }
+
+    /**
+     * 估算访问频率
+     *
+     * @param hash key的hash
+     * @return 0~15
+     */
+    int frequency(int hash) {
+        int min = 15;
+        for (int i = 0; i < 4; i++) {
+            long count = (table[indexOf(hash, i)] >>> offsetOf(hash, i)) & 0xfL;
+            min = Math.min(min, (int) count);
+        }
+        return min;
+    }
+
+    /**
+     * 访问频率加1, 计数器上限15
+     *
+     * @param hash key的hash
+     */
+    void increment(int hash) {
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int offset = offsetOf(hash, i);
+            long mask = 0xfL << offset;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * 所有计数器减半
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size >>>= 1;
+    }
+
+    private int indexOf(int hash, int i) {
+        long h = (hash + SEEDS[i]) * SEEDS[i];
+        h += h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    private int offsetOf(int hash, int i) {
+        // 每行使用hash的不同位选择long中的计数器
+        return ((hash >>> (i << 3)) & 0xf) << 2;
+    }
+}
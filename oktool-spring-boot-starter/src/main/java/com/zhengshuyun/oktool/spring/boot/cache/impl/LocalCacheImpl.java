@@ -16,61 +16,245 @@
 
 package com.zhengshuyun.oktool.spring.boot.cache.impl;
 
-import cn.hutool.v7.core.cache.impl.TimedCache;
 import cn.hutool.v7.core.date.TimeUtil;
 import com.zhengshuyun.oktool.spring.boot.cache.Cache;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheProperties;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheStats;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheValue;
 import com.zhengshuyun.oktool.core.util.Assert;
+import jakarta.annotation.PreDestroy;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * 本地缓存
  *
- * <p>使用hutool的{@link TimedCache}实现</p>
+ * <p>使用{@link ConcurrentHashMap}实现, 读写不会阻塞在全局锁上</p>
+ * <li>复合操作(putIfAbsent/expire等)使用 {@link ConcurrentHashMap#compute} 按key加锁</li>
+ * <li>计数器以原子数值存储, 已存在的计数器自增无锁, 不再反复解析和格式化字符串</li>
+ * <li>容量受 {@link CacheProperties.Local} 限制(条目数与估算字节数), 超出后按W-TinyLFU淘汰</li>
+ * <li>过期数据在访问时惰性删除, 并由分层时间轮每秒回收, 无需全量扫描</li>
+ * <li>可选持久化(见 {@link CacheProperties.Local.Persistence}), 重启后从快照与变更日志恢复</li>
+ *
+ * <p>淘汰策略与时间轮由一把淘汰锁保护, 只有持锁线程维护. 读写先记录到缓冲区再尝试获取淘汰锁批量处理,
+ * 获取失败直接返回, 由持锁线程处理:</p>
+ * <li>读缓冲区按线程分条带, 有损, 条带满时丢弃访问记录, 只影响淘汰的精确度</li>
+ * <li>写缓冲区无损, 积压超过上限(处理跟不上写入)时写入方才会等待淘汰锁协助处理</li>
  *
  * @author Toint
  * @since 2025/7/2
  */
-public class LocalCacheImpl implements Cache {
+public class LocalCacheImpl implements Cache, CacheStats {
+
+    /**
+     * 缓存项固定开销估算(字节): 节点对象 + map条目 + key/value字符串对象头
+     */
+    private static final int ENTRY_OVERHEAD = 160;
+
+    /**
+     * 写缓冲区积压上限
+     */
+    private static final int WRITE_BUFFER_MAX = 128 * ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors());
+
     /**
      * 缓存容器
      */
-    private final TimedCache<String, String> timedCache = initTimedCache();
+    private final ConcurrentHashMap<String, Node> cacheMap = new ConcurrentHashMap<>();
+
+    /**
+     * 读缓冲区, 记录待处理的访问
+     */
+    private final ReadBuffer readBuffer = new ReadBuffer();
+
+    /**
+     * 写缓冲区, 记录待处理的写入和删除
+     */
+    private final ConcurrentLinkedQueue<Write> writeBuffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger writeBufferSize = new AtomicInteger();
+
+    /**
+     * 写缓冲区有待处理的数据, 持锁线程释放锁后会再检查一次, 避免写入方获取锁失败后无人处理
+     */
+    private volatile boolean drainRequired;
+
+    /**
+     * 淘汰锁, 保护以下所有淘汰相关状态
+     */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final long maxSize;
+    private final long maxWeight;
+    private final long windowMaxSize;
+    private final long protectedMaxSize;
+
+    /**
+     * 窗口区(LRU), 新数据先进入窗口区积累访问频率
+     */
+    private final AccessQueue windowQueue = new AccessQueue();
+
+    /**
+     * 主区-试用段(LRU), 淘汰候选
+     */
+    private final AccessQueue probationQueue = new AccessQueue();
+
+    /**
+     * 主区-保护段(LRU), 试用段再次被访问的数据
+     */
+    private final AccessQueue protectedQueue = new AccessQueue();
+
+    private final FrequencySketch sketch;
+    private final CacheLoadSupport loadSupport;
+    private final TimerWheel timerWheel = new TimerWheel(System.currentTimeMillis());
+
+    private long size;
+    private long windowSize;
+    private long protectedSize;
+    private long weightedSize;
+
+    /**
+     * 容量淘汰与过期回收的累计条数
+     */
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expirationCount = new LongAdder();
+
+    /**
+     * 时间轮推进任务
+     */
+    private final ScheduledExecutorService expireExecutor = initExpireExecutor();
 
-    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * 持久化, 未启用时为null
+     */
+    private final LocalCachePersistence persistence;
+
+    /**
+     * 使用默认配置: 最多 100000 条, 不限制内存
+     */
+    public LocalCacheImpl() {
+        this(new CacheProperties.Local());
+    }
+
+    public LocalCacheImpl(CacheProperties.Local local) {
+        this(local, new CacheProperties.Load());
+    }
+
+    public LocalCacheImpl(CacheProperties.Local local, CacheProperties.Load load) {
+        Assert.notNullParam(local, "local");
+        Assert.isTrue(local.getMaxSize() > 0, "本地缓存maxSize必须大于0");
+        Assert.isTrue(local.getMaxWeight() == null || local.getMaxWeight().toBytes() > 0, "本地缓存maxWeight必须大于0");
+
+        this.maxSize = local.getMaxSize();
+        this.maxWeight = local.getMaxWeight() == null ? 0 : local.getMaxWeight().toBytes();
+        this.windowMaxSize = Math.max(1, maxSize / 100);
+        this.protectedMaxSize = (maxSize - windowMaxSize) * 80 / 100;
+        this.sketch = new FrequencySketch(maxSize);
+        this.loadSupport = new CacheLoadSupport(this, this::getEntry, null, load);
+
+        CacheProperties.Local.Persistence persistenceProperties = local.getPersistence();
+        if (persistenceProperties != null && persistenceProperties.isEnabled()) {
+            this.persistence = new LocalCachePersistence(persistenceProperties, new PersistenceSource());
+            this.persistence.start(this::restore);
+        } else {
+            this.persistence = null;
+        }
+    }
 
     @Override
     public void put(String key, String value, long timeout) {
         Assert.notBlank(key, "key不能为空");
-        timedCache.put(key, value, timeout);
+        Node node = new Node(key, value, expireAt(timeout));
+        Node old = cacheMap.put(key, node);
+        afterWrite(node, old);
+    }
+
+    @Override
+    public void putBytes(String key, byte[] value, long timeout) {
+        Assert.notBlank(key, "key不能为空");
+        Assert.notNull(value, "value不能为空");
+        Node node = new Node(key, value, expireAt(timeout));
+        Node old = cacheMap.put(key, node);
+        afterWrite(node, old);
+    }
+
+    @Override
+    public void multiPut(Map<String, String> values, long timeout) {
+        Assert.notEmpty(values, "values不能为空");
+        values.keySet().forEach(key -> Assert.notBlank(key, "key不能为空"));
+
+        long expireAt = expireAt(timeout);
+        List<Write> writes = new ArrayList<>(values.size());
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            Node node = new Node(entry.getKey(), entry.getValue(), expireAt);
+            writes.add(new Write(node, cacheMap.put(entry.getKey(), node)));
+        }
+        afterWrites(writes);
     }
 
     @Override
     public boolean putIfAbsent(String key, String value, long timeout) {
         Assert.notBlank(key, "key不能为空");
 
-        lock.lock();
-        try {
-            if (containsKey(key)) {
-                return false;
-            } else {
-                put(key, value, timeout);
-                return true;
+        Node newNode = new Node(key, value, expireAt(timeout));
+        long now = System.currentTimeMillis();
+        Node[] replaced = new Node[1];
+        Node node = cacheMap.compute(key, (k, old) -> {
+            if (old == null || old.isExpired(now)) {
+                replaced[0] = old;
+                return newNode;
             }
-        } finally {
-            lock.unlock();
-        }
+            return old;
+        });
+
+        if (node != newNode) return false;
+        afterWrite(newNode, replaced[0]);
+        return true;
     }
 
     @Override
     public String get(String key) {
         Assert.notBlank(key, "key不能为空");
-        return timedCache.get(key, false);
+        Node node = getNode(key);
+        return node == null ? null : node.stringValue();
+    }
+
+    @Override
+    public String getOrLoad(String key, Supplier<CacheValue> loader) {
+        return loadSupport.getOrLoad(key, loader);
+    }
+
+    @Override
+    public void registerLoader(String key, Supplier<CacheValue> loader) {
+        loadSupport.registerLoader(key, loader);
+    }
+
+    @Override
+    public void unregisterLoader(String key) {
+        loadSupport.unregisterLoader(key);
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        Assert.notBlank(key, "key不能为空");
+        Node node = getNode(key);
+        if (node == null || node.value == null) return null;
+        return node.value instanceof byte[] bytes ? bytes : node.stringValue().getBytes(StandardCharsets.UTF_8);
     }
 
     @Override
@@ -88,64 +272,115 @@ public class LocalCacheImpl implements Cache {
     @Override
     public boolean containsKey(String key) {
         Assert.notBlank(key, "key不能为空");
-        return timedCache.containsKey(key);
+        return getNode(key) != null;
     }
 
     @Override
     public void delete(String key) {
         Assert.notBlank(key, "key不能为空");
-        timedCache.remove(key);
+        Node old = cacheMap.remove(key);
+        if (old != null) afterRemove(old);
     }
 
     @Override
-    public long add(String key, long delta) {
-        Assert.notBlank(key, "key不能为空");
+    public void multiDelete(Collection<String> keys) {
+        Assert.notEmpty(keys, "keys不能为空");
+        keys.forEach(key -> Assert.notBlank(key, "key不能为空"));
 
-        lock.lock();
-        try {
-            String valueStr = get(key);
-            long valueNum = valueStr == null ? 0 : Long.parseLong(valueStr);
-            valueNum += delta;
-            put(key, String.valueOf(valueNum), 0);
-            return valueNum;
-        } finally {
-            lock.unlock();
+        List<Write> writes = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Node old = cacheMap.remove(key);
+            if (old != null) writes.add(new Write(null, old));
         }
+        afterWrites(writes);
+    }
+
+    @Override
+    public long add(String key, long delta) {
+        Assert.notBlank(key, "key不能为空");
+        List<Write> writes = new ArrayList<>(1);
+        long value = add(key, delta, writes);
+        afterWrites(writes);
+        return value;
     }
 
     @Override
     public double add(String key, double delta) {
         Assert.notBlank(key, "key不能为空");
-        lock.lock();
-        try {
-            String valueStr = get(key);
-            double valueNum = valueStr == null ? 0 : Double.parseDouble(valueStr);
-            valueNum += delta;
-            put(key, String.valueOf(valueNum), 0);
-            return valueNum;
-        } finally {
-            lock.unlock();
+
+        // 快速路径: 计数器已存在, 无锁自增
+        Node node = getNode(key);
+        if (node != null && node.value instanceof DoubleCell cell) {
+            double value = cell.addAndGet(delta);
+            markDirty(key);
+            return value;
+        }
+
+        // 慢速路径: 创建计数器或由字符串/整数计数器转换, 保留原有过期时间(与redis INCRBYFLOAT一致)
+        long now = System.currentTimeMillis();
+        double[] result = new double[1];
+        Node[] created = new Node[1];
+        Node[] replaced = new Node[1];
+        cacheMap.compute(key, (k, old) -> {
+            if (old != null && !old.isExpired(now) && old.value instanceof DoubleCell cell) {
+                result[0] = cell.addAndGet(delta);
+                return old;
+            }
+            replaced[0] = old;
+            if (old == null || old.isExpired(now)) {
+                result[0] = delta;
+                created[0] = new Node(key, new DoubleCell(delta), 0);
+            } else {
+                double base = old.value instanceof LongCell cell ? cell.get() : Double.parseDouble(old.stringValue());
+                result[0] = base + delta;
+                created[0] = new Node(key, new DoubleCell(result[0]), old.expireAt);
+            }
+            return created[0];
+        });
+
+        if (created[0] != null) {
+            afterWrite(created[0], replaced[0]);
+        } else {
+            markDirty(key);
         }
+        return result[0];
+    }
+
+    @Override
+    public Map<String, Long> multiAdd(Map<String, Long> deltas) {
+        Assert.notEmpty(deltas, "deltas不能为空");
+        deltas.forEach((key, delta) -> {
+            Assert.notBlank(key, "key不能为空");
+            Assert.notNull(delta, "自增值不能为空");
+        });
+
+        Map<String, Long> values = new LinkedHashMap<>();
+        List<Write> writes = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+            values.put(entry.getKey(), add(entry.getKey(), entry.getValue(), writes));
+        }
+        afterWrites(writes);
+        return values;
     }
 
     @Override
     public void expire(String key, long timeout) {
         Assert.notBlank(key, "key不能为空");
-        lock.lock();
-        try {
-            // 时间小于就删除key
-            if (timeout <= 0) {
-                delete(key);
-                return;
-            }
+        List<Write> writes = new ArrayList<>(1);
+        expire(key, timeout, writes);
+        afterWrites(writes);
+    }
 
-            String value = get(key);
-            if (value != null) {
-                put(key, value, timeout);
-            }
-        } finally {
-            lock.unlock();
+    @Override
+    public void multiExpire(Collection<String> keys, long timeout) {
+        Assert.notEmpty(keys, "keys不能为空");
+        keys.forEach(key -> Assert.notBlank(key, "key不能为空"));
+
+        List<Write> writes = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            expire(key, timeout, writes);
         }
+        afterWrites(writes);
     }
 
     @Override
@@ -158,10 +393,851 @@ public class LocalCacheImpl implements Cache {
         expire(key, between);
     }
 
-    private TimedCache<String, String> initTimedCache() {
-        // 不限制超时时间
-        TimedCache<String, String> timedCache = new TimedCache<>(0);
-        timedCache.schedulePrune(60000); // 定时任务60秒清除过期数据
-        return timedCache;
+    @Override
+    public long estimatedSize() {
+        return cacheMap.mappingCount();
+    }
+
+    @Override
+    public long weightedSize() {
+        evictionLock.lock();
+        try {
+            drainBuffers();
+            return weightedSize;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    @Override
+    public long expirationCount() {
+        return expirationCount.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        expireExecutor.shutdownNow();
+        loadSupport.shutdown();
+        if (persistence != null) {
+            persistence.shutdown();
+        }
+    }
+
+    /**
+     * 整数自增, 淘汰策略的维护记录到 writes 中由调用方统一处理
+     */
+    private long add(String key, long delta, List<Write> writes) {
+        // 快速路径: 计数器已存在, 无锁自增
+        Node node = getNode(key);
+        if (node != null && node.value instanceof LongCell cell) {
+            long value = cell.addAndGet(delta);
+            markDirty(key);
+            return value;
+        }
+
+        // 慢速路径: 创建计数器或由字符串转换, 保留原有过期时间(与redis INCRBY一致)
+        long now = System.currentTimeMillis();
+        long[] result = new long[1];
+        Node[] created = new Node[1];
+        Node[] replaced = new Node[1];
+        cacheMap.compute(key, (k, old) -> {
+            if (old != null && !old.isExpired(now) && old.value instanceof LongCell cell) {
+                result[0] = cell.addAndGet(delta);
+                return old;
+            }
+            replaced[0] = old;
+            if (old == null || old.isExpired(now)) {
+                result[0] = delta;
+                created[0] = new Node(key, new LongCell(delta), 0);
+            } else {
+                result[0] = Long.parseLong(old.stringValue()) + delta;
+                created[0] = new Node(key, new LongCell(result[0]), old.expireAt);
+            }
+            return created[0];
+        });
+
+        if (created[0] != null) {
+            writes.add(new Write(created[0], replaced[0]));
+        } else {
+            markDirty(key);
+        }
+        return result[0];
+    }
+
+    /**
+     * 设置过期时间, 淘汰策略的维护记录到 writes 中由调用方统一处理
+     */
+    private void expire(String key, long timeout, List<Write> writes) {
+        // 时间小于就删除key
+        if (timeout <= 0) {
+            Node old = cacheMap.remove(key);
+            if (old != null) writes.add(new Write(null, old));
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long expireAt = now + timeout;
+        Node[] replaced = new Node[1];
+        // 计数器对象保持不变, 仅替换过期时间, 并发自增不会丢失
+        Node current = cacheMap.computeIfPresent(key, (k, old) -> {
+            replaced[0] = old;
+            return old.isExpired(now) ? null : new Node(key, old.value, expireAt);
+        });
+
+        if (replaced[0] != null) {
+            writes.add(new Write(current, replaced[0]));
+        }
+    }
+
+    /**
+     * 获取未过期的缓存项, 已过期的顺便删除
+     */
+    private Node getNode(String key) {
+        Node node = cacheMap.get(key);
+        if (node == null) return null;
+        if (node.isExpired(System.currentTimeMillis())) {
+            if (cacheMap.remove(key, node)) {
+                expirationCount.increment();
+                afterRemove(node);
+            }
+            return null;
+        }
+
+        // 记录访问, 条带满时尝试处理, 不阻塞读
+        if (readBuffer.offer(node)) {
+            tryDrain();
+        }
+        return node;
+    }
+
+    /**
+     * 读取缓存值与剩余时间, 供 {@link CacheLoadSupport} 使用
+     */
+    private CacheLoadSupport.Entry getEntry(String key) {
+        Node node = getNode(key);
+        if (node == null) return null;
+        long ttl = node.expireAt > 0 ? node.expireAt - System.currentTimeMillis() : -1;
+        return new CacheLoadSupport.Entry(node.stringValue(), ttl);
+    }
+
+    /**
+     * 写入后维护淘汰策略
+     *
+     * @param node 新节点
+     * @param old  被替换的节点(可能为null)
+     */
+    private void afterWrite(Node node, Node old) {
+        afterWrites(List.of(new Write(node, old)));
+    }
+
+    /**
+     * 删除后维护淘汰策略
+     */
+    private void afterRemove(Node node) {
+        afterWrites(List.of(new Write(null, node)));
+    }
+
+    /**
+     * 记录持久化变更并维护淘汰策略
+     */
+    private void afterWrites(List<Write> writes) {
+        if (writes.isEmpty()) return;
+
+        if (persistence != null) {
+            for (Write write : writes) {
+                persistence.markDirty(write.node == null ? write.old.key : write.node.key);
+            }
+        }
+        applyWrites(writes);
+    }
+
+    /**
+     * 写入记录到写缓冲区并尝试处理, 不记录持久化变更
+     */
+    private void applyWrites(List<Write> writes) {
+        writeBuffer.addAll(writes);
+        drainRequired = true;
+        if (writeBufferSize.addAndGet(writes.size()) <= WRITE_BUFFER_MAX) {
+            tryDrain();
+            return;
+        }
+
+        // 积压过多, 等待淘汰锁协助处理, 限制缓冲区占用的内存
+        evictionLock.lock();
+        try {
+            drainBuffers();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 尝试获取淘汰锁处理缓冲区, 锁被占用时直接返回
+     * <p>
+     * 释放锁后若期间有写入方获取锁失败, 再处理一轮; 仍有剩余的由下一次读写或定时回收处理
+     */
+    private void tryDrain() {
+        for (int i = 0; i < 2; i++) {
+            if (!evictionLock.tryLock()) return;
+            try {
+                drainBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+            if (!drainRequired) return;
+        }
+    }
+
+    /**
+     * 处理读写缓冲区并按容量淘汰, 需持有淘汰锁
+     */
+    private void drainBuffers() {
+        drainRequired = false;
+
+        int drained = 0;
+        Write write;
+        while ((write = writeBuffer.poll()) != null) {
+            if (write.node == null) {
+                retire(write.old);
+            } else {
+                applyWrite(write.node, write.old);
+            }
+            drained++;
+        }
+        if (drained > 0) {
+            writeBufferSize.addAndGet(-drained);
+        }
+
+        readBuffer.drain(this::onAccess);
+        evict();
+    }
+
+    /**
+     * 标记key已变更, 由持久化线程写入日志
+     */
+    private void markDirty(String key) {
+        if (persistence != null) {
+            persistence.markDirty(key);
+        }
+    }
+
+    /**
+     * 恢复一条持久化记录
+     */
+    private void restore(LocalCachePersistence.Entry entry) {
+        if (entry.value() == null) {
+            Node old = cacheMap.remove(entry.key());
+            if (old != null) applyWrites(List.of(new Write(null, old)));
+            return;
+        }
+
+        Node node = new Node(entry.key(), fromBytes(entry.type(), entry.value()), entry.expireAt());
+        applyWrites(List.of(new Write(node, cacheMap.put(entry.key(), node))));
+    }
+
+    /**
+     * 新节点加入淘汰策略, 被替换的节点移出
+     */
+    private void applyWrite(Node node, Node old) {
+        int queue = Node.WINDOW;
+        if (old != null) {
+            // 替换写入保留原节点所在区域, 热数据不会因为更新而降级
+            if (old.queue == Node.PROBATION || old.queue == Node.PROTECTED) {
+                queue = old.queue;
+            }
+            retire(old);
+        }
+
+        // 写入后立刻被删除或替换的节点不再加入
+        if (node.queue == Node.RETIRED) return;
+
+        sketch.increment(node.hash);
+        link(node, queue);
+    }
+
+    /**
+     * 节点加入指定区域和时间轮
+     */
+    private void link(Node node, int queue) {
+        node.queue = queue;
+        switch (queue) {
+            case Node.PROTECTED -> {
+                protectedQueue.addLast(node);
+                protectedSize++;
+            }
+            case Node.PROBATION -> probationQueue.addLast(node);
+            default -> {
+                windowQueue.addLast(node);
+                windowSize++;
+            }
+        }
+        if (node.expireAt > 0) {
+            timerWheel.schedule(node);
+        }
+        size++;
+        weightedSize += node.weight;
+    }
+
+    /**
+     * 节点移出淘汰策略和时间轮, 重复调用无副作用
+     */
+    private void retire(Node node) {
+        switch (node.queue) {
+            case Node.NEW -> {
+                // 尚未加入, 标记后由afterWrite跳过
+                node.queue = Node.RETIRED;
+                return;
+            }
+            case Node.RETIRED -> {
+                return;
+            }
+            case Node.WINDOW -> {
+                windowQueue.remove(node);
+                windowSize--;
+            }
+            case Node.PROBATION -> probationQueue.remove(node);
+            case Node.PROTECTED -> {
+                protectedQueue.remove(node);
+                protectedSize--;
+            }
+        }
+        timerWheel.deschedule(node);
+        node.queue = Node.RETIRED;
+        size--;
+        weightedSize -= node.weight;
+    }
+
+    /**
+     * 访问节点: 窗口区/保护段内移到队尾, 试用段晋升到保护段
+     */
+    private void onAccess(Node node) {
+        sketch.increment(node.hash);
+        switch (node.queue) {
+            case Node.WINDOW -> windowQueue.moveToLast(node);
+            case Node.PROTECTED -> protectedQueue.moveToLast(node);
+            case Node.PROBATION -> {
+                probationQueue.remove(node);
+                node.queue = Node.PROTECTED;
+                protectedQueue.addLast(node);
+                protectedSize++;
+
+                // 保护段超出时, 最久未访问的降级到试用段
+                while (protectedSize > protectedMaxSize) {
+                    Node demoted = protectedQueue.peekFirst();
+                    protectedQueue.remove(demoted);
+                    protectedSize--;
+                    demoted.queue = Node.PROBATION;
+                    probationQueue.addLast(demoted);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * W-TinyLFU淘汰
+     * <p>
+     * 窗口区溢出的数据进入试用段队尾成为候选者, 与试用段队首的受害者比较访问频率, 频率低的被淘汰
+     */
+    private void evict() {
+        while (windowSize > windowMaxSize) {
+            Node node = windowQueue.peekFirst();
+            windowQueue.remove(node);
+            windowSize--;
+            node.queue = Node.PROBATION;
+            probationQueue.addLast(node);
+        }
+
+        while (size > maxSize || (maxWeight > 0 && weightedSize > maxWeight)) {
+            Node victim = probationQueue.peekFirst();
+            Node candidate = probationQueue.peekLast();
+
+            Node evicted;
+            if (victim == null) {
+                evicted = protectedQueue.peekFirst() != null ? protectedQueue.peekFirst() : windowQueue.peekFirst();
+            } else if (victim == candidate) {
+                evicted = victim;
+            } else {
+                evicted = sketch.frequency(candidate.hash) > sketch.frequency(victim.hash) ? victim : candidate;
+            }
+            if (evicted == null) return;
+
+            evictNode(evicted);
+            evictionCount.increment();
+        }
+    }
+
+    /**
+     * 从缓存中移除节点, 需持有淘汰锁
+     */
+    private void evictNode(Node node) {
+        cacheMap.remove(node.key, node);
+        retire(node);
+    }
+
+    /**
+     * 推进时间轮, 回收已过期的数据
+     */
+    private void expireEntries() {
+        expireEntries(System.currentTimeMillis());
+    }
+
+    /**
+     * 处理缓冲区并推进时间轮到指定时间
+     *
+     * @param now 当前时间戳(ms)
+     */
+    void expireEntries(long now) {
+        evictionLock.lock();
+        try {
+            drainBuffers();
+            timerWheel.advance(now, node -> {
+                evictNode(node);
+                expirationCount.increment();
+            });
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 缓存项所在的淘汰区域, 供测试使用
+     *
+     * @return window/probation/protected, 不存在时为null
+     */
+    String region(String key) {
+        evictionLock.lock();
+        try {
+            drainBuffers();
+            Node node = cacheMap.get(key);
+            if (node == null) return null;
+            return switch (node.queue) {
+                case Node.WINDOW -> "window";
+                case Node.PROBATION -> "probation";
+                case Node.PROTECTED -> "protected";
+                default -> null;
+            };
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * @param timeout 缓存时间(ms), 小于等于0表示不过期
+     * @return 过期时间戳(ms), 0表示不过期
+     */
+    private static long expireAt(long timeout) {
+        return timeout > 0 ? System.currentTimeMillis() + timeout : 0;
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return x <= 1 ? 1 : Integer.highestOneBit(x - 1) << 1;
+    }
+
+    private ScheduledExecutorService initExpireExecutor() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("oktool-local-cache-expire").factory());
+        // 每秒推进一次时间轮
+        executor.scheduleWithFixedDelay(this::expireEntries, 1, 1, TimeUnit.SECONDS);
+        return executor;
+    }
+
+    /**
+     * 节点值转为持久化记录
+     */
+    private static LocalCachePersistence.Entry toEntry(Node node) {
+        return switch (node.value) {
+            case String str -> new LocalCachePersistence.Entry(node.key, LocalCachePersistence.TYPE_STRING,
+                    str.getBytes(StandardCharsets.UTF_8), node.expireAt);
+            case byte[] bytes -> new LocalCachePersistence.Entry(node.key, LocalCachePersistence.TYPE_BYTES,
+                    bytes, node.expireAt);
+            case LongCell cell -> new LocalCachePersistence.Entry(node.key, LocalCachePersistence.TYPE_LONG,
+                    ByteBuffer.allocate(Long.BYTES).putLong(cell.get()).array(), node.expireAt);
+            case DoubleCell cell -> new LocalCachePersistence.Entry(node.key, LocalCachePersistence.TYPE_DOUBLE,
+                    ByteBuffer.allocate(Long.BYTES).putLong(cell.bits.get()).array(), node.expireAt);
+            default -> throw new IllegalStateException("不支持的缓存值类型: " + node.value.getClass());
+        };
+    }
+
+    /**
+     * 持久化记录转为节点值
+     */
+    private static Object fromBytes(byte type, byte[] value) {
+        return switch (type) {
+            case LocalCachePersistence.TYPE_STRING -> new String(value, StandardCharsets.UTF_8);
+            case LocalCachePersistence.TYPE_BYTES -> value;
+            case LocalCachePersistence.TYPE_LONG -> new LongCell(ByteBuffer.wrap(value).getLong());
+            case LocalCachePersistence.TYPE_DOUBLE ->
+                    new DoubleCell(Double.longBitsToDouble(ByteBuffer.wrap(value).getLong()));
+            default -> throw new IllegalStateException("不支持的持久化值类型: " + type);
+        };
+    }
+
+    /**
+     * 持久化数据来源, 只读取当前值, 不影响淘汰策略
+     */
+    private final class PersistenceSource implements LocalCachePersistence.Source {
+        @Override
+        public LocalCachePersistence.Entry read(String key) {
+            Node node = cacheMap.get(key);
+            if (node == null || node.isExpired(System.currentTimeMillis())) return null;
+            return toEntry(node);
+        }
+
+        @Override
+        public Iterator<LocalCachePersistence.Entry> entries() {
+            return cacheMap.values().stream().map(LocalCacheImpl::toEntry).iterator();
+        }
+    }
+
+    /**
+     * 待维护淘汰策略的写入
+     *
+     * @param node 新节点, null表示删除
+     * @param old  被替换或删除的节点(可能为null)
+     */
+    private record Write(Node node, Node old) {
+    }
+
+    /**
+     * 缓存节点
+     * <p>
+     * key/value/过期时间不可变, 修改时整体替换; 计数器的值由内部原子对象维护
+     * <p>
+     * 队列与时间轮链表字段由淘汰锁保护
+     */
+    private static final class Node {
+        static final int NEW = 0;
+        static final int WINDOW = 1;
+        static final int PROBATION = 2;
+        static final int PROTECTED = 3;
+        static final int RETIRED = 4;
+
+        final String key;
+        /**
+         * {@link String}, byte[], {@link LongCell} 或 {@link DoubleCell}
+         */
+        final Object value;
+        /**
+         * 过期时间戳(ms), 0表示不过期
+         */
+        final long expireAt;
+        final int hash;
+        final int weight;
+
+        int queue = NEW;
+        Node accessPrev;
+        Node accessNext;
+        Node timerPrev;
+        Node timerNext;
+
+        Node(String key, Object value, long expireAt) {
+            this.key = key;
+            this.value = value;
+            this.expireAt = expireAt;
+            this.hash = spread(key.hashCode());
+            this.weight = weigh(key, value);
+        }
+
+        /**
+         * 链表哨兵
+         */
+        private Node() {
+            this.key = null;
+            this.value = null;
+            this.expireAt = 0;
+            this.hash = 0;
+            this.weight = 0;
+        }
+
+        static Node sentinel() {
+            return new Node();
+        }
+
+        boolean isExpired(long now) {
+            return expireAt > 0 && expireAt <= now;
+        }
+
+        /**
+         * 二进制值按UTF-8解析, 与redis的字符串读取行为一致
+         */
+        String stringValue() {
+            if (value == null) return null;
+            return value instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : value.toString();
+        }
+
+        private static int spread(int h) {
+            h ^= h >>> 16;
+            h *= 0x45d9f3b;
+            return h ^ (h >>> 16);
+        }
+
+        /**
+         * 估算占用字节数, 字符串按每字符2字节计算
+         */
+        private static int weigh(String key, Object value) {
+            int valueBytes = switch (value) {
+                case String str -> str.length() * 2;
+                case byte[] bytes -> bytes.length;
+                case null, default -> 24;
+            };
+            return ENTRY_OVERHEAD + key.length() * 2 + valueBytes;
+        }
+    }
+
+    /**
+     * 条带化的有损读缓冲区
+     * <p>
+     * 读线程按线程ID选择条带, CAS占用槽位后写入节点, 条带已满或CAS失败时丢弃本次记录; 只由持有淘汰锁的线程消费
+     */
+    private static final class ReadBuffer {
+        private static final int STRIPE_SIZE = 16;
+        private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+        /**
+         * 各条带的读写位置间隔存放, 避免位于同一缓存行
+         */
+        private static final int PADDING = 8;
+
+        private final int stripeMask;
+        private final AtomicReferenceArray<Node> slots;
+        private final AtomicLongArray heads;
+        private final AtomicLongArray tails;
+
+        ReadBuffer() {
+            int stripes = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors() * 4);
+            this.stripeMask = stripes - 1;
+            this.slots = new AtomicReferenceArray<>(stripes * STRIPE_SIZE);
+            this.heads = new AtomicLongArray(stripes * PADDING);
+            this.tails = new AtomicLongArray(stripes * PADDING);
+        }
+
+        /**
+         * @return true=条带已满, 需要处理
+         */
+        boolean offer(Node node) {
+            int stripe = probe() & stripeMask;
+            int index = stripe * PADDING;
+            long tail = tails.get(index);
+            long size = tail - heads.get(index);
+            if (size >= STRIPE_SIZE) return true;
+
+            if (tails.compareAndSet(index, tail, tail + 1)) {
+                slots.lazySet(stripe * STRIPE_SIZE + (int) (tail & STRIPE_MASK), node);
+                return size + 1 == STRIPE_SIZE;
+            }
+            return false;
+        }
+
+        /**
+         * 消费所有条带, 需持有淘汰锁
+         */
+        void drain(Consumer<Node> consumer) {
+            for (int stripe = 0; stripe <= stripeMask; stripe++) {
+                int index = stripe * PADDING;
+                long head = heads.get(index);
+                long tail = tails.get(index);
+                for (; head < tail; head++) {
+                    int slot = stripe * STRIPE_SIZE + (int) (head & STRIPE_MASK);
+                    Node node = slots.get(slot);
+                    // 槽位已占用但尚未写入, 下次再处理
+                    if (node == null) break;
+                    slots.lazySet(slot, null);
+                    consumer.accept(node);
+                }
+                heads.lazySet(index, head);
+            }
+        }
+
+        private static int probe() {
+            long id = Thread.currentThread().threadId();
+            int h = (int) (id ^ (id >>> 32)) * 0x9e3779b9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * 访问顺序双向链表, 队首为最久未访问
+     */
+    private static final class AccessQueue {
+        private final Node head = Node.sentinel();
+
+        AccessQueue() {
+            head.accessPrev = head;
+            head.accessNext = head;
+        }
+
+        Node peekFirst() {
+            return head.accessNext == head ? null : head.accessNext;
+        }
+
+        Node peekLast() {
+            return head.accessPrev == head ? null : head.accessPrev;
+        }
+
+        void addLast(Node node) {
+            Node last = head.accessPrev;
+            node.accessPrev = last;
+            node.accessNext = head;
+            last.accessNext = node;
+            head.accessPrev = node;
+        }
+
+        void remove(Node node) {
+            if (node.accessPrev == null) return;
+            node.accessPrev.accessNext = node.accessNext;
+            node.accessNext.accessPrev = node.accessPrev;
+            node.accessPrev = null;
+            node.accessNext = null;
+        }
+
+        void moveToLast(Node node) {
+            remove(node);
+            addLast(node);
+        }
+    }
+
+    /**
+     * 分层时间轮
+     * <p>
+     * 按剩余时间放入不同精度的层级: 约1秒 x 64, 约65秒 x 64, 约70分钟 x 32, 约37小时 x 4, 其余放入溢出桶;
+     * 推进时只处理经过的桶, 未到期的节点重新放入更精确的层级, 均摊O(1)
+     */
+    private static final class TimerWheel {
+        private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+        private static final long[] SPANS = {
+                1L << 10, // 1.02s
+                1L << 16, // 1.09m
+                1L << 22, // 1.17h
+                1L << 27, // 1.55d
+                1L << 29, // 6.21d
+                1L << 29, // 6.21d
+        };
+        private static final int[] SHIFT = {10, 16, 22, 27, 29};
+
+        private final Node[][] wheel;
+        private long time;
+
+        TimerWheel(long time) {
+            this.time = time;
+            this.wheel = new Node[BUCKETS.length][];
+            for (int i = 0; i < BUCKETS.length; i++) {
+                wheel[i] = new Node[BUCKETS[i]];
+                for (int j = 0; j < BUCKETS[i]; j++) {
+                    Node sentinel = Node.sentinel();
+                    sentinel.timerPrev = sentinel;
+                    sentinel.timerNext = sentinel;
+                    wheel[i][j] = sentinel;
+                }
+            }
+        }
+
+        void schedule(Node node) {
+            Node sentinel = findBucket(node.expireAt);
+            Node last = sentinel.timerPrev;
+            node.timerPrev = last;
+            node.timerNext = sentinel;
+            last.timerNext = node;
+            sentinel.timerPrev = node;
+        }
+
+        void deschedule(Node node) {
+            if (node.timerPrev == null) return;
+            node.timerPrev.timerNext = node.timerNext;
+            node.timerNext.timerPrev = node.timerPrev;
+            node.timerPrev = null;
+            node.timerNext = null;
+        }
+
+        /**
+         * 推进到指定时间, 过期节点交给 expirer 处理
+         */
+        void advance(long currentTime, Consumer<Node> expirer) {
+            long previousTime = time;
+            time = currentTime;
+            for (int i = 0; i < SHIFT.length; i++) {
+                long previousTicks = previousTime >>> SHIFT[i];
+                long currentTicks = currentTime >>> SHIFT[i];
+                if (currentTicks - previousTicks <= 0) break;
+                expire(i, previousTicks, currentTicks - previousTicks, expirer);
+            }
+        }
+
+        private void expire(int level, long previousTicks, long delta, Consumer<Node> expirer) {
+            Node[] buckets = wheel[level];
+            int mask = buckets.length - 1;
+            int steps = (int) Math.min(1 + delta, buckets.length);
+            int start = (int) (previousTicks & mask);
+            for (int i = start; i < start + steps; i++) {
+                Node sentinel = buckets[i & mask];
+                Node node = sentinel.timerNext;
+                sentinel.timerPrev = sentinel;
+                sentinel.timerNext = sentinel;
+
+                while (node != sentinel) {
+                    Node next = node.timerNext;
+                    node.timerPrev = null;
+                    node.timerNext = null;
+                    if (node.expireAt <= time) {
+                        expirer.accept(node);
+                    } else {
+                        schedule(node);
+                    }
+                    node = next;
+                }
+            }
+        }
+
+        private Node findBucket(long expireAt) {
+            long duration = Math.max(0, expireAt - time);
+            for (int i = 0; i < BUCKETS.length - 1; i++) {
+                if (duration < SPANS[i + 1]) {
+                    long ticks = expireAt >>> SHIFT[i];
+                    return wheel[i][(int) (ticks & (BUCKETS[i] - 1))];
+                }
+            }
+            return wheel[BUCKETS.length - 1][0];
+        }
+    }
+
+    /**
+     * 整数计数器
+     */
+    private static final class LongCell extends AtomicLong {
+        LongCell(long initialValue) {
+            super(initialValue);
+        }
+    }
+
+    /**
+     * 浮点数计数器, 以long位存储并CAS自增
+     */
+    private static final class DoubleCell {
+        private final AtomicLong bits;
+
+        DoubleCell(double initialValue) {
+            this.bits = new AtomicLong(Double.doubleToRawLongBits(initialValue));
+        }
+
+        double addAndGet(double delta) {
+            while (true) {
+                long current = bits.get();
+                double next = Double.longBitsToDouble(current) + delta;
+                if (bits.compareAndSet(current, Double.doubleToRawLongBits(next))) {
+                    return next;
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(Double.longBitsToDouble(bits.get()));
+        }
     }
 }
@@ -0,0 +1,523 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zhengshuyun.oktool.spring.boot.cache.impl;
+
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * 本地缓存持久化: 内存映射快照 + 追加写变更日志, 启动时恢复, 重启后缓存即刻可用
+ *
+ * <li>变更: 写操作只把key加入脏集合(无锁), 后台线程定期读取这些key的当前值追加到日志, 重放结果与内存一致且天然去重</li>
+ * <li>快照: 定期切换到新一代日志, 再把全部未过期数据写入内存映射文件, 原子替换后删除旧日志</li>
+ * <li>恢复: 加载快照, 再按代数顺序重放不早于快照的日志, 过期数据直接跳过; 日志尾部不完整的记录(进程崩溃)会被忽略</li>
+ *
+ * <p>过期时间以绝对时间戳保存, 停机期间同样计时; 容量淘汰不写日志, 恢复后由容量限制重新淘汰</p>
+ * <p>同一目录只能由一个缓存实例使用, 启动时对目录加排他文件锁, 其他实例(含其他进程)启动失败; 相对路径基于进程工作目录</p>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+final class LocalCachePersistence {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalCachePersistence.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x4F4B4353;
+    private static final int LOG_MAGIC = 0x4F4B434C;
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * 文件头: magic(4) + version(4) + generation(8)
+     */
+    private static final int FILE_HEADER_SIZE = 16;
+
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String SNAPSHOT_TEMP_FILE = "snapshot.bin.tmp";
+    private static final String LOG_PREFIX = "changes-";
+    private static final String LOG_SUFFIX = ".log";
+    private static final String LOCK_FILE = "lock";
+
+    private static final byte OP_END = 0;
+    private static final byte OP_SET = 1;
+    private static final byte OP_DELETE = 2;
+
+    static final byte TYPE_STRING = 0;
+    static final byte TYPE_BYTES = 1;
+    static final byte TYPE_LONG = 2;
+    static final byte TYPE_DOUBLE = 3;
+
+    /**
+     * 快照写入时每次映射的文件窗口大小
+     */
+    private static final long SNAPSHOT_WINDOW = 16L * 1024 * 1024;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    private final Path directory;
+    private final long snapshotInterval;
+    private final long flushInterval;
+    private final Source source;
+
+    /**
+     * 待写入日志的key
+     */
+    private final Set<String> dirtyKeys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 以下字段只在持久化线程中访问
+     */
+    private long generation;
+    private DataOutputStream logOutput;
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * 持有目录排他锁的文件通道, 关闭即释放锁
+     */
+    private FileChannel lockChannel;
+
+    /**
+     * @param persistence 持久化配置
+     * @param source      缓存数据来源
+     */
+    LocalCachePersistence(CacheProperties.Local.Persistence persistence, Source source) {
+        Assert.notNullParam(persistence, "persistence");
+        Assert.notBlankParam(persistence.getPath(), "path");
+        Assert.isTrue(persistence.getSnapshotInterval() != null && persistence.getSnapshotInterval().isPositive(),
+                "本地缓存持久化snapshotInterval必须大于0");
+        Assert.isTrue(persistence.getFlushInterval() != null && persistence.getFlushInterval().isPositive(),
+                "本地缓存持久化flushInterval必须大于0");
+        Assert.notNullParam(source, "source");
+
+        this.directory = Paths.get(persistence.getPath()).toAbsolutePath();
+        this.snapshotInterval = persistence.getSnapshotInterval().toMillis();
+        this.flushInterval = persistence.getFlushInterval().toMillis();
+        this.source = source;
+    }
+
+    /**
+     * 从快照与日志恢复数据, 然后开始记录变更
+     *
+     * @param consumer 恢复的数据, value为null表示删除
+     */
+    void start(Consumer<Entry> consumer) {
+        boolean started = false;
+        try {
+            Files.createDirectories(directory);
+            lockDirectory();
+            restore(consumer);
+            openLog(generation + 1);
+            started = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("本地缓存持久化初始化失败: " + directory, e);
+        } finally {
+            if (!started) {
+                closeLog();
+                releaseLock();
+            }
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("oktool-local-cache-persistence").factory());
+        executor.scheduleWithFixedDelay(() -> runSafely(this::flush), flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(() -> runSafely(this::snapshot), snapshotInterval, snapshotInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 标记key已变更, 由后台线程写入日志
+     */
+    void markDirty(String key) {
+        dirtyKeys.add(key);
+    }
+
+    /**
+     * 停止后台任务, 并写入最终快照
+     */
+    void shutdown() {
+        if (executor == null) return;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("本地缓存持久化任务未能在10秒内结束");
+            }
+            snapshot();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("本地缓存停机快照失败: {}", e.getMessage(), e);
+        } finally {
+            closeLog();
+            releaseLock();
+        }
+    }
+
+    /**
+     * 把脏key的当前值追加到日志
+     */
+    private void flush() throws IOException {
+        if (dirtyKeys.isEmpty()) return;
+
+        Iterator<String> iterator = dirtyKeys.iterator();
+        while (iterator.hasNext()) {
+            String key = iterator.next();
+            // 先移除再读取: 读取之后的变更会重新标记, 不会丢失
+            iterator.remove();
+            Entry entry = source.read(key);
+            if (entry == null) {
+                writeDelete(logOutput, key);
+            } else {
+                writeSet(logOutput, entry);
+            }
+        }
+        logOutput.flush();
+    }
+
+    /**
+     * 切换到新一代日志, 写入快照, 删除旧日志
+     */
+    private void snapshot() throws IOException {
+        flush();
+        long snapshotGeneration = generation + 1;
+        openLog(snapshotGeneration);
+
+        Path temp = directory.resolve(SNAPSHOT_TEMP_FILE);
+        long count = 0;
+        long now = System.currentTimeMillis();
+        try (SnapshotWriter writer = new SnapshotWriter(temp)) {
+            writer.writeHeader(snapshotGeneration);
+            for (Iterator<Entry> iterator = source.entries(); iterator.hasNext(); ) {
+                Entry entry = iterator.next();
+                if (entry.expireAt() > 0 && entry.expireAt() <= now) continue;
+                writer.write(entry);
+                count++;
+            }
+            writer.writeEnd();
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (long logGeneration : logGenerations()) {
+            if (logGeneration < snapshotGeneration) {
+                Files.deleteIfExists(logPath(logGeneration));
+            }
+        }
+        log.debug("本地缓存快照完成, 条目数: {}, generation: {}", count, snapshotGeneration);
+    }
+
+    private void restore(Consumer<Entry> consumer) throws IOException {
+        long start = System.currentTimeMillis();
+        long snapshotGeneration = 0;
+        long count = 0;
+
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            Restored restored = read(snapshot, SNAPSHOT_MAGIC, consumer);
+            snapshotGeneration = restored.generation();
+            count += restored.count();
+        }
+
+        generation = snapshotGeneration;
+        for (long logGeneration : logGenerations()) {
+            if (logGeneration < snapshotGeneration) continue;
+            count += read(logPath(logGeneration), LOG_MAGIC, consumer).count();
+            generation = Math.max(generation, logGeneration);
+        }
+
+        if (count > 0) {
+            log.info("本地缓存恢复完成, 记录数: {}, 耗时: {}ms, 目录: {}", count, System.currentTimeMillis() - start, directory);
+        }
+    }
+
+    /**
+     * 映射并读取快照或日志, 遇到不完整的记录时停止
+     */
+    private Restored read(Path path, int magic, Consumer<Entry> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+             Arena arena = Arena.ofConfined()) {
+            long size = channel.size();
+            if (size < FILE_HEADER_SIZE) return new Restored(0, 0);
+
+            MemorySegment segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, size, arena);
+            if (segment.get(INT, 0) != magic || segment.get(INT, 4) != FORMAT_VERSION) {
+                log.warn("本地缓存持久化文件格式不匹配, 已忽略: {}", path);
+                return new Restored(0, 0);
+            }
+            long fileGeneration = segment.get(LONG, 8);
+
+            long now = System.currentTimeMillis();
+            long count = 0;
+            long position = FILE_HEADER_SIZE;
+            try {
+                while (position < size) {
+                    byte op = segment.get(ValueLayout.JAVA_BYTE, position++);
+                    if (op == OP_END) break;
+
+                    int keyLength = segment.get(INT, position);
+                    String key = new String(segment.asSlice(position + 4, keyLength).toArray(ValueLayout.JAVA_BYTE), StandardCharsets.UTF_8);
+                    position += 4 + keyLength;
+                    if (op == OP_DELETE) {
+                        consumer.accept(new Entry(key, TYPE_STRING, null, 0));
+                        count++;
+                        continue;
+                    }
+
+                    byte type = segment.get(ValueLayout.JAVA_BYTE, position);
+                    int valueLength = segment.get(INT, position + 1);
+                    byte[] value = segment.asSlice(position + 5, valueLength).toArray(ValueLayout.JAVA_BYTE);
+                    long expireAt = segment.get(LONG, position + 5 + valueLength);
+                    position += 5 + valueLength + 8;
+
+                    // 停机期间已过期的当作删除, 覆盖更早记录中的值
+                    boolean expired = expireAt > 0 && expireAt <= now;
+                    consumer.accept(new Entry(key, type, expired ? null : value, expireAt));
+                    count++;
+                }
+            } catch (IndexOutOfBoundsException e) {
+                log.warn("本地缓存持久化文件末尾记录不完整(可能是进程异常退出), 已忽略: {}", path);
+            }
+            return new Restored(fileGeneration, count);
+        }
+    }
+
+    /**
+     * 对目录加排他锁, 已被其他实例占用时启动失败
+     */
+    private void lockDirectory() throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // 同一进程内的其他实例已持有锁
+            lock = null;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("本地缓存持久化目录已被其他缓存实例占用: " + directory);
+        }
+        lockChannel = channel;
+    }
+
+    private void releaseLock() {
+        if (lockChannel == null) return;
+        try {
+            lockChannel.close();
+        } catch (IOException e) {
+            log.warn("本地缓存持久化目录锁释放失败: {}", e.getMessage());
+        }
+        lockChannel = null;
+    }
+
+    private void openLog(long logGeneration) throws IOException {
+        closeLog();
+        Path path = logPath(logGeneration);
+        boolean exists = Files.exists(path) && Files.size(path) >= FILE_HEADER_SIZE;
+        logOutput = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        if (!exists) {
+            logOutput.writeInt(LOG_MAGIC);
+            logOutput.writeInt(FORMAT_VERSION);
+            logOutput.writeLong(logGeneration);
+            logOutput.flush();
+        }
+        generation = logGeneration;
+    }
+
+    private void closeLog() {
+        if (logOutput == null) return;
+        try {
+            logOutput.close();
+        } catch (IOException e) {
+            log.warn("本地缓存日志关闭失败: {}", e.getMessage());
+        }
+        logOutput = null;
+    }
+
+    private List<Long> logGenerations() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(LOG_PREFIX) && name.endsWith(LOG_SUFFIX))
+                    .map(name -> name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length()))
+                    .filter(number -> !number.isEmpty() && number.chars().allMatch(Character::isDigit))
+                    .map(Long::parseLong)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path logPath(long logGeneration) {
+        return directory.resolve(LOG_PREFIX + logGeneration + LOG_SUFFIX);
+    }
+
+    private static void writeSet(DataOutputStream output, Entry entry) throws IOException {
+        byte[] key = entry.key().getBytes(StandardCharsets.UTF_8);
+        output.writeByte(OP_SET);
+        output.writeInt(key.length);
+        output.write(key);
+        output.writeByte(entry.type());
+        output.writeInt(entry.value().length);
+        output.write(entry.value());
+        output.writeLong(entry.expireAt());
+    }
+
+    private static void writeDelete(DataOutputStream output, String key) throws IOException {
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        output.writeByte(OP_DELETE);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static void runSafely(IoTask task) {
+        try {
+            task.run();
+        } catch (Exception e) {
+            log.warn("本地缓存持久化失败: {}", e.getMessage(), e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface IoTask {
+        void run() throws IOException;
+    }
+
+    /**
+     * 缓存数据来源
+     */
+    interface Source {
+        /**
+         * @return key的当前值, 不存在或已过期时为null
+         */
+        Entry read(String key);
+
+        /**
+         * @return 全部数据(弱一致)
+         */
+        Iterator<Entry> entries();
+    }
+
+    /**
+     * 持久化记录
+     *
+     * @param key      缓存键
+     * @param type     值类型, 见 TYPE_ 常量
+     * @param value    值的字节, 删除时为null
+     * @param expireAt 过期时间戳(ms), 0表示不过期
+     */
+    record Entry(String key, byte type, byte[] value, long expireAt) {
+    }
+
+    private record Restored(long generation, long count) {
+    }
+
+    /**
+     * 按窗口映射文件写入快照, 写满一个窗口后映射下一个, 结束时截断到实际大小
+     */
+    private static final class SnapshotWriter implements Closeable {
+        private final FileChannel channel;
+        private Arena arena;
+        private MemorySegment window;
+        private long windowStart;
+        private long position;
+
+        SnapshotWriter(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        void writeHeader(long generation) throws IOException {
+            ensure(FILE_HEADER_SIZE);
+            window.set(INT, position, SNAPSHOT_MAGIC);
+            window.set(INT, position + 4, FORMAT_VERSION);
+            window.set(LONG, position + 8, generation);
+            position += FILE_HEADER_SIZE;
+        }
+
+        void write(Entry entry) throws IOException {
+            byte[] key = entry.key().getBytes(StandardCharsets.UTF_8);
+            byte[] value = entry.value();
+            ensure(1 + 4 + key.length + 1 + 4 + value.length + 8);
+
+            window.set(ValueLayout.JAVA_BYTE, position, OP_SET);
+            window.set(INT, position + 1, key.length);
+            MemorySegment.copy(key, 0, window, ValueLayout.JAVA_BYTE, position + 5, key.length);
+            position += 5 + key.length;
+            window.set(ValueLayout.JAVA_BYTE, position, entry.type());
+            window.set(INT, position + 1, value.length);
+            MemorySegment.copy(value, 0, window, ValueLayout.JAVA_BYTE, position + 5, value.length);
+            position += 5 + value.length;
+            window.set(LONG, position, entry.expireAt());
+            position += 8;
+        }
+
+        void writeEnd() throws IOException {
+            ensure(1);
+            window.set(ValueLayout.JAVA_BYTE, position++, OP_END);
+        }
+
+        private void ensure(long bytes) throws IOException {
+            if (window != null && position + bytes <= window.byteSize()) return;
+
+            long start = windowStart + position;
+            unmap();
+            arena = Arena.ofConfined();
+            window = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.max(SNAPSHOT_WINDOW, bytes), arena);
+            windowStart = start;
+            position = 0;
+        }
+
+        private void unmap() {
+            if (window == null) return;
+            window.force();
+            arena.close();
+            window = null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            long size = windowStart + position;
+            try {
+                unmap();
+                channel.truncate(size);
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache.impl;
+
+import java.time.Duration;
+
+/**
+ * 本地锁工厂, 只在当前进程内互斥, 用于无redis的本地缓存
+ * <p>
+ * 重入与公平等待由 {@link AbstractDistributedLockFactory} 的本地锁提供, 租约时间被忽略, 解锁前一直持有
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class LocalDistributedLockFactory extends AbstractDistributedLockFactory {
+
+    @Override
+    protected boolean acquire(Entry entry, long deadline, Duration leaseTime) {
+        return true;
+    }
+
+    @Override
+    protected void release(Entry entry) {
+    }
+}
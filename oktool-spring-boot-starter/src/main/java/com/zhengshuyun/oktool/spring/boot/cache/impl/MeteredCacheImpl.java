@@ -0,0 +1,287 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zhengshuyun.oktool.spring.boot.cache.impl;
+
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.spring.boot.cache.Cache;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheProperties;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheStats;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheValue;
+import io.micrometer.core.instrument.*;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 带监控指标的缓存, 装饰任意 {@link Cache} 实现
+ * <li>oktool.cache.requests: 读取次数, 标签 prefix(key第一段) + result(hit/miss)</li>
+ * <li>oktool.cache.operations: 各操作耗时分布, 标签 op</li>
+ * <li>oktool.cache.evictions / oktool.cache.expirations: 淘汰与过期回收条数, 仅 {@link CacheStats} 实现</li>
+ * <li>oktool.cache.size / oktool.cache.weight: 条目数与估算字节数, 仅 {@link CacheStats} 实现</li>
+ *
+ * <p>所有指标带 cache 标签, 值为被装饰实现的类名</p>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class MeteredCacheImpl implements Cache {
+
+    /**
+     * 无前缀的key和超出前缀数量上限后的统计标签
+     */
+    private static final String NO_PREFIX = "none";
+    private static final String OTHER_PREFIX = "other";
+
+    private final Cache delegate;
+    private final MeterRegistry meterRegistry;
+    private final Tags tags;
+    private final int maxPrefixes;
+
+    /**
+     * key前缀 -> [命中, 未命中]
+     */
+    private final Map<String, Counter[]> requestCounters = new ConcurrentHashMap<>();
+
+    /**
+     * 操作名 -> 耗时
+     */
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public MeteredCacheImpl(Cache delegate, MeterRegistry meterRegistry, CacheProperties.Metrics metrics) {
+        Assert.notNullParam(delegate, "delegate");
+        Assert.notNullParam(meterRegistry, "meterRegistry");
+        Assert.notNullParam(metrics, "metrics");
+        Assert.isTrue(metrics.getMaxPrefixes() > 0, "maxPrefixes必须大于0");
+
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.tags = Tags.of("cache", delegate.getClass().getSimpleName());
+        this.maxPrefixes = metrics.getMaxPrefixes();
+
+        if (delegate instanceof CacheStats stats) {
+            bindStats(stats);
+        }
+    }
+
+    /**
+     * @return 被装饰的缓存
+     */
+    public Cache getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void put(String key, String value, long timeout) {
+        run("put", () -> delegate.put(key, value, timeout));
+    }
+
+    @Override
+    public void putBytes(String key, byte[] value, long timeout) {
+        run("putBytes", () -> delegate.putBytes(key, value, timeout));
+    }
+
+    @Override
+    public void multiPut(Map<String, String> values, long timeout) {
+        run("multiPut", () -> delegate.multiPut(values, timeout));
+    }
+
+    @Override
+    public boolean putIfAbsent(String key, String value, long timeout) {
+        return call("putIfAbsent", () -> delegate.putIfAbsent(key, value, timeout));
+    }
+
+    @Override
+    public String get(String key) {
+        String value = call("get", () -> delegate.get(key));
+        recordRequest(key, value != null);
+        return value;
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        byte[] value = call("getBytes", () -> delegate.getBytes(key));
+        recordRequest(key, value != null);
+        return value;
+    }
+
+    @Override
+    public List<String> multiGet(Collection<String> keys) {
+        List<String> values = call("multiGet", () -> delegate.multiGet(keys));
+        if (values != null) {
+            int i = 0;
+            for (String key : keys) {
+                if (i >= values.size()) break;
+                recordRequest(key, values.get(i++) != null);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 执行了加载函数记为未命中, 其余(包括等待其他线程加载的结果)记为命中
+     */
+    @Override
+    public String getOrLoad(String key, Supplier<CacheValue> loader) {
+        Assert.notNullParam(loader, "loader");
+        boolean[] loaded = new boolean[1];
+        String value = call("getOrLoad", () -> delegate.getOrLoad(key, () -> {
+            loaded[0] = true;
+            return loader.get();
+        }));
+        recordRequest(key, !loaded[0]);
+        return value;
+    }
+
+    @Override
+    public void registerLoader(String key, Supplier<CacheValue> loader) {
+        delegate.registerLoader(key, loader);
+    }
+
+    @Override
+    public void unregisterLoader(String key) {
+        delegate.unregisterLoader(key);
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        return call("containsKey", () -> delegate.containsKey(key));
+    }
+
+    @Override
+    public void delete(String key) {
+        run("delete", () -> delegate.delete(key));
+    }
+
+    @Override
+    public void multiDelete(Collection<String> keys) {
+        run("multiDelete", () -> delegate.multiDelete(keys));
+    }
+
+    @Override
+    public long add(String key, long delta) {
+        return call("add", () -> delegate.add(key, delta));
+    }
+
+    @Override
+    public double add(String key, double delta) {
+        return call("add", () -> delegate.add(key, delta));
+    }
+
+    @Override
+    public Map<String, Long> multiAdd(Map<String, Long> deltas) {
+        return call("multiAdd", () -> delegate.multiAdd(deltas));
+    }
+
+    @Override
+    public void expire(String key, long timeout) {
+        run("expire", () -> delegate.expire(key, timeout));
+    }
+
+    @Override
+    public void multiExpire(Collection<String> keys, long timeout) {
+        run("multiExpire", () -> delegate.multiExpire(keys, timeout));
+    }
+
+    @Override
+    public void expireAt(String key, LocalDateTime timeout) {
+        run("expireAt", () -> delegate.expireAt(key, timeout));
+    }
+
+    private void bindStats(CacheStats stats) {
+        FunctionCounter.builder("oktool.cache.evictions", stats, CacheStats::evictionCount)
+                .description("容量超限被淘汰的条数")
+                .tags(tags)
+                .register(meterRegistry);
+        FunctionCounter.builder("oktool.cache.expirations", stats, CacheStats::expirationCount)
+                .description("过期被回收的条数")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("oktool.cache.size", stats, CacheStats::estimatedSize)
+                .description("当前条目数")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("oktool.cache.weight", stats, CacheStats::weightedSize)
+                .description("当前占用内存的估算字节数")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    private void recordRequest(String key, boolean hit) {
+        Counter[] counters = requestCounters.get(prefix(key));
+        if (counters == null) {
+            String prefix = requestCounters.size() < maxPrefixes ? prefix(key) : OTHER_PREFIX;
+            counters = requestCounters.computeIfAbsent(prefix, this::createRequestCounters);
+        }
+        counters[hit ? 0 : 1].increment();
+    }
+
+    private Counter[] createRequestCounters(String prefix) {
+        return new Counter[]{requestCounter(prefix, "hit"), requestCounter(prefix, "miss")};
+    }
+
+    private Counter requestCounter(String prefix, String result) {
+        return Counter.builder("oktool.cache.requests")
+                .description("缓存读取次数")
+                .tags(tags)
+                .tag("prefix", prefix)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * key前缀, 即 {@link com.zhengshuyun.oktool.core.util.KeyBuilder} 构建的第一段
+     */
+    private static String prefix(String key) {
+        if (key == null) return NO_PREFIX;
+        int index = key.indexOf(':');
+        return index > 0 ? key.substring(0, index) : NO_PREFIX;
+    }
+
+    private <R> R call(String op, Supplier<R> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            timer(op).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void run(String op, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            timer(op).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(String op) {
+        Timer timer = timers.get(op);
+        if (timer != null) return timer;
+        return timers.computeIfAbsent(op, name -> Timer.builder("oktool.cache.operations")
+                .description("缓存操作耗时")
+                .tags(tags)
+                .tag("op", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,447 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache.impl;
+
+import cn.hutool.v7.core.cache.impl.LRUCache;
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 近端缓存
+ *
+ * <p>本地一级缓存(有界LRU) + redis二级缓存</p>
+ * <li>读: 优先读本地, 未命中时读redis并回填本地, 本地存活时间不超过redis剩余时间</li>
+ * <li>写: 先写redis, 再删除本地缓存并通过redis发布订阅通知所有节点删除本地缓存, 不直接写入本地, 由下次读取回填</li>
+ * <li>计数和过期时间变更: 本节点立即删除本地缓存, 其他节点的失效通知在 {@link CacheProperties.Near#getCoalesceDelay()} 内合并发送</li>
+ * <li>本地缓存最长存活 {@link CacheProperties.Near#getTimeout()}, 兜底失效通知丢失的情况</li>
+ * <li>失效通知按换行分隔key, 写入的key不能包含换行</li>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class NearCacheImpl extends RedisCacheImpl {
+
+    private static final Logger log = LoggerFactory.getLogger(NearCacheImpl.class);
+
+    /**
+     * 失效通知中节点ID与key的分隔符, key中不允许出现换行
+     */
+    private static final String MESSAGE_SEPARATOR = "\n";
+
+    /**
+     * 批量操作时单条失效通知最多携带的key数量
+     */
+    private static final int MESSAGE_BATCH_SIZE = 1000;
+
+    /**
+     * 当前节点ID, 用于忽略自己发出的失效通知
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * 本地一级缓存
+     */
+    private final LRUCache<String, String> localCache;
+
+    /**
+     * 正在从redis回填的key与回填令牌
+     * <p>
+     * 失效时移除对应令牌, 回填前令牌已不是自己的则放弃回填, 避免回填过程中错过失效通知导致脏读;
+     * 令牌检查与写入本地在同一个桶锁内完成, 与失效互斥, 只影响同一个key
+     */
+    private final ConcurrentHashMap<String, Object> loadingTokens = new ConcurrentHashMap<>();
+
+    /**
+     * 等待合并发送失效通知的key
+     */
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService flushScheduler;
+
+    private final long localTimeout;
+    private final String channel;
+    private final long coalesceDelay;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    public NearCacheImpl(CacheProperties.Near near) {
+        this(near, new CacheProperties.Load());
+    }
+
+    public NearCacheImpl(CacheProperties.Near near, CacheProperties.Load load) {
+        super(load);
+        Assert.notNullParam(near, "near");
+        Assert.isTrue(near.getMaxSize() > 0, "近端缓存maxSize必须大于0");
+        Assert.isTrue(near.getTimeout() != null && near.getTimeout().isPositive(), "近端缓存timeout必须大于0");
+        Assert.notBlankParam(near.getChannel(), "channel");
+        Assert.isTrue(near.getCoalesceDelay() != null && !near.getCoalesceDelay().isNegative(), "近端缓存coalesceDelay不能小于0");
+
+        this.localCache = new LRUCache<>(near.getMaxSize(), near.getTimeout().toMillis());
+        this.localTimeout = near.getTimeout().toMillis();
+        this.channel = near.getChannel();
+        this.coalesceDelay = near.getCoalesceDelay().toMillis();
+        this.flushScheduler = coalesceDelay > 0
+                ? Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("oktool-near-cache-invalidate").daemon().factory())
+                : null;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        RedisConnectionFactory connectionFactory = stringRedisTemplate.getConnectionFactory();
+        Assert.notNull(connectionFactory, "RedisConnectionFactory不能为空");
+
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener(
+                (message, pattern) -> onInvalidate(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(channel));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+        log.info("近端缓存失效通知订阅成功, channel: {}, nodeId: {}", channel, nodeId);
+    }
+
+    @PreDestroy
+    public void unsubscribe() throws Exception {
+        if (flushScheduler != null) {
+            flushScheduler.shutdownNow();
+            flushPending();
+        }
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    /**
+     * 不写入本地一级缓存: 同一节点并发写同一个key时, 写入本地的顺序可能与写入redis的顺序不同,
+     * 旧值留在本地且不会再收到失效通知; 下次读取经过回填令牌检查后从redis回填
+     */
+    @Override
+    public void put(String key, String value, long timeout) {
+        checkMessageKey(key);
+        super.put(key, value, timeout);
+        invalidate(key);
+    }
+
+    /**
+     * 二进制缓存不进入本地一级缓存, 仅通知其他节点删除同名key
+     */
+    @Override
+    public void putBytes(String key, byte[] value, long timeout) {
+        checkMessageKey(key);
+        super.putBytes(key, value, timeout);
+        invalidate(key);
+    }
+
+    @Override
+    public void multiPut(Map<String, String> values, long timeout) {
+        Assert.notNullParam(values, "values");
+        checkMessageKeys(values.keySet());
+        super.multiPut(values, timeout);
+        invalidate(values.keySet());
+    }
+
+    @Override
+    public boolean putIfAbsent(String key, String value, long timeout) {
+        checkMessageKey(key);
+        boolean success = super.putIfAbsent(key, value, timeout);
+        if (success) invalidate(key);
+        return success;
+    }
+
+    @Override
+    public String get(String key) {
+        Assert.notBlank(key, "key不能为空");
+
+        String value = localCache.get(key, false);
+        if (value != null) return value;
+
+        CacheLoadSupport.Entry entry = loadFromRedis(key);
+        return entry == null ? null : entry.value();
+    }
+
+    @Override
+    public List<String> multiGet(Collection<String> keys) {
+        Assert.notEmpty(keys, "keys不能为空");
+
+        List<String> values = new ArrayList<>(keys.size());
+        List<String> missKeys = new ArrayList<>();
+        for (String key : keys) {
+            String value = localCache.get(key, false);
+            values.add(value);
+            if (value == null) missKeys.add(key);
+        }
+        if (missKeys.isEmpty()) return values;
+
+        // 未命中的key一次性从redis读取, 不回填本地(缺少剩余过期时间)
+        List<String> missValues = super.multiGet(missKeys);
+        Iterator<String> iterator = missValues == null ? Collections.emptyIterator() : missValues.iterator();
+        for (int i = 0; i < values.size() && iterator.hasNext(); i++) {
+            if (values.get(i) == null) {
+                values.set(i, iterator.next());
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        Assert.notBlank(key, "key不能为空");
+        return localCache.containsKey(key) || super.containsKey(key);
+    }
+
+    @Override
+    public void delete(String key) {
+        checkMessageKey(key);
+        super.delete(key);
+        invalidate(key);
+    }
+
+    @Override
+    public void multiDelete(Collection<String> keys) {
+        checkMessageKeys(keys);
+        super.multiDelete(keys);
+        invalidate(keys);
+    }
+
+    @Override
+    public long add(String key, long delta) {
+        checkMessageKey(key);
+        long value = super.add(key, delta);
+        invalidateLater(List.of(key));
+        return value;
+    }
+
+    @Override
+    public double add(String key, double delta) {
+        checkMessageKey(key);
+        double value = super.add(key, delta);
+        invalidateLater(List.of(key));
+        return value;
+    }
+
+    @Override
+    public Map<String, Long> multiAdd(Map<String, Long> deltas) {
+        Assert.notNullParam(deltas, "deltas");
+        checkMessageKeys(deltas.keySet());
+        Map<String, Long> values = super.multiAdd(deltas);
+        invalidateLater(deltas.keySet());
+        return values;
+    }
+
+    @Override
+    public void expire(String key, long timeout) {
+        checkMessageKey(key);
+        super.expire(key, timeout);
+        invalidateLater(List.of(key));
+    }
+
+    @Override
+    public void multiExpire(Collection<String> keys, long timeout) {
+        checkMessageKeys(keys);
+        super.multiExpire(keys, timeout);
+        invalidateLater(keys);
+    }
+
+    @Override
+    public void expireAt(String key, LocalDateTime timeout) {
+        checkMessageKey(key);
+        super.expireAt(key, timeout);
+        invalidateLater(List.of(key));
+    }
+
+    /**
+     * 本地命中时不读redis, 本地存活时间有上限, 不参与提前刷新
+     */
+    @Override
+    CacheLoadSupport.Entry getEntry(String key) {
+        String value = localCache.get(key, false);
+        if (value != null) return new CacheLoadSupport.Entry(value, -1);
+        return loadFromRedis(key);
+    }
+
+    /**
+     * 从redis读取值和剩余过期时间(同一次往返), 并回填本地缓存
+     */
+    private CacheLoadSupport.Entry loadFromRedis(String key) {
+        Object token = new Object();
+        loadingTokens.put(key, token);
+
+        CacheLoadSupport.Entry entry = null;
+        try {
+            entry = super.getEntry(key);
+        } finally {
+            CacheLoadSupport.Entry loaded = entry;
+            loadingTokens.computeIfPresent(key, (k, current) -> {
+                // 令牌被失效移除或被其他回填替换, 放弃回填
+                if (current != token) return current;
+                // 含换行的key(由其他客户端写入)收不到失效通知, 不回填
+                if (loaded != null && loaded.ttl() != 0 && !k.contains(MESSAGE_SEPARATOR)) {
+                    localCache.put(k, loaded.value(), localTimeout(loaded.ttl() < 0 ? 0 : loaded.ttl()));
+                }
+                return null;
+            });
+        }
+        return entry;
+    }
+
+    /**
+     * 删除本地缓存并通知其他节点
+     */
+    private void invalidate(String key) {
+        invalidate(List.of(key));
+    }
+
+    /**
+     * 批量删除本地缓存并通知其他节点
+     */
+    private void invalidate(Collection<String> keys) {
+        for (String key : keys) {
+            removeLocal(key);
+        }
+        publish(keys);
+    }
+
+    /**
+     * 立即删除本地缓存, 合并后再通知其他节点
+     * <p>
+     * 计数和过期时间变更频繁, 逐次通知会让每次变更都多一次PUBLISH
+     */
+    private void invalidateLater(Collection<String> keys) {
+        if (flushScheduler == null) {
+            invalidate(keys);
+            return;
+        }
+
+        for (String key : keys) {
+            removeLocal(key);
+            pendingKeys.add(key);
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                flushScheduler.schedule(this::flushPending, coalesceDelay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // 已关闭, 直接发送
+                flushPending();
+            }
+        }
+    }
+
+    /**
+     * 发送合并的失效通知
+     */
+    private void flushPending() {
+        flushScheduled.set(false);
+        if (pendingKeys.isEmpty()) return;
+
+        List<String> keys = new ArrayList<>(pendingKeys.size());
+        for (Iterator<String> iterator = pendingKeys.iterator(); iterator.hasNext(); ) {
+            keys.add(iterator.next());
+            iterator.remove();
+        }
+        try {
+            publish(keys);
+        } catch (Exception e) {
+            log.warn("近端缓存失效通知发送失败, keys: {}", keys.size(), e);
+        }
+    }
+
+    /**
+     * 删除本地缓存, 同时作废该key正在进行的回填
+     */
+    private void removeLocal(String key) {
+        loadingTokens.compute(key, (k, token) -> {
+            localCache.remove(k);
+            return null;
+        });
+    }
+
+    /**
+     * 通知其他节点删除本地缓存, 按 {@link #MESSAGE_BATCH_SIZE} 分批发送
+     */
+    private void publish(Collection<String> keys) {
+        if (keys.isEmpty()) return;
+
+        StringBuilder message = new StringBuilder(nodeId);
+        int count = 0;
+        for (String key : keys) {
+            message.append(MESSAGE_SEPARATOR).append(key);
+            if (++count == MESSAGE_BATCH_SIZE) {
+                stringRedisTemplate.convertAndSend(channel, message.toString());
+                message = new StringBuilder(nodeId);
+                count = 0;
+            }
+        }
+        if (count > 0) {
+            stringRedisTemplate.convertAndSend(channel, message.toString());
+        }
+    }
+
+    /**
+     * 处理失效通知
+     *
+     * @param message 格式: 节点ID\nkey1\nkey2...
+     */
+    private void onInvalidate(String message) {
+        String[] parts = message.split(MESSAGE_SEPARATOR);
+        if (parts.length < 2 || nodeId.equals(parts[0])) return;
+
+        for (int i = 1; i < parts.length; i++) {
+            removeLocal(parts[i]);
+        }
+    }
+
+    /**
+     * 校验key不包含失效通知的分隔符
+     */
+    private static void checkMessageKey(String key) {
+        Assert.notBlank(key, "key不能为空");
+        Assert.isFalse(key.contains(MESSAGE_SEPARATOR), "近端缓存key不能包含换行: {}", key);
+    }
+
+    private static void checkMessageKeys(Collection<String> keys) {
+        Assert.notEmpty(keys, "keys不能为空");
+        for (String key : keys) {
+            checkMessageKey(key);
+        }
+    }
+
+    /**
+     * 本地缓存时间, 不超过 {@link CacheProperties.Near#getTimeout()}
+     *
+     * @param timeout redis缓存时间(ms), 小于等于0表示不过期
+     */
+    private long localTimeout(long timeout) {
+        return timeout > 0 ? Math.min(timeout, localTimeout) : localTimeout;
+    }
+}
@@ -0,0 +1,935 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zhengshuyun.oktool.spring.boot.cache.impl;
+
+import cn.hutool.v7.core.date.TimeUtil;
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.spring.boot.cache.Cache;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheProperties;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheStats;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheValue;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 堆外本地缓存
+ *
+ * <p>key与value存放在 {@link MemorySegment} 中, 堆上只保留分段索引与页表, 缓存数据量增长不增加GC压力</p>
+ * <li>分段: 按key哈希分为若干段, 每段一把锁, 段内索引与内存互不共享</li>
+ * <li>索引: 堆外开放寻址(线性探测)哈希表, 删除时后移补位, 无墓碑</li>
+ * <li>内存: slab分配, 按大小分级(每级约1.25倍), 每级从固定大小的页中切分, 释放后进入该级空闲链表复用</li>
+ * <li>淘汰: 内存达到上限后, 在同级数据中按CLOCK(访问位)淘汰</li>
+ * <li>过期: 访问时惰性删除, 后台每秒分批扫描索引回收</li>
+ *
+ * <p>页一经分配归属某一级, 不会在级之间迁移; 单个缓存项(含key)不能超过页大小</p>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class OffHeapCacheImpl implements Cache, CacheStats {
+
+    private static final Logger log = LoggerFactory.getLogger(OffHeapCacheImpl.class);
+
+    /*
+     * 缓存项布局:
+     * [0, 8)   过期时间戳(ms), 0表示不过期; 空闲时为空闲链表的下一项
+     * [8, 12)  key字节数
+     * [12, 16) value字节数
+     * [16]     value类型
+     * [17]     访问位(CLOCK)
+     * [18]     slab级别
+     * [24, ..) key字节 + value字节
+     */
+    private static final long EXPIRE_AT = 0;
+    private static final long KEY_LENGTH = 8;
+    private static final long VALUE_LENGTH = 12;
+    private static final long TYPE = 16;
+    private static final long ACCESSED = 17;
+    private static final long SLAB_CLASS = 18;
+    private static final int HEADER_SIZE = 24;
+
+    private static final byte TYPE_STRING = 0;
+    private static final byte TYPE_BYTES = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_DOUBLE = 3;
+
+    /**
+     * 索引槽位: [0, 4) 哈希, [8, 16) 缓存项位置(页号+1 &lt;&lt; 32 | 页内偏移), 0表示空槽
+     */
+    private static final int SLOT_SIZE = 16;
+    private static final long SLOT_HASH = 0;
+    private static final long SLOT_LOCATION = 8;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    /**
+     * 后台过期扫描时每次持锁扫描的槽位数
+     */
+    private static final int SWEEP_BATCH = 1024;
+
+    /**
+     * 数据页所在的内存区域, 关闭缓存时统一释放
+     */
+    private final Arena arena = Arena.ofShared();
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final int pageSize;
+    private final int[] chunkSizes;
+
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expirationCount = new LongAdder();
+
+    private final CacheLoadSupport loadSupport;
+
+    /**
+     * 过期回收任务
+     */
+    private final ScheduledExecutorService expireExecutor;
+
+    /**
+     * 使用默认配置: 最多占用 256MB 堆外内存
+     */
+    public OffHeapCacheImpl() {
+        this(new CacheProperties.OffHeap());
+    }
+
+    public OffHeapCacheImpl(CacheProperties.OffHeap offHeap) {
+        this(offHeap, new CacheProperties.Load());
+    }
+
+    public OffHeapCacheImpl(CacheProperties.OffHeap offHeap, CacheProperties.Load load) {
+        Assert.notNullParam(offHeap, "offHeap");
+        Assert.notNullParam(offHeap.getMaxMemory(), "maxMemory");
+        Assert.notNullParam(offHeap.getPageSize(), "pageSize");
+        int segmentCount = offHeap.getSegments();
+        Assert.isTrue(segmentCount > 0 && Integer.bitCount(segmentCount) == 1, "堆外缓存segments必须是2的幂, 当前: {}", segmentCount);
+        long pageBytes = offHeap.getPageSize().toBytes();
+        Assert.isTrue(pageBytes >= MIN_CHUNK_SIZE && pageBytes <= Integer.MAX_VALUE && pageBytes % 8 == 0,
+                "堆外缓存pageSize必须是8的倍数, 且在{}字节到2GB之间", MIN_CHUNK_SIZE);
+        long segmentBytes = offHeap.getMaxMemory().toBytes() / segmentCount;
+        Assert.isTrue(segmentBytes >= pageBytes, "堆外缓存maxMemory不能小于 segments * pageSize");
+
+        this.pageSize = (int) pageBytes;
+        this.chunkSizes = chunkSizes(pageSize);
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentBytes / pageSize * pageSize);
+        }
+        this.loadSupport = new CacheLoadSupport(this, this::getEntry, null, load);
+        this.expireExecutor = initExpireExecutor();
+    }
+
+    @Override
+    public void put(String key, String value, long timeout) {
+        Assert.notBlank(key, "key不能为空");
+        Assert.notNull(value, "value不能为空");
+        write(key, TYPE_STRING, value.getBytes(StandardCharsets.UTF_8), expireAt(timeout));
+    }
+
+    @Override
+    public void putBytes(String key, byte[] value, long timeout) {
+        Assert.notBlank(key, "key不能为空");
+        Assert.notNull(value, "value不能为空");
+        write(key, TYPE_BYTES, value, expireAt(timeout));
+    }
+
+    @Override
+    public void multiPut(Map<String, String> values, long timeout) {
+        Assert.notEmpty(values, "values不能为空");
+        values.forEach((key, value) -> {
+            Assert.notBlank(key, "key不能为空");
+            Assert.notNull(value, "value不能为空");
+        });
+
+        long expireAt = expireAt(timeout);
+        values.forEach((key, value) -> {
+            write(key, TYPE_STRING, value.getBytes(StandardCharsets.UTF_8), expireAt);
+        });
+    }
+
+    @Override
+    public boolean putIfAbsent(String key, String value, long timeout) {
+        Assert.notBlank(key, "key不能为空");
+        Assert.notNull(value, "value不能为空");
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            if (segment.findLive(hash, keyBytes) >= 0) return false;
+            return segment.write(hash, keyBytes, TYPE_STRING, valueBytes, expireAt(timeout));
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public String get(String key) {
+        Assert.notBlank(key, "key不能为空");
+        return read(key, (segment, location) -> segment.stringValue(location));
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        Assert.notBlank(key, "key不能为空");
+        return read(key, (segment, location) -> segment.bytesValue(location));
+    }
+
+    @Override
+    public String getOrLoad(String key, Supplier<CacheValue> loader) {
+        return loadSupport.getOrLoad(key, loader);
+    }
+
+    @Override
+    public void registerLoader(String key, Supplier<CacheValue> loader) {
+        loadSupport.registerLoader(key, loader);
+    }
+
+    @Override
+    public void unregisterLoader(String key) {
+        loadSupport.unregisterLoader(key);
+    }
+
+    @Override
+    public List<String> multiGet(Collection<String> keys) {
+        Assert.notEmpty(keys, "keys不能为空");
+
+        List<String> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            values.add(get(key));
+        }
+        return values;
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        Assert.notBlank(key, "key不能为空");
+        return read(key, (segment, location) -> Boolean.TRUE) != null;
+    }
+
+    @Override
+    public void delete(String key) {
+        Assert.notBlank(key, "key不能为空");
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            int slot = segment.find(hash, keyBytes);
+            if (slot >= 0) segment.removeSlot(slot);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public void multiDelete(Collection<String> keys) {
+        Assert.notEmpty(keys, "keys不能为空");
+        keys.forEach(key -> Assert.notBlank(key, "key不能为空"));
+        keys.forEach(this::delete);
+    }
+
+    /**
+     * 整数自增, 已存在的字符串按整数解析, 保留原有过期时间(与redis INCRBY一致)
+     */
+    @Override
+    public long add(String key, long delta) {
+        Assert.notBlank(key, "key不能为空");
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            int slot = segment.findLive(hash, keyBytes);
+            if (slot < 0) {
+                writeCounter(segment, hash, key, keyBytes, TYPE_LONG, longBytes(delta), 0);
+                return delta;
+            }
+
+            long location = segment.location(slot);
+            if (segment.type(location) == TYPE_LONG) {
+                return segment.addLong(location, delta);
+            }
+            long value = Long.parseLong(segment.stringValue(location)) + delta;
+            writeCounter(segment, hash, key, keyBytes, TYPE_LONG, longBytes(value), segment.expireAt(location));
+            return value;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 浮点自增, 已存在的整数或字符串按浮点数解析, 保留原有过期时间(与redis INCRBYFLOAT一致)
+     */
+    @Override
+    public double add(String key, double delta) {
+        Assert.notBlank(key, "key不能为空");
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            int slot = segment.findLive(hash, keyBytes);
+            if (slot < 0) {
+                writeCounter(segment, hash, key, keyBytes, TYPE_DOUBLE, longBytes(Double.doubleToRawLongBits(delta)), 0);
+                return delta;
+            }
+
+            long location = segment.location(slot);
+            if (segment.type(location) == TYPE_DOUBLE) {
+                return segment.addDouble(location, delta);
+            }
+            double value = Double.parseDouble(segment.stringValue(location)) + delta;
+            writeCounter(segment, hash, key, keyBytes, TYPE_DOUBLE, longBytes(Double.doubleToRawLongBits(value)), segment.expireAt(location));
+            return value;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Long> multiAdd(Map<String, Long> deltas) {
+        Assert.notEmpty(deltas, "deltas不能为空");
+        deltas.forEach((key, delta) -> {
+            Assert.notBlank(key, "key不能为空");
+            Assert.notNull(delta, "自增值不能为空");
+        });
+
+        Map<String, Long> values = new LinkedHashMap<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            values.put(key, add(key, delta.longValue()));
+        });
+        return values;
+    }
+
+    @Override
+    public void expire(String key, long timeout) {
+        Assert.notBlank(key, "key不能为空");
+
+        // 时间小于等于0就删除key
+        if (timeout <= 0) {
+            delete(key);
+            return;
+        }
+
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            int slot = segment.findLive(hash, keyBytes);
+            if (slot >= 0) {
+                segment.setExpireAt(segment.location(slot), System.currentTimeMillis() + timeout);
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public void multiExpire(Collection<String> keys, long timeout) {
+        Assert.notEmpty(keys, "keys不能为空");
+        keys.forEach(key -> Assert.notBlank(key, "key不能为空"));
+        keys.forEach(key -> expire(key, timeout));
+    }
+
+    @Override
+    public void expireAt(String key, LocalDateTime timeout) {
+        Assert.notBlank(key, "key不能为空");
+        Assert.notNull(timeout, "过期时间不能为空");
+
+        // 计算时间差(ms), 已经过期的就删除key
+        long between = TimeUtil.between(TimeUtil.now(), timeout, ChronoUnit.MILLIS);
+        expire(key, between);
+    }
+
+    @Override
+    public long estimatedSize() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.count;
+        }
+        return size;
+    }
+
+    /**
+     * @return 已分配给缓存项的堆外字节数(按slab级别大小计算)
+     */
+    @Override
+    public long weightedSize() {
+        long weight = 0;
+        for (Segment segment : segments) {
+            weight += segment.usedBytes;
+        }
+        return weight;
+    }
+
+    @Override
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    @Override
+    public long expirationCount() {
+        return expirationCount.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        expireExecutor.shutdownNow();
+        loadSupport.shutdown();
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.closed = true;
+                segment.indexArena.close();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        arena.close();
+    }
+
+    /**
+     * 读取缓存值与剩余时间, 供 {@link CacheLoadSupport} 使用
+     */
+    private CacheLoadSupport.Entry getEntry(String key) {
+        return read(key, (segment, location) -> {
+            long expireAt = segment.expireAt(location);
+            long ttl = expireAt > 0 ? expireAt - System.currentTimeMillis() : -1;
+            return new CacheLoadSupport.Entry(segment.stringValue(location), ttl);
+        });
+    }
+
+    private void write(String key, byte type, byte[] value, long expireAt) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            if (!segment.write(hash, keyBytes, type, value, expireAt)) {
+                // 写入被丢弃时删除旧值, 避免之后读到覆盖前的数据
+                int slot = segment.find(hash, keyBytes);
+                if (slot >= 0) segment.removeSlot(slot);
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * 写入自增结果, 需要在段锁内调用; 内存不足时保留原值并抛出异常, 不能让调用方误以为已自增
+     */
+    private static void writeCounter(Segment segment, int hash, String key, byte[] keyBytes, byte type, byte[] value, long expireAt) {
+        if (!segment.write(hash, keyBytes, type, value, expireAt)) {
+            throw new IllegalStateException("堆外缓存内存不足, 自增失败: " + key);
+        }
+    }
+
+    /**
+     * 在段锁内读取未过期的缓存项
+     *
+     * @return 不存在或已过期时为null
+     */
+    private <R> R read(String key, Reader<R> reader) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        Segment segment = segmentFor(hash);
+        segment.lock.lock();
+        try {
+            int slot = segment.findLive(hash, keyBytes);
+            if (slot < 0) return null;
+
+            long location = segment.location(slot);
+            segment.markAccessed(location);
+            return reader.read(segment, location);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments.length == 1 ? segments[0] : segments[hash >>> segmentShift];
+    }
+
+    /**
+     * 回收已过期的数据, 每段分批持锁, 不长时间阻塞读写
+     */
+    void expireEntries() {
+        long now = System.currentTimeMillis();
+        for (Segment segment : segments) {
+            int start = 0;
+            while (true) {
+                segment.lock.lock();
+                try {
+                    if (segment.closed || start >= segment.capacity) break;
+                    start = segment.sweep(start, SWEEP_BATCH, now);
+                } finally {
+                    segment.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private ScheduledExecutorService initExpireExecutor() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("oktool-off-heap-cache-expire").factory());
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                expireEntries();
+            } catch (Exception e) {
+                log.warn("堆外缓存过期回收失败: {}", e.getMessage(), e);
+            }
+        }, 1, 1, TimeUnit.SECONDS);
+        return executor;
+    }
+
+    /**
+     * key哈希, 高位选段, 低位定位槽位
+     */
+    static int hash(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @param timeout 缓存时间(ms), 小于等于0表示不过期
+     * @return 过期时间戳(ms), 0表示不过期
+     */
+    private static long expireAt(long timeout) {
+        return timeout > 0 ? System.currentTimeMillis() + timeout : 0;
+    }
+
+    private static byte[] longBytes(long value) {
+        byte[] bytes = new byte[Long.BYTES];
+        MemorySegment.ofArray(bytes).set(ValueLayout.JAVA_LONG_UNALIGNED, 0, value);
+        return bytes;
+    }
+
+    /**
+     * slab级别大小: 从 {@link #MIN_CHUNK_SIZE} 开始每级约1.25倍(8字节对齐), 最后一级为整页
+     */
+    private static int[] chunkSizes(int pageSize) {
+        List<Integer> sizes = new ArrayList<>();
+        long size = MIN_CHUNK_SIZE;
+        while (size < pageSize) {
+            sizes.add((int) size);
+            size = Math.max(size + 8, (size * 5 / 4 + 7) & ~7L);
+        }
+        sizes.add(pageSize);
+        return sizes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @FunctionalInterface
+    private interface Reader<R> {
+        R read(Segment segment, long location);
+    }
+
+    /**
+     * 缓存分段, 所有方法都需要在持有 {@link #lock} 时调用
+     */
+    private final class Segment {
+        final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * 本段可分配的数据页总字节数
+         */
+        final long maxBytes;
+
+        /**
+         * 数据页, 页号即下标
+         */
+        final List<MemorySegment> pages = new ArrayList<>();
+
+        /**
+         * 每个slab级别的空闲链表头, 0表示为空
+         */
+        final long[] freeLists = new long[chunkSizes.length];
+
+        Arena indexArena;
+        MemorySegment index;
+        int capacity;
+        int mask;
+        int clockHand;
+        boolean closed;
+
+        volatile int count;
+        volatile long usedBytes;
+
+        Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+            resizeIndex(INITIAL_CAPACITY);
+        }
+
+        /**
+         * 写入缓存项, 已存在的同名key会被替换
+         * <p>同级时原地覆盖, 否则先分配新位置再释放旧值, 分配失败时旧值保持不变</p>
+         *
+         * @return false=内存不足且无法淘汰同级数据, 本次写入被丢弃
+         */
+        boolean write(int hash, byte[] key, byte type, byte[] value, long expireAt) {
+            int size = HEADER_SIZE + key.length + value.length;
+            Assert.isTrue(size <= pageSize, "缓存项过大: {}字节, 超过堆外缓存页大小: {}字节", size, pageSize);
+
+            int slabClass = slabClass(size);
+            int slot = find(hash, key);
+            long location;
+            if (slot >= 0 && page(location(slot)).get(ValueLayout.JAVA_BYTE, offset(location(slot)) + SLAB_CLASS) == slabClass) {
+                location = location(slot);
+            } else {
+                location = allocate(slabClass);
+                if (location == 0) {
+                    log.warn("堆外缓存内存不足, 丢弃写入, 缓存项大小: {}字节", size);
+                    return false;
+                }
+                // 分配时的淘汰会移动槽位, 重新查找旧值
+                slot = find(hash, key);
+                if (slot >= 0) removeSlot(slot);
+                slot = -1;
+            }
+
+            MemorySegment page = page(location);
+            long offset = offset(location);
+            page.set(ValueLayout.JAVA_LONG, offset + EXPIRE_AT, expireAt);
+            page.set(ValueLayout.JAVA_INT, offset + KEY_LENGTH, key.length);
+            page.set(ValueLayout.JAVA_INT, offset + VALUE_LENGTH, value.length);
+            page.set(ValueLayout.JAVA_BYTE, offset + TYPE, type);
+            page.set(ValueLayout.JAVA_BYTE, offset + ACCESSED, (byte) 0);
+            page.set(ValueLayout.JAVA_BYTE, offset + SLAB_CLASS, (byte) slabClass);
+            MemorySegment.copy(key, 0, page, ValueLayout.JAVA_BYTE, offset + HEADER_SIZE, key.length);
+            MemorySegment.copy(value, 0, page, ValueLayout.JAVA_BYTE, offset + HEADER_SIZE + key.length, value.length);
+
+            if (slot < 0) insert(hash, location);
+            return true;
+        }
+
+        /**
+         * 查找未过期的缓存项, 已过期的顺便删除
+         *
+         * @return 槽位, 不存在时为-1
+         */
+        int findLive(int hash, byte[] key) {
+            int slot = find(hash, key);
+            if (slot < 0) return -1;
+            if (isExpired(location(slot), System.currentTimeMillis())) {
+                removeSlot(slot);
+                expirationCount.increment();
+                return -1;
+            }
+            return slot;
+        }
+
+        /**
+         * @return 槽位, 不存在时为-1
+         */
+        int find(int hash, byte[] key) {
+            int slot = hash & mask;
+            while (true) {
+                long location = location(slot);
+                if (location == 0) return -1;
+                if (slotHash(slot) == hash && keyEquals(location, key)) return slot;
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        /**
+         * 删除槽位并释放缓存项, 后续槽位向前补位, 保证线性探测不中断
+         */
+        void removeSlot(int slot) {
+            free(location(slot));
+            count--;
+
+            int hole = slot;
+            int next = (slot + 1) & mask;
+            clearSlot(hole);
+            while (true) {
+                long location = location(next);
+                if (location == 0) return;
+
+                // 理想位置不在 (hole, next] 区间内的项才能前移到空位
+                int ideal = slotHash(next) & mask;
+                boolean inRange = hole <= next ? (ideal > hole && ideal <= next) : (ideal > hole || ideal <= next);
+                if (!inRange) {
+                    setSlot(hole, slotHash(next), location);
+                    clearSlot(next);
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+        }
+
+        /**
+         * 扫描一批槽位, 删除已过期的缓存项
+         *
+         * @return 下一批的起始槽位
+         */
+        int sweep(int start, int batch, long now) {
+            int end = Math.min(capacity, start + batch);
+            int slot = start;
+            while (slot < end) {
+                long location = location(slot);
+                if (location != 0 && isExpired(location, now)) {
+                    // 删除后后续项可能前移到当前槽位, 需要重新检查
+                    removeSlot(slot);
+                    expirationCount.increment();
+                } else {
+                    slot++;
+                }
+            }
+            return end;
+        }
+
+        String stringValue(long location) {
+            MemorySegment page = page(location);
+            long offset = offset(location);
+            return switch (type(location)) {
+                case TYPE_LONG -> String.valueOf(page.get(ValueLayout.JAVA_LONG_UNALIGNED, valueOffset(location)));
+                case TYPE_DOUBLE -> String.valueOf(Double.longBitsToDouble(
+                        page.get(ValueLayout.JAVA_LONG_UNALIGNED, valueOffset(location))));
+                default -> new String(page.asSlice(valueOffset(location), page.get(ValueLayout.JAVA_INT, offset + VALUE_LENGTH))
+                        .toArray(ValueLayout.JAVA_BYTE), StandardCharsets.UTF_8);
+            };
+        }
+
+        byte[] bytesValue(long location) {
+            byte type = type(location);
+            if (type == TYPE_LONG || type == TYPE_DOUBLE) {
+                return stringValue(location).getBytes(StandardCharsets.UTF_8);
+            }
+            MemorySegment page = page(location);
+            int length = page.get(ValueLayout.JAVA_INT, offset(location) + VALUE_LENGTH);
+            byte[] bytes = new byte[length];
+            MemorySegment.copy(page, ValueLayout.JAVA_BYTE, valueOffset(location), bytes, 0, length);
+            return bytes;
+        }
+
+        long addLong(long location, long delta) {
+            long value = page(location).get(ValueLayout.JAVA_LONG_UNALIGNED, valueOffset(location)) + delta;
+            page(location).set(ValueLayout.JAVA_LONG_UNALIGNED, valueOffset(location), value);
+            return value;
+        }
+
+        double addDouble(long location, double delta) {
+            MemorySegment page = page(location);
+            double value = Double.longBitsToDouble(page.get(ValueLayout.JAVA_LONG_UNALIGNED, valueOffset(location))) + delta;
+            page.set(ValueLayout.JAVA_LONG_UNALIGNED, valueOffset(location), Double.doubleToRawLongBits(value));
+            return value;
+        }
+
+        byte type(long location) {
+            return page(location).get(ValueLayout.JAVA_BYTE, offset(location) + TYPE);
+        }
+
+        long expireAt(long location) {
+            return page(location).get(ValueLayout.JAVA_LONG, offset(location) + EXPIRE_AT);
+        }
+
+        void setExpireAt(long location, long expireAt) {
+            page(location).set(ValueLayout.JAVA_LONG, offset(location) + EXPIRE_AT, expireAt);
+        }
+
+        void markAccessed(long location) {
+            page(location).set(ValueLayout.JAVA_BYTE, offset(location) + ACCESSED, (byte) 1);
+        }
+
+        long location(int slot) {
+            return index.get(ValueLayout.JAVA_LONG, (long) slot * SLOT_SIZE + SLOT_LOCATION);
+        }
+
+        private boolean isExpired(long location, long now) {
+            long expireAt = expireAt(location);
+            return expireAt > 0 && expireAt <= now;
+        }
+
+        private boolean keyEquals(long location, byte[] key) {
+            MemorySegment page = page(location);
+            long offset = offset(location);
+            if (page.get(ValueLayout.JAVA_INT, offset + KEY_LENGTH) != key.length) return false;
+            long keyOffset = offset + HEADER_SIZE;
+            return MemorySegment.mismatch(page, keyOffset, keyOffset + key.length,
+                    MemorySegment.ofArray(key), 0, key.length) == -1;
+        }
+
+        private long valueOffset(long location) {
+            long offset = offset(location);
+            return offset + HEADER_SIZE + page(location).get(ValueLayout.JAVA_INT, offset + KEY_LENGTH);
+        }
+
+        private void insert(int hash, long location) {
+            if (count + 1 > capacity * 3L / 4) {
+                resizeIndex(capacity * 2);
+            }
+            int slot = hash & mask;
+            while (location(slot) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            setSlot(slot, hash, location);
+            count++;
+        }
+
+        /**
+         * 扩容索引, 新索引使用独立的内存区域, 迁移后释放旧索引
+         */
+        private void resizeIndex(int newCapacity) {
+            Arena oldArena = indexArena;
+            MemorySegment oldIndex = index;
+            int oldCapacity = capacity;
+
+            indexArena = Arena.ofShared();
+            index = indexArena.allocate((long) newCapacity * SLOT_SIZE, Long.BYTES);
+            capacity = newCapacity;
+            mask = newCapacity - 1;
+            clockHand = 0;
+            if (oldIndex == null) return;
+
+            for (int i = 0; i < oldCapacity; i++) {
+                long base = (long) i * SLOT_SIZE;
+                long location = oldIndex.get(ValueLayout.JAVA_LONG, base + SLOT_LOCATION);
+                if (location == 0) continue;
+                int hash = oldIndex.get(ValueLayout.JAVA_INT, base + SLOT_HASH);
+                int slot = hash & mask;
+                while (location(slot) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                setSlot(slot, hash, location);
+            }
+            oldArena.close();
+        }
+
+        /**
+         * 分配缓存项: 空闲链表 -&gt; 新页 -&gt; 淘汰同级数据
+         *
+         * @return 缓存项位置, 0表示无法分配
+         */
+        private long allocate(int slabClass) {
+            if (freeLists[slabClass] == 0 && (long) (pages.size() + 1) * pageSize <= maxBytes) {
+                addPage(slabClass);
+            }
+            if (freeLists[slabClass] == 0) {
+                evict(slabClass);
+            }
+
+            long location = freeLists[slabClass];
+            if (location == 0) return 0;
+            freeLists[slabClass] = page(location).get(ValueLayout.JAVA_LONG, offset(location) + EXPIRE_AT);
+            usedBytes += chunkSizes[slabClass];
+            return location;
+        }
+
+        /**
+         * 分配新页并整页切分到指定级别的空闲链表
+         */
+        private void addPage(int slabClass) {
+            MemorySegment page = arena.allocate(pageSize, Long.BYTES);
+            pages.add(page);
+            long pageNumber = pages.size();
+            int chunkSize = chunkSizes[slabClass];
+            for (int offset = (pageSize / chunkSize - 1) * chunkSize; offset >= 0; offset -= chunkSize) {
+                page.set(ValueLayout.JAVA_LONG, offset + EXPIRE_AT, freeLists[slabClass]);
+                freeLists[slabClass] = pageNumber << 32 | offset;
+            }
+        }
+
+        /**
+         * CLOCK淘汰: 从指针位置扫描同级缓存项, 过期的直接回收, 访问位为1的清零后跳过, 为0的淘汰
+         */
+        private void evict(int slabClass) {
+            long now = System.currentTimeMillis();
+            for (int scanned = 0; scanned < capacity * 2; scanned++) {
+                int slot = clockHand;
+                clockHand = (clockHand + 1) & mask;
+
+                long location = location(slot);
+                if (location == 0) continue;
+                MemorySegment page = page(location);
+                long offset = offset(location);
+                if (page.get(ValueLayout.JAVA_BYTE, offset + SLAB_CLASS) != slabClass) continue;
+
+                if (isExpired(location, now)) {
+                    removeSlot(slot);
+                    expirationCount.increment();
+                    return;
+                }
+                if (page.get(ValueLayout.JAVA_BYTE, offset + ACCESSED) != 0) {
+                    page.set(ValueLayout.JAVA_BYTE, offset + ACCESSED, (byte) 0);
+                    continue;
+                }
+                removeSlot(slot);
+                evictionCount.increment();
+                return;
+            }
+        }
+
+        private void free(long location) {
+            MemorySegment page = page(location);
+            long offset = offset(location);
+            int slabClass = page.get(ValueLayout.JAVA_BYTE, offset + SLAB_CLASS);
+            page.set(ValueLayout.JAVA_LONG, offset + EXPIRE_AT, freeLists[slabClass]);
+            freeLists[slabClass] = location;
+            usedBytes -= chunkSizes[slabClass];
+        }
+
+        private int slabClass(int size) {
+            int slabClass = Arrays.binarySearch(chunkSizes, size);
+            return slabClass >= 0 ? slabClass : -slabClass - 1;
+        }
+
+        private int slotHash(int slot) {
+            return index.get(ValueLayout.JAVA_INT, (long) slot * SLOT_SIZE + SLOT_HASH);
+        }
+
+        private void setSlot(int slot, int hash, long location) {
+            long base = (long) slot * SLOT_SIZE;
+            index.set(ValueLayout.JAVA_INT, base + SLOT_HASH, hash);
+            index.set(ValueLayout.JAVA_LONG, base + SLOT_LOCATION, location);
+        }
+
+        private void clearSlot(int slot) {
+            index.set(ValueLayout.JAVA_LONG, (long) slot * SLOT_SIZE + SLOT_LOCATION, 0);
+        }
+
+        private MemorySegment page(long location) {
+            return pages.get((int) (location >>> 32) - 1);
+        }
+
+        private long offset(long location) {
+            return location & 0xFFFFFFFFL;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache.impl;
+
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.spring.boot.cache.AsyncCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * redis异步缓存
+ *
+ * <p>基于Lettuce的响应式连接, 命令发出后立即返回, 不占用调用线程等待redis响应</p>
+ * <p>参数校验失败同样以失败的 Future 返回, 不在调用线程抛出异常</p>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class RedisAsyncCacheImpl implements AsyncCache {
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    private ReactiveStringRedisTemplate reactiveRedisTemplate;
+
+    @PostConstruct
+    public void init() {
+        // 与同步缓存共用同一个连接工厂, Lettuce连接工厂同时支持响应式
+        RedisConnectionFactory connectionFactory = stringRedisTemplate.getConnectionFactory();
+        Assert.isTrue(connectionFactory instanceof ReactiveRedisConnectionFactory,
+                "redis异步缓存需要Lettuce连接工厂, 当前: {}", connectionFactory);
+        reactiveRedisTemplate = new ReactiveStringRedisTemplate((ReactiveRedisConnectionFactory) connectionFactory);
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String key, String value, long timeout) {
+        return call(() -> {
+            Assert.notBlank(key, "key不能为空");
+            // 与同步缓存一致, 小于等于0表示不过期
+            return (timeout > 0
+                    ? reactiveRedisTemplate.opsForValue().set(key, value, Duration.ofMillis(timeout))
+                    : reactiveRedisTemplate.opsForValue().set(key, value))
+                    .toFuture()
+                    .thenApply(result -> null);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> putIfAbsent(String key, String value, long timeout) {
+        return call(() -> {
+            Assert.notBlank(key, "key不能为空");
+            return (timeout > 0
+                    ? reactiveRedisTemplate.opsForValue().setIfAbsent(key, value, Duration.ofMillis(timeout))
+                    : reactiveRedisTemplate.opsForValue().setIfAbsent(key, value))
+                    .toFuture()
+                    .thenApply(Boolean.TRUE::equals);
+        });
+    }
+
+    @Override
+    public CompletableFuture<String> get(String key) {
+        return call(() -> {
+            Assert.notBlank(key, "key不能为空");
+            return reactiveRedisTemplate.opsForValue().get(key).toFuture();
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<String>> multiGet(Collection<String> keys) {
+        return call(() -> {
+            Assert.notEmpty(keys, "keys不能为空");
+            return reactiveRedisTemplate.opsForValue().multiGet(keys).toFuture();
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> containsKey(String key) {
+        return call(() -> {
+            Assert.notBlank(key, "key不能为空");
+            return reactiveRedisTemplate.hasKey(key)
+                    .toFuture()
+                    .thenApply(Boolean.TRUE::equals);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String key) {
+        return call(() -> {
+            Assert.notBlank(key, "key不能为空");
+            return reactiveRedisTemplate.delete(key)
+                    .toFuture()
+                    .thenApply(result -> null);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> add(String key, long delta) {
+        return call(() -> {
+            Assert.notBlank(key, "key不能为空");
+            return reactiveRedisTemplate.opsForValue()
+                    .increment(key, delta)
+                    .toFuture()
+                    .thenApply(valueNum -> Assert.notNull(valueNum, "Redis 操作失败"));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Double> add(String key, double delta) {
+        return call(() -> {
+            Assert.notBlank(key, "key不能为空");
+            return reactiveRedisTemplate.opsForValue()
+                    .increment(key, delta)
+                    .toFuture()
+                    .thenApply(valueNum -> Assert.notNull(valueNum, "Redis 操作失败"));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> expire(String key, long timeout) {
+        return call(() -> {
+            Assert.notBlank(key, "key不能为空");
+            if (timeout <= 0) {
+                return delete(key);
+            }
+            return reactiveRedisTemplate.expire(key, Duration.ofMillis(timeout))
+                    .toFuture()
+                    .thenApply(result -> null);
+        });
+    }
+
+    /**
+     * 参数校验或发送命令时抛出的异常转为失败的 Future
+     */
+    private static <R> CompletableFuture<R> call(Supplier<CompletableFuture<R>> supplier) {
+        try {
+            return supplier.get();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -19,15 +19,22 @@ package com.zhengshuyun.oktool.spring.boot.cache.impl;
 import cn.hutool.v7.core.date.DateUtil;
 import cn.hutool.v7.core.date.TimeUtil;
 import com.zhengshuyun.oktool.spring.boot.cache.Cache;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheProperties;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheValue;
 import com.zhengshuyun.oktool.core.util.Assert;
+import jakarta.annotation.PreDestroy;
 import jakarta.annotation.Resource;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.types.Expiration;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
-import java.util.Collection;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * @author Toint
@@ -35,8 +42,38 @@ import java.util.concurrent.TimeUnit;
  */
 public class RedisCacheImpl implements Cache {
 
+    /**
+     * 释放加载锁: 仅持有者可以删除
+     */
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('del', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
     @Resource
-    private StringRedisTemplate stringRedisTemplate;
+    protected StringRedisTemplate stringRedisTemplate;
+
+    private final CacheLoadSupport loadSupport;
+
+    public RedisCacheImpl() {
+        this(new CacheProperties.Load());
+    }
+
+    public RedisCacheImpl(CacheProperties.Load load) {
+        Assert.notNullParam(load, "load");
+        CacheLoadSupport.LoadLock loadLock = load.isDistributedLock() ? new RedisLoadLock() : null;
+        this.loadSupport = new CacheLoadSupport(this, this::getEntry, loadLock, load);
+    }
+
+    /**
+     * 停止后台刷新
+     */
+    @PreDestroy
+    public void shutdown() {
+        loadSupport.shutdown();
+    }
 
     @Override
     public void put(String key, String value, long timeout) {
@@ -44,6 +81,35 @@ public class RedisCacheImpl implements Cache {
         stringRedisTemplate.opsForValue().set(key, value, timeout, TimeUnit.MILLISECONDS);
     }
 
+    @Override
+    public void putBytes(String key, byte[] value, long timeout) {
+        Assert.notBlank(key, "key不能为空");
+        Assert.notNull(value, "value不能为空");
+        stringRedisTemplate.execute((RedisCallback<Object>) connection -> connection.stringCommands()
+                .set(rawKey(key), value, expiration(timeout), RedisStringCommands.SetOption.upsert()));
+    }
+
+    @Override
+    public void multiPut(Map<String, String> values, long timeout) {
+        Assert.notEmpty(values, "values不能为空");
+        values.forEach((key, value) -> {
+            Assert.notBlank(key, "key不能为空");
+            Assert.notNull(value, "value不能为空");
+        });
+
+        Expiration expiration = expiration(timeout);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                connection.stringCommands().set(
+                        rawKey(entry.getKey()),
+                        entry.getValue().getBytes(StandardCharsets.UTF_8),
+                        expiration,
+                        RedisStringCommands.SetOption.upsert());
+            }
+            return null;
+        });
+    }
+
     @Override
     public boolean putIfAbsent(String key, String value, long timeout) {
         Assert.notBlank(key, "key不能为空");
@@ -57,6 +123,27 @@ public class RedisCacheImpl implements Cache {
         return stringRedisTemplate.opsForValue().get(key);
     }
 
+    @Override
+    public String getOrLoad(String key, Supplier<CacheValue> loader) {
+        return loadSupport.getOrLoad(key, loader);
+    }
+
+    @Override
+    public void registerLoader(String key, Supplier<CacheValue> loader) {
+        loadSupport.registerLoader(key, loader);
+    }
+
+    @Override
+    public void unregisterLoader(String key) {
+        loadSupport.unregisterLoader(key);
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        Assert.notBlank(key, "key不能为空");
+        return stringRedisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(rawKey(key)));
+    }
+
     @Override
     public List<String> multiGet(Collection<String> keys) {
         Assert.notEmpty(keys, "keys不能为空");
@@ -76,6 +163,13 @@ public class RedisCacheImpl implements Cache {
         stringRedisTemplate.delete(key);
     }
 
+    @Override
+    public void multiDelete(Collection<String> keys) {
+        checkKeys(keys);
+        // DEL 本身支持多个key, 一次往返
+        stringRedisTemplate.delete(keys);
+    }
+
     @Override
     public long add(String key, long delta) {
         Assert.notBlank(key, "key不能为空");
@@ -92,6 +186,31 @@ public class RedisCacheImpl implements Cache {
         return valueNum;
     }
 
+    @Override
+    public Map<String, Long> multiAdd(Map<String, Long> deltas) {
+        Assert.notEmpty(deltas, "deltas不能为空");
+        deltas.forEach((key, delta) -> {
+            Assert.notBlank(key, "key不能为空");
+            Assert.notNull(delta, "自增值不能为空");
+        });
+
+        List<String> keys = new ArrayList<>(deltas.keySet());
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.stringCommands().incrBy(rawKey(key), deltas.get(key));
+            }
+            return null;
+        });
+
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            Long valueNum = (Long) results.get(i);
+            Assert.notNull(valueNum, "Redis 操作失败");
+            values.put(keys.get(i), valueNum);
+        }
+        return values;
+    }
+
     @Override
     public void expire(String key, long timeout) {
         Assert.notBlank(key, "key不能为空");
@@ -102,6 +221,22 @@ public class RedisCacheImpl implements Cache {
         }
     }
 
+    @Override
+    public void multiExpire(Collection<String> keys, long timeout) {
+        checkKeys(keys);
+        if (timeout <= 0) {
+            stringRedisTemplate.delete(keys);
+            return;
+        }
+
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String key : keys) {
+                connection.keyCommands().pExpire(rawKey(key), timeout);
+            }
+            return null;
+        });
+    }
+
     @Override
     public void expireAt(String key, LocalDateTime timeout) {
         Assert.notBlank(key, "key不能为空");
@@ -114,4 +249,63 @@ public class RedisCacheImpl implements Cache {
             stringRedisTemplate.expireAt(key, DateUtil.date(timeout));
         }
     }
+
+    /**
+     * 批量操作前校验所有key, 避免管道中途抛出异常时已排队的命令仍被发送, 造成部分写入
+     */
+    private static void checkKeys(Collection<String> keys) {
+        Assert.notEmpty(keys, "keys不能为空");
+        for (String key : keys) {
+            Assert.notBlank(key, "key不能为空");
+        }
+    }
+
+    /**
+     * 读取缓存值与剩余时间(同一次往返), 供 {@link CacheLoadSupport} 使用
+     */
+    CacheLoadSupport.Entry getEntry(String key) {
+        byte[] rawKey = rawKey(key);
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.stringCommands().get(rawKey);
+            connection.keyCommands().pTtl(rawKey);
+            return null;
+        });
+
+        String value = (String) results.get(0);
+        Long ttl = (Long) results.get(1);
+        if (value == null) return null;
+
+        // -1: 无过期时间; -2: 读取间隙已过期, 当作即将过期
+        return new CacheLoadSupport.Entry(value, ttl == null || ttl == -1 ? -1 : Math.max(ttl, 0));
+    }
+
+    /**
+     * key序列化, 与 {@link StringRedisTemplate} 保持一致(UTF-8)
+     */
+    protected static byte[] rawKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param timeout 缓存时间(ms), 小于等于0表示不过期
+     */
+    protected static Expiration expiration(long timeout) {
+        return timeout > 0 ? Expiration.milliseconds(timeout) : Expiration.persistent();
+    }
+
+    /**
+     * 基于 SET NX PX 的加载锁
+     */
+    private class RedisLoadLock implements CacheLoadSupport.LoadLock {
+        @Override
+        public boolean tryLock(String lockKey, String token, long timeout) {
+            return Boolean.TRUE.equals(stringRedisTemplate.opsForValue()
+                    .setIfAbsent(lockKey, token, timeout, TimeUnit.MILLISECONDS));
+        }
+
+        @Override
+        public void unlock(String lockKey, String token) {
+            stringRedisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey), token);
+        }
+    }
 }
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache.impl;
+
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.core.util.KeyBuilder;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * redis分布式锁工厂
+ *
+ * <p>锁是一个字符串key, 值为持有者令牌(节点ID:序号), 带租约过期时间</p>
+ * <li>加锁: 锁空闲且自己是等待队列的队首(或队列为空)时 SET PX, 否则进入等待队列</li>
+ * <li>公平: 等待队列按到达时间排序; 等待者每次重试都会刷新自己的存活时间, 宕机的等待者超时后被移出队列</li>
+ * <li>等待: 订阅锁释放通知, 收到通知或锁的剩余租约到期后重试, 不轮询</li>
+ * <li>解锁: 令牌一致才删除并发布释放通知</li>
+ * <li>续期: 未指定租约时间时, 每个持有中的锁由一个虚拟线程每 1/3 租约时间续期一次</li>
+ *
+ * <p>锁、等待队列、等待者存活时间三个key使用同一个hash tag, 在redis集群中位于同一个slot</p>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class RedisDistributedLockFactory extends AbstractDistributedLockFactory {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisDistributedLockFactory.class);
+
+    /**
+     * 等待者存活时间, 超过后未重试的等待者被移出队列
+     */
+    private static final long WAITER_TIMEOUT_MS = 10_000;
+
+    /**
+     * 加锁
+     * <p>
+     * KEYS[1] - 锁
+     * KEYS[2] - 等待队列(有序集合, 分数为到达时间)
+     * KEYS[3] - 等待者存活时间(有序集合, 分数为过期时间)
+     * ARGV[1] - 持有者令牌
+     * ARGV[2] - 租约时间(毫秒)
+     * ARGV[3] - 等待者存活时间(毫秒), 0表示不等待, 不进入队列
+     * <p>
+     * 返回值: 0表示加锁成功, 否则为建议的最长等待时间(毫秒)
+     */
+    private static final DefaultRedisScript<Long> LOCK_SCRIPT = new DefaultRedisScript<>("""
+            redis.replicate_commands()
+            local time = redis.call('time')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            
+            -- 移除超时未重试的等待者
+            local expired = redis.call('zrangebyscore', KEYS[3], '-inf', now)
+            for i = 1, #expired do
+                redis.call('zrem', KEYS[2], expired[i])
+                redis.call('zrem', KEYS[3], expired[i])
+            end
+            
+            local waiter_timeout = tonumber(ARGV[3])
+            if redis.call('exists', KEYS[1]) == 0 then
+                local head = redis.call('zrange', KEYS[2], 0, 0)
+                if head[1] == nil or head[1] == ARGV[1] then
+                    redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2])
+                    redis.call('zrem', KEYS[2], ARGV[1])
+                    redis.call('zrem', KEYS[3], ARGV[1])
+                    return 0
+                end
+            end
+            
+            -- 进入等待队列(已在队列中时保留原到达时间), 刷新存活时间
+            if waiter_timeout > 0 then
+                if redis.call('zscore', KEYS[2], ARGV[1]) == false then
+                    redis.call('zadd', KEYS[2], tonumber(time[1]) * 1000000 + tonumber(time[2]), ARGV[1])
+                end
+                redis.call('zadd', KEYS[3], now + waiter_timeout, ARGV[1])
+                redis.call('pexpire', KEYS[2], waiter_timeout)
+                redis.call('pexpire', KEYS[3], waiter_timeout)
+            end
+            
+            -- 锁被持有时最多等到租约到期; 锁空闲但轮到其他等待者时, 等待释放通知
+            local ttl = redis.call('pttl', KEYS[1])
+            if ttl > 0 then
+                return ttl
+            end
+            return math.max(1, waiter_timeout)
+            """, Long.class);
+
+    /**
+     * 解锁: 令牌一致才删除, 并发布释放通知
+     * <p>
+     * KEYS[1] - 锁
+     * ARGV[1] - 持有者令牌
+     * ARGV[2] - 释放通知频道
+     */
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                redis.call('del', KEYS[1])
+                redis.call('publish', ARGV[2], ARGV[1])
+                return 1
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * 续期: 令牌一致才延长租约
+     * <p>
+     * KEYS[1] - 锁
+     * ARGV[1] - 持有者令牌
+     * ARGV[2] - 租约时间(毫秒)
+     */
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('get', KEYS[1]) == ARGV[1] then
+                return redis.call('pexpire', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * 放弃等待: 移出等待队列; 自己可能是队首, 锁空闲时通知下一个等待者
+     * <p>
+     * KEYS[1] - 锁
+     * KEYS[2] - 等待队列
+     * KEYS[3] - 等待者存活时间
+     * ARGV[1] - 持有者令牌
+     * ARGV[2] - 释放通知频道
+     */
+    private static final DefaultRedisScript<Long> CANCEL_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('zrem', KEYS[2], ARGV[1])
+            redis.call('zrem', KEYS[3], ARGV[1])
+            if redis.call('exists', KEYS[1]) == 0 and redis.call('zcard', KEYS[2]) > 0 then
+                redis.call('publish', ARGV[2], ARGV[1])
+            end
+            return 1
+            """, Long.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 节点ID, 令牌前缀; 每个工厂实例不同, 同一进程内的多个工厂之间令牌也不会重复
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+    private final long leaseTime;
+    private final String channelPrefix;
+    private final AtomicLong sequence = new AtomicLong();
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    public RedisDistributedLockFactory() {
+        this(new CacheProperties.Lock());
+    }
+
+    public RedisDistributedLockFactory(CacheProperties.Lock lock) {
+        Assert.notNullParam(lock, "lock");
+        Assert.isTrue(lock.getLeaseTime() != null && lock.getLeaseTime().toMillis() >= 3, "租约时间不能小于3毫秒");
+        Assert.notBlankParam(lock.getChannel(), "channel");
+
+        this.leaseTime = lock.getLeaseTime().toMillis();
+        this.channelPrefix = lock.getChannel() + ":";
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        RedisConnectionFactory connectionFactory = stringRedisTemplate.getConnectionFactory();
+        Assert.notNull(connectionFactory, "RedisConnectionFactory不能为空");
+
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+            Entry entry = getEntry(channel.substring(channelPrefix.length()));
+            if (entry != null) entry.signal();
+        }, new PatternTopic(channelPrefix + "*"));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+        log.info("分布式锁释放通知订阅成功, channel: {}*, nodeId: {}", channelPrefix, nodeId);
+    }
+
+    @PreDestroy
+    public void unsubscribe() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    @Override
+    protected boolean acquire(Entry entry, long deadline, Duration leaseTime) throws InterruptedException {
+        String token = nodeId + ":" + sequence.incrementAndGet();
+        long lease = leaseTime == null ? this.leaseTime : leaseTime.toMillis();
+        List<String> keys = keys(entry.name);
+
+        // 不限时不能用 deadline - nanoTime 计算剩余时间, nanoTime为负时会溢出
+        boolean unbounded = deadline == Long.MAX_VALUE;
+        boolean queued = false;
+        boolean acquired = false;
+        try {
+            while (true) {
+                // 先清空旧通知再尝试, 尝试之后到达的通知会让下面的等待立即返回
+                entry.released.drainPermits();
+
+                long remaining = unbounded ? Long.MAX_VALUE : deadline - System.nanoTime();
+                queued |= remaining > 0;
+                String waiterTimeout = remaining > 0 ? String.valueOf(WAITER_TIMEOUT_MS) : "0";
+                Long waitMs = stringRedisTemplate.execute(LOCK_SCRIPT, keys, token, String.valueOf(lease), waiterTimeout);
+                Assert.notNull(waitMs, "Redis 操作失败");
+                if (waitMs == 0) {
+                    acquired = true;
+                    break;
+                }
+
+                remaining = unbounded ? Long.MAX_VALUE : deadline - System.nanoTime();
+                if (remaining <= 0) return false;
+
+                // 最长等待不超过等待者存活时间的一半, 保证按时刷新
+                long waitNanos = Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(Math.min(waitMs, WAITER_TIMEOUT_MS / 2)));
+                entry.released.tryAcquire(waitNanos, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            if (queued && !acquired) cancel(entry.name, keys, token);
+        }
+
+        entry.token = token;
+        if (leaseTime == null) {
+            entry.watchdog = Thread.ofVirtual()
+                    .name("oktool-lock-watchdog-" + entry.name)
+                    .start(() -> renew(entry.name, token, lease));
+        }
+        return true;
+    }
+
+    @Override
+    protected void release(Entry entry) {
+        String token = entry.token;
+        Thread watchdog = entry.watchdog;
+        entry.token = null;
+        entry.watchdog = null;
+        if (watchdog != null) watchdog.interrupt();
+
+        Long released = stringRedisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey(entry.name)), token, channel(entry.name));
+        if (released == null || released == 0) {
+            log.warn("分布式锁租约已过期, 解锁时锁已不属于当前持有者, name: {}", entry.name);
+        }
+    }
+
+    /**
+     * 看门狗: 持有期间每 1/3 租约时间续期一次, 解锁时被中断
+     */
+    private void renew(String name, String token, long lease) {
+        List<String> keys = List.of(lockKey(name));
+        String leaseArg = String.valueOf(lease);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(lease / 3);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            try {
+                Long renewed = stringRedisTemplate.execute(RENEW_SCRIPT, keys, token, leaseArg);
+                if (renewed == null || renewed == 0) {
+                    log.warn("分布式锁续期失败, 锁已过期或被删除, name: {}", name);
+                    return;
+                }
+            } catch (Exception e) {
+                // redis暂时不可用, 下个周期继续
+                log.warn("分布式锁续期异常, name: {}, 原因: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    private void cancel(String name, List<String> keys, String token) {
+        try {
+            stringRedisTemplate.execute(CANCEL_SCRIPT, keys, token, channel(name));
+        } catch (Exception e) {
+            // 未移出的等待者会在存活时间到期后被清理
+            log.warn("分布式锁放弃等待失败, name: {}, 原因: {}", name, e.getMessage());
+        }
+    }
+
+    private String channel(String name) {
+        return channelPrefix + name;
+    }
+
+    private static String lockKey(String name) {
+        return KeyBuilder.of("lock").add("{" + name + "}").build();
+    }
+
+    private static List<String> keys(String name) {
+        String lockKey = lockKey(name);
+        return List.of(lockKey, lockKey + ":queue", lockKey + ":waiters");
+    }
+}
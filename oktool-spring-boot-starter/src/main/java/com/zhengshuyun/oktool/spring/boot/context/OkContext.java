@@ -229,7 +229,17 @@ public class OkContext {
      */
     public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
         Assert.notNullParam(supplier, "supplier");
+        return ScopedValueUtil.supplyAsync(captureContext(), supplier);
+    }
 
+    /**
+     * 捕获当前上下文, 用于在其他线程中恢复, 如 {@code HttpClientUtil.sendAsync(name, request, OkContext.captureContext())}
+     * <p>
+     * 使用新的上下文容器, 如果当前没有上下文则为空容器
+     *
+     * @return ScopedValue 到上下文容器的映射
+     */
+    public static Map<ScopedValue<?>, Object> captureContext() {
         // 使用新的上下文容器传播上下文, 避免上下文容器的线程安全问题
         // 如果上下文容器的值为引用对象, 需要谨慎操作, 有线程安全问题
         Map<String, Object> context;
@@ -238,8 +248,7 @@ public class OkContext {
         } else {
             context = new ConcurrentHashMap<>();
         }
-
-        return ScopedValueUtil.supplyAsync(Map.of(CONTEXT_INSTANCE, context), supplier);
+        return Map.of(CONTEXT_INSTANCE, context);
     }
 
     /**
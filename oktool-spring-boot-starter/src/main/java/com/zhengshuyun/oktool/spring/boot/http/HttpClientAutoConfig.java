@@ -0,0 +1,57 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.http;
+
+import com.zhengshuyun.oktool.core.util.HttpClientUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+
+/**
+ * http客户端自动配置
+ *
+ * <p>启动时按 {@link HttpClientProperties#getEngines()} 注册命名客户端, 关闭时释放连接池</p>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+@AutoConfiguration
+@EnableConfigurationProperties(HttpClientProperties.class)
+public class HttpClientAutoConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpClientAutoConfig.class);
+
+    @Resource
+    private HttpClientProperties httpClientProperties;
+
+    @PostConstruct
+    public void registerEngines() {
+        httpClientProperties.getEngines().forEach((name, engineConfig) -> {
+            HttpClientUtil.registerEngine(name, engineConfig);
+            log.info("http客户端注册成功, name: {}, config: {}", name, engineConfig);
+        });
+    }
+
+    @PreDestroy
+    public void removeEngines() {
+        httpClientProperties.getEngines().keySet().forEach(HttpClientUtil::removeEngine);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.http;
+
+import com.zhengshuyun.oktool.core.model.HttpEngineConfig;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * http客户端配置
+ *
+ * <pre>
+ * oktool:
+ *   http:
+ *     engines:
+ *       bdocr:
+ *         max-idle-connections: 10
+ *         max-requests-per-host: 10
+ *         read-timeout: 60s
+ *       xda:
+ *         max-idle-connections: 2
+ * </pre>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+@ConfigurationProperties("oktool.http")
+public class HttpClientProperties {
+    /**
+     * 命名客户端, key: 客户端名称, 如 {@code bdocr}, {@code xda}, {@code emqx}, {@code feishu}
+     * <p>
+     * 未配置的名称使用全局单例客户端
+     */
+    private Map<String, HttpEngineConfig> engines = new LinkedHashMap<>();
+
+    public Map<String, HttpEngineConfig> getEngines() {
+        return engines;
+    }
+
+    public void setEngines(Map<String, HttpEngineConfig> engines) {
+        this.engines = engines;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        HttpClientProperties that = (HttpClientProperties) o;
+        return Objects.equals(engines, that.engines);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(engines);
+    }
+
+    @Override
+    public String toString() {
+        return "HttpClientProperties{" +
+                "engines=" + engines +
+                '}';
+    }
+}
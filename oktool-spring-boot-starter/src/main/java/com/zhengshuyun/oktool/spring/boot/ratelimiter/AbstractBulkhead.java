@@ -0,0 +1,167 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import com.zhengshuyun.oktool.core.util.Assert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 隔离舱基类, 负责排队计时、事件通知和许可的单次释放
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public abstract class AbstractBulkhead implements Bulkhead {
+
+    private static final Logger log = LoggerFactory.getLogger(AbstractBulkhead.class);
+
+    protected final String name;
+    protected final int maxConcurrent;
+    protected final Duration queueTimeout;
+
+    /**
+     * 本节点持有中的许可数
+     */
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    private volatile BulkheadListener listener = BulkheadListener.NONE;
+
+    /**
+     * @param name          名称
+     * @param maxConcurrent 最大并发数
+     * @param queueTimeout  默认排队超时时间, 0表示不排队
+     */
+    protected AbstractBulkhead(String name, int maxConcurrent, Duration queueTimeout) {
+        Assert.notBlankParam(name, "name");
+        Assert.isTrue(maxConcurrent > 0, "最大并发数必须大于0");
+        Assert.isTrue(queueTimeout != null && !queueTimeout.isNegative(), "排队超时时间不能小于0");
+
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.queueTimeout = queueTimeout;
+    }
+
+    @Override
+    public Permit tryAcquire(Duration timeout) {
+        Assert.notNull(timeout, "超时时间不能为空");
+
+        long start = System.nanoTime();
+        long deadline = start + Math.max(0, timeout.toNanos());
+        Runnable release = doAcquire(deadline);
+        long acquiredAt = System.nanoTime();
+        if (release == null) {
+            notify(() -> listener.onRejected(this, acquiredAt - start));
+            return null;
+        }
+
+        activeCount.incrementAndGet();
+        notify(() -> listener.onAcquired(this, acquiredAt - start));
+        return new DefaultPermit(release, acquiredAt);
+    }
+
+    /**
+     * 获取许可
+     *
+     * @param deadline 截止时间(System.nanoTime)
+     * @return 释放许可的操作, 超时未获取时为null
+     */
+    protected abstract Runnable doAcquire(long deadline);
+
+    /**
+     * 调用完成, 在释放许可之前回调
+     *
+     * @param rttNanos 许可持有时长, 即受保护调用的往返耗时
+     * @param dropped  调用是否被标记为失败
+     */
+    protected void onCompleted(long rttNanos, boolean dropped) {
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    @Override
+    public Duration getQueueTimeout() {
+        return queueTimeout;
+    }
+
+    /**
+     * @return 本节点持有中的许可数
+     */
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public void setListener(BulkheadListener listener) {
+        this.listener = listener == null ? BulkheadListener.NONE : listener;
+    }
+
+    /**
+     * 监听器异常不影响调用
+     */
+    private void notify(Runnable event) {
+        try {
+            event.run();
+        } catch (Exception e) {
+            log.warn("隔离舱事件处理失败, name: {}, 原因: {}", name, e.getMessage());
+        }
+    }
+
+    private final class DefaultPermit implements Permit {
+        private final Runnable release;
+        private final long acquiredAt;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean dropped;
+
+        DefaultPermit(Runnable release, long acquiredAt) {
+            this.release = release;
+            this.acquiredAt = acquiredAt;
+        }
+
+        @Override
+        public void drop() {
+            dropped = true;
+        }
+
+        @Override
+        public void close() {
+            if (!released.compareAndSet(false, true)) return;
+            long heldNanos = System.nanoTime() - acquiredAt;
+            try {
+                onCompleted(heldNanos, dropped);
+            } finally {
+                try {
+                    release.run();
+                } finally {
+                    activeCount.decrementAndGet();
+                    AbstractBulkhead.this.notify(() -> listener.onReleased(AbstractBulkhead.this, heldNanos));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import cn.hutool.v7.core.thread.ratelimiter.RateLimiterConfig;
+import com.zhengshuyun.oktool.core.util.Assert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于Redis的分布式限流器基类
+ *
+ * <p>子类的脚本在令牌不足时返回还需等待的精确时间, 阻塞获取按该时间休眠, 不再固定间隔轮询;
+ * 同一节点的等待者按先来后到排队(公平锁), 只有队首访问Redis, 避免大量等待线程同时轮询</p>
+ *
+ * <li>脚本使用Redis服务器时间(TIME), 不受各节点时钟偏差影响</li>
+ * <li>脚本总是通过EVALSHA执行, 服务端没有缓存(NOSCRIPT)时改用EVAL, 同时完成加载</li>
+ * <li>Key与固定参数在构造时编码为字节, 每次调用只编码请求令牌数</li>
+ * <li>放行、拒绝和脚本耗时通过 {@link RateLimiterListener} 通知, 见 {@link MeteredRateLimiterListener}</li>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public abstract class AbstractRedisRateLimiter implements RedisRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(AbstractRedisRateLimiter.class);
+
+    protected final StringRedisTemplate redisTemplate;
+    protected final RateLimiterConfig config;
+    protected final String name;
+    protected final String redisKey;
+    protected final byte[] rawKey;
+
+    /**
+     * 常用的请求令牌数预先编码
+     */
+    private static final byte[][] PERMITS = new byte[65][];
+
+    static {
+        for (int i = 0; i < PERMITS.length; i++) {
+            PERMITS[i] = encode(i);
+        }
+    }
+
+    /**
+     * 本节点等待者队列, 公平锁保证FIFO, 持有锁的队首才访问Redis
+     */
+    private final ReentrantLock waitLock = new ReentrantLock(true);
+
+    private volatile RateLimiterListener listener = RateLimiterListener.NONE;
+
+    /**
+     * 构造函数
+     *
+     * @param redisTemplate Redis操作模板
+     * @param config        Hutool配置对象
+     * @param name          限流器名称
+     * @param redisKey      限流器的Redis Key
+     */
+    protected AbstractRedisRateLimiter(StringRedisTemplate redisTemplate,
+                                       RateLimiterConfig config,
+                                       String name,
+                                       String redisKey) {
+        Assert.notNull(redisTemplate, "redisTemplate");
+        Assert.notNull(config, "config");
+        Assert.notBlankParam(name, "name");
+        Assert.notBlankParam(redisKey, "redisKey");
+        Assert.isTrue(config.getCapacity() > 0, "桶容量必须大于0");
+        Assert.isTrue(config.getMaxReleaseCount() > 0, "令牌生成速率必须大于0");
+        Assert.isTrue(config.getRefreshPeriod().isPositive(), "刷新周期必须大于0");
+
+        this.redisTemplate = redisTemplate;
+        this.config = config;
+        this.name = name;
+        this.redisKey = redisKey;
+        this.rawKey = encode(redisKey);
+    }
+
+    /**
+     * 立即尝试获取令牌, 不排队
+     */
+    @Override
+    public boolean tryAcquire(int permits) {
+        // 参数校验
+        checkPermits(permits);
+        boolean granted = execute(permits) == 0;
+        notifyResult(permits, granted, 0);
+        return granted;
+    }
+
+    /**
+     * 在超时时间内获取令牌
+     * <p>
+     * 按FIFO排队, 轮到后按脚本返回的等待时间休眠; 预计无法在超时前获取时立即返回false
+     *
+     * @param permits 请求令牌数
+     * @param timeout 超时时间
+     * @return 是否获取成功
+     */
+    @Override
+    public boolean tryAcquire(int permits, Duration timeout) {
+        // 参数校验
+        checkPermits(permits);
+        Assert.notNull(timeout, "超时时间不能为空");
+
+        long start = System.nanoTime();
+        long deadline = start + Math.max(0, timeout.toNanos());
+        boolean granted;
+        try {
+            granted = acquire(permits, deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            granted = false;
+        }
+        notifyResult(permits, granted, System.nanoTime() - start);
+        return granted;
+    }
+
+    @Override
+    public void acquire(int permits) {
+        // 参数校验
+        checkPermits(permits);
+
+        long start = System.nanoTime();
+        try {
+            acquire(permits, Long.MAX_VALUE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            notifyResult(permits, false, System.nanoTime() - start);
+            throw new RuntimeException("线程中断");
+        }
+        notifyResult(permits, true, System.nanoTime() - start);
+    }
+
+    /**
+     * 查询当前剩余令牌数, 只读不消耗
+     * <p>
+     * 结果只是查询时刻的快照, 其他节点随时可能消耗, 不能用来代替 {@link #tryAcquire(int)}
+     *
+     * @return 剩余令牌数
+     */
+    @Override
+    public int availablePermits() {
+        byte[][] keysAndArgs = availableKeysAndArgs();
+        Long result = redisTemplate.execute((RedisCallback<Long>) connection -> eval(connection, availableScript(), keysAndArgs));
+        Assert.notNull(result, "Redis 操作失败");
+        return (int) Math.max(0, result);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void setListener(RateLimiterListener listener) {
+        this.listener = listener == null ? RateLimiterListener.NONE : listener;
+    }
+
+    /**
+     * 限流脚本, 返回0表示获取成功, 否则为还需等待的毫秒数
+     */
+    protected abstract RedisScript<Long> script();
+
+    /**
+     * 限流脚本的KEYS与ARGV, 第一个元素为 {@link #rawKey}
+     *
+     * @param permits 请求令牌数
+     */
+    protected abstract byte[][] keysAndArgs(int permits);
+
+    /**
+     * 查询剩余令牌数的只读脚本
+     */
+    protected abstract RedisScript<Long> availableScript();
+
+    /**
+     * 剩余令牌数脚本的KEYS与ARGV, 第一个元素为 {@link #rawKey}
+     */
+    protected abstract byte[][] availableKeysAndArgs();
+
+    /**
+     * 执行限流脚本
+     *
+     * @param permits 请求令牌数
+     * @return 0表示获取成功, 否则为还需等待的毫秒数
+     */
+    protected long execute(int permits) {
+        byte[][] keysAndArgs = keysAndArgs(permits);
+        long start = System.nanoTime();
+        Long result = redisTemplate.execute((RedisCallback<Long>) connection -> eval(connection, script(), keysAndArgs));
+        long scriptNanos = System.nanoTime() - start;
+        notify(() -> listener.onScript(this, scriptNanos));
+        Assert.notNull(result, "Redis 操作失败");
+        return result;
+    }
+
+    /**
+     * 参数编码
+     */
+    protected static byte[] encode(Object value) {
+        return String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 请求令牌数编码, 常用值直接取缓存
+     */
+    protected static byte[] encodePermits(int permits) {
+        return permits < PERMITS.length ? PERMITS[permits] : encode(permits);
+    }
+
+    /**
+     * 通过EVALSHA执行单key脚本, NOSCRIPT时改用EVAL(同时把脚本加载到服务端缓存)
+     */
+    static Long eval(RedisConnection connection, RedisScript<Long> script, byte[][] keysAndArgs) {
+        try {
+            return connection.scriptingCommands().evalSha(script.getSha1(), ReturnType.INTEGER, 1, keysAndArgs);
+        } catch (RuntimeException e) {
+            if (!isNoScriptError(e)) throw e;
+            return connection.scriptingCommands().eval(script.getScriptAsString().getBytes(StandardCharsets.UTF_8),
+                    ReturnType.INTEGER, 1, keysAndArgs);
+        }
+    }
+
+    /**
+     * 批量执行多个限流器的脚本, 一次流水线往返
+     * <p>
+     * 流水线中无法按单条命令回退, 出现NOSCRIPT时先加载全部脚本再整体重试一次
+     *
+     * @param redisTemplate Redis操作模板
+     * @param limiters      限流器
+     * @param permits       与限流器一一对应的请求令牌数
+     * @return 与限流器一一对应的脚本结果, 0表示获取成功, 否则为还需等待的毫秒数
+     */
+    static List<Long> executeBatch(StringRedisTemplate redisTemplate,
+                                   List<AbstractRedisRateLimiter> limiters,
+                                   List<Integer> permits) {
+        List<Long> waits = pipelineWithReload(redisTemplate, limiters, permits);
+        for (int i = 0; i < limiters.size(); i++) {
+            limiters.get(i).notifyResult(permits.get(i), waits.get(i) == 0, 0);
+        }
+        return waits;
+    }
+
+    private static List<Long> pipelineWithReload(StringRedisTemplate redisTemplate,
+                                                 List<AbstractRedisRateLimiter> limiters,
+                                                 List<Integer> permits) {
+        try {
+            return pipeline(redisTemplate, limiters, permits);
+        } catch (RuntimeException e) {
+            if (!isNoScriptError(e)) throw e;
+
+            Set<RedisScript<Long>> scripts = new LinkedHashSet<>();
+            limiters.forEach(limiter -> scripts.add(limiter.script()));
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                for (RedisScript<Long> script : scripts) {
+                    connection.scriptingCommands().scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+            return pipeline(redisTemplate, limiters, permits);
+        }
+    }
+
+    private static List<Long> pipeline(StringRedisTemplate redisTemplate,
+                                       List<AbstractRedisRateLimiter> limiters,
+                                       List<Integer> permits) {
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (int i = 0; i < limiters.size(); i++) {
+                AbstractRedisRateLimiter limiter = limiters.get(i);
+                connection.scriptingCommands().evalSha(limiter.script().getSha1(), ReturnType.INTEGER, 1,
+                        limiter.keysAndArgs(permits.get(i)));
+            }
+            return null;
+        });
+
+        List<Long> waits = new ArrayList<>(results.size());
+        for (Object result : results) {
+            Assert.isTrue(result instanceof Long, "Redis 操作失败: {}", result);
+            waits.add((Long) result);
+        }
+        return waits;
+    }
+
+    static boolean isNoScriptError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 单次最多请求的令牌数, 默认为桶容量
+     */
+    protected int maxPermits() {
+        return config.getCapacity();
+    }
+
+    /**
+     * 排队等待令牌
+     *
+     * @param permits  请求令牌数
+     * @param deadline 截止时间(System.nanoTime), Long.MAX_VALUE表示不限
+     * @return 是否获取成功
+     */
+    private boolean acquire(int permits, long deadline) throws InterruptedException {
+        boolean unbounded = deadline == Long.MAX_VALUE;
+        if (unbounded) {
+            waitLock.lockInterruptibly();
+        } else if (!waitLock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+
+        try {
+            while (true) {
+                long waitMs = execute(permits);
+                if (waitMs == 0) return true;
+
+                long waitNanos = TimeUnit.MILLISECONDS.toNanos(waitMs);
+                // 其他节点也在消耗令牌, 等待时间只是下限, 超过截止时间就不必再等
+                if (!unbounded && System.nanoTime() + waitNanos - deadline > 0) return false;
+
+                LockSupport.parkNanos(this, waitNanos);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waitLock.unlock();
+        }
+    }
+
+    /**
+     * 通知放行或拒绝
+     */
+    private void notifyResult(int permits, boolean granted, long waitNanos) {
+        if (granted) {
+            notify(() -> listener.onGranted(this, permits, waitNanos));
+        } else {
+            notify(() -> listener.onRejected(this, permits, waitNanos));
+        }
+    }
+
+    /**
+     * 监听器异常不影响限流
+     */
+    private void notify(Runnable event) {
+        try {
+            event.run();
+        } catch (Exception e) {
+            log.warn("限流器事件处理失败, name: {}, 原因: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * 校验请求令牌数
+     *
+     * @param permits 请求令牌数
+     */
+    void checkPermits(int permits) {
+        Assert.isTrue(permits > 0, "permits 必须大于 0，当前值：" + permits);
+        Assert.isTrue(permits <= maxPermits(), "请求令牌数[{}]不能超过上限[{}]", permits, maxPermits());
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import com.zhengshuyun.oktool.core.util.Assert;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 自适应隔离舱, 并发上限由 {@link AdaptiveLimit} 根据实测往返耗时动态调整
+ * <p>
+ * 不需要预估下游能承受的速率: 下游变慢时上限收缩, 多出的请求在本地被拒绝而不是堆积到下游队列; 下游恢复后上限逐步回升
+ * <pre>{@code
+ * Bulkhead bulkhead = new AdaptiveBulkhead("bd-ocr", new GradientLimit(10, 2, 200));
+ * BdOcrClient client = new BdOcrClient(config, cache, bulkhead);
+ * }</pre>
+ * <li>耗时从获取许可到关闭许可计算, 下游过载(超时、连接/IO异常、429/503)需通过 {@link Permit#drop()} 标记, {@link #execute} 按 {@link Bulkhead#isOverload(Throwable)} 自动标记</li>
+ * <li>等待者按FIFO排队, 上限调高或许可释放时唤醒</li>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class AdaptiveBulkhead extends AbstractBulkhead {
+
+    private final AdaptiveLimit limit;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition available = lock.newCondition();
+
+    /**
+     * 进行中的调用数, 受 lock 保护
+     */
+    private int inflight;
+
+    /**
+     * 构造函数, 不排队, 超出上限立即拒绝
+     *
+     * @param name  名称
+     * @param limit 并发上限算法
+     */
+    public AdaptiveBulkhead(String name, AdaptiveLimit limit) {
+        this(name, limit, Duration.ZERO);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param name         名称
+     * @param limit        并发上限算法
+     * @param queueTimeout 默认排队超时时间, 0表示不排队
+     */
+    public AdaptiveBulkhead(String name, AdaptiveLimit limit, Duration queueTimeout) {
+        super(name, Assert.notNull(limit, "limit不能为空").getLimit(), queueTimeout);
+        this.limit = limit;
+    }
+
+    /**
+     * @return 当前并发上限, 随调用耗时变化
+     */
+    @Override
+    public int getMaxConcurrent() {
+        lock.lock();
+        try {
+            return limit.getLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int availablePermits() {
+        lock.lock();
+        try {
+            return Math.max(0, limit.getLimit() - inflight);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected Runnable doAcquire(long deadline) {
+        try {
+            lock.lockInterruptibly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        try {
+            // 已有等待者时新请求排在后面, 保证FIFO
+            boolean queued = lock.hasWaiters(available);
+            while (queued || inflight >= limit.getLimit()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    // 超时前可能刚收到唤醒, 转交给下一个等待者
+                    if (inflight < limit.getLimit()) available.signal();
+                    return null;
+                }
+                available.awaitNanos(remaining);
+                queued = false;
+            }
+            inflight++;
+            return this::release;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected void onCompleted(long rttNanos, boolean dropped) {
+        lock.lock();
+        try {
+            int before = limit.getLimit();
+            int after = limit.update(rttNanos, inflight, dropped);
+            for (int i = before; i < after; i++) {
+                available.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            inflight--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveBulkhead{" +
+                "name='" + name + '\'' +
+                ", limit=" + limit +
+                ", inflight=" + inflight +
+                '}';
+    }
+}
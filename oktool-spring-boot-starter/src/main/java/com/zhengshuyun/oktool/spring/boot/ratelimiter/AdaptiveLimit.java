@@ -0,0 +1,43 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+/**
+ * 自适应并发上限算法, 根据每次调用的往返耗时调整并发上限
+ * <p>
+ * 实现不需要线程安全, 由 {@link AdaptiveBulkhead} 串行调用
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public interface AdaptiveLimit {
+
+    /**
+     * @return 当前并发上限
+     */
+    int getLimit();
+
+    /**
+     * 记录一次调用结果
+     *
+     * @param rttNanos 往返耗时(纳秒)
+     * @param inflight 调用结束时进行中的调用数(含本次)
+     * @param dropped  调用是否失败(超时、拒绝等过载表现)
+     * @return 新的并发上限
+     */
+    int update(long rttNanos, int inflight, boolean dropped);
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import com.zhengshuyun.oktool.core.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * 加性增、乘性减(AIMD)并发上限
+ * <li>调用失败或耗时超过阈值: 上限乘以回退系数</li>
+ * <li>否则且并发用到上限的一半以上: 上限加1; 并发用不满时不增长, 避免上限虚高</li>
+ * <p>
+ * 只依赖失败信号和固定阈值, 适合耗时稳定、超时明确的下游
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class AimdLimit implements AdaptiveLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long timeoutNanos;
+
+    private int limit;
+
+    /**
+     * 构造函数, 回退系数0.9
+     *
+     * @param initialLimit 初始上限
+     * @param minLimit     最小上限
+     * @param maxLimit     最大上限
+     * @param timeout      耗时阈值, 超过视为过载
+     */
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, Duration timeout) {
+        this(initialLimit, minLimit, maxLimit, timeout, 0.9);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param initialLimit 初始上限
+     * @param minLimit     最小上限
+     * @param maxLimit     最大上限
+     * @param timeout      耗时阈值, 超过视为过载
+     * @param backoffRatio 回退系数, 取值(0, 1)
+     */
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, Duration timeout, double backoffRatio) {
+        Assert.isTrue(minLimit > 0, "最小上限必须大于0");
+        Assert.isTrue(minLimit <= initialLimit && initialLimit <= maxLimit, "初始上限必须在最小上限和最大上限之间");
+        Assert.isTrue(timeout != null && timeout.isPositive(), "耗时阈值必须大于0");
+        Assert.isTrue(backoffRatio > 0 && backoffRatio < 1, "回退系数必须在0到1之间");
+
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.timeoutNanos = timeout.toNanos();
+        this.backoffRatio = backoffRatio;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public int update(long rttNanos, int inflight, boolean dropped) {
+        if (dropped || rttNanos > timeoutNanos) {
+            limit = Math.max(minLimit, (int) (limit * backoffRatio));
+        } else if (inflight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return "AimdLimit{" +
+                "limit=" + limit +
+                ", minLimit=" + minLimit +
+                ", maxLimit=" + maxLimit +
+                ", backoffRatio=" + backoffRatio +
+                ", timeoutNanos=" + timeoutNanos +
+                '}';
+    }
+}
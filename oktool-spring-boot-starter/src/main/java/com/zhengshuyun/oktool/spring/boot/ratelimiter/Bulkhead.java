@@ -0,0 +1,176 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 并发隔离舱, 限制同时进行中的调用数量
+ * <p>
+ * 与限流器不同, 限制的是并发数而不是速率, 用于防止某个慢的下游占满所有线程
+ * <pre>{@code
+ * try (Bulkhead.Permit permit = bulkhead.acquire()) {
+ *     // 调用下游
+ * }
+ * }</pre>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public interface Bulkhead {
+
+    /**
+     * @return 名称
+     */
+    String getName();
+
+    /**
+     * @return 最大并发数
+     */
+    int getMaxConcurrent();
+
+    /**
+     * @return 默认排队超时时间
+     */
+    Duration getQueueTimeout();
+
+    /**
+     * @return 当前剩余的并发许可数
+     */
+    int availablePermits();
+
+    /**
+     * 在超时时间内获取许可
+     *
+     * @param timeout 排队超时时间, 0表示不等待
+     * @return 许可, 超时未获取时为null
+     */
+    Permit tryAcquire(Duration timeout);
+
+    /**
+     * 立即尝试获取许可
+     *
+     * @return 许可, 没有剩余许可时为null
+     */
+    default Permit tryAcquire() {
+        return tryAcquire(Duration.ZERO);
+    }
+
+    /**
+     * 在默认排队超时时间内获取许可
+     *
+     * @return 许可
+     * @throws BulkheadFullException 超时未获取
+     */
+    default Permit acquire() {
+        return acquire(getQueueTimeout());
+    }
+
+    /**
+     * 在超时时间内获取许可
+     *
+     * @param timeout 排队超时时间
+     * @return 许可
+     * @throws BulkheadFullException 超时未获取
+     */
+    default Permit acquire(Duration timeout) {
+        Permit permit = tryAcquire(timeout);
+        if (permit == null) {
+            throw new BulkheadFullException("并发数已达上限: " + getName());
+        }
+        return permit;
+    }
+
+    /**
+     * 获取许可后执行, 执行完释放, 因下游过载失败时标记为 {@link Permit#drop()}, 见 {@link #isOverload(Throwable)}
+     *
+     * @param supplier 受保护的调用
+     * @return 调用结果
+     * @throws BulkheadFullException 排队超时
+     */
+    default <T> T execute(Supplier<T> supplier) {
+        try (Permit permit = acquire()) {
+            try {
+                return supplier.get();
+            } catch (RuntimeException e) {
+                if (isOverload(e)) permit.drop();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 获取许可后执行, 执行完释放, 因下游过载失败时标记为 {@link Permit#drop()}, 见 {@link #isOverload(Throwable)}
+     *
+     * @param runnable 受保护的调用
+     * @throws BulkheadFullException 排队超时
+     */
+    default void run(Runnable runnable) {
+        try (Permit permit = acquire()) {
+            try {
+                runnable.run();
+            } catch (RuntimeException e) {
+                if (isOverload(e)) permit.drop();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 异常是否表示下游过载: 异常链中有超时或连接/IO异常
+     * <p>
+     * 参数校验、业务错误等不代表下游过载, 不应收缩并发上限
+     *
+     * @param e 调用异常
+     * @return 是否过载
+     */
+    static boolean isOverload(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof IOException) return true;
+        }
+        return false;
+    }
+
+    /**
+     * HTTP状态码是否表示下游过载: 429(请求过多) 或 503(服务不可用)
+     *
+     * @param status HTTP状态码
+     * @return 是否过载
+     */
+    static boolean isOverload(int status) {
+        return status == 429 || status == 503;
+    }
+
+    /**
+     * 并发许可, 关闭即释放, 重复关闭无副作用
+     */
+    interface Permit extends AutoCloseable {
+        @Override
+        void close();
+
+        /**
+         * 标记本次调用因下游过载失败(超时、连接/IO异常、429/503), 需在 {@link #close()} 之前调用
+         * <p>
+         * 自适应隔离舱据此收缩并发上限, 其他实现忽略
+         */
+        default void drop() {
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+/**
+ * 隔离舱事件监听, 用于监控
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public interface BulkheadListener {
+
+    /**
+     * 不处理任何事件
+     */
+    BulkheadListener NONE = new BulkheadListener() {
+    };
+
+    /**
+     * 获取到许可
+     *
+     * @param bulkhead    隔离舱
+     * @param queuedNanos 排队时间(ns)
+     */
+    default void onAcquired(Bulkhead bulkhead, long queuedNanos) {
+    }
+
+    /**
+     * 排队超时被拒绝
+     *
+     * @param bulkhead    隔离舱
+     * @param queuedNanos 排队时间(ns)
+     */
+    default void onRejected(Bulkhead bulkhead, long queuedNanos) {
+    }
+
+    /**
+     * 释放许可
+     *
+     * @param bulkhead  隔离舱
+     * @param heldNanos 持有时间(ns), 即受保护调用的耗时
+     */
+    default void onReleased(Bulkhead bulkhead, long heldNanos) {
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import com.zhengshuyun.oktool.core.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * 基于耗时梯度的并发上限(Vegas/Gradient思路)
+ * <p>
+ * 以观察到的最小耗时作为下游空闲时的基准, 当前耗时(短期均线)高于基准说明请求开始在下游排队, 按比例收缩上限;
+ * 持平时上限按 sqrt(limit) 的余量缓慢增长
+ * <pre>
+ * gradient = clamp(tolerance * minRtt / shortRtt, 0.5, 1)
+ * newLimit = limit * gradient + sqrt(limit)
+ * limit    = limit * (1 - smoothing) + newLimit * smoothing
+ * </pre>
+ * <li>调用失败按最小梯度0.5处理</li>
+ * <li>并发用不满上限的一半时只收缩不增长, 避免上限虚高</li>
+ * <li>基准每个探测周期重置为当前耗时(单次最多翻倍), 下游整体变慢后上限不会一直停留在最小值</li>
+ * <p>
+ * 不需要预设耗时阈值, 适合耗时随负载变化明显的下游
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class GradientLimit implements AdaptiveLimit {
+
+    /**
+     * 短期均线窗口(调用次数)
+     */
+    private static final int SHORT_WINDOW = 10;
+
+    /**
+     * 默认基准探测周期
+     */
+    private static final Duration DEFAULT_PROBE_INTERVAL = Duration.ofSeconds(30);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final long probeIntervalNanos;
+
+    private double limit;
+    private double shortRtt;
+    private double minRtt;
+    private long nextProbe;
+
+    /**
+     * 构造函数, 耗时容忍系数1.5, 平滑系数0.2, 探测周期30秒
+     *
+     * @param initialLimit 初始上限
+     * @param minLimit     最小上限
+     * @param maxLimit     最大上限
+     */
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, 1.5, 0.2, DEFAULT_PROBE_INTERVAL);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param initialLimit  初始上限
+     * @param minLimit      最小上限
+     * @param maxLimit      最大上限
+     * @param tolerance     耗时容忍系数, 当前耗时不超过基准的该倍数时不收缩, 不小于1
+     * @param smoothing     平滑系数, 取值(0, 1], 越大上限变化越快
+     * @param probeInterval 基准探测周期
+     */
+    public GradientLimit(int initialLimit,
+                         int minLimit,
+                         int maxLimit,
+                         double tolerance,
+                         double smoothing,
+                         Duration probeInterval) {
+        Assert.isTrue(minLimit > 0, "最小上限必须大于0");
+        Assert.isTrue(minLimit <= initialLimit && initialLimit <= maxLimit, "初始上限必须在最小上限和最大上限之间");
+        Assert.isTrue(tolerance >= 1, "耗时容忍系数不能小于1");
+        Assert.isTrue(smoothing > 0 && smoothing <= 1, "平滑系数必须在0到1之间");
+        Assert.isTrue(probeInterval != null && probeInterval.isPositive(), "探测周期必须大于0");
+
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.probeIntervalNanos = probeInterval.toNanos();
+    }
+
+    @Override
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    @Override
+    public int update(long rttNanos, int inflight, boolean dropped) {
+        if (rttNanos <= 0) return (int) limit;
+
+        long now = System.nanoTime();
+        if (minRtt == 0) {
+            shortRtt = rttNanos;
+            minRtt = rttNanos;
+            nextProbe = now + probeIntervalNanos;
+        } else {
+            shortRtt += (rttNanos - shortRtt) / SHORT_WINDOW;
+            if (now - nextProbe >= 0) {
+                // 重置基准, 单次最多翻倍, 避免在过载时探测把基准抬得过高
+                minRtt = Math.min(shortRtt, minRtt * 2);
+                nextProbe = now + probeIntervalNanos;
+            } else {
+                minRtt = Math.min(minRtt, shortRtt);
+            }
+        }
+
+        double gradient = dropped ? 0.5 : Math.max(0.5, Math.min(1.0, tolerance * minRtt / shortRtt));
+        // 并发用不满时耗时不能反映下游容量, 只收缩不增长
+        double queueSize = inflight * 2 < limit ? 0 : Math.sqrt(limit);
+        double newLimit = limit * gradient + queueSize;
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        return (int) limit;
+    }
+
+    @Override
+    public String toString() {
+        return "GradientLimit{" +
+                "limit=" + limit +
+                ", shortRtt=" + shortRtt +
+                ", minRtt=" + minRtt +
+                ", minLimit=" + minLimit +
+                ", maxLimit=" + maxLimit +
+                '}';
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import cn.hutool.v7.core.thread.ratelimiter.RateLimiter;
+import cn.hutool.v7.core.thread.ratelimiter.RateLimiterConfig;
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.core.util.KeyBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * 按key区分的分布式限流器注册表, 例如按租户、登录ID限流
+ *
+ * <li>每个key的限流配置由 configResolver 决定, 返回null表示该key不限流</li>
+ * <li>每个key对应一个独立的限流器(Redis Key为 name:key), 按需创建, 空闲超过 idleTimeout 后移除本地对象</li>
+ * <li>{@link #tryAcquire(Map)} 把多个key的脚本放在一次流水线中执行</li>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class KeyedRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyedRateLimiter.class);
+
+    /**
+     * 默认空闲移除时间
+     */
+    private static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String name;
+    private final RateLimiterAlgorithm algorithm;
+    private final Function<String, RateLimiterConfig> configResolver;
+    private final long idleNanos;
+
+    private final ConcurrentHashMap<String, Holder> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * 上次清理空闲限流器的时间(System.nanoTime)
+     */
+    private volatile long lastSweep = System.nanoTime();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    /**
+     * 构造函数, 使用令牌桶算法, 空闲10分钟后移除
+     *
+     * @param redisTemplate  Redis操作模板
+     * @param name           限流器名称
+     * @param configResolver 按key获取限流配置, 返回null表示不限流
+     */
+    public KeyedRateLimiter(StringRedisTemplate redisTemplate,
+                            String name,
+                            Function<String, RateLimiterConfig> configResolver) {
+        this(redisTemplate, name, RateLimiterAlgorithm.TOKEN_BUCKET, configResolver, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param redisTemplate  Redis操作模板
+     * @param name           限流器名称
+     * @param algorithm      限流算法
+     * @param configResolver 按key获取限流配置, 返回null表示不限流
+     * @param idleTimeout    空闲多久后移除本地限流器(Redis中的数据按各自的过期时间清理)
+     */
+    public KeyedRateLimiter(StringRedisTemplate redisTemplate,
+                            String name,
+                            RateLimiterAlgorithm algorithm,
+                            Function<String, RateLimiterConfig> configResolver,
+                            Duration idleTimeout) {
+        Assert.notNull(redisTemplate, "redisTemplate");
+        Assert.notBlankParam(name, "name");
+        Assert.notNullParam(algorithm, "algorithm");
+        Assert.notNullParam(configResolver, "configResolver");
+        Assert.isTrue(idleTimeout != null && idleTimeout.isPositive(), "空闲移除时间必须大于0");
+
+        this.redisTemplate = redisTemplate;
+        this.name = name;
+        this.algorithm = algorithm;
+        this.configResolver = configResolver;
+        this.idleNanos = idleTimeout.toNanos();
+    }
+
+    /**
+     * 获取key对应的限流器
+     *
+     * @param key 限流key
+     * @return 限流器, 该key不限流时为null
+     */
+    public RateLimiter get(String key) {
+        Assert.notBlank(key, "key不能为空");
+
+        long now = System.nanoTime();
+        // 在compute中更新访问时间, 与清理时的移除互斥: 已返回给调用方的限流器不会被判定为空闲
+        Holder holder = limiters.compute(key, (k, current) -> {
+            Holder result = current == null ? create(k) : current;
+            result.lastAccess = now;
+            return result;
+        });
+        sweepIfNeeded(now);
+        return holder.limiter;
+    }
+
+    public boolean tryAcquire(String key) {
+        return tryAcquire(key, 1);
+    }
+
+    /**
+     * 立即尝试获取令牌
+     *
+     * @param key     限流key
+     * @param permits 请求令牌数
+     * @return 是否获取成功, 不限流的key总是成功
+     */
+    public boolean tryAcquire(String key, int permits) {
+        RateLimiter limiter = get(key);
+        return limiter == null || limiter.tryAcquire(permits);
+    }
+
+    /**
+     * 在超时时间内获取令牌
+     *
+     * @param key     限流key
+     * @param permits 请求令牌数
+     * @param timeout 超时时间
+     * @return 是否获取成功, 不限流的key总是成功
+     */
+    public boolean tryAcquire(String key, int permits, Duration timeout) {
+        RateLimiter limiter = get(key);
+        if (limiter == null) return true;
+        if (limiter instanceof RedisRateLimiter redisLimiter) {
+            return redisLimiter.tryAcquire(permits, timeout);
+        }
+        return limiter.tryAcquire(permits);
+    }
+
+    /**
+     * 阻塞获取令牌
+     *
+     * @param key     限流key
+     * @param permits 请求令牌数
+     */
+    public void acquire(String key, int permits) {
+        RateLimiter limiter = get(key);
+        if (limiter != null) {
+            limiter.acquire(permits);
+        }
+    }
+
+    /**
+     * 批量立即尝试获取令牌, 多个key的脚本在一次流水线中执行
+     *
+     * @param permits key与请求令牌数
+     * @return key与是否获取成功, 顺序与参数一致
+     */
+    public Map<String, Boolean> tryAcquire(Map<String, Integer> permits) {
+        Assert.notEmpty(permits, "permits不能为空");
+
+        Map<String, Boolean> results = new LinkedHashMap<>();
+        List<String> batchKeys = new ArrayList<>();
+        List<AbstractRedisRateLimiter> batchLimiters = new ArrayList<>();
+        List<Integer> batchPermits = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : permits.entrySet()) {
+            Assert.notNull(entry.getValue(), "请求令牌数不能为空");
+            RateLimiter limiter = get(entry.getKey());
+            if (limiter instanceof AbstractRedisRateLimiter redisLimiter) {
+                redisLimiter.checkPermits(entry.getValue());
+                results.put(entry.getKey(), false);
+                batchKeys.add(entry.getKey());
+                batchLimiters.add(redisLimiter);
+                batchPermits.add(entry.getValue());
+            } else {
+                // 不限流或本地租约限流器, 不需要访问Redis
+                results.put(entry.getKey(), limiter == null || limiter.tryAcquire(entry.getValue()));
+            }
+        }
+
+        if (!batchLimiters.isEmpty()) {
+            List<Long> waits = AbstractRedisRateLimiter.executeBatch(redisTemplate, batchLimiters, batchPermits);
+            for (int i = 0; i < batchKeys.size(); i++) {
+                results.put(batchKeys.get(i), waits.get(i) == 0);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 当前本地持有的限流器数量
+     */
+    public int size() {
+        return limiters.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private Holder create(String key) {
+        RateLimiterConfig config = configResolver.apply(key);
+        if (config == null) return new Holder(null);
+        return new Holder(algorithm.create(redisTemplate, config, KeyBuilder.of(name).add(key).build()));
+    }
+
+    /**
+     * 每隔 idleTimeout 清理一次空闲的限流器, 由访问线程顺带执行
+     */
+    private void sweepIfNeeded(long now) {
+        if (now - lastSweep < idleNanos || !sweeping.compareAndSet(false, true)) return;
+        try {
+            lastSweep = now;
+            for (Map.Entry<String, Holder> entry : limiters.entrySet()) {
+                Holder holder = entry.getValue();
+                if (now - holder.lastAccess < idleNanos) continue;
+
+                // 移除前在compute中重新检查, 期间被访问的保留
+                AtomicBoolean removed = new AtomicBoolean();
+                limiters.computeIfPresent(entry.getKey(), (key, current) -> {
+                    if (current != holder || now - current.lastAccess < idleNanos) return current;
+                    removed.set(true);
+                    return null;
+                });
+                // 已移除的限流器不会再被get返回, 此时才归还租约令牌
+                if (removed.get() && holder.limiter instanceof RedisLeasedTokenBucketRateLimiter leasedLimiter) {
+                    try {
+                        leasedLimiter.release();
+                    } catch (Exception e) {
+                        log.warn("限流器归还令牌失败, name: {}, key: {}, 原因: {}", name, entry.getKey(), e.getMessage());
+                    }
+                }
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private static final class Holder {
+        /**
+         * 限流器, null表示不限流
+         */
+        final RateLimiter limiter;
+        /**
+         * 上次访问时间(System.nanoTime), 只在compute中更新
+         */
+        volatile long lastAccess = System.nanoTime();
+
+        Holder(RateLimiter limiter) {
+            this.limiter = limiter;
+        }
+    }
+}
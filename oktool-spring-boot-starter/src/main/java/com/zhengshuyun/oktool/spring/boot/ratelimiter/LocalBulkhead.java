@@ -0,0 +1,76 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地隔离舱, 基于公平信号量, 只限制当前节点的并发数
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class LocalBulkhead extends AbstractBulkhead {
+
+    private final Semaphore semaphore;
+
+    /**
+     * 构造函数, 不排队
+     *
+     * @param name          名称
+     * @param maxConcurrent 最大并发数
+     */
+    public LocalBulkhead(String name, int maxConcurrent) {
+        this(name, maxConcurrent, Duration.ZERO);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param name          名称
+     * @param maxConcurrent 最大并发数
+     * @param queueTimeout  默认排队超时时间, 0表示不排队
+     */
+    public LocalBulkhead(String name, int maxConcurrent, Duration queueTimeout) {
+        super(name, maxConcurrent, queueTimeout);
+        this.semaphore = new Semaphore(maxConcurrent, true);
+    }
+
+    @Override
+    public int availablePermits() {
+        return semaphore.availablePermits();
+    }
+
+    @Override
+    protected Runnable doAcquire(long deadline) {
+        long timeout = deadline - System.nanoTime();
+        boolean acquired;
+        if (timeout <= 0) {
+            acquired = semaphore.tryAcquire();
+        } else {
+            try {
+                acquired = semaphore.tryAcquire(timeout, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return acquired ? semaphore::release : null;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import com.zhengshuyun.oktool.core.util.Assert;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 隔离舱监控指标
+ * <li>oktool.bulkhead.queue: 排队耗时分布, 标签 result(acquired/rejected), 拒绝次数即 result=rejected 的计数</li>
+ * <li>oktool.bulkhead.calls: 许可持有时长(即下游调用耗时)分布</li>
+ * <li>oktool.bulkhead.active: 本节点持有中的许可数</li>
+ * <li>oktool.bulkhead.limit: 当前并发上限, 仅 {@link AdaptiveBulkhead}</li>
+ *
+ * <p>所有指标带 name 标签, 值为隔离舱名称; 一个监听器可绑定多个隔离舱</p>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class MeteredBulkheadListener implements BulkheadListener {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 隔离舱名称 -> [排队成功, 排队被拒, 持有时长]
+     */
+    private final Map<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    public MeteredBulkheadListener(MeterRegistry meterRegistry) {
+        Assert.notNullParam(meterRegistry, "meterRegistry");
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 绑定隔离舱: 注册监听器和活跃许可数指标
+     */
+    public void bind(AbstractBulkhead bulkhead) {
+        Assert.notNullParam(bulkhead, "bulkhead");
+        bulkhead.setListener(this);
+        Gauge.builder("oktool.bulkhead.active", bulkhead, AbstractBulkhead::getActiveCount)
+                .tag("name", bulkhead.getName())
+                .register(meterRegistry);
+        if (bulkhead instanceof AdaptiveBulkhead adaptive) {
+            Gauge.builder("oktool.bulkhead.limit", adaptive, AdaptiveBulkhead::getMaxConcurrent)
+                    .tag("name", bulkhead.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public void onAcquired(Bulkhead bulkhead, long queuedNanos) {
+        timers(bulkhead)[0].record(queuedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onRejected(Bulkhead bulkhead, long queuedNanos) {
+        timers(bulkhead)[1].record(queuedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onReleased(Bulkhead bulkhead, long heldNanos) {
+        timers(bulkhead)[2].record(heldNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer[] timers(Bulkhead bulkhead) {
+        return timers.computeIfAbsent(bulkhead.getName(), name -> new Timer[]{
+                Timer.builder("oktool.bulkhead.queue").tags("name", name, "result", "acquired").register(meterRegistry),
+                Timer.builder("oktool.bulkhead.queue").tags("name", name, "result", "rejected").register(meterRegistry),
+                Timer.builder("oktool.bulkhead.calls").tag("name", name).register(meterRegistry)
+        });
+    }
+}
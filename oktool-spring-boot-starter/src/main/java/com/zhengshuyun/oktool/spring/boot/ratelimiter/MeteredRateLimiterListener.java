@@ -0,0 +1,118 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import com.zhengshuyun.oktool.core.util.Assert;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流器监控指标
+ * <li>oktool.ratelimiter.requests: 请求次数, 标签 result(granted/rejected)</li>
+ * <li>oktool.ratelimiter.permits: 放行的令牌数</li>
+ * <li>oktool.ratelimiter.wait: 排队等待时间分布, 仅阻塞获取</li>
+ * <li>oktool.ratelimiter.script: 限流脚本往返耗时分布</li>
+ * <li>oktool.ratelimiter.available: 剩余令牌数, 每次采集访问一次Redis</li>
+ *
+ * <p>{@link RedisLeasedTokenBucketRateLimiter} 的本地扣减同样计入请求与令牌数, 脚本耗时只在向Redis租借时记录</p>
+ * <p>所有指标带 name 标签, 值为限流器名称; 一个监听器可绑定多个限流器。
+ * {@link KeyedRateLimiter} 每个key一个限流器, 绑定前注意标签数量</p>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class MeteredRateLimiterListener implements RateLimiterListener {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 限流器名称 -> 指标
+     */
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public MeteredRateLimiterListener(MeterRegistry meterRegistry) {
+        Assert.notNullParam(meterRegistry, "meterRegistry");
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 绑定限流器: 注册监听器和剩余令牌数指标
+     */
+    public void bind(RedisRateLimiter limiter) {
+        Assert.notNullParam(limiter, "limiter");
+        limiter.setListener(this);
+        Gauge.builder("oktool.ratelimiter.available", limiter, MeteredRateLimiterListener::available)
+                .tag("name", limiter.getName())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onGranted(RedisRateLimiter limiter, int permits, long waitNanos) {
+        Meters meters = meters(limiter);
+        meters.granted.increment();
+        meters.permits.increment(permits);
+        if (waitNanos > 0) meters.waitGranted.record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onRejected(RedisRateLimiter limiter, int permits, long waitNanos) {
+        Meters meters = meters(limiter);
+        meters.rejected.increment();
+        if (waitNanos > 0) meters.waitRejected.record(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onScript(RedisRateLimiter limiter, long scriptNanos) {
+        meters(limiter).script.record(scriptNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Meters meters(RedisRateLimiter limiter) {
+        return meters.computeIfAbsent(limiter.getName(), name -> new Meters(
+                Counter.builder("oktool.ratelimiter.requests").tags("name", name, "result", "granted").register(meterRegistry),
+                Counter.builder("oktool.ratelimiter.requests").tags("name", name, "result", "rejected").register(meterRegistry),
+                Counter.builder("oktool.ratelimiter.permits").tag("name", name).register(meterRegistry),
+                Timer.builder("oktool.ratelimiter.wait").tags("name", name, "result", "granted").register(meterRegistry),
+                Timer.builder("oktool.ratelimiter.wait").tags("name", name, "result", "rejected").register(meterRegistry),
+                Timer.builder("oktool.ratelimiter.script").tag("name", name).register(meterRegistry)
+        ));
+    }
+
+    /**
+     * Redis不可用时不影响指标采集
+     */
+    private static double available(RedisRateLimiter limiter) {
+        try {
+            return limiter.availablePermits();
+        } catch (Exception e) {
+            return Double.NaN;
+        }
+    }
+
+    private record Meters(Counter granted,
+                          Counter rejected,
+                          Counter permits,
+                          Timer waitGranted,
+                          Timer waitRejected,
+                          Timer script) {
+    }
+}
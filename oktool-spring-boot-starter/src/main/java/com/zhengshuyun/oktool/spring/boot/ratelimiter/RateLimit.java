@@ -0,0 +1,83 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import java.lang.annotation.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式限流
+ * <p>
+ * 示例: {@code @RateLimit(key = "#tenantId", rate = 100)} 每个租户每秒最多100次
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RateLimit {
+    /**
+     * 限流器名称, 默认为 类名.方法名(参数类型), 例如 UserService.login(String,int)
+     */
+    String name() default "";
+
+    /**
+     * 限流key(SpEL), 可引用方法参数, 如 #tenantId、#p0; 为空时所有调用共用一个限流器
+     */
+    String key() default "";
+
+    /**
+     * 每个周期发放的令牌数
+     */
+    int rate() default 0;
+
+    /**
+     * 周期
+     */
+    long period() default 1;
+
+    /**
+     * 周期单位
+     */
+    TimeUnit timeUnit() default TimeUnit.SECONDS;
+
+    /**
+     * 桶容量(允许的突发), 小于等于0时等于 rate
+     */
+    int capacity() default 0;
+
+    /**
+     * 每次调用消耗的令牌数
+     */
+    int permits() default 1;
+
+    /**
+     * 获取令牌的最长等待时间(ms), 小于等于0表示不等待
+     */
+    long timeout() default 0;
+
+    /**
+     * 限流算法
+     */
+    RateLimiterAlgorithm algorithm() default RateLimiterAlgorithm.TOKEN_BUCKET;
+
+    /**
+     * 使用容器中的 {@link KeyedRateLimiter} (bean名称), 可按key返回不同配置;
+     * 设置后忽略 rate/period/timeUnit/capacity/algorithm
+     */
+    String limiter() default "";
+}
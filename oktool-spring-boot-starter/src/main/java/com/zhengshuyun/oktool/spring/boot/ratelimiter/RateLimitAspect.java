@@ -0,0 +1,122 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import cn.hutool.v7.core.thread.ratelimiter.RateLimiterConfig;
+import com.zhengshuyun.oktool.core.util.Assert;
+import jakarta.annotation.Resource;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * {@link RateLimit} 切面
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+@Aspect
+public class RateLimitAspect {
+
+    /**
+     * 未配置key或key的值为null时使用的key
+     */
+    private static final String DEFAULT_KEY = "default";
+
+    @Resource
+    private BeanFactory beanFactory;
+
+    private final ExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    /**
+     * 注解声明的限流器, 每个方法一个
+     */
+    private final ConcurrentHashMap<Method, KeyedRateLimiter> limiters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    @Around("@annotation(rateLimit)")
+    public Object around(ProceedingJoinPoint joinPoint, RateLimit rateLimit) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        KeyedRateLimiter limiter = getLimiter(method, rateLimit);
+        String key = resolveKey(method, joinPoint, rateLimit);
+
+        boolean acquired = rateLimit.timeout() > 0
+                ? limiter.tryAcquire(key, rateLimit.permits(), Duration.ofMillis(rateLimit.timeout()))
+                : limiter.tryAcquire(key, rateLimit.permits());
+        if (!acquired) {
+            throw new RateLimitException("请求过于频繁, 请稍后再试");
+        }
+
+        return joinPoint.proceed();
+    }
+
+    private KeyedRateLimiter getLimiter(Method method, RateLimit rateLimit) {
+        if (!rateLimit.limiter().isBlank()) {
+            return beanFactory.getBean(rateLimit.limiter(), KeyedRateLimiter.class);
+        }
+
+        return limiters.computeIfAbsent(method, m -> {
+            Assert.isTrue(rateLimit.rate() > 0, "@RateLimit的rate必须大于0: {}", m);
+            Assert.isTrue(rateLimit.period() > 0, "@RateLimit的period必须大于0: {}", m);
+
+            Duration period = Duration.of(rateLimit.period(), rateLimit.timeUnit().toChronoUnit());
+            int capacity = rateLimit.capacity() > 0 ? rateLimit.capacity() : rateLimit.rate();
+            RateLimiterConfig config = RateLimiterConfig.of(Duration.ZERO, period, rateLimit.rate(), capacity);
+            String name = rateLimit.name().isBlank() ? defaultName(m) : rateLimit.name();
+            return new KeyedRateLimiter(beanFactory.getBean(StringRedisTemplate.class), name,
+                    rateLimit.algorithm(), key -> config, Duration.ofMinutes(10));
+        });
+    }
+
+    /**
+     * 默认限流器名称, 包含参数类型, 重载方法各自独立限流
+     */
+    private static String defaultName(Method method) {
+        return Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(",", method.getDeclaringClass().getSimpleName() + "." + method.getName() + "(", ")"));
+    }
+
+    /**
+     * 解析限流key
+     */
+    private String resolveKey(Method method, ProceedingJoinPoint joinPoint, RateLimit rateLimit) {
+        if (rateLimit.key().isBlank()) return DEFAULT_KEY;
+
+        Expression expression = expressions.computeIfAbsent(rateLimit.key(), parser::parseExpression);
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(
+                joinPoint.getTarget(), method, joinPoint.getArgs(), parameterNameDiscoverer);
+        Object value = expression.getValue(context);
+        if (value == null || value.toString().isBlank()) return DEFAULT_KEY;
+        return value.toString();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import cn.hutool.v7.core.thread.ratelimiter.RateLimiter;
+import cn.hutool.v7.core.thread.ratelimiter.RateLimiterConfig;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 分布式限流算法, 便于通过配置切换
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public enum RateLimiterAlgorithm {
+
+    /**
+     * 令牌桶, 见 {@link RedisTokenBucketRateLimiter}
+     */
+    TOKEN_BUCKET,
+
+    /**
+     * 本地租约令牌桶, 见 {@link RedisLeasedTokenBucketRateLimiter}
+     */
+    LEASED_TOKEN_BUCKET,
+
+    /**
+     * GCRA, 见 {@link RedisGcraRateLimiter}
+     */
+    GCRA,
+
+    /**
+     * 滑动窗口, 见 {@link RedisSlidingWindowRateLimiter}
+     */
+    SLIDING_WINDOW;
+
+    /**
+     * 创建限流器
+     *
+     * @param redisTemplate Redis操作模板
+     * @param config        Hutool配置对象
+     * @param name          限流器名称（用于区分不同限流器）
+     * @return 限流器
+     */
+    public RateLimiter create(StringRedisTemplate redisTemplate, RateLimiterConfig config, String name) {
+        return switch (this) {
+            case TOKEN_BUCKET -> new RedisTokenBucketRateLimiter(redisTemplate, config, name);
+            case LEASED_TOKEN_BUCKET -> new RedisLeasedTokenBucketRateLimiter(redisTemplate, config, name);
+            case GCRA -> new RedisGcraRateLimiter(redisTemplate, config, name);
+            case SLIDING_WINDOW -> new RedisSlidingWindowRateLimiter(redisTemplate, config, name);
+        };
+    }
+}
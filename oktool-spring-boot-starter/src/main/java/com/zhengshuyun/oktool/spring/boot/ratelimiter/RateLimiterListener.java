@@ -0,0 +1,61 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+/**
+ * 限流器事件监听, 用于监控
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public interface RateLimiterListener {
+
+    /**
+     * 不处理任何事件
+     */
+    RateLimiterListener NONE = new RateLimiterListener() {
+    };
+
+    /**
+     * 获取到令牌
+     *
+     * @param limiter   限流器
+     * @param permits   令牌数
+     * @param waitNanos 排队等待时间(ns), 立即获取时为0
+     */
+    default void onGranted(RedisRateLimiter limiter, int permits, long waitNanos) {
+    }
+
+    /**
+     * 令牌不足被拒绝
+     *
+     * @param limiter   限流器
+     * @param permits   令牌数
+     * @param waitNanos 排队等待时间(ns), 立即返回时为0
+     */
+    default void onRejected(RedisRateLimiter limiter, int permits, long waitNanos) {
+    }
+
+    /**
+     * 执行了一次限流脚本
+     *
+     * @param limiter     限流器
+     * @param scriptNanos 脚本往返耗时(ns)
+     */
+    default void onScript(RedisRateLimiter limiter, long scriptNanos) {
+    }
+}
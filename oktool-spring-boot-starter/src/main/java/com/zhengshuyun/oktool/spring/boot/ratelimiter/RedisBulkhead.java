@@ -0,0 +1,308 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.core.util.KeyBuilder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于Redis的分布式隔离舱, 限制整个集群同时进行中的调用数量
+ *
+ * <li>每个许可是有序集合中的一个租约, 分数为到期时间(Redis服务器时间); 节点宕机未释放的租约到期后自动失效</li>
+ * <li>持有中的租约由后台任务每 leaseTime/3 续期一次, 调用耗时超过租约时间也不会被其他节点抢占</li>
+ * <li>排队: 同一节点的等待者按FIFO排队, 只有队首访问Redis; 本节点释放许可时立即唤醒队首, 其他节点释放的许可按轮询间隔发现</li>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class RedisBulkhead extends AbstractBulkhead {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisBulkhead.class);
+
+    /**
+     * 默认租约时间
+     */
+    private static final Duration DEFAULT_LEASE_TIME = Duration.ofSeconds(30);
+
+    /**
+     * 队首检查其他节点释放许可的最长间隔
+     */
+    private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    /**
+     * 租约续期任务, 所有隔离舱共用
+     */
+    private static final ScheduledExecutorService RENEW_EXECUTOR = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("oktool-bulkhead-lease").factory());
+
+    /**
+     * 租约ID前缀, 区分不同节点
+     */
+    private static final String NODE_ID = UUID.randomUUID().toString();
+
+    /**
+     * Lua脚本：获取许可
+     * <p>
+     * 参数说明：
+     * KEYS[1] - Redis Key
+     * ARGV[1] - 最大并发数
+     * ARGV[2] - 租约时间（毫秒）
+     * ARGV[3] - 租约ID
+     * <p>
+     * 返回值：
+     * 1 - 获取成功
+     * 0 - 并发数已满
+     */
+    private static final String ACQUIRE_SCRIPT = """
+            redis.replicate_commands()
+            local time = redis.call('time')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local lease = tonumber(ARGV[2])
+            
+            -- 清理到期的租约
+            redis.call('zremrangebyscore', KEYS[1], '-inf', now)
+            if redis.call('zcard', KEYS[1]) >= tonumber(ARGV[1]) then
+                return 0
+            end
+            
+            redis.call('zadd', KEYS[1], now + lease, ARGV[3])
+            redis.call('pexpire', KEYS[1], lease)
+            return 1
+            """;
+
+    /**
+     * Lua脚本：续期本节点持有的租约
+     * <p>
+     * 参数说明：
+     * KEYS[1] - Redis Key
+     * ARGV[1] - 租约时间（毫秒）
+     * ARGV[2..n] - 租约ID
+     * <p>
+     * 返回值：续期成功的数量(已到期被清理的租约不再恢复)
+     */
+    private static final String RENEW_SCRIPT = """
+            redis.replicate_commands()
+            local time = redis.call('time')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local lease = tonumber(ARGV[1])
+            
+            local renewed = 0
+            for i = 2, #ARGV do
+                renewed = renewed + redis.call('zadd', KEYS[1], 'XX', 'CH', now + lease, ARGV[i])
+            end
+            if renewed > 0 then
+                redis.call('pexpire', KEYS[1], lease)
+            end
+            return renewed
+            """;
+
+    /**
+     * Lua脚本：剩余许可数
+     */
+    private static final String AVAILABLE_SCRIPT = """
+            local time = redis.call('time')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            return tonumber(ARGV[1]) - redis.call('zcount', KEYS[1], '(' .. now, '+inf')
+            """;
+
+    private final StringRedisTemplate redisTemplate;
+    private final String redisKey;
+    private final byte[] rawKey;
+    private final byte[] maxConcurrentArg;
+    private final byte[] leaseArg;
+    private final DefaultRedisScript<Long> acquireScript;
+    private final DefaultRedisScript<Long> renewScript;
+    private final DefaultRedisScript<Long> availableScript;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 本节点持有中的租约ID
+     */
+    private final Set<String> leases = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 本节点等待者队列, 公平锁保证FIFO, 持有锁的队首才访问Redis
+     */
+    private final ReentrantLock queueLock = new ReentrantLock(true);
+
+    /**
+     * 本节点释放许可时唤醒队首
+     */
+    private final ReentrantLock signalLock = new ReentrantLock();
+    private final Condition released = signalLock.newCondition();
+
+    private final ScheduledFuture<?> renewTask;
+
+    /**
+     * 构造函数, 不排队, 租约30秒
+     *
+     * @param redisTemplate Redis操作模板
+     * @param name          名称
+     * @param maxConcurrent 集群最大并发数
+     */
+    public RedisBulkhead(StringRedisTemplate redisTemplate, String name, int maxConcurrent) {
+        this(redisTemplate, name, maxConcurrent, Duration.ZERO, DEFAULT_LEASE_TIME);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param redisTemplate Redis操作模板
+     * @param name          名称
+     * @param maxConcurrent 集群最大并发数
+     * @param queueTimeout  默认排队超时时间, 0表示不排队
+     * @param leaseTime     租约时间, 节点宕机后未释放的许可最多占用这么久
+     */
+    public RedisBulkhead(StringRedisTemplate redisTemplate,
+                         String name,
+                         int maxConcurrent,
+                         Duration queueTimeout,
+                         Duration leaseTime) {
+        super(name, maxConcurrent, queueTimeout);
+        Assert.notNull(redisTemplate, "redisTemplate");
+        Assert.isTrue(leaseTime != null && leaseTime.toMillis() >= 3, "租约时间不能小于3毫秒");
+
+        this.redisTemplate = redisTemplate;
+        this.redisKey = KeyBuilder.of("bulkhead").add(name).build();
+        this.rawKey = AbstractRedisRateLimiter.encode(redisKey);
+        this.maxConcurrentArg = AbstractRedisRateLimiter.encode(maxConcurrent);
+        this.leaseArg = AbstractRedisRateLimiter.encode(leaseTime.toMillis());
+        this.acquireScript = new DefaultRedisScript<>(ACQUIRE_SCRIPT, Long.class);
+        this.renewScript = new DefaultRedisScript<>(RENEW_SCRIPT, Long.class);
+        this.availableScript = new DefaultRedisScript<>(AVAILABLE_SCRIPT, Long.class);
+
+        long renewInterval = leaseTime.toMillis() / 3;
+        this.renewTask = RENEW_EXECUTOR.scheduleWithFixedDelay(this::renew, renewInterval, renewInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int availablePermits() {
+        Long result = redisTemplate.execute((RedisCallback<Long>) connection ->
+                AbstractRedisRateLimiter.eval(connection, availableScript, new byte[][]{rawKey, maxConcurrentArg}));
+        Assert.notNull(result, "Redis 操作失败");
+        return (int) Math.max(0, result);
+    }
+
+    @Override
+    protected Runnable doAcquire(long deadline) {
+        String leaseId = NODE_ID + ":" + sequence.incrementAndGet();
+
+        // 不排队: 直接尝试一次
+        if (deadline - System.nanoTime() <= 0) {
+            return tryAcquireLease(leaseId) ? () -> releaseLease(leaseId) : null;
+        }
+
+        try {
+            if (!queueLock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        try {
+            while (true) {
+                if (tryAcquireLease(leaseId)) return () -> releaseLease(leaseId);
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return null;
+
+                signalLock.lock();
+                try {
+                    released.awaitNanos(Math.min(remaining, POLL_INTERVAL_NANOS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                } finally {
+                    signalLock.unlock();
+                }
+            }
+        } finally {
+            queueLock.unlock();
+        }
+    }
+
+    /**
+     * 停止续期, 本节点持有的租约在到期后自动失效
+     */
+    @PreDestroy
+    public void shutdown() {
+        renewTask.cancel(false);
+    }
+
+    private boolean tryAcquireLease(String leaseId) {
+        byte[][] keysAndArgs = {rawKey, maxConcurrentArg, leaseArg, AbstractRedisRateLimiter.encode(leaseId)};
+        Long result = redisTemplate.execute((RedisCallback<Long>) connection ->
+                AbstractRedisRateLimiter.eval(connection, acquireScript, keysAndArgs));
+        if (result == null || result != 1L) return false;
+
+        leases.add(leaseId);
+        return true;
+    }
+
+    private void releaseLease(String leaseId) {
+        leases.remove(leaseId);
+        try {
+            redisTemplate.opsForZSet().remove(redisKey, leaseId);
+        } finally {
+            signalLock.lock();
+            try {
+                released.signal();
+            } finally {
+                signalLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 续期本节点持有的全部租约
+     */
+    private void renew() {
+        if (leases.isEmpty()) return;
+
+        try {
+            String[] ids = leases.toArray(String[]::new);
+            byte[][] keysAndArgs = new byte[ids.length + 2][];
+            keysAndArgs[0] = rawKey;
+            keysAndArgs[1] = leaseArg;
+            for (int i = 0; i < ids.length; i++) {
+                keysAndArgs[i + 2] = AbstractRedisRateLimiter.encode(ids[i]);
+            }
+            Long renewed = redisTemplate.execute((RedisCallback<Long>) connection ->
+                    AbstractRedisRateLimiter.eval(connection, renewScript, keysAndArgs));
+            if (renewed != null && renewed < ids.length) {
+                log.warn("隔离舱部分租约已过期, name: {}, 持有: {}, 续期成功: {}", name, ids.length, renewed);
+            }
+        } catch (Exception e) {
+            log.warn("隔离舱租约续期失败, name: {}, 原因: {}", name, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import cn.hutool.v7.core.thread.ratelimiter.RateLimiterConfig;
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.core.util.KeyBuilder;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * 基于Redis的分布式GCRA(通用信元速率算法)限流器
+ *
+ * <p>效果与令牌桶相同(速率 + 突发容量), 但每个key只保存一个理论到达时间(TAT), 一次 GET + SET PX 完成判断,
+ * 不需要哈希结构和单独的EXPIRE</p>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class RedisGcraRateLimiter extends AbstractRedisRateLimiter {
+
+    /**
+     * Lua脚本：GCRA算法
+     * <p>
+     * 参数说明：
+     * KEYS[1] - Redis Key
+     * ARGV[1] - 每个令牌的发放间隔（微秒）
+     * ARGV[2] - 突发容忍时间（微秒）, 即 桶容量 x 发放间隔
+     * ARGV[3] - 请求的令牌数
+     * <p>
+     * 当前时间取自Redis服务器（TIME）
+     * <p>
+     * 返回值：
+     * 0 - 获取成功
+     * 大于0 - 令牌不足, 还需等待的毫秒数
+     */
+    private static final String LUA_SCRIPT = """
+            local key = KEYS[1]
+            local interval = tonumber(ARGV[1])
+            local burst = tonumber(ARGV[2])
+            local requested = tonumber(ARGV[3])
+            
+            -- 使用Redis服务器时间（微秒），不受各节点时钟偏差影响（兼容Redis 3.2~4.x的脚本复制）
+            redis.replicate_commands()
+            local time = redis.call('time')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            
+            -- 理论到达时间, 不早于当前时间
+            local tat = tonumber(redis.call('get', key))
+            if tat == nil or tat < now then
+                tat = now
+            end
+            
+            -- 放行后的理论到达时间超出突发容忍范围则拒绝
+            local new_tat = tat + requested * interval
+            local allow_at = new_tat - burst
+            if allow_at > now then
+                return math.max(1, math.ceil((allow_at - now) / 1000))
+            end
+            
+            -- 理论到达时间之后桶已回满, key自然过期
+            redis.call('set', key, string.format('%.0f', new_tat), 'PX', math.max(1, math.ceil((new_tat - now) / 1000)))
+            return 0
+            """;
+
+    /**
+     * Lua脚本：查询剩余令牌数, 只读
+     * <p>
+     * 参数说明：
+     * KEYS[1] - Redis Key
+     * ARGV[1] - 每个令牌的发放间隔（微秒）
+     * ARGV[2] - 突发容忍时间（微秒）
+     */
+    private static final String AVAILABLE_SCRIPT = """
+            local interval = tonumber(ARGV[1])
+            local burst = tonumber(ARGV[2])
+            
+            local time = redis.call('time')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local tat = tonumber(redis.call('get', KEYS[1]))
+            if tat == nil or tat < now then
+                tat = now
+            end
+            return math.floor((now + burst - tat) / interval)
+            """;
+
+    private final DefaultRedisScript<Long> script;
+    private final DefaultRedisScript<Long> availableScript;
+
+    /**
+     * 每个令牌的发放间隔（微秒）
+     */
+    private final byte[] interval;
+
+    /**
+     * 突发容忍时间（微秒）
+     */
+    private final byte[] burst;
+
+    /**
+     * 构造函数
+     *
+     * @param redisTemplate Redis操作模板
+     * @param config        Hutool配置对象, 速率为 maxReleaseCount/refreshPeriod, 突发容量为 capacity
+     * @param name          限流器名称（用于区分不同限流器）
+     */
+    public RedisGcraRateLimiter(StringRedisTemplate redisTemplate,
+                                RateLimiterConfig config,
+                                String name) {
+        super(redisTemplate, config, name, KeyBuilder.of("rate-limiter").add("gcra").add(Assert.notBlankParam(name, "name")).build());
+
+        double intervalMicros = config.getRefreshPeriod().toNanos() / 1000.0 / config.getMaxReleaseCount();
+        this.interval = encode(intervalMicros);
+        this.burst = encode(intervalMicros * config.getCapacity());
+        this.script = new DefaultRedisScript<>(LUA_SCRIPT, Long.class);
+        this.availableScript = new DefaultRedisScript<>(AVAILABLE_SCRIPT, Long.class);
+    }
+
+    @Override
+    protected RedisScript<Long> script() {
+        return script;
+    }
+
+    @Override
+    protected byte[][] keysAndArgs(int permits) {
+        return new byte[][]{rawKey, interval, burst, encodePermits(permits)};
+    }
+
+    @Override
+    protected RedisScript<Long> availableScript() {
+        return availableScript;
+    }
+
+    @Override
+    protected byte[][] availableKeysAndArgs() {
+        return new byte[][]{rawKey, interval, burst};
+    }
+}
@@ -0,0 +1,507 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import cn.hutool.v7.core.thread.ratelimiter.RateLimiterConfig;
+import com.zhengshuyun.oktool.core.util.Assert;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于Redis的分布式令牌桶限流器(本地租约)
+ *
+ * <p>每次从Redis批量租借一批令牌到本地, 租约有效期内的 tryAcquire 只做本地无锁扣减, 不访问Redis;
+ * 本地令牌用完或租约到期后才再次租借, 到期未用完的令牌归还到Redis</p>
+ * <p>阻塞获取与 {@link AbstractRedisRateLimiter} 一致: 等待者按FIFO排队, 按脚本返回的等待时间休眠, 不固定间隔轮询</p>
+ * <p>放行、拒绝和租借脚本耗时通过 {@link RateLimiterListener} 通知, 见 {@link MeteredRateLimiterListener}</p>
+ *
+ * <li>与 {@link RedisTokenBucketRateLimiter} 使用同一个桶(同名即共享), 可以混合部署</li>
+ * <li>令牌在租借时已从Redis扣减, 全局放行数不会超过限额; 误差在于其他节点手中尚未使用的令牌,
+ * 最多为 节点数 x leaseSize, 且最长持有 leaseTime. leaseSize=1 时等同于每次都访问Redis</li>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class RedisLeasedTokenBucketRateLimiter implements RedisRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisLeasedTokenBucketRateLimiter.class);
+
+    /**
+     * 默认租约有效期
+     */
+    private static final Duration DEFAULT_LEASE_TIME = Duration.ofSeconds(1);
+
+    /**
+     * 归还到期令牌的定时任务, 所有限流器共用
+     */
+    private static final ScheduledExecutorService RETURN_EXECUTOR = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("oktool-rate-limiter-lease").factory());
+
+    /**
+     * Lua脚本：批量租借令牌
+     * <p>
+     * 参数说明：
+     * KEYS[1] - Redis Key
+     * ARGV[1] - 桶容量
+     * ARGV[2] - 每秒生成速率
+     * ARGV[3] - 至少需要的令牌数
+     * ARGV[4] - 最多租借的令牌数
+     * ARGV[5] - 过期时间（秒）
+     * <p>
+     * 当前时间取自Redis服务器（TIME）
+     * <p>
+     * 返回值：
+     * 大于0为租借到的令牌数, 小于0为令牌不足时还需等待的毫秒数(取负)
+     */
+    private static final String LEASE_SCRIPT = """
+            local key = KEYS[1]
+            local capacity = tonumber(ARGV[1])
+            local rate = tonumber(ARGV[2])
+            local requested = tonumber(ARGV[3])
+            local batch = tonumber(ARGV[4])
+            local ttl = tonumber(ARGV[5])
+            
+            -- 使用Redis服务器时间，不受各节点时钟偏差影响（兼容Redis 3.2~4.x的脚本复制）
+            redis.replicate_commands()
+            local time = redis.call('time')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            
+            local bucket = redis.call('hmget', key, 'tokens', 'last_time')
+            local tokens = tonumber(bucket[1])
+            local last_time = tonumber(bucket[2])
+            
+            -- 第一次访问，初始化为满桶
+            if tokens == nil then
+                tokens = capacity
+                last_time = now
+            end
+            
+            -- 补充令牌
+            local delta_time = math.max(0, now - last_time)
+            tokens = math.min(capacity, tokens + (delta_time * rate) / 1000)
+            
+            -- 足够本次请求时, 尽量多租一些(不超过batch)
+            local result
+            if tokens >= requested then
+                result = math.min(math.floor(tokens), batch)
+                tokens = tokens - result
+            else
+                result = -math.max(1, math.ceil((requested - tokens) * 1000 / rate))
+            end
+            
+            redis.call('hmset', key, 'tokens', tokens, 'last_time', now)
+            redis.call('expire', key, ttl)
+            
+            return result
+            """;
+
+    /**
+     * Lua脚本：归还未使用的令牌
+     * <p>
+     * 参数说明：
+     * KEYS[1] - Redis Key
+     * ARGV[1] - 桶容量
+     * ARGV[2] - 归还的令牌数
+     * <p>
+     * 桶已过期时不处理(重新访问时就是满桶)
+     */
+    private static final String RETURN_SCRIPT = """
+            local tokens = tonumber(redis.call('hget', KEYS[1], 'tokens'))
+            if tokens == nil then
+                return 0
+            end
+            redis.call('hset', KEYS[1], 'tokens', math.min(tonumber(ARGV[1]), tokens + tonumber(ARGV[2])))
+            return 1
+            """;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimiterConfig config;
+    private final String name;
+    private final String redisKey;
+    private final byte[] rawKey;
+    private final int leaseSize;
+    private final long leaseNanos;
+    private final DefaultRedisScript<Long> leaseScript;
+    private final DefaultRedisScript<Long> returnScript;
+    private final DefaultRedisScript<Long> availableScript;
+
+    /**
+     * 固定不变的参数, 预先编码
+     */
+    private final byte[] capacityArg;
+    private final byte[] rateArg;
+    private final byte[] ttlArg;
+
+    /**
+     * 本地剩余令牌数
+     */
+    private final AtomicLong leasedTokens = new AtomicLong();
+
+    /**
+     * 租约到期时间(System.nanoTime)
+     */
+    private volatile long leaseDeadline = System.nanoTime();
+
+    /**
+     * 租借与归还互斥, 同一时刻只有一个线程访问Redis
+     */
+    private final ReentrantLock leaseLock = new ReentrantLock();
+
+    /**
+     * 是否已安排归还任务
+     */
+    private final AtomicBoolean returnScheduled = new AtomicBoolean();
+
+    /**
+     * 本节点等待者队列, 公平锁保证FIFO, 持有锁的队首才访问Redis
+     */
+    private final ReentrantLock waitLock = new ReentrantLock(true);
+
+    private volatile RateLimiterListener listener = RateLimiterListener.NONE;
+
+    /**
+     * 构造函数, 每次租借桶容量的1/20(至少1个), 租约1秒
+     *
+     * @param redisTemplate Redis操作模板
+     * @param config        Hutool配置对象
+     * @param name          限流器名称（用于区分不同限流器）
+     */
+    public RedisLeasedTokenBucketRateLimiter(StringRedisTemplate redisTemplate,
+                                             RateLimiterConfig config,
+                                             String name) {
+        this(redisTemplate, config, name, Math.max(1, config.getCapacity() / 20), DEFAULT_LEASE_TIME);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param redisTemplate Redis操作模板
+     * @param config        Hutool配置对象
+     * @param name          限流器名称（用于区分不同限流器）
+     * @param leaseSize     每次最多租借的令牌数, 即单个节点最多持有的令牌数(误差上限)
+     * @param leaseTime     租约有效期, 到期未用完的令牌归还到Redis
+     */
+    public RedisLeasedTokenBucketRateLimiter(StringRedisTemplate redisTemplate,
+                                             RateLimiterConfig config,
+                                             String name,
+                                             int leaseSize,
+                                             Duration leaseTime) {
+        Assert.notNull(redisTemplate, "redisTemplate");
+        Assert.notNull(config, "config");
+        Assert.notBlankParam(name, "name");
+        Assert.isTrue(config.getCapacity() > 0, "桶容量必须大于0");
+        Assert.isTrue(config.getMaxReleaseCount() > 0, "令牌生成速率必须大于0");
+        Assert.isTrue(config.getRefreshPeriod().isPositive(), "刷新周期必须大于0");
+        Assert.isTrue(leaseSize > 0 && leaseSize <= config.getCapacity(), "租借令牌数[{}]必须在1到桶容量[{}]之间", leaseSize, config.getCapacity());
+        Assert.isTrue(leaseTime != null && leaseTime.isPositive(), "租约有效期必须大于0");
+
+        this.redisTemplate = redisTemplate;
+        this.config = config;
+        this.name = name;
+        this.redisKey = RedisTokenBucketRateLimiter.redisKey(name);
+        this.leaseSize = leaseSize;
+        this.leaseNanos = leaseTime.toNanos();
+        this.leaseScript = new DefaultRedisScript<>(LEASE_SCRIPT, Long.class);
+        this.returnScript = new DefaultRedisScript<>(RETURN_SCRIPT, Long.class);
+        this.availableScript = new DefaultRedisScript<>(RedisTokenBucketRateLimiter.AVAILABLE_SCRIPT, Long.class);
+        this.rawKey = AbstractRedisRateLimiter.encode(redisKey);
+        this.capacityArg = AbstractRedisRateLimiter.encode(config.getCapacity());
+        this.rateArg = AbstractRedisRateLimiter.encode(RedisTokenBucketRateLimiter.tokensPerSecond(config));
+        this.ttlArg = AbstractRedisRateLimiter.encode(RedisTokenBucketRateLimiter.ttl(config));
+    }
+
+    @Override
+    public boolean tryAcquire(int permits) {
+        checkPermits(permits);
+        boolean granted = acquireOrWait(permits) == 0;
+        notifyResult(permits, granted, 0);
+        return granted;
+    }
+
+    /**
+     * 在超时时间内获取令牌
+     * <p>
+     * 按FIFO排队, 轮到后按脚本返回的等待时间休眠; 预计无法在超时前获取时立即返回false
+     *
+     * @param permits 请求令牌数
+     * @param timeout 超时时间
+     * @return 是否获取成功
+     */
+    @Override
+    public boolean tryAcquire(int permits, Duration timeout) {
+        // 参数校验
+        checkPermits(permits);
+        Assert.notNull(timeout, "超时时间不能为空");
+
+        long start = System.nanoTime();
+        long deadline = start + Math.max(0, timeout.toNanos());
+        boolean granted;
+        try {
+            granted = acquire(permits, deadline);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            granted = false;
+        }
+        notifyResult(permits, granted, System.nanoTime() - start);
+        return granted;
+    }
+
+    @Override
+    public void acquire(int permits) {
+        // 参数校验
+        checkPermits(permits);
+
+        long start = System.nanoTime();
+        try {
+            acquire(permits, Long.MAX_VALUE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            notifyResult(permits, false, System.nanoTime() - start);
+            throw new RuntimeException("线程中断");
+        }
+        notifyResult(permits, true, System.nanoTime() - start);
+    }
+
+    /**
+     * 排队等待令牌
+     *
+     * @param permits  请求令牌数
+     * @param deadline 截止时间(System.nanoTime), Long.MAX_VALUE表示不限
+     * @return 是否获取成功
+     */
+    private boolean acquire(int permits, long deadline) throws InterruptedException {
+        // 快速路径: 租约内的本地令牌不需要排队
+        if (tryAcquireLocal(permits)) return true;
+
+        boolean unbounded = deadline == Long.MAX_VALUE;
+        if (unbounded) {
+            waitLock.lockInterruptibly();
+        } else if (!waitLock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+
+        try {
+            while (true) {
+                long waitMs = acquireOrWait(permits);
+                if (waitMs == 0) return true;
+
+                long waitNanos = TimeUnit.MILLISECONDS.toNanos(waitMs);
+                // 其他节点也在消耗令牌, 等待时间只是下限, 超过截止时间就不必再等
+                if (!unbounded && System.nanoTime() + waitNanos - deadline > 0) return false;
+
+                LockSupport.parkNanos(this, waitNanos);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            waitLock.unlock();
+        }
+    }
+
+    /**
+     * 本地扣减, 不足时向Redis租借
+     *
+     * @param permits 请求令牌数
+     * @return 0表示获取成功, 否则为还需等待的毫秒数
+     */
+    private long acquireOrWait(int permits) {
+        // 快速路径: 租约有效期内本地扣减
+        if (tryAcquireLocal(permits)) return 0;
+
+        leaseLock.lock();
+        try {
+            // 等锁期间其他线程可能已经租借
+            if (tryAcquireLocal(permits)) return 0;
+
+            returnExpired();
+            // 租约内剩余但不够本次请求的令牌计入本次租借, 续期后本地持有量仍不超过 max(permits, leaseSize)
+            long remaining = leasedTokens.getAndSet(0);
+            int needed = (int) (permits - remaining);
+            long granted = lease(Math.max(permits, leaseSize) - (int) remaining, needed);
+            if (granted < 0) {
+                leasedTokens.addAndGet(remaining);
+                return -granted;
+            }
+
+            leasedTokens.addAndGet(granted - needed);
+            leaseDeadline = System.nanoTime() + leaseNanos;
+            scheduleReturn();
+            return 0;
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    /**
+     * 查询当前剩余令牌数(Redis桶中 + 本节点租约内未用完的), 只读不消耗
+     *
+     * @return 剩余令牌数
+     */
+    @Override
+    public int availablePermits() {
+        byte[][] keysAndArgs = {rawKey, capacityArg, rateArg};
+        Long remote = redisTemplate.execute((RedisCallback<Long>) connection ->
+                AbstractRedisRateLimiter.eval(connection, availableScript, keysAndArgs));
+        Assert.notNull(remote, "Redis 操作失败");
+        long local = System.nanoTime() - leaseDeadline < 0 ? leasedTokens.get() : 0;
+        return (int) Math.min(config.getCapacity(), remote + local);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void setListener(RateLimiterListener listener) {
+        this.listener = listener == null ? RateLimiterListener.NONE : listener;
+    }
+
+    /**
+     * 归还本地全部未使用的令牌, 停机时调用
+     */
+    @PreDestroy
+    public void release() {
+        leaseLock.lock();
+        try {
+            leaseDeadline = System.nanoTime();
+            returnTokens(leasedTokens.getAndSet(0));
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    /**
+     * 本地无锁扣减, 租约已到期时失败
+     */
+    private boolean tryAcquireLocal(int permits) {
+        if (System.nanoTime() - leaseDeadline >= 0) return false;
+
+        long current;
+        do {
+            current = leasedTokens.get();
+            if (current < permits) return false;
+        } while (!leasedTokens.compareAndSet(current, current - permits));
+        return true;
+    }
+
+    /**
+     * 从Redis租借令牌
+     *
+     * @param batch     最多租借的令牌数
+     * @param requested 至少需要的令牌数
+     * @return 租借到的令牌数, 令牌不足时为还需等待的毫秒数(取负)
+     */
+    private long lease(int batch, int requested) {
+        byte[][] keysAndArgs = {rawKey, capacityArg, rateArg,
+                AbstractRedisRateLimiter.encodePermits(requested), AbstractRedisRateLimiter.encodePermits(batch), ttlArg};
+        long start = System.nanoTime();
+        Long result = redisTemplate.execute((RedisCallback<Long>) connection ->
+                AbstractRedisRateLimiter.eval(connection, leaseScript, keysAndArgs));
+        long scriptNanos = System.nanoTime() - start;
+        notify(() -> listener.onScript(this, scriptNanos));
+        Assert.notNull(result, "Redis 操作失败");
+        return result;
+    }
+
+    /**
+     * 租约到期后归还剩余令牌, 需持有租借锁
+     */
+    private void returnExpired() {
+        if (System.nanoTime() - leaseDeadline >= 0) {
+            returnTokens(leasedTokens.getAndSet(0));
+        }
+    }
+
+    private void returnTokens(long tokens) {
+        if (tokens <= 0) return;
+        byte[][] keysAndArgs = {rawKey, capacityArg, AbstractRedisRateLimiter.encode(tokens)};
+        redisTemplate.execute((RedisCallback<Long>) connection ->
+                AbstractRedisRateLimiter.eval(connection, returnScript, keysAndArgs));
+    }
+
+    /**
+     * 安排在租约到期后归还剩余令牌, 避免空闲节点长期占用令牌
+     */
+    private void scheduleReturn() {
+        if (!returnScheduled.compareAndSet(false, true)) return;
+        long delay = Math.max(0, leaseDeadline - System.nanoTime());
+        RETURN_EXECUTOR.schedule(this::onLeaseExpired, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void onLeaseExpired() {
+        returnScheduled.set(false);
+        // 租约已续期, 按新的到期时间重新安排
+        if (System.nanoTime() - leaseDeadline < 0) {
+            scheduleReturn();
+            return;
+        }
+        if (!leaseLock.tryLock()) return;
+        try {
+            returnExpired();
+        } catch (Exception e) {
+            log.warn("限流器归还令牌失败, key: {}, 原因: {}", redisKey, e.getMessage());
+        } finally {
+            leaseLock.unlock();
+        }
+    }
+
+    /**
+     * 通知放行或拒绝
+     */
+    private void notifyResult(int permits, boolean granted, long waitNanos) {
+        if (granted) {
+            notify(() -> listener.onGranted(this, permits, waitNanos));
+        } else {
+            notify(() -> listener.onRejected(this, permits, waitNanos));
+        }
+    }
+
+    /**
+     * 监听器异常不影响限流
+     */
+    private void notify(Runnable event) {
+        try {
+            event.run();
+        } catch (Exception e) {
+            log.warn("限流器事件处理失败, name: {}, 原因: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * 校验请求令牌数
+     *
+     * @param permits 请求令牌数
+     */
+    private void checkPermits(int permits) {
+        Assert.isTrue(permits > 0, "permits 必须大于 0，当前值：" + permits);
+        Assert.isTrue(permits <= config.getCapacity(), "请求令牌数[{}]不能超过桶容量[{}]", permits, config.getCapacity());
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import cn.hutool.v7.core.thread.ratelimiter.RateLimiter;
+
+import java.time.Duration;
+
+/**
+ * 基于Redis的分布式限流器, 见 {@link AbstractRedisRateLimiter} 与 {@link RedisLeasedTokenBucketRateLimiter}
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public interface RedisRateLimiter extends RateLimiter {
+
+    /**
+     * @return 限流器名称
+     */
+    String getName();
+
+    /**
+     * 在超时时间内获取令牌, 同一节点的等待者按FIFO排队
+     *
+     * @param permits 请求令牌数
+     * @param timeout 超时时间
+     * @return 是否获取成功
+     */
+    boolean tryAcquire(int permits, Duration timeout);
+
+    /**
+     * 查询当前剩余令牌数, 只读不消耗
+     *
+     * @return 剩余令牌数
+     */
+    int availablePermits();
+
+    /**
+     * @param listener 事件监听器, null表示不监听
+     */
+    void setListener(RateLimiterListener listener);
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import cn.hutool.v7.core.thread.ratelimiter.RateLimiterConfig;
+import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.core.util.KeyBuilder;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于Redis的分布式滑动窗口限流器(窗口日志)
+ *
+ * <p>有序集合记录窗口内每个令牌的发放时间, 任意连续 refreshPeriod 内发放的令牌数严格不超过 maxReleaseCount,
+ * 没有令牌桶/GCRA的突发; 内存占用与窗口限额成正比, 适用于限额不大的配额场景</p>
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class RedisSlidingWindowRateLimiter extends AbstractRedisRateLimiter {
+
+    /**
+     * Lua脚本：滑动窗口日志
+     * <p>
+     * 参数说明：
+     * KEYS[1] - Redis Key
+     * ARGV[1] - 窗口大小（毫秒）
+     * ARGV[2] - 窗口限额
+     * ARGV[3] - 请求的令牌数
+     * ARGV[4] - 本次请求的唯一ID, 作为有序集合成员前缀
+     * <p>
+     * 当前时间取自Redis服务器（TIME）
+     * <p>
+     * 返回值：
+     * 0 - 获取成功
+     * 大于0 - 超出限额, 还需等待的毫秒数
+     */
+    private static final String LUA_SCRIPT = """
+            local key = KEYS[1]
+            local window = tonumber(ARGV[1])
+            local limit = tonumber(ARGV[2])
+            local requested = tonumber(ARGV[3])
+            local id = ARGV[4]
+            
+            -- 使用Redis服务器时间，不受各节点时钟偏差影响（兼容Redis 3.2~4.x的脚本复制）
+            redis.replicate_commands()
+            local time = redis.call('time')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            
+            -- 移除窗口外的记录
+            redis.call('zremrangebyscore', key, '-inf', now - window)
+            
+            local count = redis.call('zcard', key)
+            if count + requested <= limit then
+                for i = 1, requested do
+                    redis.call('zadd', key, now, id .. ':' .. i)
+                end
+                redis.call('pexpire', key, window)
+                return 0
+            end
+            
+            -- 等到最早的若干条记录移出窗口, 腾出足够的额度
+            local index = count + requested - limit - 1
+            local oldest = redis.call('zrange', key, index, index, 'WITHSCORES')
+            return math.max(1, tonumber(oldest[2]) + window - now)
+            """;
+
+    /**
+     * Lua脚本：查询剩余额度, 只读
+     * <p>
+     * 参数说明：
+     * KEYS[1] - Redis Key
+     * ARGV[1] - 窗口大小（毫秒）
+     * ARGV[2] - 窗口限额
+     */
+    private static final String AVAILABLE_SCRIPT = """
+            local time = redis.call('time')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local count = redis.call('zcount', KEYS[1], '(' .. (now - tonumber(ARGV[1])), '+inf')
+            return math.max(0, tonumber(ARGV[2]) - count)
+            """;
+
+    /**
+     * 成员ID前缀, 区分不同节点
+     */
+    private static final String NODE_ID = UUID.randomUUID().toString();
+
+    private final DefaultRedisScript<Long> script;
+    private final DefaultRedisScript<Long> availableScript;
+    private final AtomicLong sequence = new AtomicLong();
+    private final byte[] window;
+    private final byte[] limit;
+
+    /**
+     * 构造函数
+     *
+     * @param redisTemplate Redis操作模板
+     * @param config        Hutool配置对象, 窗口为 refreshPeriod, 限额为 maxReleaseCount
+     * @param name          限流器名称（用于区分不同限流器）
+     */
+    public RedisSlidingWindowRateLimiter(StringRedisTemplate redisTemplate,
+                                         RateLimiterConfig config,
+                                         String name) {
+        super(redisTemplate, config, name, KeyBuilder.of("rate-limiter").add("sliding-window").add(Assert.notBlankParam(name, "name")).build());
+        Assert.isTrue(config.getRefreshPeriod().toMillis() > 0, "滑动窗口不能小于1毫秒");
+
+        this.window = encode(config.getRefreshPeriod().toMillis());
+        this.limit = encode(config.getMaxReleaseCount());
+        this.script = new DefaultRedisScript<>(LUA_SCRIPT, Long.class);
+        this.availableScript = new DefaultRedisScript<>(AVAILABLE_SCRIPT, Long.class);
+    }
+
+    @Override
+    protected RedisScript<Long> script() {
+        return script;
+    }
+
+    @Override
+    protected byte[][] keysAndArgs(int permits) {
+        return new byte[][]{rawKey, window, limit, encodePermits(permits), encode(NODE_ID + ":" + sequence.incrementAndGet())};
+    }
+
+    @Override
+    protected RedisScript<Long> availableScript() {
+        return availableScript;
+    }
+
+    @Override
+    protected byte[][] availableKeysAndArgs() {
+        return new byte[][]{rawKey, window, limit};
+    }
+
+    /**
+     * 单次最多请求的令牌数为窗口限额
+     */
+    @Override
+    protected int maxPermits() {
+        return config.getMaxReleaseCount();
+    }
+}
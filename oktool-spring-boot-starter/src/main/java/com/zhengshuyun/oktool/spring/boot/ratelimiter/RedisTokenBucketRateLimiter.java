@@ -16,15 +16,12 @@
 
 package com.zhengshuyun.oktool.spring.boot.ratelimiter;
 
-import cn.hutool.v7.core.thread.ratelimiter.RateLimiter;
 import cn.hutool.v7.core.thread.ratelimiter.RateLimiterConfig;
 import com.zhengshuyun.oktool.core.util.Assert;
 import com.zhengshuyun.oktool.core.util.KeyBuilder;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
-
-import java.util.Collections;
-import java.util.concurrent.locks.LockSupport;
+import org.springframework.data.redis.core.script.RedisScript;
 
 /**
  * 基于Redis的分布式令牌桶限流器
@@ -32,12 +29,17 @@ import java.util.concurrent.locks.LockSupport;
  * @author Toint
  * @since 2025/10/25
  */
-public class RedisTokenBucketRateLimiter implements RateLimiter {
+public class RedisTokenBucketRateLimiter extends AbstractRedisRateLimiter {
 
-    private final StringRedisTemplate redisTemplate;
-    private final RateLimiterConfig config;
-    private final String redisKey;
     private final DefaultRedisScript<Long> script;
+    private final DefaultRedisScript<Long> availableScript;
+
+    /**
+     * 固定不变的参数, 预先编码
+     */
+    private final byte[] capacityArg;
+    private final byte[] rateArg;
+    private final byte[] ttlArg;
 
     /**
      * Lua脚本：令牌桶算法
@@ -47,12 +49,13 @@ public class RedisTokenBucketRateLimiter implements RateLimiter {
      * ARGV[1] - 桶容量
      * ARGV[2] - 每秒生成速率
      * ARGV[3] - 请求的令牌数
-     * ARGV[4] - 当前时间戳（毫秒）
-     * ARGV[5] - 过期时间（秒）
+     * ARGV[4] - 过期时间（秒）
+     * <p>
+     * 当前时间取自Redis服务器（TIME）
      * <p>
      * 返回值：
-     * 1 - 获取成功
-     * 0 - 令牌不足
+     * 0 - 获取成功
+     * 大于0 - 令牌不足, 距离令牌足够还需等待的毫秒数
      */
     private static final String LUA_SCRIPT = """
             -- 获取参数
@@ -60,8 +63,12 @@ public class RedisTokenBucketRateLimiter implements RateLimiter {
             local capacity = tonumber(ARGV[1])       -- 桶容量
             local rate = tonumber(ARGV[2])           -- 每秒生成多少令牌
             local requested = tonumber(ARGV[3])      -- 本次请求几个令牌
-            local now = tonumber(ARGV[4])            -- 当前时间戳（毫秒）
-            local ttl = tonumber(ARGV[5])            -- 动态过期时间
+            local ttl = tonumber(ARGV[4])            -- 动态过期时间
+            
+            -- 使用Redis服务器时间，不受各节点时钟偏差影响（兼容Redis 3.2~4.x的脚本复制）
+            redis.replicate_commands()
+            local time = redis.call('time')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
             
             -- 从Redis获取当前令牌数和上次更新时间
             local bucket = redis.call('hmget', key, 'tokens', 'last_time')
@@ -80,17 +87,43 @@ public class RedisTokenBucketRateLimiter implements RateLimiter {
             tokens = math.min(capacity, tokens + add_tokens) -- 不超过容量上限
             
             -- 尝试获取令牌
-            local ok = 0
+            local wait = 0
             if tokens >= requested then
                 tokens = tokens - requested  -- 扣减令牌
-                ok = 1                       -- 获取成功
+            else
+                -- 令牌不足，计算补足所需时间（毫秒，向上取整）
+                wait = math.max(1, math.ceil((requested - tokens) * 1000 / rate))
             end
             
             -- 保存到Redis（使用Hash结构）
             redis.call('hmset', key, 'tokens', tokens, 'last_time', now)
             redis.call('expire', key, ttl)  -- 设置过期时间，避免长期占用内存
             
-            return ok
+            return wait
+            """;
+
+    /**
+     * Lua脚本：查询剩余令牌数, 只读
+     * <p>
+     * 参数说明：
+     * KEYS[1] - Redis Key
+     * ARGV[1] - 桶容量
+     * ARGV[2] - 每秒生成速率
+     * <p>
+     * 租借令牌限流器共用同一个桶, 也使用该脚本
+     */
+    static final String AVAILABLE_SCRIPT = """
+            local capacity = tonumber(ARGV[1])
+            local bucket = redis.call('hmget', KEYS[1], 'tokens', 'last_time')
+            local tokens = tonumber(bucket[1])
+            if tokens == nil then
+                return capacity
+            end
+            
+            local time = redis.call('time')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local delta_time = math.max(0, now - tonumber(bucket[2]))
+            return math.floor(math.min(capacity, tokens + delta_time * tonumber(ARGV[2]) / 1000))
             """;
 
 
@@ -104,77 +137,56 @@ public class RedisTokenBucketRateLimiter implements RateLimiter {
     public RedisTokenBucketRateLimiter(StringRedisTemplate redisTemplate,
                                        RateLimiterConfig config,
                                        String name) {
-        Assert.notNull(redisTemplate, "redisTemplate");
-        Assert.notNull(config, "config");
-        Assert.notBlankParam(name, "name");
-        Assert.isTrue(config.getCapacity() > 0, "桶容量必须大于0");
-        Assert.isTrue(config.getMaxReleaseCount() > 0, "令牌生成速率必须大于0");
-        Assert.isTrue(config.getRefreshPeriod().isPositive(), "刷新周期必须大于0");
-
-        this.redisTemplate = redisTemplate;
-        this.config = config;
-        this.redisKey = KeyBuilder.of("rate-limiter").add(name).build();
+        super(redisTemplate, config, name, redisKey(Assert.notBlankParam(name, "name")));
         this.script = new DefaultRedisScript<>(LUA_SCRIPT, Long.class);
+        this.availableScript = new DefaultRedisScript<>(AVAILABLE_SCRIPT, Long.class);
+        this.capacityArg = encode(config.getCapacity());
+        this.rateArg = encode(tokensPerSecond(config));
+        this.ttlArg = encode(ttl(config));
     }
 
     @Override
-    public boolean tryAcquire(int permits) {
-        // 参数校验
-        checkPermits(permits);
+    protected RedisScript<Long> script() {
+        return script;
+    }
 
-        // 计算每秒生成多少令牌
-        long periodMs = config.getRefreshPeriod().toMillis();
-        double tokensPerSecond = (1000.0 / periodMs) * config.getMaxReleaseCount();
-
-        // 计算过期时间（周期的3倍，最少60秒）
-        long ttl = Math.max(60, (periodMs / 1000) * 3);
-
-        // 执行Lua脚本
-        Long result = redisTemplate.execute(
-                script,
-                Collections.singletonList(redisKey),
-                // 桶容量
-                String.valueOf(config.getCapacity()),
-                // 每秒生成速率
-                String.valueOf(tokensPerSecond),
-                // 请求令牌数
-                String.valueOf(permits),
-                // 当前时间
-                String.valueOf(System.currentTimeMillis()),
-                // 动态过期时间
-                String.valueOf(ttl)
-        );
-
-        return result == 1L;
+    @Override
+    protected byte[][] keysAndArgs(int permits) {
+        return new byte[][]{rawKey, capacityArg, rateArg, encodePermits(permits), ttlArg};
     }
 
     @Override
-    public void acquire(int permits) {
-        // 参数校验
-        checkPermits(permits);
+    protected RedisScript<Long> availableScript() {
+        return availableScript;
+    }
 
-        // 计算等待间隔：10-100ms
-        long periodMs = config.getRefreshPeriod().toMillis();
-        long waitMs = Math.max(10, Math.min(100,
-                periodMs * permits / config.getMaxReleaseCount()));
-        long waitNanos = waitMs * 1_000_000L;
-
-        // 阻塞等待
-        while (!tryAcquire(permits)) {
-            LockSupport.parkNanos(waitNanos);
-            if (Thread.interrupted()) {
-                throw new RuntimeException("线程中断");
-            }
-        }
+    @Override
+    protected byte[][] availableKeysAndArgs() {
+        return new byte[][]{rawKey, capacityArg, rateArg};
     }
 
     /**
-     * 校验请求令牌数
+     * 令牌桶的Redis Key, 同名限流器共用同一个桶
      *
-     * @param permits 请求令牌数
+     * @param name 限流器名称
+     */
+    static String redisKey(String name) {
+        return KeyBuilder.of("rate-limiter").add(name).build();
+    }
+
+    /**
+     * 计算每秒生成多少令牌
      */
-    private void checkPermits(int permits) {
-        Assert.isTrue(permits > 0, "permits 必须大于 0，当前值：" + permits);
-        Assert.isTrue(permits <= config.getCapacity(), "请求令牌数[{}]不能超过桶容量[{}]", permits, config.getCapacity());
+    static double tokensPerSecond(RateLimiterConfig config) {
+        long periodMs = config.getRefreshPeriod().toMillis();
+        return (1000.0 / periodMs) * config.getMaxReleaseCount();
+    }
+
+    /**
+     * 计算过期时间（周期的3倍，最少60秒）
+     */
+    static long ttl(RateLimiterConfig config) {
+        long periodMs = config.getRefreshPeriod().toMillis();
+        return Math.max(60, (periodMs / 1000) * 3);
     }
 }
@@ -24,17 +24,20 @@ import cn.hutool.v7.http.client.body.HttpBody;
 import cn.hutool.v7.http.client.body.MultipartBody;
 import cn.hutool.v7.http.meta.Method;
 import com.zhengshuyun.oktool.core.util.Assert;
+import com.zhengshuyun.oktool.core.util.HttpClientUtil;
 import com.zhengshuyun.oktool.core.util.JacksonUtil;
 import com.zhengshuyun.oktool.spring.boot.cache.Cache;
+import com.zhengshuyun.oktool.spring.boot.cache.CacheValue;
+import com.zhengshuyun.oktool.spring.boot.ratelimiter.Bulkhead;
 import com.zhengshuyun.oktool.spring.boot.xda.exception.XdaClientException;
 import com.zhengshuyun.oktool.spring.boot.xda.model.XdaClientConfig;
 import com.zhengshuyun.oktool.spring.boot.xda.model.XdaResponse;
 import com.zhengshuyun.oktool.spring.boot.xda.model.XdaToken;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.http.HttpHeaders;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -48,14 +51,28 @@ import java.util.Optional;
  */
 public class XdaClient {
 
+    /**
+     * http客户端名称, 通过 {@link HttpClientUtil#registerEngine} 注册后使用独立连接池
+     */
+    public static final String HTTP_ENGINE = "xda";
+
     private final XdaClientConfig config;
     private final Cache cache;
+    private final Bulkhead bulkhead;
 
     public XdaClient(XdaClientConfig config, Cache cache) {
+        this(config, cache, null);
+    }
+
+    /**
+     * @param bulkhead 隔离舱, 限制同时进行中的请求数, 为null时不限制
+     */
+    public XdaClient(XdaClientConfig config, Cache cache, Bulkhead bulkhead) {
         Assert.validate(config);
         Assert.notNullParam(cache, "cache");
         this.config = config;
         this.cache = cache;
+        this.bulkhead = bulkhead;
     }
 
     /**
@@ -86,12 +103,17 @@ public class XdaClient {
      * @return 令牌
      */
     public String getToken() {
-        String tokenCacheKey = config.getTokenCacheKey();
-        String tokenCacheValue = cache.get(tokenCacheKey);
-        if (StringUtils.isNotBlank(tokenCacheValue)) {
-            return tokenCacheValue;
-        }
+        // 并发未命中时只有一个线程请求玺得安, 其他线程等待结果;
+        // 不注册后台刷新: 玺得安在到期前重复返回同一个令牌, 提前刷新只会拿到剩余时间更短的旧令牌
+        return cache.getOrLoad(config.getTokenCacheKey(), this::loadToken);
+    }
 
+    /**
+     * 获取有效期大于阈值的令牌
+     *
+     * @return 令牌及其缓存时间(有效期 - 阈值)
+     */
+    private CacheValue loadToken() {
         int tokenRefreshThreshold = config.getTokenRefreshThreshold();
         for (int i = 0; i < 10; i++) {
             XdaToken xdaToken = fetchToken();
@@ -104,8 +126,7 @@ public class XdaClient {
             if (expiresIn <= tokenRefreshThreshold) {
                 ThreadUtil.sleep(1000);
             } else {
-                cache.put(tokenCacheKey, accessToken, expiresIn - tokenRefreshThreshold);
-                return accessToken;
+                return CacheValue.of(accessToken, Duration.ofSeconds(expiresIn - tokenRefreshThreshold));
             }
         }
 
@@ -177,8 +198,10 @@ public class XdaClient {
     }
 
     private <T> T executeRequest(Request request, Class<T> responseType) {
-        try (Response response = request.send()) {
-
+        Bulkhead.Permit permit = bulkhead == null ? null : bulkhead.acquire();
+        try (Response response = HttpClientUtil.clientEngine(HTTP_ENGINE).send(request)) {
+            // 429/503表示下游过载, 自适应隔离舱据此收缩并发上限
+            if (permit != null && Bulkhead.isOverload(response.getStatus())) permit.drop();
             Assert.isTrue(response.isOk(), "状态码异常: {}", response.getStatus());
 
             String body = response.bodyStr();
@@ -189,7 +212,13 @@ public class XdaClient {
 
             return result;
         } catch (IOException e) {
+            if (permit != null) permit.drop();
             throw new RuntimeException("网络异常: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            if (permit != null && Bulkhead.isOverload(e)) permit.drop();
+            throw e;
+        } finally {
+            if (permit != null) permit.close();
         }
     }
 }
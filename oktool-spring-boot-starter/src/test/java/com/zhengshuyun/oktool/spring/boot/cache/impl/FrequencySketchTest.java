@@ -0,0 +1,67 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache.impl;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 访问频率估算
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class FrequencySketchTest {
+
+    @Test
+    void increment() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        Assertions.assertEquals(0, sketch.frequency(1));
+
+        for (int i = 1; i <= 10; i++) {
+            sketch.increment(1);
+            Assertions.assertEquals(i, sketch.frequency(1));
+        }
+        Assertions.assertEquals(0, sketch.frequency(2));
+    }
+
+    @Test
+    void saturate() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(1);
+        }
+        // 4位计数器上限15
+        Assertions.assertEquals(15, sketch.frequency(1));
+    }
+
+    @Test
+    void reset() {
+        // 16个槽位, 累计160次后减半
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 10; i++) {
+            sketch.increment(0x12345678);
+        }
+        Assertions.assertEquals(10, sketch.frequency(0x12345678));
+
+        for (int i = 0; i < 150; i++) {
+            sketch.increment(i * 0x9e3779b9);
+        }
+        int frequency = sketch.frequency(0x12345678);
+        Assertions.assertTrue(frequency >= 5 && frequency < 10, "frequency: " + frequency);
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache.impl;
+
+import com.zhengshuyun.oktool.spring.boot.cache.CacheProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 本地缓存: W-TinyLFU淘汰与时间轮过期
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class LocalCacheImplTest {
+
+    /**
+     * 窗口区1条, 保护段最多79条
+     */
+    private static final int MAX_SIZE = 100;
+
+    private LocalCacheImpl cache;
+
+    @BeforeEach
+    void setUp() {
+        CacheProperties.Local local = new CacheProperties.Local();
+        local.setMaxSize(MAX_SIZE);
+        cache = new LocalCacheImpl(local);
+        // 停止后台推进时间轮, 由测试控制时间
+        cache.shutdown();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.shutdown();
+    }
+
+    @Test
+    void promotion() {
+        cache.put("a", "1", 0);
+        Assertions.assertEquals("window", cache.region("a"));
+
+        // 窗口区溢出, 进入试用段
+        cache.put("b", "1", 0);
+        Assertions.assertEquals("probation", cache.region("a"));
+        Assertions.assertEquals("window", cache.region("b"));
+
+        // 试用段再次被访问, 晋升到保护段; 窗口区内的访问不改变区域
+        cache.get("a");
+        cache.get("b");
+        Assertions.assertEquals("protected", cache.region("a"));
+        Assertions.assertEquals("window", cache.region("b"));
+
+        // 更新保留原区域
+        cache.put("a", "2", 0);
+        Assertions.assertEquals("protected", cache.region("a"));
+    }
+
+    @Test
+    void protectedOverflow() {
+        for (int i = 0; i < 81; i++) {
+            cache.put("k" + i, "1", 0);
+        }
+        cache.put("x", "1", 0);
+        for (int i = 0; i < 81; i++) {
+            cache.get("k" + i);
+        }
+
+        // 保护段最多79条, 最久未访问的降级到试用段
+        Assertions.assertEquals("probation", cache.region("k0"));
+        Assertions.assertEquals("probation", cache.region("k1"));
+        Assertions.assertEquals("protected", cache.region("k2"));
+        Assertions.assertEquals("protected", cache.region("k80"));
+        Assertions.assertEquals(0, cache.evictionCount());
+    }
+
+    @Test
+    void admission() {
+        for (int i = 0; i < MAX_SIZE; i++) {
+            cache.put("hot" + i, "1", 0);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < MAX_SIZE; i++) {
+                cache.get("hot" + i);
+            }
+        }
+
+        // 只访问一次的数据频率低于受害者, 不能挤掉热点数据(LRU会全部淘汰);
+        // 窗口区的热点数据溢出时与试用段的热点数据比较, 允许少量淘汰
+        for (int i = 0; i < 1000; i++) {
+            cache.put("cold" + i, "1", 0);
+        }
+
+        int hotCount = hotCount();
+        Assertions.assertTrue(hotCount >= MAX_SIZE - 5, "hotCount: " + hotCount);
+        Assertions.assertEquals(1000, cache.evictionCount());
+    }
+
+    @Test
+    void maxSize() {
+        for (int i = 0; i < 10000; i++) {
+            cache.put("k" + i, "1", 0);
+        }
+        cache.expireEntries(System.currentTimeMillis());
+
+        Assertions.assertEquals(MAX_SIZE, cache.estimatedSize());
+        Assertions.assertEquals(10000 - MAX_SIZE, cache.evictionCount());
+    }
+
+    @Test
+    void concurrentReadWrite() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 20000; i++) {
+                        String key = "k" + random.nextInt(1000);
+                        if ((i & 3) == 0) {
+                            cache.put(key, "1", 0);
+                        } else if ((i & 7) == 1) {
+                            cache.delete(key);
+                        } else {
+                            cache.get(key);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 缓冲区处理完后, 淘汰策略中的条目与map一致且不超过容量
+        cache.expireEntries(System.currentTimeMillis());
+        Assertions.assertTrue(cache.estimatedSize() <= MAX_SIZE, "size: " + cache.estimatedSize());
+        int linked = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (cache.region("k" + i) != null) linked++;
+        }
+        Assertions.assertEquals(cache.estimatedSize(), linked);
+    }
+
+    @Test
+    void maxWeight() {
+        CacheProperties.Local local = new CacheProperties.Local();
+        local.setMaxWeight(DataSize.ofKilobytes(64));
+        LocalCacheImpl weighted = new LocalCacheImpl(local);
+        weighted.shutdown();
+
+        String value = "v".repeat(1000);
+        for (int i = 0; i < 1000; i++) {
+            weighted.put("k" + i, value, 0);
+        }
+        Assertions.assertTrue(weighted.weightedSize() <= 64 * 1024, "weightedSize: " + weighted.weightedSize());
+        Assertions.assertTrue(weighted.estimatedSize() > 0 && weighted.estimatedSize() < 1000);
+    }
+
+    @Test
+    void expireEachLevel() {
+        long start = System.currentTimeMillis();
+        Map<String, Long> expireAt = putEachLevel(start);
+
+        // 逐步推进: 1秒(时间轮最细一层)到5分钟, 1分钟到5小时, 1小时到4天, 1天到11天
+        long now = start;
+        while (now < start + Duration.ofDays(11).toMillis()) {
+            long elapsed = now - start;
+            if (elapsed < Duration.ofMinutes(5).toMillis()) {
+                now += 1000;
+            } else if (elapsed < Duration.ofHours(5).toMillis()) {
+                now += Duration.ofMinutes(1).toMillis();
+            } else if (elapsed < Duration.ofDays(4).toMillis()) {
+                now += Duration.ofHours(1).toMillis();
+            } else {
+                now += Duration.ofDays(1).toMillis();
+            }
+            cache.expireEntries(now);
+
+            for (Map.Entry<String, Long> entry : expireAt.entrySet()) {
+                boolean present = cache.containsKey(entry.getKey());
+                // 到期前不能回收; 到期后最迟在最细一层的下两格内回收
+                if (now < entry.getValue()) {
+                    Assertions.assertTrue(present, entry.getKey() + " 提前回收, elapsed: " + (now - start));
+                } else if (now >= entry.getValue() + 2048) {
+                    Assertions.assertFalse(present, entry.getKey() + " 未回收, elapsed: " + (now - start));
+                }
+            }
+        }
+        Assertions.assertEquals(expireAt.size(), cache.expirationCount());
+    }
+
+    @Test
+    void expireAtOnce() {
+        long start = System.currentTimeMillis();
+        Map<String, Long> expireAt = putEachLevel(start);
+
+        // 一次跨越所有层级
+        cache.expireEntries(start + Duration.ofDays(11).toMillis());
+        for (String key : expireAt.keySet()) {
+            Assertions.assertFalse(cache.containsKey(key), key);
+        }
+        Assertions.assertEquals(expireAt.size(), cache.expirationCount());
+        Assertions.assertTrue(cache.containsKey("forever"));
+    }
+
+    @Test
+    void rescheduleAndDeschedule() {
+        long start = System.currentTimeMillis();
+        cache.put("shortened", "1", Duration.ofHours(1).toMillis());
+        cache.expire("shortened", 1000);
+        cache.put("deleted", "1", 1000);
+        cache.delete("deleted");
+        cache.put("replaced", "1", 1000);
+        cache.put("replaced", "2", Duration.ofHours(1).toMillis());
+
+        cache.expireEntries(start + 5000);
+        Assertions.assertFalse(cache.containsKey("shortened"));
+        Assertions.assertTrue(cache.containsKey("replaced"));
+        // 被删除和被替换的节点已移出时间轮, 不会重复回收
+        Assertions.assertEquals(1, cache.expirationCount());
+
+        cache.expireEntries(start + Duration.ofHours(2).toMillis());
+        Assertions.assertFalse(cache.containsKey("replaced"));
+        Assertions.assertEquals(2, cache.expirationCount());
+    }
+
+    /**
+     * 每个时间轮层级及溢出桶各放一条, 另放一条不过期
+     *
+     * @return key与过期时间戳
+     */
+    private Map<String, Long> putEachLevel(long start) {
+        Map<String, Long> timeouts = new LinkedHashMap<>();
+        timeouts.put("seconds", 1500L);
+        timeouts.put("minutes", Duration.ofMinutes(2).toMillis());
+        timeouts.put("hours", Duration.ofHours(3).toMillis());
+        timeouts.put("days", Duration.ofDays(3).toMillis());
+        timeouts.put("overflow", Duration.ofDays(10).toMillis());
+
+        Map<String, Long> expireAt = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : timeouts.entrySet()) {
+            cache.put(entry.getKey(), "1", entry.getValue());
+            expireAt.put(entry.getKey(), start + entry.getValue());
+        }
+        cache.put("forever", "1", 0);
+        return expireAt;
+    }
+
+    private int hotCount() {
+        int count = 0;
+        for (int i = 0; i < MAX_SIZE; i++) {
+            if (cache.region("hot" + i) != null) count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache.impl;
+
+import com.zhengshuyun.oktool.spring.boot.cache.CacheProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * 本地缓存持久化: 快照与日志恢复, 崩溃恢复, 目录锁
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class LocalCachePersistenceTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * 模拟缓存数据
+     */
+    private final Map<String, LocalCachePersistence.Entry> data = new ConcurrentHashMap<>();
+
+    private final List<LocalCachePersistence> started = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        started.forEach(LocalCachePersistence::shutdown);
+    }
+
+    @Test
+    void snapshotRoundTrip() {
+        LocalCachePersistence persistence = start(directory, new HashMap<>());
+        put("a", "1", 0);
+        data.put("b", new LocalCachePersistence.Entry("b", LocalCachePersistence.TYPE_LONG, new byte[]{0, 0, 0, 0, 0, 0, 0, 7}, 0));
+        put("c", "3", System.currentTimeMillis() + 60_000);
+        // 已过期的不写入快照
+        put("d", "4", System.currentTimeMillis() - 1);
+        // 停机写入最终快照
+        stop(persistence);
+
+        data.clear();
+        Map<String, LocalCachePersistence.Entry> restored = new HashMap<>();
+        start(directory, restored);
+        Assertions.assertEquals(Set.of("a", "b", "c"), restored.keySet());
+        Assertions.assertEquals("1", value(restored.get("a")));
+        Assertions.assertEquals(LocalCachePersistence.TYPE_LONG, restored.get("b").type());
+        Assertions.assertArrayEquals(new byte[]{0, 0, 0, 0, 0, 0, 0, 7}, restored.get("b").value());
+        Assertions.assertTrue(restored.get("c").expireAt() > System.currentTimeMillis());
+    }
+
+    @Test
+    void logReplayAfterSnapshot() throws Exception {
+        put("a", "1", 0);
+        put("b", "2", 0);
+        stop(start(directory, new HashMap<>()));
+
+        // 快照之后的变更只在日志中
+        LocalCachePersistence persistence = start(directory, new HashMap<>());
+        put("a", "10", 0);
+        persistence.markDirty("a");
+        data.remove("b");
+        persistence.markDirty("b");
+        put("c", "3", 0);
+        persistence.markDirty("c");
+        Thread.sleep(300);
+
+        // 进程崩溃: 没有停机快照, 只留下当时磁盘上的文件
+        Path crashed = copy(directory);
+        Map<String, LocalCachePersistence.Entry> restored = new HashMap<>();
+        start(crashed, restored);
+        Assertions.assertEquals(Set.of("a", "c"), restored.keySet());
+        Assertions.assertEquals("10", value(restored.get("a")));
+        Assertions.assertEquals("3", value(restored.get("c")));
+    }
+
+    @Test
+    void incompleteLogTail() throws Exception {
+        LocalCachePersistence persistence = start(directory, new HashMap<>());
+        put("a", "1", 0);
+        persistence.markDirty("a");
+        Thread.sleep(300);
+        put("b", "2", 0);
+        persistence.markDirty("b");
+        Thread.sleep(300);
+
+        // 最后一条记录只写了一半
+        Path crashed = copy(directory);
+        Path log;
+        try (Stream<Path> files = Files.list(crashed)) {
+            log = files.filter(path -> path.getFileName().toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        Map<String, LocalCachePersistence.Entry> restored = new HashMap<>();
+        start(crashed, restored);
+        Assertions.assertEquals(Set.of("a"), restored.keySet());
+        Assertions.assertEquals("1", value(restored.get("a")));
+    }
+
+    @Test
+    void directoryLocked() {
+        LocalCachePersistence persistence = start(directory, new HashMap<>());
+
+        LocalCachePersistence other = new LocalCachePersistence(properties(directory), source());
+        Assertions.assertThrows(IllegalStateException.class, () -> other.start(entry -> {
+        }));
+
+        // 释放后其他实例可以使用
+        stop(persistence);
+        start(directory, new HashMap<>());
+    }
+
+    private LocalCachePersistence start(Path path, Map<String, LocalCachePersistence.Entry> restored) {
+        LocalCachePersistence persistence = new LocalCachePersistence(properties(path), source());
+        persistence.start(entry -> {
+            // 按记录顺序重放, value为null表示删除
+            if (entry.value() == null) {
+                restored.remove(entry.key());
+            } else {
+                restored.put(entry.key(), entry);
+            }
+        });
+        started.add(persistence);
+        return persistence;
+    }
+
+    private void stop(LocalCachePersistence persistence) {
+        persistence.shutdown();
+        started.remove(persistence);
+    }
+
+    private void put(String key, String value, long expireAt) {
+        data.put(key, new LocalCachePersistence.Entry(key, LocalCachePersistence.TYPE_STRING,
+                value.getBytes(StandardCharsets.UTF_8), expireAt));
+    }
+
+    private LocalCachePersistence.Source source() {
+        return new LocalCachePersistence.Source() {
+            @Override
+            public LocalCachePersistence.Entry read(String key) {
+                return data.get(key);
+            }
+
+            @Override
+            public Iterator<LocalCachePersistence.Entry> entries() {
+                return data.values().iterator();
+            }
+        };
+    }
+
+    private static CacheProperties.Local.Persistence properties(Path path) {
+        CacheProperties.Local.Persistence persistence = new CacheProperties.Local.Persistence();
+        persistence.setEnabled(true);
+        persistence.setPath(path.toString());
+        persistence.setFlushInterval(Duration.ofMillis(20));
+        persistence.setSnapshotInterval(Duration.ofHours(1));
+        return persistence;
+    }
+
+    /**
+     * 复制持久化文件(不含锁文件)到新目录
+     */
+    private static Path copy(Path source) throws IOException {
+        Path target = Files.createDirectory(source.resolve("crashed"));
+        try (Stream<Path> files = Files.list(source)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (Files.isRegularFile(file) && !name.equals("lock")) {
+                    Files.copy(file, target.resolve(name));
+                }
+            }
+        }
+        return target;
+    }
+
+    private static String value(LocalCachePersistence.Entry entry) {
+        return new String(entry.value(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache.impl;
+
+import com.zhengshuyun.oktool.spring.boot.cache.CacheProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 堆外缓存: 线性探测删除, slab分配, CLOCK淘汰, 过期与内存不足
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class OffHeapCacheImplTest {
+
+    /**
+     * 单段, 页大小1KB, 索引初始容量1024
+     */
+    private static final int PAGE_SIZE = 1024;
+    private static final int INDEX_MASK = 1023;
+
+    private OffHeapCacheImpl cache;
+
+    @AfterEach
+    void tearDown() {
+        if (cache != null) cache.shutdown();
+    }
+
+    @Test
+    void backwardShiftDelete() {
+        cache = newCache(4);
+        List<String> keys = keysAt(100, 3);
+        String next = keysAt(101, 1).getFirst();
+        keys.forEach(key -> cache.put(key, key, 0));
+        // 理想位置101已被占用, 探测到104
+        cache.put(next, next, 0);
+
+        cache.delete(keys.getFirst());
+        Assertions.assertNull(cache.get(keys.getFirst()));
+        Assertions.assertEquals(keys.get(1), cache.get(keys.get(1)));
+        Assertions.assertEquals(keys.get(2), cache.get(keys.get(2)));
+        Assertions.assertEquals(next, cache.get(next));
+
+        cache.delete(keys.get(1));
+        Assertions.assertEquals(keys.get(2), cache.get(keys.get(2)));
+        Assertions.assertEquals(next, cache.get(next));
+        Assertions.assertEquals(2, cache.estimatedSize());
+    }
+
+    @Test
+    void backwardShiftDeleteWrapAround() {
+        cache = newCache(4);
+        // 理想位置在末尾, 探测回绕到索引开头
+        List<String> keys = keysAt(INDEX_MASK, 3);
+        String head = keysAt(0, 1).getFirst();
+        keys.forEach(key -> cache.put(key, key, 0));
+        cache.put(head, head, 0);
+
+        cache.delete(keys.getFirst());
+        for (String key : List.of(keys.get(1), keys.get(2), head)) {
+            Assertions.assertEquals(key, cache.get(key));
+        }
+
+        cache.delete(keys.get(2));
+        Assertions.assertEquals(keys.get(1), cache.get(keys.get(1)));
+        Assertions.assertEquals(head, cache.get(head));
+    }
+
+    @Test
+    void slabAllocation() {
+        cache = newCache(4);
+        // 24字节头 + 1字节key + 1字节value, 最小级别64字节
+        cache.put("a", "1", 0);
+        Assertions.assertEquals(64, cache.weightedSize());
+
+        // 24 + 1 + 60 = 85字节, 落在104字节级别
+        cache.put("b", "x".repeat(60), 0);
+        Assertions.assertEquals(64 + 104, cache.weightedSize());
+
+        // 同级覆盖原地写入, 不额外占用
+        cache.put("a", "2", 0);
+        Assertions.assertEquals(64 + 104, cache.weightedSize());
+        Assertions.assertEquals("2", cache.get("a"));
+
+        // 跨级覆盖释放原位置
+        cache.put("a", "y".repeat(60), 0);
+        Assertions.assertEquals(104 * 2, cache.weightedSize());
+        Assertions.assertEquals(2, cache.estimatedSize());
+
+        cache.delete("b");
+        Assertions.assertEquals(104, cache.weightedSize());
+
+        // 超过页大小的缓存项直接拒绝
+        Assertions.assertThrows(IllegalArgumentException.class, () -> cache.put("c", "x".repeat(PAGE_SIZE), 0));
+    }
+
+    @Test
+    void clockEviction() {
+        // 只有一页, 64字节级别最多16项
+        cache = newCache(1);
+        for (int i = 0; i < 16; i++) {
+            cache.put("k" + i, "1", 0);
+        }
+        Assertions.assertEquals(16, cache.estimatedSize());
+        Assertions.assertEquals(0, cache.evictionCount());
+
+        for (int i = 0; i < 8; i++) {
+            // 访问位为1的缓存项获得第二次机会
+            for (int j = 0; j < 8; j++) {
+                cache.get("k" + j);
+            }
+            cache.put("n" + i, "1", 0);
+        }
+
+        Assertions.assertEquals(8, cache.evictionCount());
+        Assertions.assertEquals(16, cache.estimatedSize());
+        for (int i = 0; i < 8; i++) {
+            Assertions.assertTrue(cache.containsKey("k" + i), "k" + i);
+        }
+    }
+
+    @Test
+    void expire() throws InterruptedException {
+        cache = newCache(4);
+        cache.put("a", "1", 20);
+        cache.put("b", "1", 20);
+        cache.put("c", "1", 0);
+        Thread.sleep(50);
+
+        // 访问时惰性删除
+        Assertions.assertNull(cache.get("a"));
+        Assertions.assertEquals(2, cache.estimatedSize());
+
+        // 后台扫描回收
+        cache.expireEntries();
+        Assertions.assertEquals(1, cache.estimatedSize());
+        Assertions.assertEquals(2, cache.expirationCount());
+        Assertions.assertEquals(64, cache.weightedSize());
+
+        // 自增保留原有过期时间
+        cache.put("d", "1", 20);
+        Assertions.assertEquals(3, cache.add("d", 2L));
+        Thread.sleep(50);
+        Assertions.assertNull(cache.get("d"));
+    }
+
+    @Test
+    void outOfMemory() {
+        // 只有一页, 首次写入后归属104字节级别
+        cache = newCache(1);
+        String counter = "0".repeat(59) + "1";
+        cache.put("c", counter, 0);
+
+        // 自增后落在64字节级别, 无法分配也无同级可淘汰: 抛出异常并保留原值
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.add("c", 1L));
+        Assertions.assertEquals(counter, cache.get("c"));
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.add("c", 1.5));
+        Assertions.assertEquals(counter, cache.get("c"));
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.add("new", 1L));
+        Assertions.assertNull(cache.get("new"));
+
+        // 普通写入被丢弃, 覆盖写入时删除旧值
+        cache.put("a", "1", 0);
+        Assertions.assertNull(cache.get("a"));
+        Assertions.assertFalse(cache.putIfAbsent("a", "1", 0));
+        cache.put("c", "1", 0);
+        Assertions.assertNull(cache.get("c"));
+        Assertions.assertEquals(0, cache.estimatedSize());
+    }
+
+    private static OffHeapCacheImpl newCache(int pages) {
+        CacheProperties.OffHeap offHeap = new CacheProperties.OffHeap();
+        offHeap.setSegments(1);
+        offHeap.setPageSize(DataSize.ofBytes(PAGE_SIZE));
+        offHeap.setMaxMemory(DataSize.ofBytes((long) PAGE_SIZE * pages));
+        return new OffHeapCacheImpl(offHeap);
+    }
+
+    /**
+     * 查找索引理想位置相同的key
+     */
+    private static List<String> keysAt(int slot, int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; keys.size() < count; i++) {
+            String key = "key" + i;
+            if ((OffHeapCacheImpl.hash(key) & INDEX_MASK) == slot) keys.add(key);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.cache.impl;
+
+import com.zhengshuyun.oktool.spring.boot.cache.CacheProperties;
+import com.zhengshuyun.oktool.spring.boot.cache.DistributedLock;
+import com.zhengshuyun.oktool.spring.boot.ratelimiter.EmbeddedRedis;
+import org.junit.jupiter.api.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * redis分布式锁: 互斥、公平队列、释放通知、看门狗续期、等待者过期(内嵌redis)
+ * <p>
+ * 每个工厂实例模拟一个节点, 同一节点内的线程由本地公平锁排队, 跨节点由redis排队
+ *
+ * @author Toint
+ * @since 2026/10/18
+ */
+public class RedisDistributedLockFactoryTest {
+
+    private static final Duration LEASE_TIME = Duration.ofSeconds(30);
+
+    /**
+     * 短租约, 用于观察续期和过期
+     */
+    private static final Duration SHORT_LEASE_TIME = Duration.ofMillis(300);
+
+    private static EmbeddedRedis redis;
+
+    private final List<RedisDistributedLockFactory> nodes = new ArrayList<>();
+
+    @BeforeAll
+    static void startRedis() {
+        try {
+            redis = EmbeddedRedis.start();
+        } catch (Exception e) {
+            Assumptions.abort("内嵌redis启动失败: " + e.getMessage());
+        }
+    }
+
+    @AfterAll
+    static void stopRedis() throws Exception {
+        if (redis != null) redis.close();
+    }
+
+    @BeforeEach
+    void reset() {
+        redis.reset();
+    }
+
+    @AfterEach
+    void stopNodes() throws Exception {
+        for (RedisDistributedLockFactory node : nodes) {
+            node.unsubscribe();
+        }
+        nodes.clear();
+    }
+
+    @Test
+    void mutualExclusion() {
+        DistributedLock first = newNode(LEASE_TIME).getLock("mutex");
+        DistributedLock second = newNode(LEASE_TIME).getLock("mutex");
+
+        Assertions.assertTrue(first.tryLock());
+        Assertions.assertFalse(second.tryLock());
+        first.unlock();
+        Assertions.assertTrue(second.tryLock());
+        second.unlock();
+    }
+
+    @Test
+    void mutualExclusionUnderConcurrency() throws Exception {
+        List<RedisDistributedLockFactory> factories = List.of(newNode(LEASE_TIME), newNode(LEASE_TIME));
+        int threads = 8;
+        int rounds = 20;
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                RedisDistributedLockFactory factory = factories.get(i % factories.size());
+                futures.add(pool.submit(() -> {
+                    for (int j = 0; j < rounds; j++) {
+                        DistributedLock lock = factory.getLock("mutex");
+                        lock.lock();
+                        try {
+                            maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                            Thread.sleep(1);
+                            completed.incrementAndGet();
+                            inside.decrementAndGet();
+                        } finally {
+                            lock.unlock();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        Assertions.assertEquals(1, maxInside.get());
+        Assertions.assertEquals(threads * rounds, completed.get());
+    }
+
+    /**
+     * 不同节点的等待者按到达顺序获取锁, 释放通知立即唤醒下一个等待者, 不必等到租约到期
+     */
+    @Test
+    void fifoOrdering() throws Exception {
+        DistributedLock holder = newNode(LEASE_TIME).getLock("fifo");
+        Assertions.assertTrue(holder.tryLock());
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        List<Future<Boolean>> futures = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 3; i++) {
+                DistributedLock lock = newNode(LEASE_TIME).getLock("fifo");
+                String waiter = "waiter-" + i;
+                futures.add(pool.submit(() -> {
+                    if (!lock.tryLock(Duration.ofSeconds(5))) return false;
+                    try {
+                        order.add(waiter);
+                    } finally {
+                        lock.unlock();
+                    }
+                    return true;
+                }));
+                // 上一个等待者进入队列后再启动下一个, 保证到达顺序
+                awaitQueueSize("fifo", i + 1);
+            }
+
+            long startNanos = System.nanoTime();
+            holder.unlock();
+            for (Future<Boolean> future : futures) {
+                Assertions.assertTrue(future.get(10, TimeUnit.SECONDS));
+            }
+            Assertions.assertTrue(System.nanoTime() - startNanos < TimeUnit.SECONDS.toNanos(2), "等待者未被释放通知唤醒");
+        }
+
+        Assertions.assertEquals(List.of("waiter-0", "waiter-1", "waiter-2"), order);
+        Assertions.assertEquals(0, queueSize("fifo"));
+    }
+
+    /**
+     * 看门狗续期, 持有时间远超租约时间后锁仍然有效
+     */
+    @Test
+    void leaseRenewal() throws InterruptedException {
+        DistributedLock first = newNode(SHORT_LEASE_TIME).getLock("renew");
+        DistributedLock second = newNode(SHORT_LEASE_TIME).getLock("renew");
+
+        first.lock();
+        try {
+            TimeUnit.MILLISECONDS.sleep(SHORT_LEASE_TIME.toMillis() * 4);
+            Assertions.assertFalse(second.tryLock());
+            Long ttl = redis.redisTemplate().getExpire(lockKey("renew"), TimeUnit.MILLISECONDS);
+            Assertions.assertTrue(ttl != null && ttl > 0, "租约未续期: " + ttl);
+        } finally {
+            first.unlock();
+        }
+
+        Assertions.assertTrue(second.tryLock());
+        second.unlock();
+    }
+
+    /**
+     * 指定租约时间时不续期, 到期后其他节点可以获取
+     */
+    @Test
+    void fixedLeaseExpires() throws InterruptedException {
+        DistributedLock first = newNode(LEASE_TIME).getLock("lease");
+        DistributedLock second = newNode(LEASE_TIME).getLock("lease");
+
+        Assertions.assertTrue(first.tryLock(Duration.ZERO, SHORT_LEASE_TIME));
+        Assertions.assertFalse(second.tryLock());
+
+        TimeUnit.MILLISECONDS.sleep(SHORT_LEASE_TIME.toMillis() * 2);
+        Assertions.assertTrue(second.tryLock());
+        second.unlock();
+        // 租约已过期, 解锁不会删除其他节点的锁, 只释放本地状态
+        first.unlock();
+        Assertions.assertFalse(first.isHeldByCurrentThread());
+    }
+
+    /**
+     * 宕机的等待者停止刷新存活时间, 到期后被移出队列, 不再阻塞后来者
+     */
+    @Test
+    void abandonedWaiterExpires() throws InterruptedException {
+        String abandoned = "crashed-node:1";
+        redis.redisTemplate().opsForZSet().add(lockKey("abandoned") + ":queue", abandoned, 0);
+        redis.redisTemplate().opsForZSet().add(lockKey("abandoned") + ":waiters", abandoned, System.currentTimeMillis() + 300);
+
+        DistributedLock lock = newNode(LEASE_TIME).getLock("abandoned");
+        // 锁空闲, 但队首是其他等待者, 不能插队
+        Assertions.assertFalse(lock.tryLock());
+
+        TimeUnit.MILLISECONDS.sleep(500);
+        Assertions.assertTrue(lock.tryLock());
+        lock.unlock();
+        Assertions.assertEquals(0, queueSize("abandoned"));
+    }
+
+    private RedisDistributedLockFactory newNode(Duration leaseTime) {
+        CacheProperties.Lock lock = new CacheProperties.Lock();
+        lock.setLeaseTime(leaseTime);
+        RedisDistributedLockFactory factory = new RedisDistributedLockFactory(lock);
+        ReflectionTestUtils.setField(factory, "stringRedisTemplate", redis.redisTemplate());
+        factory.subscribe();
+        nodes.add(factory);
+        return factory;
+    }
+
+    private static void awaitQueueSize(String name, long size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (queueSize(name) < size) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "等待者未进入队列: " + name);
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+    private static long queueSize(String name) {
+        Long size = redis.redisTemplate().opsForZSet().zCard(lockKey(name) + ":queue");
+        return size == null ? 0 : size;
+    }
+
+    private static String lockKey(String name) {
+        return "lock:{" + name + "}";
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * 自适应隔离舱
+ *
+ * @author Toint
+ * @since 2026/10/18
+ */
+public class AdaptiveBulkheadTest {
+
+    @Test
+    void dropLowersLimit() {
+        AdaptiveBulkhead bulkhead = new AdaptiveBulkhead("test", new AimdLimit(10, 1, 20, Duration.ofSeconds(1), 0.5));
+        try (Bulkhead.Permit permit = bulkhead.acquire()) {
+            permit.drop();
+        }
+        Assertions.assertEquals(5, bulkhead.getMaxConcurrent());
+        Assertions.assertEquals(5, bulkhead.availablePermits());
+    }
+
+    @Test
+    void overloadExceptionLowersLimit() {
+        AdaptiveBulkhead bulkhead = new AdaptiveBulkhead("test", new AimdLimit(10, 1, 20, Duration.ofSeconds(1), 0.5));
+        Assertions.assertThrows(RuntimeException.class, () -> bulkhead.run(() -> {
+            throw new RuntimeException(new IOException("connection reset"));
+        }));
+        Assertions.assertEquals(5, bulkhead.getMaxConcurrent());
+
+        // 业务异常不代表下游过载, 上限不变
+        Assertions.assertThrows(IllegalArgumentException.class, () -> bulkhead.run(() -> {
+            throw new IllegalArgumentException("参数错误");
+        }));
+        Assertions.assertEquals(5, bulkhead.getMaxConcurrent());
+    }
+
+    @Test
+    void rejectOverLimit() {
+        AdaptiveBulkhead bulkhead = new AdaptiveBulkhead("test", new AimdLimit(1, 1, 1, Duration.ofSeconds(1)));
+        try (Bulkhead.Permit ignored = bulkhead.acquire()) {
+            Assertions.assertNull(bulkhead.tryAcquire());
+            Assertions.assertThrows(BulkheadFullException.class, bulkhead::acquire);
+        }
+        Assertions.assertEquals(1, bulkhead.availablePermits());
+    }
+}
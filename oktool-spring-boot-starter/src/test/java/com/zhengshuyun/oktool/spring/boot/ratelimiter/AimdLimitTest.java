@@ -0,0 +1,73 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+/**
+ * 加性增、乘性减并发上限
+ *
+ * @author Toint
+ * @since 2026/10/18
+ */
+public class AimdLimitTest {
+
+    private static final long RTT = Duration.ofMillis(10).toNanos();
+
+    @Test
+    void increase() {
+        AimdLimit limit = new AimdLimit(10, 1, 20, Duration.ofSeconds(1));
+        Assertions.assertEquals(11, limit.update(RTT, 10, false));
+        Assertions.assertEquals(12, limit.update(RTT, 11, false));
+    }
+
+    @Test
+    void notIncreaseWhenUnderused() {
+        // 并发不到上限的一半, 不增长
+        AimdLimit limit = new AimdLimit(10, 1, 20, Duration.ofSeconds(1));
+        Assertions.assertEquals(10, limit.update(RTT, 4, false));
+    }
+
+    @Test
+    void decreaseOnDrop() {
+        AimdLimit limit = new AimdLimit(10, 1, 20, Duration.ofSeconds(1), 0.5);
+        Assertions.assertEquals(5, limit.update(RTT, 10, true));
+    }
+
+    @Test
+    void decreaseOnTimeout() {
+        AimdLimit limit = new AimdLimit(10, 1, 20, Duration.ofSeconds(1), 0.5);
+        Assertions.assertEquals(5, limit.update(Duration.ofSeconds(2).toNanos(), 10, false));
+    }
+
+    @Test
+    void bounds() {
+        AimdLimit limit = new AimdLimit(10, 3, 15, Duration.ofSeconds(1));
+        for (int i = 0; i < 100; i++) {
+            limit.update(RTT, limit.getLimit(), false);
+        }
+        Assertions.assertEquals(15, limit.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            limit.update(RTT, limit.getLimit(), true);
+        }
+        Assertions.assertEquals(3, limit.getLimit());
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+/**
+ * 基于耗时梯度的并发上限
+ *
+ * @author Toint
+ * @since 2026/10/18
+ */
+public class GradientLimitTest {
+
+    private static final long RTT = Duration.ofMillis(10).toNanos();
+
+    @Test
+    void increase() {
+        GradientLimit limit = limit(10, 1, 100);
+        for (int i = 0; i < 20; i++) {
+            limit.update(RTT, limit.getLimit(), false);
+        }
+        Assertions.assertTrue(limit.getLimit() > 10, limit.toString());
+    }
+
+    @Test
+    void notIncreaseWhenUnderused() {
+        // 并发不到上限的一半, 耗时不变时保持不变
+        GradientLimit limit = limit(10, 1, 100);
+        for (int i = 0; i < 20; i++) {
+            limit.update(RTT, 1, false);
+        }
+        Assertions.assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void decreaseOnDrop() {
+        GradientLimit limit = limit(10, 1, 100);
+        limit.update(RTT, 10, false);
+        int before = limit.getLimit();
+
+        // 失败按最小梯度收缩, 平滑后每次变化不足1, 连续失败后低于原上限
+        for (int i = 0; i < 3; i++) {
+            int previous = limit.getLimit();
+            Assertions.assertTrue(limit.update(RTT, limit.getLimit(), true) <= previous, limit.toString());
+        }
+        Assertions.assertTrue(limit.getLimit() < before, limit.toString());
+    }
+
+    @Test
+    void decreaseWhenRttRises() {
+        GradientLimit limit = limit(10, 1, 100);
+        // 首次调用确定基准耗时
+        limit.update(RTT, 10, false);
+
+        // 耗时升到基准的10倍, 请求开始在下游排队
+        for (int i = 0; i < 30; i++) {
+            limit.update(RTT * 10, limit.getLimit(), false);
+        }
+        Assertions.assertTrue(limit.getLimit() < 10, limit.toString());
+    }
+
+    @Test
+    void bounds() {
+        GradientLimit limit = limit(10, 5, 15);
+        for (int i = 0; i < 100; i++) {
+            limit.update(RTT, limit.getLimit(), false);
+        }
+        Assertions.assertEquals(15, limit.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            limit.update(RTT, limit.getLimit(), true);
+        }
+        Assertions.assertEquals(5, limit.getLimit());
+    }
+
+    /**
+     * 探测周期远大于测试耗时, 测试期间不重置基准
+     */
+    private static GradientLimit limit(int initialLimit, int minLimit, int maxLimit) {
+        return new GradientLimit(initialLimit, minLimit, maxLimit, 1.5, 0.2, Duration.ofHours(1));
+    }
+}
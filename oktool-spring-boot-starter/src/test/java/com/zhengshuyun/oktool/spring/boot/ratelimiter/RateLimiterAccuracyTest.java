@@ -0,0 +1,250 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import cn.hutool.v7.core.thread.ratelimiter.RateLimiter;
+import cn.hutool.v7.core.thread.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 限流脚本在并发下的准确性与吞吐(内嵌redis)
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class RateLimiterAccuracyTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimiterAccuracyTest.class);
+
+    /**
+     * 每秒50个令牌, 桶容量(窗口限额)50
+     */
+    private static final int RATE = 50;
+
+    private static final int THREADS = 32;
+    private static final Duration DURATION = Duration.ofMillis(2500);
+
+    /**
+     * 固定次数并发时每个线程的尝试次数, 总尝试数远大于限额
+     */
+    private static final int ATTEMPTS_PER_THREAD = 50;
+
+    private static EmbeddedRedis redis;
+
+    @BeforeAll
+    static void startRedis() {
+        try {
+            redis = EmbeddedRedis.start();
+        } catch (Exception e) {
+            Assumptions.abort("内嵌redis启动失败: " + e.getMessage());
+        }
+    }
+
+    @AfterAll
+    static void stopRedis() throws Exception {
+        if (redis != null) redis.close();
+    }
+
+    @BeforeEach
+    void reset() {
+        redis.reset();
+    }
+
+    /**
+     * 补充周期(1小时)远大于测试耗时, 测试期间补充不足1个令牌, 每种算法放行数应恰好等于容量
+     */
+    @Test
+    void exactUnderConcurrency() throws Exception {
+        RateLimiterConfig config = RateLimiterConfig.of(Duration.ZERO, Duration.ofHours(1), RATE, RATE);
+        for (RateLimiterAlgorithm algorithm : RateLimiterAlgorithm.values()) {
+            RateLimiter limiter = algorithm.create(redis.redisTemplate(), config, "exact-" + algorithm);
+            try {
+                AtomicLong granted = new AtomicLong();
+                repeat(() -> {
+                    if (limiter.tryAcquire(1)) granted.incrementAndGet();
+                });
+                Assertions.assertEquals(RATE, granted.get(), algorithm.toString());
+            } finally {
+                if (limiter instanceof RedisLeasedTokenBucketRateLimiter leased) leased.release();
+            }
+        }
+    }
+
+    /**
+     * 依赖机器负载, 默认不执行, 见pom中的excludedGroups
+     */
+    @Test
+    @Tag("benchmark")
+    void accuracyUnderConcurrency() throws Exception {
+        RateLimiterConfig config = RateLimiterConfig.of(Duration.ZERO, Duration.ofSeconds(1), RATE, RATE);
+        for (RateLimiterAlgorithm algorithm : RateLimiterAlgorithm.values()) {
+            RateLimiter limiter = algorithm.create(redis.redisTemplate(), config, "accuracy-" + algorithm);
+            try {
+                AtomicLong granted = new AtomicLong();
+                AtomicLong attempts = new AtomicLong();
+                long elapsedNanos = hammer(() -> {
+                    attempts.incrementAndGet();
+                    if (limiter.tryAcquire(1)) granted.incrementAndGet();
+                });
+
+                // 满桶 + 按速率补充; 滑动窗口每个完整窗口放行一次限额, 不超过同一上限
+                // 少发取决于线程调度和redis延迟, 只断言不超发, 至少放行初始满桶
+                double seconds = elapsedNanos / 1e9;
+                long upper = (long) Math.ceil(RATE + RATE * seconds);
+                log.info("{} granted: {}, upper: {}, attempts: {}, {} ops/s", algorithm,
+                        granted.get(), upper, attempts.get(), (long) (attempts.get() / seconds));
+
+                Assertions.assertTrue(granted.get() <= upper, algorithm + " 超发: " + granted.get() + " > " + upper);
+                Assertions.assertTrue(granted.get() >= RATE, algorithm + " 少发: " + granted.get() + " < " + RATE);
+            } finally {
+                if (limiter instanceof RedisLeasedTokenBucketRateLimiter leased) leased.release();
+            }
+        }
+    }
+
+    @Test
+    void availablePermits() {
+        RateLimiterConfig config = RateLimiterConfig.of(Duration.ZERO, Duration.ofSeconds(100), 100, 100);
+        for (RateLimiterAlgorithm algorithm : RateLimiterAlgorithm.values()) {
+            RateLimiter limiter = algorithm.create(redis.redisTemplate(), config, "available-" + algorithm);
+            Assertions.assertEquals(100, availablePermits(limiter), algorithm.toString());
+
+            Assertions.assertTrue(limiter.tryAcquire(30));
+            // 每秒补充1个, 查询不消耗
+            int available = availablePermits(limiter);
+            Assertions.assertTrue(available >= 70 && available <= 71, algorithm + " available: " + available);
+            Assertions.assertEquals(available, availablePermits(limiter), algorithm.toString());
+
+            if (limiter instanceof RedisLeasedTokenBucketRateLimiter leased) leased.release();
+        }
+    }
+
+    @Test
+    void metrics() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        MeteredRateLimiterListener listener = new MeteredRateLimiterListener(registry);
+
+        RateLimiterConfig config = RateLimiterConfig.of(Duration.ZERO, Duration.ofSeconds(100), 10, 10);
+        RedisTokenBucketRateLimiter limiter = new RedisTokenBucketRateLimiter(redis.redisTemplate(), config, "metrics");
+        listener.bind(limiter);
+
+        for (int i = 0; i < 15; i++) {
+            limiter.tryAcquire(1);
+        }
+
+        Assertions.assertEquals(10, registry.get("oktool.ratelimiter.requests").tags("name", "metrics", "result", "granted").counter().count());
+        Assertions.assertEquals(5, registry.get("oktool.ratelimiter.requests").tags("name", "metrics", "result", "rejected").counter().count());
+        Assertions.assertEquals(15, registry.get("oktool.ratelimiter.script").tag("name", "metrics").timer().count());
+        Assertions.assertEquals(0, registry.get("oktool.ratelimiter.available").tag("name", "metrics").gauge().value());
+    }
+
+    @Test
+    void leasedMetrics() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        MeteredRateLimiterListener listener = new MeteredRateLimiterListener(registry);
+
+        // 每次租借5个: 第1和第6次请求租借, 之后每次租借失败
+        RateLimiterConfig config = RateLimiterConfig.of(Duration.ZERO, Duration.ofSeconds(100), 10, 10);
+        RedisLeasedTokenBucketRateLimiter limiter = new RedisLeasedTokenBucketRateLimiter(redis.redisTemplate(), config,
+                "leased-metrics", 5, Duration.ofSeconds(10));
+        listener.bind(limiter);
+
+        for (int i = 0; i < 15; i++) {
+            limiter.tryAcquire(1);
+        }
+
+        Assertions.assertEquals(10, registry.get("oktool.ratelimiter.requests").tags("name", "leased-metrics", "result", "granted").counter().count());
+        Assertions.assertEquals(5, registry.get("oktool.ratelimiter.requests").tags("name", "leased-metrics", "result", "rejected").counter().count());
+        Assertions.assertEquals(7, registry.get("oktool.ratelimiter.script").tag("name", "leased-metrics").timer().count());
+        Assertions.assertEquals(0, registry.get("oktool.ratelimiter.available").tag("name", "leased-metrics").gauge().value());
+        limiter.release();
+    }
+
+    private static int availablePermits(RateLimiter limiter) {
+        return ((RedisRateLimiter) limiter).availablePermits();
+    }
+
+    /**
+     * 多线程同时开始, 每个线程执行固定次数
+     */
+    private static void repeat(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < ATTEMPTS_PER_THREAD; j++) {
+                        task.run();
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 多线程在固定时长内反复执行
+     *
+     * @return 实际耗时(ns)
+     */
+    private static long hammer(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            long[] startedAt = new long[1];
+            long deadlineNanos = DURATION.toNanos();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    while (System.nanoTime() - startedAt[0] < deadlineNanos) {
+                        task.run();
+                    }
+                    return null;
+                }));
+            }
+
+            startedAt[0] = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - startedAt[0];
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2025 Toint (599818663@qq.com)
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.zhengshuyun.oktool.spring.boot.ratelimiter;
+
+import cn.hutool.v7.core.thread.ratelimiter.RateLimiter;
+import cn.hutool.v7.core.thread.ratelimiter.RateLimiterConfig;
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * 限流脚本延迟基准(内嵌redis)
+ *
+ * @author Toint
+ * @since 2026/10/17
+ */
+public class RateLimiterBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimiterBenchmarkTest.class);
+
+    private static final int WARMUP = 2000;
+    private static final int ITERATIONS = 20000;
+
+    private static EmbeddedRedis redis;
+
+    @BeforeAll
+    static void startRedis() {
+        try {
+            redis = EmbeddedRedis.start();
+        } catch (Exception e) {
+            Assumptions.abort("内嵌redis启动失败: " + e.getMessage());
+        }
+    }
+
+    @AfterAll
+    static void stopRedis() throws Exception {
+        if (redis != null) redis.close();
+    }
+
+    @BeforeEach
+    void reset() {
+        redis.reset();
+    }
+
+    /**
+     * 只记录延迟分布, 默认不执行, 见pom中的excludedGroups
+     */
+    @Test
+    @Tag("benchmark")
+    void latency() {
+        // 容量足够大, 只测量放行路径
+        RateLimiterConfig config = RateLimiterConfig.of(Duration.ZERO, Duration.ofSeconds(1), 1_000_000, 1_000_000);
+        for (RateLimiterAlgorithm algorithm : RateLimiterAlgorithm.values()) {
+            RateLimiter limiter = algorithm.create(redis.redisTemplate(), config, "benchmark-" + algorithm);
+            for (int i = 0; i < WARMUP; i++) {
+                limiter.tryAcquire(1);
+            }
+
+            long[] nanos = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                Assertions.assertTrue(limiter.tryAcquire(1));
+                nanos[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(nanos);
+            log.info("{} avg: {}us, p50: {}us, p99: {}us, p999: {}us", algorithm,
+                    (long) Arrays.stream(nanos).average().orElse(0) / 1000,
+                    nanos[ITERATIONS / 2] / 1000,
+                    nanos[ITERATIONS * 99 / 100] / 1000,
+                    nanos[ITERATIONS * 999 / 1000] / 1000);
+        }
+    }
+
+    @Test
+    void scriptCacheFlushed() {
+        RateLimiterConfig config = RateLimiterConfig.of(Duration.ZERO, Duration.ofSeconds(1), 10, 10);
+        for (RateLimiterAlgorithm algorithm : RateLimiterAlgorithm.values()) {
+            RateLimiter limiter = algorithm.create(redis.redisTemplate(), config, "flush-" + algorithm);
+            Assertions.assertTrue(limiter.tryAcquire(1));
+
+            // 服务端脚本缓存被清空后, EVALSHA返回NOSCRIPT, 应自动改用EVAL
+            redis.reset();
+            Assertions.assertTrue(limiter.tryAcquire(1));
+        }
+    }
+}